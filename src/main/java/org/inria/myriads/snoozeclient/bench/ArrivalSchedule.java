@@ -0,0 +1,97 @@
+/**
+ * Copyright (C) 2010-2013 Eugen Feller, INRIA <eugen.feller@inria.fr>
+ *
+ * This file is part of Snooze, a scalable, autonomic, and
+ * energy-aware virtual machine (VM) management framework.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package org.inria.myriads.snoozeclient.bench;
+
+import java.util.Random;
+
+import org.inria.myriads.snoozecommon.guard.Guard;
+
+/**
+ * Arrival schedule of the benchmark submissions.
+ * 
+ * @author Eugen Feller
+ */
+public final class ArrivalSchedule 
+{
+    /** Hide constructor. */
+    private ArrivalSchedule()
+    {
+        throw new UnsupportedOperationException();
+    }
+    
+    /**
+     * Generates the arrival times of the submissions.
+     * 
+     * All processes have the configured mean rate, except the ramp whose rate grows 
+     * linearly from the rate to the peak rate.
+     * 
+     * @param settings  The benchmark settings
+     * @return          The arrival times (ms since the benchmark start), ascending
+     */
+    public static long[] generate(BenchmarkSettings settings)
+    {
+        Guard.check(settings);
+        int numberOfSubmissions = settings.getNumberOfSubmissions();
+        double rate = settings.getRate();
+        long[] arrivals = new long[numberOfSubmissions];
+        double time = 0;
+        switch (settings.getArrivalProcess())
+        {
+            case constant :
+                for (int i = 0; i < numberOfSubmissions; i++)
+                {
+                    arrivals[i] = Math.round(i * 1000 / rate);
+                }
+                break;
+                
+            case poisson :
+                Random random = settings.getSeed() == 0 ? new Random() : new Random(settings.getSeed());
+                for (int i = 0; i < numberOfSubmissions; i++)
+                {
+                    arrivals[i] = Math.round(time);
+                    time += -Math.log(1 - random.nextDouble()) * 1000 / rate;
+                }
+                break;
+                
+            case ramp :
+                double step = numberOfSubmissions > 1 ? (settings.getPeakRate() - rate) / (numberOfSubmissions - 1) : 0;
+                for (int i = 0; i < numberOfSubmissions; i++)
+                {
+                    arrivals[i] = Math.round(time);
+                    time += 1000 / (rate + step * i);
+                }
+                break;
+                
+            case burst :
+                int burstSize = Math.max(1, settings.getBurstSize());
+                for (int i = 0; i < numberOfSubmissions; i++)
+                {
+                    arrivals[i] = Math.round((i / burstSize) * burstSize * 1000 / rate);
+                }
+                break;
+                
+            default :
+                throw new IllegalArgumentException(String.format("Unknown arrival process: %s", 
+                                                                 settings.getArrivalProcess()));
+        }
+        
+        return arrivals;
+    }
+}
@@ -0,0 +1,239 @@
+/**
+ * Copyright (C) 2010-2013 Eugen Feller, INRIA <eugen.feller@inria.fr>
+ *
+ * This file is part of Snooze, a scalable, autonomic, and
+ * energy-aware virtual machine (VM) management framework.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package org.inria.myriads.snoozeclient.bench;
+
+import java.util.List;
+
+import org.inria.myriads.snoozeclient.bench.enums.ArrivalProcess;
+
+/**
+ * Benchmark settings.
+ * 
+ * @author Eugen Feller
+ */
+public final class BenchmarkSettings 
+{
+    /** Template virtual clusters. */
+    private List<String> virtualClusterNames_;
+    
+    /** Arrival process. */
+    private ArrivalProcess arrivalProcess_ = ArrivalProcess.constant;
+    
+    /** Arrival rate (submissions/s). */
+    private double rate_ = 1;
+    
+    /** Final arrival rate of the ramp (submissions/s). */
+    private double peakRate_;
+    
+    /** Number of simultaneous submissions of a burst. */
+    private int burstSize_ = 10;
+    
+    /** Number of submissions. */
+    private int numberOfSubmissions_ = 10;
+    
+    /** Maximum number of concurrent submissions (0 = one per submission). */
+    private int numberOfThreads_;
+    
+    /** Random seed of the poisson process. */
+    private long seed_;
+    
+    /** Defines if the started virtual machines are destroyed at the end. */
+    private boolean isDestroy_;
+
+    /**
+     * Returns the template virtual clusters.
+     * 
+     * @return  The virtual cluster names
+     */
+    public List<String> getVirtualClusterNames() 
+    {
+        return virtualClusterNames_;
+    }
+
+    /**
+     * Sets the template virtual clusters.
+     * 
+     * @param virtualClusterNames   The virtual cluster names
+     */
+    public void setVirtualClusterNames(List<String> virtualClusterNames) 
+    {
+        virtualClusterNames_ = virtualClusterNames;
+    }
+
+    /**
+     * Returns the arrival process.
+     * 
+     * @return  The arrival process
+     */
+    public ArrivalProcess getArrivalProcess() 
+    {
+        return arrivalProcess_;
+    }
+
+    /**
+     * Sets the arrival process.
+     * 
+     * @param arrivalProcess    The arrival process
+     */
+    public void setArrivalProcess(ArrivalProcess arrivalProcess) 
+    {
+        arrivalProcess_ = arrivalProcess;
+    }
+
+    /**
+     * Returns the arrival rate.
+     * 
+     * @return  The arrival rate (submissions/s)
+     */
+    public double getRate() 
+    {
+        return rate_;
+    }
+
+    /**
+     * Sets the arrival rate.
+     * 
+     * @param rate  The arrival rate (submissions/s)
+     */
+    public void setRate(double rate) 
+    {
+        rate_ = rate;
+    }
+
+    /**
+     * Returns the final arrival rate of the ramp.
+     * 
+     * @return  The peak rate (submissions/s)
+     */
+    public double getPeakRate() 
+    {
+        return peakRate_;
+    }
+
+    /**
+     * Sets the final arrival rate of the ramp.
+     * 
+     * @param peakRate  The peak rate (submissions/s)
+     */
+    public void setPeakRate(double peakRate) 
+    {
+        peakRate_ = peakRate;
+    }
+
+    /**
+     * Returns the burst size.
+     * 
+     * @return  The number of simultaneous submissions of a burst
+     */
+    public int getBurstSize() 
+    {
+        return burstSize_;
+    }
+
+    /**
+     * Sets the burst size.
+     * 
+     * @param burstSize     The number of simultaneous submissions of a burst
+     */
+    public void setBurstSize(int burstSize) 
+    {
+        burstSize_ = burstSize;
+    }
+
+    /**
+     * Returns the number of submissions.
+     * 
+     * @return  The number of submissions
+     */
+    public int getNumberOfSubmissions() 
+    {
+        return numberOfSubmissions_;
+    }
+
+    /**
+     * Sets the number of submissions.
+     * 
+     * @param numberOfSubmissions   The number of submissions
+     */
+    public void setNumberOfSubmissions(int numberOfSubmissions) 
+    {
+        numberOfSubmissions_ = numberOfSubmissions;
+    }
+
+    /**
+     * Returns the maximum number of concurrent submissions.
+     * 
+     * @return  The number of threads, 0 for the number of command threads
+     */
+    public int getNumberOfThreads() 
+    {
+        return numberOfThreads_;
+    }
+
+    /**
+     * Sets the maximum number of concurrent submissions.
+     * 
+     * @param numberOfThreads   The number of threads, 0 for the number of command threads
+     */
+    public void setNumberOfThreads(int numberOfThreads) 
+    {
+        numberOfThreads_ = numberOfThreads;
+    }
+
+    /**
+     * Returns the random seed.
+     * 
+     * @return  The seed
+     */
+    public long getSeed() 
+    {
+        return seed_;
+    }
+
+    /**
+     * Sets the random seed.
+     * 
+     * @param seed  The seed
+     */
+    public void setSeed(long seed) 
+    {
+        seed_ = seed;
+    }
+
+    /**
+     * Checks if the started virtual machines are destroyed at the end.
+     * 
+     * @return  true if destroyed, false otherwise
+     */
+    public boolean isDestroy() 
+    {
+        return isDestroy_;
+    }
+
+    /**
+     * Sets the teardown flag.
+     * 
+     * @param isDestroy     true if destroyed, false otherwise
+     */
+    public void setDestroy(boolean isDestroy) 
+    {
+        isDestroy_ = isDestroy;
+    }
+}
@@ -0,0 +1,422 @@
+/**
+ * Copyright (C) 2010-2013 Eugen Feller, INRIA <eugen.feller@inria.fr>
+ *
+ * This file is part of Snooze, a scalable, autonomic, and
+ * energy-aware virtual machine (VM) management framework.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package org.inria.myriads.snoozeclient.bench;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.inria.myriads.snoozeclient.configurator.api.ClientConfiguration;
+import org.inria.myriads.snoozeclient.parser.commands.ClientCommand;
+import org.inria.myriads.snoozeclient.resourcecontrol.GroupManagerBatch;
+import org.inria.myriads.snoozeclient.resourcecontrol.SubmissionTask;
+import org.inria.myriads.snoozeclient.resourcecontrol.VirtualClusterControl;
+import org.inria.myriads.snoozeclient.statistics.histogram.LatencyHistogram;
+import org.inria.myriads.snoozeclient.statistics.results.SubmissionResults;
+import org.inria.myriads.snoozeclient.statistics.util.SubmissionResultsUtils;
+import org.inria.myriads.snoozecommon.communication.virtualcluster.VirtualMachineMetaData;
+import org.inria.myriads.snoozecommon.communication.virtualcluster.submission.VirtualClusterSubmissionRequest;
+import org.inria.myriads.snoozecommon.communication.virtualcluster.submission.VirtualClusterSubmissionResponse;
+import org.inria.myriads.snoozecommon.communication.virtualcluster.submission.VirtualMachineTemplate;
+import org.inria.myriads.snoozecommon.guard.Guard;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Submission benchmark.
+ * 
+ * Submits copies of template virtual clusters according to an arrival process, each submission 
+ * runs its own start flow. The virtual machines of a copy are renamed with the run identifier 
+ * and the submission number, several copies can thus run side by side.
+ * 
+ * The time to response is measured from the scheduled arrival, a saturated client thus shows 
+ * up in the latencies instead of silently lowering the arrival rate.
+ * 
+ * Only the virtual machines of the received responses are known to the benchmark and can be 
+ * torn down. Virtual machines of submissions without response (e.g. timed out while the group 
+ * leader was still placing them) are left behind and must be destroyed by hand.
+ * 
+ * @author Eugen Feller
+ */
+public final class SubmissionBenchmark 
+{
+    /** Define the logger. */
+    private static final Logger log_ = LoggerFactory.getLogger(SubmissionBenchmark.class);
+    
+    /** Client configuration. */
+    private ClientConfiguration clientConfiguration_;
+    
+    /** Benchmark settings. */
+    private BenchmarkSettings settings_;
+    
+    /** Template submission requests. */
+    private List<VirtualClusterSubmissionRequest> templates_;
+    
+    /** Run identifier. */
+    private String runIdentifier_;
+    
+    /** Times to response from the scheduled arrival (ms). */
+    private LatencyHistogram latencies_;
+    
+    /** Virtual machines of the received responses. */
+    private List<VirtualMachineMetaData> virtualMachines_;
+    
+    /** Number of submissions without response. */
+    private int numberOfFailedSubmissions_;
+    
+    /** Number of submitted virtual machines. */
+    private int numberOfVirtualMachines_;
+    
+    /** Number of failed allocations. */
+    private int numberOfFailedVirtualMachines_;
+    
+    /**
+     * Constructor.
+     * 
+     * @param clientConfiguration   The client configuration
+     * @param settings              The benchmark settings
+     * @param templates             The template submission requests
+     */
+    public SubmissionBenchmark(ClientConfiguration clientConfiguration, 
+                               BenchmarkSettings settings,
+                               List<VirtualClusterSubmissionRequest> templates) 
+    {
+        Guard.check(clientConfiguration, settings, templates);
+        clientConfiguration_ = clientConfiguration;
+        settings_ = settings;
+        templates_ = templates;
+        runIdentifier_ = "b" + Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+        latencies_ = new LatencyHistogram();
+        virtualMachines_ = new ArrayList<VirtualMachineMetaData>();
+    }
+    
+    /**
+     * Runs the benchmark.
+     * 
+     * Returns once every submission received its response or timed out.
+     * 
+     * @throws InterruptedException     The exception
+     */
+    public void run() 
+        throws InterruptedException
+    {
+        long[] arrivals = ArrivalSchedule.generate(settings_);
+        int numberOfThreads = settings_.getNumberOfThreads() > 0 ? 
+                              settings_.getNumberOfThreads() : 
+                              clientConfiguration_.getGeneralSettings().getNumberOfCommandThreads();
+        log_.info(String.format("Starting benchmark %s: %d submissions, %s arrivals, %d threads", 
+                                runIdentifier_, arrivals.length, settings_.getArrivalProcess(), numberOfThreads));
+        
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, numberOfThreads));
+        long benchmarkStart = System.currentTimeMillis();
+        try
+        {
+            for (int i = 0; i < arrivals.length; i++)
+            {
+                final long arrivalTime = benchmarkStart + arrivals[i];
+                long waitTime = arrivalTime - System.currentTimeMillis();
+                if (waitTime > 0)
+                {
+                    Thread.sleep(waitTime);
+                }
+                
+                final VirtualClusterSubmissionRequest submissionRequest = createSubmissionRequest(i);
+                executor.execute(new Runnable()
+                {
+                    public void run()
+                    {
+                        submit(submissionRequest, arrivalTime);
+                    }
+                });
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+        
+        executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        logSummary(System.currentTimeMillis() - benchmarkStart);
+    }
+    
+    /**
+     * Destroys the virtual machines of the received responses.
+     * 
+     * Each virtual machine is only destroyed once, the teardown can thus run again (e.g. from a 
+     * shutdown hook) for the responses received in the meantime.
+     * 
+     * @return                          The number of destroyed virtual machines
+     * @throws InterruptedException     The exception
+     */
+    public int tearDown() 
+        throws InterruptedException
+    {
+        List<GroupManagerBatch> batches;
+        synchronized (this)
+        {
+            batches = VirtualClusterControl.groupByGroupManager(virtualMachines_);
+            virtualMachines_.clear();
+            if (numberOfFailedSubmissions_ > 0)
+            {
+                log_.warn(String.format("Benchmark %s: the virtual machines of %d submissions without response " +
+                                        "are not destroyed", runIdentifier_, numberOfFailedSubmissions_));
+            }
+        }
+        
+        if (batches.isEmpty())
+        {
+            return 0;
+        }
+        
+        int numberOfThreads = Math.min(batches.size(), 
+                                       clientConfiguration_.getGeneralSettings().getNumberOfCommandThreads());
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, numberOfThreads));
+        List<Future<Integer>> futures = new ArrayList<Future<Integer>>();
+        for (final GroupManagerBatch batch : batches)
+        {
+            futures.add(executor.submit(new Callable<Integer>()
+            {
+                public Integer call()
+                {
+                    VirtualClusterControl control = 
+                        new VirtualClusterControl(clientConfiguration_, batch.getGroupManagerAddress());
+                    Map<String, Boolean> results = control.executeBatch(ClientCommand.DESTROY, batch.getLocations());
+                    int numberOfDestroyed = 0;
+                    for (Map.Entry<String, Boolean> result : results.entrySet())
+                    {
+                        if (result.getValue())
+                        {
+                            numberOfDestroyed++;
+                        } else
+                        {
+                            log_.error(String.format("Unable to destroy virtual machine %s", result.getKey()));
+                        }
+                    }
+                    
+                    return numberOfDestroyed;
+                }
+            }));
+        }
+        executor.shutdown();
+        
+        int numberOfDestroyed = 0;
+        for (int i = 0; i < futures.size(); i++)
+        {
+            try
+            {
+                numberOfDestroyed += futures.get(i).get();
+            }
+            catch (ExecutionException exception)
+            {
+                log_.error(String.format("Unable to destroy the virtual machines of group manager %s: %s", 
+                                         GroupManagerBatch.getKey(batches.get(i).getGroupManagerAddress()),
+                                         exception.getCause().getMessage()));
+            }
+        }
+        
+        log_.info(String.format("Benchmark %s: %d virtual machines destroyed", runIdentifier_, numberOfDestroyed));
+        return numberOfDestroyed;
+    }
+    
+    /**
+     * Runs one start flow.
+     * 
+     * @param submissionRequest     The submission request
+     * @param arrivalTime           The scheduled arrival time
+     */
+    private void submit(VirtualClusterSubmissionRequest submissionRequest, long arrivalTime)
+    {
+        int numberOfVirtualMachines = submissionRequest.getVirtualMachineTemplates().size();
+        VirtualClusterControl control = new VirtualClusterControl(clientConfiguration_);
+        VirtualClusterSubmissionResponse response = null;
+        try
+        {
+            response = control.start(submissionRequest);
+        }
+        catch (Exception exception)
+        {
+            log_.error(String.format("Benchmark submission failed: %s", exception.getMessage()));
+        }
+        
+        long responseTime = System.currentTimeMillis();
+        SubmissionTask task = control.getLastSubmission();
+        if (response == null || task == null)
+        {
+            recordFailure(numberOfVirtualMachines);
+            return;
+        }
+        
+        SubmissionResults submissionResults = 
+            SubmissionResultsUtils.generateSubmissionResults(response,
+                                                             task.getTaskIdentifier(),
+                                                             numberOfVirtualMachines,
+                                                             arrivalTime,
+                                                             task.getTaskIdentifierTime(),
+                                                             responseTime,
+                                                             task.getBackoff().getNumberOfPolls());
+        recordResponse(response, submissionResults);
+    }
+    
+    /**
+     * Records a submission without response.
+     * 
+     * @param numberOfVirtualMachines   The number of virtual machines
+     */
+    private synchronized void recordFailure(int numberOfVirtualMachines)
+    {
+        numberOfFailedSubmissions_++;
+        numberOfVirtualMachines_ += numberOfVirtualMachines;
+        numberOfFailedVirtualMachines_ += numberOfVirtualMachines;
+    }
+    
+    /**
+     * Records a response and writes its results to the statistics output.
+     * 
+     * @param response              The response
+     * @param submissionResults     The submission results
+     */
+    private synchronized void recordResponse(VirtualClusterSubmissionResponse response, 
+                                             SubmissionResults submissionResults)
+    {
+        latencies_.record((long) submissionResults.getTimeToSchedule());
+        numberOfVirtualMachines_ += submissionResults.getNumberOfVirtualMachines();
+        numberOfFailedVirtualMachines_ += submissionResults.getNumberOfFailedAllocations();
+        virtualMachines_.addAll(response.getVirtualMachineMetaData());
+        try
+        {
+            SubmissionResultsUtils.writeSubmissionResults(clientConfiguration_.getStatisticsSettings().getOutput(),
+                                                          submissionResults);
+        }
+        catch (IOException exception)
+        {
+            log_.error(String.format("Unable to write the submission results: %s", exception.getMessage()));
+        }
+    }
+    
+    /**
+     * Creates the submission request of a submission.
+     * 
+     * @param submission    The submission number
+     * @return              The submission request
+     */
+    private VirtualClusterSubmissionRequest createSubmissionRequest(int submission)
+    {
+        VirtualClusterSubmissionRequest template = templates_.get(submission % templates_.size());
+        String suffix = "-" + runIdentifier_ + "-" + submission;
+        ArrayList<VirtualMachineTemplate> virtualMachineTemplates = new ArrayList<VirtualMachineTemplate>();
+        for (VirtualMachineTemplate virtualMachineTemplate : template.getVirtualMachineTemplates())
+        {
+            virtualMachineTemplates.add(copyTemplate(virtualMachineTemplate, suffix));
+        }
+        
+        VirtualClusterSubmissionRequest submissionRequest = new VirtualClusterSubmissionRequest();
+        submissionRequest.setVirtualMachineTemplates(virtualMachineTemplates);
+        return submissionRequest;
+    }
+    
+    /**
+     * Copies a virtual machine template under a new name.
+     * 
+     * The libvirt domain name gets the suffix and its uuid is dropped, libvirt thus generates a fresh one.
+     * 
+     * @param template  The template
+     * @param suffix    The name suffix
+     * @return          The copy
+     */
+    private static VirtualMachineTemplate copyTemplate(VirtualMachineTemplate template, String suffix)
+    {
+        VirtualMachineTemplate copy = new VirtualMachineTemplate();
+        String libVirtTemplate = template.getLibVirtTemplate();
+        if (libVirtTemplate != null)
+        {
+            copy.setLibVirtTemplate(libVirtTemplate.replaceFirst("<name>\\s*([^<]*?)\\s*</name>", 
+                                                                 "<name>$1" + suffix + "</name>")
+                                                   .replaceFirst("\\s*<uuid>[^<]*</uuid>", ""));
+        }
+        
+        if (template.getName() != null)
+        {
+            copy.setName(template.getName() + suffix);
+        }
+        
+        copy.setVcpus(template.getVcpus());
+        copy.setMemory(template.getMemory());
+        copy.setImageId(template.getImageId());
+        copy.setHostId(template.getHostId());
+        copy.setNetworkCapacityDemand(template.getNetworkCapacityDemand());
+        return copy;
+    }
+    
+    /**
+     * Logs the benchmark summary.
+     * 
+     * @param elapsedTime   The benchmark duration (ms)
+     */
+    private synchronized void logSummary(long elapsedTime)
+    {
+        int numberOfSubmissions = settings_.getNumberOfSubmissions();
+        double seconds = Math.max(1, elapsedTime) / 1000.0;
+        log_.info(String.format("Benchmark %s: %d submissions in %.1f s, %d without response", 
+                                runIdentifier_, numberOfSubmissions, seconds, numberOfFailedSubmissions_));
+        log_.info(String.format("Virtual machines: %d, %d failed allocations", 
+                                numberOfVirtualMachines_, numberOfFailedVirtualMachines_));
+        log_.info(String.format("Throughput: %.2f submissions/s, %.2f placed virtual machines/s", 
+                                (numberOfSubmissions - numberOfFailedSubmissions_) / seconds,
+                                (numberOfVirtualMachines_ - numberOfFailedVirtualMachines_) / seconds));
+        if (latencies_.getTotalCount() == 0)
+        {
+            return;
+        }
+        
+        log_.info(String.format("Time to response (ms): p50 %d, p90 %d, p99 %d, max %d, mean %.1f", 
+                                latencies_.getValueAtPercentile(50),
+                                latencies_.getValueAtPercentile(90),
+                                latencies_.getValueAtPercentile(99),
+                                latencies_.getMaximum(),
+                                latencies_.getMean()));
+    }
+    
+    /**
+     * Returns the times to response.
+     * 
+     * @return  The latency histogram (ms)
+     */
+    public synchronized LatencyHistogram getLatencies() 
+    {
+        return latencies_;
+    }
+    
+    /**
+     * Returns the number of submissions without response.
+     * 
+     * @return  The number of failed submissions
+     */
+    public synchronized int getNumberOfFailedSubmissions() 
+    {
+        return numberOfFailedSubmissions_;
+    }
+}
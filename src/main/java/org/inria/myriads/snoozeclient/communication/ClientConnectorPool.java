@@ -0,0 +1,170 @@
+/**
+ * Copyright (C) 2010-2013 Eugen Feller, INRIA <eugen.feller@inria.fr>
+ *
+ * This file is part of Snooze, a scalable, autonomic, and
+ * energy-aware virtual machine (VM) management framework.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package org.inria.myriads.snoozeclient.communication;
+
+import org.restlet.Client;
+import org.restlet.Context;
+import org.restlet.data.Protocol;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Shared HTTP client connector.
+ * 
+ * Restlet client resources created without a client use the dispatcher of the current context,
+ * attaching the shared context to a thread therefore makes all its REST calls reuse the pooled
+ * keep-alive connections of one connector instead of creating a new connector per call.
+ * 
+ * @author Eugen Feller
+ */
+public final class ClientConnectorPool 
+{
+    /** Define the logger. */
+    private static final Logger log_ = LoggerFactory.getLogger(ClientConnectorPool.class);
+    
+    /** Shared context, null if disabled. */
+    private static volatile Context context_;
+    
+    /** Shared client connector. */
+    private static Client client_;
+    
+    /** Hide constructor. */
+    private ClientConnectorPool()
+    {
+        throw new UnsupportedOperationException();
+    }
+    
+    /**
+     * Sets the default timeouts of the JDK HTTP connections.
+     * 
+     * Existing system properties take precedence.
+     * 
+     * @param connectTimeout    The connect timeout (ms, 0 = none)
+     * @param readTimeout       The read timeout (ms, 0 = none)
+     */
+    public static void setDefaultTimeouts(int connectTimeout, int readTimeout)
+    {
+        if (connectTimeout > 0 && System.getProperty("sun.net.client.defaultConnectTimeout") == null)
+        {
+            System.setProperty("sun.net.client.defaultConnectTimeout", String.valueOf(connectTimeout));
+        }
+        
+        if (readTimeout > 0 && System.getProperty("sun.net.client.defaultReadTimeout") == null)
+        {
+            System.setProperty("sun.net.client.defaultReadTimeout", String.valueOf(readTimeout));
+        }
+    }
+    
+    /**
+     * Starts the shared connector.
+     * 
+     * @param poolSize          The maximum number of connections per host
+     * @param connectTimeout    The connect timeout (ms, 0 = connector default)
+     * @param readTimeout       The read timeout (ms, 0 = connector default)
+     * @throws Exception        The exception
+     */
+    public static synchronized void enable(int poolSize, int connectTimeout, int readTimeout) 
+        throws Exception
+    {
+        if (context_ != null)
+        {
+            return;
+        }
+        
+        log_.debug(String.format("Starting the shared HTTP connector with %d connections per host", poolSize));
+        
+        // JDK connector
+        if (System.getProperty("http.maxConnections") == null)
+        {
+            System.setProperty("http.maxConnections", String.valueOf(poolSize));
+        }
+        
+        Context context = new Context();
+        Context clientContext = context.createChildContext();
+        // Apache HTTP client connector
+        clientContext.getParameters().add("maxConnectionsPerHost", String.valueOf(poolSize));
+        clientContext.getParameters().add("maxTotalConnections", String.valueOf(poolSize * 2));
+        // JDK connector
+        clientContext.getParameters().add("persistingConnections", "true");
+        if (connectTimeout > 0)
+        {
+            clientContext.getParameters().add("socketConnectTimeoutMs", String.valueOf(connectTimeout));
+        }
+        
+        if (readTimeout > 0)
+        {
+            // Apache HTTP client and internal connectors
+            clientContext.getParameters().add("socketTimeout", String.valueOf(readTimeout));
+            // JDK connector
+            clientContext.getParameters().add("readTimeout", String.valueOf(readTimeout));
+        }
+        
+        Client client = new Client(clientContext, Protocol.HTTP);
+        client.start();
+        context.setClientDispatcher(client);
+        client_ = client;
+        context_ = context;
+    }
+    
+    /**
+     * Stops the shared connector and closes its connections.
+     */
+    public static synchronized void disable()
+    {
+        if (context_ == null)
+        {
+            return;
+        }
+        
+        log_.debug("Stopping the shared HTTP connector");
+        context_ = null;
+        try
+        {
+            client_.stop();
+        }
+        catch (Exception exception)
+        {
+            log_.debug("Unable to stop the shared HTTP connector", exception);
+        }
+        client_ = null;
+    }
+    
+    /**
+     * Checks if the shared connector is enabled.
+     * 
+     * @return  true if enabled, false otherwise
+     */
+    public static boolean isEnabled()
+    {
+        return context_ != null;
+    }
+    
+    /**
+     * Makes the REST calls of the current thread use the shared connector.
+     */
+    public static void attach()
+    {
+        Context context = context_;
+        if (context != null && Context.getCurrent() != context)
+        {
+            Context.setCurrent(context);
+        }
+    }
+}
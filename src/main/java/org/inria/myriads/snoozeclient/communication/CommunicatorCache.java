@@ -0,0 +1,151 @@
+/**
+ * Copyright (C) 2010-2013 Eugen Feller, INRIA <eugen.feller@inria.fr>
+ *
+ * This file is part of Snooze, a scalable, autonomic, and
+ * energy-aware virtual machine (VM) management framework.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package org.inria.myriads.snoozeclient.communication;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.inria.myriads.snoozecommon.communication.NetworkAddress;
+import org.inria.myriads.snoozecommon.communication.rest.CommunicatorFactory;
+import org.inria.myriads.snoozecommon.communication.rest.api.BootstrapAPI;
+import org.inria.myriads.snoozecommon.communication.rest.api.GroupManagerAPI;
+import org.inria.myriads.snoozecommon.guard.Guard;
+
+/**
+ * Communicator cache.
+ * 
+ * Keeps one communicator per address for the lifetime of the client. Every call attaches the
+ * calling thread to the shared connector, communicators may therefore be used from any thread.
+ * 
+ * @author Eugen Feller
+ */
+public final class CommunicatorCache 
+{
+    /** Group manager communicators (address:port : communicator). */
+    private static final ConcurrentMap<String, GroupManagerAPI> GROUP_MANAGERS = 
+        new ConcurrentHashMap<String, GroupManagerAPI>();
+    
+    /** Bootstrap communicators (address:port : communicator). */
+    private static final ConcurrentMap<String, BootstrapAPI> BOOTSTRAPS = 
+        new ConcurrentHashMap<String, BootstrapAPI>();
+    
+    /** Hide constructor. */
+    private CommunicatorCache()
+    {
+        throw new UnsupportedOperationException();
+    }
+    
+    /**
+     * Returns the group manager communicator of an address.
+     * 
+     * @param groupManagerAddress   The group manager address
+     * @return                      The group manager communicator
+     */
+    public static GroupManagerAPI getGroupManagerCommunicator(NetworkAddress groupManagerAddress)
+    {
+        Guard.check(groupManagerAddress);
+        
+        String key = getKey(groupManagerAddress);
+        GroupManagerAPI communicator = GROUP_MANAGERS.get(key);
+        if (communicator == null)
+        {
+            communicator = attaching(GroupManagerAPI.class, 
+                                     CommunicatorFactory.newGroupManagerCommunicator(groupManagerAddress));
+            GroupManagerAPI existing = GROUP_MANAGERS.putIfAbsent(key, communicator);
+            if (existing != null)
+            {
+                communicator = existing;
+            }
+        }
+        
+        return communicator;
+    }
+    
+    /**
+     * Returns the bootstrap communicator of an address.
+     * 
+     * @param bootstrapAddress      The bootstrap address
+     * @return                      The bootstrap communicator
+     */
+    public static BootstrapAPI getBootstrapCommunicator(NetworkAddress bootstrapAddress)
+    {
+        Guard.check(bootstrapAddress);
+        
+        String key = getKey(bootstrapAddress);
+        BootstrapAPI communicator = BOOTSTRAPS.get(key);
+        if (communicator == null)
+        {
+            communicator = attaching(BootstrapAPI.class, 
+                                     CommunicatorFactory.newBootstrapCommunicator(bootstrapAddress));
+            BootstrapAPI existing = BOOTSTRAPS.putIfAbsent(key, communicator);
+            if (existing != null)
+            {
+                communicator = existing;
+            }
+        }
+        
+        return communicator;
+    }
+    
+    /**
+     * Wraps a communicator so that every call is made through the shared connector.
+     * 
+     * @param <T>               The communicator type
+     * @param type              The communicator interface
+     * @param communicator      The communicator
+     * @return                  The wrapped communicator
+     */
+    private static <T> T attaching(Class<T> type, final T communicator)
+    {
+        InvocationHandler handler = new InvocationHandler()
+        {
+            public Object invoke(Object proxy, Method method, Object[] arguments) 
+                throws Throwable
+            {
+                ClientConnectorPool.attach();
+                try
+                {
+                    return method.invoke(communicator, arguments);
+                }
+                catch (InvocationTargetException exception)
+                {
+                    throw exception.getCause();
+                }
+            }
+        };
+        
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, handler));
+    }
+    
+    /**
+     * Returns the cache key of an address.
+     * 
+     * @param networkAddress    The network address
+     * @return                  The key
+     */
+    private static String getKey(NetworkAddress networkAddress)
+    {
+        return networkAddress.getAddress() + ":" + networkAddress.getPort();
+    }
+}
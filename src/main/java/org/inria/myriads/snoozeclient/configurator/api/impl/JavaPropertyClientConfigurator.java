@@ -30,6 +30,7 @@ import org.inria.myriads.snoozeclient.configurator.api.ClientConfigurator;
 import org.inria.myriads.snoozeclient.configurator.general.GeneralSettings;
 import org.inria.myriads.snoozeclient.configurator.statistics.StatisticsFormat;
 import org.inria.myriads.snoozeclient.configurator.statistics.StatisticsSettings;
+import org.inria.myriads.snoozeclient.database.api.RepositoryBackend;
 import org.inria.myriads.snoozeclient.exception.ClientConfiguratorException;
 import org.inria.myriads.snoozecommon.communication.NetworkAddress;
 import org.inria.myriads.snoozecommon.guard.Guard;
@@ -97,6 +98,12 @@ public final class JavaPropertyClientConfigurator
         String submissionPollingInterval = getPropertyContent("general.submissionPollingInterval");
         generalSettings.setSubmissionPollingInterval(Integer.valueOf(submissionPollingInterval));
         
+        String submissionInitialPollingInterval = getPropertyContent("general.submissionInitialPollingInterval", "50");
+        generalSettings.setSubmissionInitialPollingInterval(Integer.valueOf(submissionInitialPollingInterval));
+        
+        String submissionTimeout = getPropertyContent("general.submissionTimeout", "600");
+        generalSettings.setSubmissionTimeout(Integer.valueOf(submissionTimeout));
+        
         String dumpOutputFile = getPropertyContent("general.dumpOutputFile");
         generalSettings.setDumpOutputFile(dumpOutputFile);     
         
@@ -106,6 +113,51 @@ public final class JavaPropertyClientConfigurator
         
         String graphPollingInterval = getPropertyContent("general.graphPollingInterval");
         generalSettings.setGraphPollingInterval(Integer.valueOf(graphPollingInterval));
+        
+        String numberOfCommandThreads = getPropertyContent("general.numberOfCommandThreads", "1");
+        generalSettings.setNumberOfCommandThreads(Integer.valueOf(numberOfCommandThreads));
+        
+        String bootstrapConnectTimeout = getPropertyContent("general.bootstrapConnectTimeout", "1000");
+        generalSettings.setBootstrapConnectTimeout(Integer.valueOf(bootstrapConnectTimeout));
+        
+        String bootstrapCacheTimeToLive = getPropertyContent("general.bootstrapCacheTTL", "300");
+        generalSettings.setBootstrapCacheTimeToLive(Integer.valueOf(bootstrapCacheTimeToLive));
+        
+        String repositoryBackend = getPropertyContent("general.repositoryBackend", "xml");
+        generalSettings.setRepositoryBackend(RepositoryBackend.valueOf(repositoryBackend));
+        
+        String isOptimisticCommands = getPropertyContent("general.optimisticCommands", "false");
+        generalSettings.setOptimisticCommands(Boolean.valueOf(isOptimisticCommands));
+        
+        String locationVerificationTimeToLive = getPropertyContent("general.locationVerificationTTL", "0");
+        generalSettings.setLocationVerificationTimeToLive(Integer.valueOf(locationVerificationTimeToLive));
+        
+        String bulkDiscoveryThreshold = getPropertyContent("general.bulkDiscoveryThreshold", "0");
+        generalSettings.setBulkDiscoveryThreshold(Integer.valueOf(bulkDiscoveryThreshold));
+        
+        String resolveLocationsThreshold = getPropertyContent("general.resolveLocationsThreshold", "0");
+        generalSettings.setResolveLocationsThreshold(Integer.valueOf(resolveLocationsThreshold));
+        
+        String isHttpKeepAlive = getPropertyContent("general.httpKeepAlive", "false");
+        generalSettings.setHttpKeepAlive(Boolean.valueOf(isHttpKeepAlive));
+        
+        String httpPoolSize = getPropertyContent("general.httpPoolSize", "10");
+        generalSettings.setHttpPoolSize(Integer.valueOf(httpPoolSize));
+        
+        String callTimeout = getPropertyContent("general.callTimeout", "0");
+        generalSettings.setCallTimeout(Integer.valueOf(callTimeout));
+        
+        String connectTimeout = getPropertyContent("general.connectTimeout", "0");
+        generalSettings.setConnectTimeout(Integer.valueOf(connectTimeout));
+        
+        String callRetries = getPropertyContent("general.callRetries", "0");
+        generalSettings.setCallRetries(Integer.valueOf(callRetries));
+        
+        String retryBackoff = getPropertyContent("general.retryBackoff", "500");
+        generalSettings.setRetryBackoff(Integer.valueOf(retryBackoff));
+        
+        String retryBudget = getPropertyContent("general.retryBudget", "0");
+        generalSettings.setRetryBudget(Integer.valueOf(retryBudget));
     }
         
     private NetworkAddress generateListOfNetworkAddresses(String imagesRepositoryAddress) 
@@ -157,6 +209,26 @@ public final class JavaPropertyClientConfigurator
         return content;             
     }
     
+    /**
+     * Returns the property content or a default value if the entry is missing.
+     * 
+     * @param property                      The property
+     * @param defaultValue                  The default value
+     * @return                              The content string
+     */
+    private String getPropertyContent(String property, String defaultValue) 
+    {
+        String content = properties_.getProperty(property);
+        if (content == null) 
+        {
+            log_.debug(String.format("%s entry is missing! Using default value: %s", property, defaultValue));
+            return defaultValue;
+        }
+        
+        content = content.trim();
+        return content;             
+    }
+    
     /**
      * Sets the statistics parameters.
      * 
@@ -174,6 +246,15 @@ public final class JavaPropertyClientConfigurator
         
         String outputFile = getPropertyContent("statistics.output.file");
         statisticsSettings.getOutput().setFile(outputFile);
+        
+        String isHistoryEnabled = getPropertyContent("statistics.history.enabled", "false");
+        statisticsSettings.setHistoryEnabled(Boolean.valueOf(isHistoryEnabled));
+        
+        String historyInterval = getPropertyContent("statistics.history.interval", "60");
+        statisticsSettings.setHistoryInterval(Integer.valueOf(historyInterval));
+        
+        String historyRetention = getPropertyContent("statistics.history.retention", "30");
+        statisticsSettings.setHistoryRetention(Integer.valueOf(historyRetention));
         clientConfiguration_.setStatisticsSettings(statisticsSettings);
     }
     
@@ -21,6 +21,7 @@ package org.inria.myriads.snoozeclient.configurator.general;
 
 import java.util.List;
 
+import org.inria.myriads.snoozeclient.database.api.RepositoryBackend;
 import org.inria.myriads.snoozecommon.communication.NetworkAddress;
 
 /**
@@ -38,6 +39,12 @@ public class GeneralSettings
     
     /** Submission polling interval. */
     private int submissionPollingInterval_;
+    
+    /** Initial submission polling interval (ms). */
+    private int submissionInitialPollingInterval_;
+    
+    /** Submission timeout (s). */
+    private int submissionTimeout_;
 
     /** Number of monitoring entries. */
     private int numberOfMonitoringEntries_;
@@ -48,6 +55,51 @@ public class GeneralSettings
     /** Visualization polling interval. */
     private int graphPollingInterval_;
     
+    /** Bootstrap connect timeout (ms). */
+    private int bootstrapConnectTimeout_;
+    
+    /** Client repository backend. */
+    private RepositoryBackend repositoryBackend_;
+    
+    /** Send commands to the recorded group manager without verifying the location first. */
+    private boolean isOptimisticCommands_;
+    
+    /** Time a verified virtual machine location is trusted (s). */
+    private int locationVerificationTimeToLive_;
+    
+    /** Number of discoveries within a cluster command after which the hierarchy is scanned at once. */
+    private int bulkDiscoveryThreshold_;
+    
+    /** Cluster size from which collective commands resolve all locations from the hierarchy first. */
+    private int resolveLocationsThreshold_;
+    
+    /** Reuse HTTP connections through a shared connector. */
+    private boolean isHttpKeepAlive_;
+    
+    /** Maximum number of pooled HTTP connections per host. */
+    private int httpPoolSize_;
+    
+    /** Deadline of a group manager call (ms, 0 = none). */
+    private int callTimeout_;
+    
+    /** HTTP connect timeout (ms, 0 = connector default). */
+    private int connectTimeout_;
+    
+    /** Maximum number of retries of an idempotent group manager call. */
+    private int callRetries_;
+    
+    /** Initial backoff between two retries (ms). */
+    private int retryBackoff_;
+    
+    /** Maximum number of retries per group manager within a command. */
+    private int retryBudget_;
+    
+    /** Bootstrap cache time to live (s). */
+    private int bootstrapCacheTimeToLive_;
+    
+    /** Number of threads used by collective commands. */
+    private int numberOfCommandThreads_;
+    
     /**
      * Sets the output file.
      * 
@@ -166,4 +218,344 @@ public class GeneralSettings
     {
         imagesRepository_ = imagesRepository;
     }
+
+    /**
+     * Returns the number of threads used by collective commands.
+     * 
+     * @return  The number of command threads
+     */
+    public int getNumberOfCommandThreads() 
+    {
+        return numberOfCommandThreads_;
+    }
+
+    /**
+     * Sets the number of threads used by collective commands.
+     * 
+     * @param numberOfCommandThreads    The number of command threads
+     */
+    public void setNumberOfCommandThreads(int numberOfCommandThreads) 
+    {
+        numberOfCommandThreads_ = numberOfCommandThreads;
+    }
+
+    /**
+     * Returns the initial submission polling interval.
+     * 
+     * @return  The initial submission polling interval (ms)
+     */
+    public int getSubmissionInitialPollingInterval() 
+    {
+        return submissionInitialPollingInterval_;
+    }
+
+    /**
+     * Sets the initial submission polling interval.
+     * 
+     * @param submissionInitialPollingInterval    The initial submission polling interval (ms)
+     */
+    public void setSubmissionInitialPollingInterval(int submissionInitialPollingInterval) 
+    {
+        submissionInitialPollingInterval_ = submissionInitialPollingInterval;
+    }
+
+    /**
+     * Returns the submission timeout.
+     * 
+     * @return  The submission timeout (s)
+     */
+    public int getSubmissionTimeout() 
+    {
+        return submissionTimeout_;
+    }
+
+    /**
+     * Sets the submission timeout.
+     * 
+     * @param submissionTimeout    The submission timeout (s)
+     */
+    public void setSubmissionTimeout(int submissionTimeout) 
+    {
+        submissionTimeout_ = submissionTimeout;
+    }
+
+    /**
+     * Returns the bootstrap cache time to live.
+     * 
+     * @return  The bootstrap cache time to live (s)
+     */
+    public int getBootstrapCacheTimeToLive() 
+    {
+        return bootstrapCacheTimeToLive_;
+    }
+
+    /**
+     * Sets the bootstrap cache time to live.
+     * 
+     * @param bootstrapCacheTimeToLive    The bootstrap cache time to live (s)
+     */
+    public void setBootstrapCacheTimeToLive(int bootstrapCacheTimeToLive) 
+    {
+        bootstrapCacheTimeToLive_ = bootstrapCacheTimeToLive;
+    }
+
+    /**
+     * Returns the bootstrap connect timeout.
+     * 
+     * @return  The bootstrap connect timeout (ms)
+     */
+    public int getBootstrapConnectTimeout() 
+    {
+        return bootstrapConnectTimeout_;
+    }
+
+    /**
+     * Sets the bootstrap connect timeout.
+     * 
+     * @param bootstrapConnectTimeout    The bootstrap connect timeout (ms)
+     */
+    public void setBootstrapConnectTimeout(int bootstrapConnectTimeout) 
+    {
+        bootstrapConnectTimeout_ = bootstrapConnectTimeout;
+    }
+
+    /**
+     * Returns the client repository backend.
+     * 
+     * @return  The repository backend
+     */
+    public RepositoryBackend getRepositoryBackend() 
+    {
+        return repositoryBackend_;
+    }
+
+    /**
+     * Sets the client repository backend.
+     * 
+     * @param repositoryBackend    The repository backend
+     */
+    public void setRepositoryBackend(RepositoryBackend repositoryBackend) 
+    {
+        repositoryBackend_ = repositoryBackend;
+    }
+
+    /**
+     * Checks if commands are sent optimistically.
+     * 
+     * @return  true if optimistic, false otherwise
+     */
+    public boolean isOptimisticCommands() 
+    {
+        return isOptimisticCommands_;
+    }
+
+    /**
+     * Sets the optimistic commands flag.
+     * 
+     * @param isOptimisticCommands    true if optimistic, false otherwise
+     */
+    public void setOptimisticCommands(boolean isOptimisticCommands) 
+    {
+        isOptimisticCommands_ = isOptimisticCommands;
+    }
+
+    /**
+     * Returns the location verification time to live.
+     * 
+     * @return  The location verification time to live (s)
+     */
+    public int getLocationVerificationTimeToLive() 
+    {
+        return locationVerificationTimeToLive_;
+    }
+
+    /**
+     * Sets the location verification time to live.
+     * 
+     * @param locationVerificationTimeToLive    The location verification time to live (s)
+     */
+    public void setLocationVerificationTimeToLive(int locationVerificationTimeToLive) 
+    {
+        locationVerificationTimeToLive_ = locationVerificationTimeToLive;
+    }
+
+    /**
+     * Returns the bulk discovery threshold.
+     * 
+     * @return  The bulk discovery threshold
+     */
+    public int getBulkDiscoveryThreshold() 
+    {
+        return bulkDiscoveryThreshold_;
+    }
+
+    /**
+     * Sets the bulk discovery threshold.
+     * 
+     * @param bulkDiscoveryThreshold    The bulk discovery threshold
+     */
+    public void setBulkDiscoveryThreshold(int bulkDiscoveryThreshold) 
+    {
+        bulkDiscoveryThreshold_ = bulkDiscoveryThreshold;
+    }
+
+    /**
+     * Returns the resolve locations threshold.
+     * 
+     * @return  The resolve locations threshold
+     */
+    public int getResolveLocationsThreshold() 
+    {
+        return resolveLocationsThreshold_;
+    }
+
+    /**
+     * Sets the resolve locations threshold.
+     * 
+     * @param resolveLocationsThreshold    The resolve locations threshold
+     */
+    public void setResolveLocationsThreshold(int resolveLocationsThreshold) 
+    {
+        resolveLocationsThreshold_ = resolveLocationsThreshold;
+    }
+
+    /**
+     * Checks if HTTP connections are reused.
+     * 
+     * @return  true if reused, false otherwise
+     */
+    public boolean isHttpKeepAlive() 
+    {
+        return isHttpKeepAlive_;
+    }
+
+    /**
+     * Sets the HTTP keep alive flag.
+     * 
+     * @param isHttpKeepAlive    true if reused, false otherwise
+     */
+    public void setHttpKeepAlive(boolean isHttpKeepAlive) 
+    {
+        isHttpKeepAlive_ = isHttpKeepAlive;
+    }
+
+    /**
+     * Returns the HTTP pool size.
+     * 
+     * @return  The maximum number of connections per host
+     */
+    public int getHttpPoolSize() 
+    {
+        return httpPoolSize_;
+    }
+
+    /**
+     * Sets the HTTP pool size.
+     * 
+     * @param httpPoolSize    The maximum number of connections per host
+     */
+    public void setHttpPoolSize(int httpPoolSize) 
+    {
+        httpPoolSize_ = httpPoolSize;
+    }
+
+    /**
+     * Returns the call timeout.
+     * 
+     * @return  The call timeout (ms)
+     */
+    public int getCallTimeout() 
+    {
+        return callTimeout_;
+    }
+
+    /**
+     * Sets the call timeout.
+     * 
+     * @param callTimeout    The call timeout (ms)
+     */
+    public void setCallTimeout(int callTimeout) 
+    {
+        callTimeout_ = callTimeout;
+    }
+
+    /**
+     * Returns the HTTP connect timeout.
+     * 
+     * @return  The connect timeout (ms)
+     */
+    public int getConnectTimeout() 
+    {
+        return connectTimeout_;
+    }
+
+    /**
+     * Sets the HTTP connect timeout.
+     * 
+     * @param connectTimeout    The connect timeout (ms)
+     */
+    public void setConnectTimeout(int connectTimeout) 
+    {
+        connectTimeout_ = connectTimeout;
+    }
+
+    /**
+     * Returns the number of call retries.
+     * 
+     * @return  The number of retries
+     */
+    public int getCallRetries() 
+    {
+        return callRetries_;
+    }
+
+    /**
+     * Sets the number of call retries.
+     * 
+     * @param callRetries    The number of retries
+     */
+    public void setCallRetries(int callRetries) 
+    {
+        callRetries_ = callRetries;
+    }
+
+    /**
+     * Returns the initial retry backoff.
+     * 
+     * @return  The retry backoff (ms)
+     */
+    public int getRetryBackoff() 
+    {
+        return retryBackoff_;
+    }
+
+    /**
+     * Sets the initial retry backoff.
+     * 
+     * @param retryBackoff    The retry backoff (ms)
+     */
+    public void setRetryBackoff(int retryBackoff) 
+    {
+        retryBackoff_ = retryBackoff;
+    }
+
+    /**
+     * Returns the retry budget.
+     * 
+     * @return  The maximum number of retries per group manager
+     */
+    public int getRetryBudget() 
+    {
+        return retryBudget_;
+    }
+
+    /**
+     * Sets the retry budget.
+     * 
+     * @param retryBudget    The maximum number of retries per group manager
+     */
+    public void setRetryBudget(int retryBudget) 
+    {
+        retryBudget_ = retryBudget;
+    }
 }
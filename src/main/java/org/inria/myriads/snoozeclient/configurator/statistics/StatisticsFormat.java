@@ -26,6 +26,10 @@ package org.inria.myriads.snoozeclient.configurator.statistics;
  */
 public enum StatisticsFormat 
 {
-    /** Gnuplot. */
-    gnuplot
+    /** Gnuplot, one line per submission. */
+    gnuplot,
+    /** Comma separated values, one line per virtual machine. */
+    csv,
+    /** JSON object per line, one line per virtual machine. */
+    jsonlines
 }
@@ -32,6 +32,15 @@ public final class StatisticsSettings
     /** Output. */
     private StatisticsOutput output_;
     
+    /** Defines if submissions are recorded in the history. */
+    private boolean isHistoryEnabled_;
+    
+    /** History slot length (s). */
+    private int historyInterval_;
+    
+    /** History retention (days). */
+    private int historyRetention_;
+    
     /** Constructor. */
     public StatisticsSettings()
     {
@@ -67,4 +76,64 @@ public final class StatisticsSettings
     {
         return output_;
     }
+
+    /**
+     * Returns the history status.
+     * 
+     * @return  true if enabled, false otherwise
+     */
+    public boolean isHistoryEnabled() 
+    {
+        return isHistoryEnabled_;
+    }
+
+    /**
+     * Sets the history flag.
+     * 
+     * @param isHistoryEnabled  true if enabled, false otherwise
+     */
+    public void setHistoryEnabled(boolean isHistoryEnabled) 
+    {
+        isHistoryEnabled_ = isHistoryEnabled;
+    }
+
+    /**
+     * Returns the history slot length.
+     * 
+     * @return  The slot length (s)
+     */
+    public int getHistoryInterval() 
+    {
+        return historyInterval_;
+    }
+
+    /**
+     * Sets the history slot length.
+     * 
+     * @param historyInterval   The slot length (s)
+     */
+    public void setHistoryInterval(int historyInterval) 
+    {
+        historyInterval_ = historyInterval;
+    }
+
+    /**
+     * Returns the history retention.
+     * 
+     * @return  The retention (days)
+     */
+    public int getHistoryRetention() 
+    {
+        return historyRetention_;
+    }
+
+    /**
+     * Sets the history retention.
+     * 
+     * @param historyRetention  The retention (days)
+     */
+    public void setHistoryRetention(int historyRetention) 
+    {
+        historyRetention_ = historyRetention;
+    }
 }
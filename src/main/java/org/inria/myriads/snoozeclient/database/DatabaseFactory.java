@@ -20,7 +20,11 @@
 package org.inria.myriads.snoozeclient.database;
 
 import org.inria.myriads.snoozeclient.database.api.ClientRepository;
+import org.inria.myriads.snoozeclient.database.api.RepositoryBackend;
+import org.inria.myriads.snoozeclient.database.api.impl.ClientBinaryRepository;
 import org.inria.myriads.snoozeclient.database.api.impl.ClientXMLRepository;
+import org.inria.myriads.snoozeclient.database.api.impl.SynchronizedClientRepository;
+import org.inria.myriads.snoozeclient.util.StorageUtils;
 
 /**
  * Database factory.
@@ -47,4 +51,43 @@ public final class DatabaseFactory
     {
         return new ClientXMLRepository(databaseFileName);
     }
+    
+    /**
+     * Creates a client repository which serializes all calls to another repository.
+     * 
+     * @param repository            The repository
+     * @return                      The synchronized client repository
+     */
+    public static ClientRepository newSynchronizedClientRepository(ClientRepository repository) 
+    {
+        if (repository instanceof SynchronizedClientRepository)
+        {
+            return repository;
+        }
+        
+        return new SynchronizedClientRepository(repository);
+    }
+    
+    /**
+     * Creates a new client repository in the default location of a backend.
+     * 
+     * @param backend               The repository backend
+     * @return                      The client repository
+     * @throws Exception            The exception
+     */
+    public static ClientRepository newClientRepository(RepositoryBackend backend) 
+        throws Exception
+    {
+        switch (backend)
+        {
+            case xml :
+                return new ClientXMLRepository(StorageUtils.getDatabaseFileName());
+                
+            case binary :
+                return new ClientBinaryRepository(StorageUtils.getBinaryDatabaseDirectoryName());
+                
+            default :
+                throw new IllegalArgumentException(String.format("Unknown repository backend: %s", backend));
+        }
+    }
 }
@@ -0,0 +1,93 @@
+/**
+ * Copyright (C) 2010-2013 Eugen Feller, INRIA <eugen.feller@inria.fr>
+ *
+ * This file is part of Snooze, a scalable, autonomic, and
+ * energy-aware virtual machine (VM) management framework.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package org.inria.myriads.snoozeclient.database;
+
+import org.inria.myriads.snoozeclient.database.api.ClientRepository;
+import org.inria.myriads.snoozeclient.database.api.VirtualMachineRecord;
+import org.inria.myriads.snoozecommon.guard.Guard;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Copies the content of a client repository into another one.
+ * 
+ * @author Eugen Feller
+ */
+public final class RepositoryConverter 
+{
+    /** Define the logger. */
+    private static final Logger log_ = LoggerFactory.getLogger(RepositoryConverter.class);
+    
+    /** Hide constructor. */
+    private RepositoryConverter()
+    {
+        throw new UnsupportedOperationException();
+    }
+    
+    /**
+     * Converts a repository.
+     * 
+     * Clusters already defined in the target are merged, virtual machines already
+     * present in the target are skipped.
+     * 
+     * @param source            The source repository
+     * @param target            The target repository
+     * @return                  The number of converted virtual machines
+     * @throws Exception        The exception
+     */
+    public static int convert(ClientRepository source, ClientRepository target) 
+        throws Exception
+    {
+        Guard.check(source, target);
+        
+        int numberOfVirtualMachines = 0;
+        target.beginTransaction();
+        try
+        {
+            for (String virtualClusterName : source.getVirtualClusterNames())
+            {
+                boolean isDefined = target.defineVirtualCluster(virtualClusterName);
+                if (!isDefined)
+                {
+                    log_.debug(String.format("Cluster %s already exists in the target! Merging", virtualClusterName));
+                }
+                
+                for (VirtualMachineRecord record : source.getVirtualMachineRecords(virtualClusterName))
+                {
+                    boolean isAdded = target.addVirtualMachineRecord(record);
+                    if (!isAdded)
+                    {
+                        log_.warn(String.format("Virtual machine %s already exists in the target! Skipping", 
+                                                record.getVirtualMachineId()));
+                        continue;
+                    }
+                    
+                    numberOfVirtualMachines++;
+                }
+            }
+        }
+        finally
+        {
+            target.commitTransaction();
+        }
+        
+        return numberOfVirtualMachines;
+    }
+}
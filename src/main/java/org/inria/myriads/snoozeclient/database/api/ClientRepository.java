@@ -36,6 +36,25 @@ import org.inria.myriads.snoozecommon.communication.virtualcluster.submission.Vi
  */
 public interface ClientRepository 
 {
+    /**
+     * Begins a unit of work.
+     * 
+     * Mutations performed until the matching commit are persisted at once.
+     * Units of work may be nested, only the outermost commit persists.
+     */
+    void beginTransaction();
+    
+    /**
+     * Commits a unit of work.
+     * 
+     * Persists all mutations since the outermost begin, nothing is written
+     * if nothing has changed.
+     * 
+     * @throws Exception        The exception
+     */
+    void commitTransaction() 
+        throws Exception;
+    
     /**
      * Defines a cluster.
      * 
@@ -66,6 +85,20 @@ public interface ClientRepository
      */
     boolean addVirtualMachineTemplate(VirtualMachineTemplate template, String virtualClusterId)
         throws Exception;
+    
+    /**
+     * Adds several virtual machine templates at once.
+     * 
+     * Nothing is added if the cluster does not exist or any of the virtual machines 
+     * already exists or is given twice.
+     * 
+     * @param templates             The virtual machine templates
+     * @param virtualClusterId      The virtual cluster identifier
+     * @return                      true if all added, false otherwise
+     * @throws Exception            The exception
+     */
+    boolean addVirtualMachineTemplates(List<VirtualMachineTemplate> templates, String virtualClusterId)
+        throws Exception;
         
     /**
      * Removes virtual machine description from a virtual cluster.
@@ -181,4 +214,53 @@ public interface ClientRepository
      */
     void updateNetworkCapacityDemand(String virtualMachineId, NetworkDemand networkDemand) 
             throws Exception;
+    
+    /**
+     * Returns the virtual cluster names.
+     * 
+     * @return                  The virtual cluster names in definition order
+     * @throws Exception        The exception
+     */
+    List<String> getVirtualClusterNames()
+        throws Exception;
+    
+    /**
+     * Returns the raw virtual machine entries of a cluster.
+     * 
+     * @param virtualClusterId  The virtual cluster identifier
+     * @return                  The virtual machine records
+     * @throws Exception        The exception
+     */
+    List<VirtualMachineRecord> getVirtualMachineRecords(String virtualClusterId)
+        throws Exception;
+    
+    /**
+     * Adds a raw virtual machine entry to its (defined) cluster.
+     * 
+     * @param record            The virtual machine record
+     * @return                  true if added, false otherwise
+     * @throws Exception        The exception
+     */
+    boolean addVirtualMachineRecord(VirtualMachineRecord record)
+        throws Exception;
+    
+    /**
+     * Returns the time the location of a virtual machine was last verified.
+     * 
+     * @param virtualMachineId  The virtual machine identifier
+     * @return                  The verification time (ms), 0 if never verified
+     * @throws Exception        The exception
+     */
+    long getVirtualMachineVerificationTime(String virtualMachineId)
+        throws Exception;
+    
+    /**
+     * Stamps the location of a virtual machine as verified.
+     * 
+     * @param virtualMachineId  The virtual machine identifier
+     * @param verificationTime  The verification time (ms)
+     * @throws Exception        The exception
+     */
+    void setVirtualMachineVerificationTime(String virtualMachineId, long verificationTime)
+        throws Exception;
 }
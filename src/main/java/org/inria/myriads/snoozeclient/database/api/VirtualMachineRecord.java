@@ -0,0 +1,322 @@
+/**
+ * Copyright (C) 2010-2013 Eugen Feller, INRIA <eugen.feller@inria.fr>
+ *
+ * This file is part of Snooze, a scalable, autonomic, and
+ * energy-aware virtual machine (VM) management framework.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package org.inria.myriads.snoozeclient.database.api;
+
+import org.inria.myriads.snoozecommon.communication.NetworkAddress;
+import org.inria.myriads.snoozecommon.communication.virtualcluster.monitoring.NetworkDemand;
+
+/**
+ * Raw virtual machine entry of a client repository.
+ * 
+ * Holds what is stored for a virtual machine, independently of the backend.
+ * 
+ * @author Eugen Feller
+ */
+public final class VirtualMachineRecord 
+{
+    /** Virtual machine identifier. */
+    private String virtualMachineId_;
+    
+    /** Virtual cluster name. */
+    private String virtualClusterName_;
+    
+    /** Libvirt template path (template based). */
+    private String template_;
+    
+    /** Name (flavor based). */
+    private String name_;
+    
+    /** Image identifier (flavor based). */
+    private String imageId_;
+    
+    /** Virtual CPUs (flavor based). */
+    private int vcpus_;
+    
+    /** Memory (flavor based). */
+    private long memory_;
+    
+    /** Host identifier (flavor based). */
+    private String hostId_;
+    
+    /** Network capacity demand. */
+    private NetworkDemand networkCapacity_;
+    
+    /** Group manager control data address. */
+    private NetworkAddress groupManagerAddress_;
+    
+    /** Local controller identifier. */
+    private String localControllerId_;
+    
+    /** Time the location was last verified (ms), 0 if never. */
+    private long verificationTime_;
+    
+    /**
+     * Constructor.
+     * 
+     * @param virtualMachineId      The virtual machine identifier
+     * @param virtualClusterName    The virtual cluster name
+     */
+    public VirtualMachineRecord(String virtualMachineId, String virtualClusterName)
+    {
+        virtualMachineId_ = virtualMachineId;
+        virtualClusterName_ = virtualClusterName;
+        networkCapacity_ = new NetworkDemand();
+    }
+    
+    /**
+     * Checks if the virtual machine is flavor based.
+     * 
+     * @return  true if flavor based, false otherwise
+     */
+    public boolean isFlavorBased()
+    {
+        return name_ != null;
+    }
+    
+    /**
+     * Returns the virtual machine identifier.
+     * 
+     * @return  The virtual machine identifier
+     */
+    public String getVirtualMachineId() 
+    {
+        return virtualMachineId_;
+    }
+
+    /**
+     * Returns the virtual cluster name.
+     * 
+     * @return  The virtual cluster name
+     */
+    public String getVirtualClusterName() 
+    {
+        return virtualClusterName_;
+    }
+
+    /**
+     * Sets the virtual cluster name.
+     * 
+     * @param virtualClusterName    The virtual cluster name
+     */
+    public void setVirtualClusterName(String virtualClusterName) 
+    {
+        virtualClusterName_ = virtualClusterName;
+    }
+
+    /**
+     * Returns the libvirt template path.
+     * 
+     * @return  The template path
+     */
+    public String getTemplate() 
+    {
+        return template_;
+    }
+
+    /**
+     * Sets the libvirt template path.
+     * 
+     * @param template  The template path
+     */
+    public void setTemplate(String template) 
+    {
+        template_ = template;
+    }
+
+    /**
+     * Returns the name.
+     * 
+     * @return  The name
+     */
+    public String getName() 
+    {
+        return name_;
+    }
+
+    /**
+     * Sets the name.
+     * 
+     * @param name  The name
+     */
+    public void setName(String name) 
+    {
+        name_ = name;
+    }
+
+    /**
+     * Returns the image identifier.
+     * 
+     * @return  The image identifier
+     */
+    public String getImageId() 
+    {
+        return imageId_;
+    }
+
+    /**
+     * Sets the image identifier.
+     * 
+     * @param imageId   The image identifier
+     */
+    public void setImageId(String imageId) 
+    {
+        imageId_ = imageId;
+    }
+
+    /**
+     * Returns the virtual CPUs.
+     * 
+     * @return  The virtual CPUs
+     */
+    public int getVcpus() 
+    {
+        return vcpus_;
+    }
+
+    /**
+     * Sets the virtual CPUs.
+     * 
+     * @param vcpus     The virtual CPUs
+     */
+    public void setVcpus(int vcpus) 
+    {
+        vcpus_ = vcpus;
+    }
+
+    /**
+     * Returns the memory.
+     * 
+     * @return  The memory
+     */
+    public long getMemory() 
+    {
+        return memory_;
+    }
+
+    /**
+     * Sets the memory.
+     * 
+     * @param memory    The memory
+     */
+    public void setMemory(long memory) 
+    {
+        memory_ = memory;
+    }
+
+    /**
+     * Returns the host identifier.
+     * 
+     * @return  The host identifier
+     */
+    public String getHostId() 
+    {
+        return hostId_;
+    }
+
+    /**
+     * Sets the host identifier.
+     * 
+     * @param hostId    The host identifier
+     */
+    public void setHostId(String hostId) 
+    {
+        hostId_ = hostId;
+    }
+
+    /**
+     * Returns the network capacity demand.
+     * 
+     * @return  The network capacity demand
+     */
+    public NetworkDemand getNetworkCapacity() 
+    {
+        return networkCapacity_;
+    }
+
+    /**
+     * Sets the network capacity demand.
+     * 
+     * @param networkCapacity   The network capacity demand
+     */
+    public void setNetworkCapacity(NetworkDemand networkCapacity) 
+    {
+        networkCapacity_ = networkCapacity;
+    }
+
+    /**
+     * Returns the group manager control data address.
+     * 
+     * @return  The group manager address, null if not placed
+     */
+    public NetworkAddress getGroupManagerAddress() 
+    {
+        return groupManagerAddress_;
+    }
+
+    /**
+     * Sets the group manager control data address.
+     * 
+     * @param groupManagerAddress   The group manager address
+     */
+    public void setGroupManagerAddress(NetworkAddress groupManagerAddress) 
+    {
+        groupManagerAddress_ = groupManagerAddress;
+    }
+
+    /**
+     * Returns the local controller identifier.
+     * 
+     * @return  The local controller identifier, null if not placed
+     */
+    public String getLocalControllerId() 
+    {
+        return localControllerId_;
+    }
+
+    /**
+     * Sets the local controller identifier.
+     * 
+     * @param localControllerId     The local controller identifier
+     */
+    public void setLocalControllerId(String localControllerId) 
+    {
+        localControllerId_ = localControllerId;
+    }
+
+    /**
+     * Returns the time the location was last verified.
+     * 
+     * @return  The verification time (ms), 0 if never
+     */
+    public long getVerificationTime() 
+    {
+        return verificationTime_;
+    }
+
+    /**
+     * Sets the time the location was last verified.
+     * 
+     * @param verificationTime      The verification time (ms)
+     */
+    public void setVerificationTime(long verificationTime) 
+    {
+        verificationTime_ = verificationTime;
+    }
+}
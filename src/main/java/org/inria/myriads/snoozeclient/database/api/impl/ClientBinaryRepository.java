@@ -0,0 +1,1240 @@
+/**
+ * Copyright (C) 2010-2013 Eugen Feller, INRIA <eugen.feller@inria.fr>
+ *
+ * This file is part of Snooze, a scalable, autonomic, and
+ * energy-aware virtual machine (VM) management framework.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package org.inria.myriads.snoozeclient.database.api.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URLEncoder;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.inria.myriads.snoozeclient.database.api.AttributeType;
+import org.inria.myriads.snoozeclient.database.api.ClientRepository;
+import org.inria.myriads.snoozeclient.database.api.VirtualMachineRecord;
+import org.inria.myriads.snoozeclient.templates.TemplateReaderFactory;
+import org.inria.myriads.snoozeclient.templates.api.TemplateReader;
+import org.inria.myriads.snoozecommon.communication.NetworkAddress;
+import org.inria.myriads.snoozecommon.communication.virtualcluster.VirtualMachineMetaData;
+import org.inria.myriads.snoozecommon.communication.virtualcluster.monitoring.NetworkDemand;
+import org.inria.myriads.snoozecommon.communication.virtualcluster.status.VirtualMachineStatus;
+import org.inria.myriads.snoozecommon.communication.virtualcluster.submission.VirtualClusterSubmissionRequest;
+import org.inria.myriads.snoozecommon.communication.virtualcluster.submission.VirtualClusterSubmissionResponse;
+import org.inria.myriads.snoozecommon.communication.virtualcluster.submission.VirtualMachineTemplate;
+import org.inria.myriads.snoozecommon.guard.Guard;
+import org.inria.myriads.snoozecommon.util.NetworkUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+/**
+ * Client data repository based on one binary file per record.
+ * 
+ * The repository directory holds the ordered cluster names in "clusters.idx",
+ * the virtual machine names of each cluster in "clusters/" and one record per
+ * virtual machine in "vms/". A command only reads and writes the records it
+ * touches instead of the whole repository.
+ * 
+ * Within a unit of work writes are buffered and applied on commit. Every file
+ * is replaced through a temporary file, and the files already replaced are
+ * restored if a commit fails.
+ * 
+ * @author Eugen Feller
+ */
+public final class ClientBinaryRepository 
+    implements ClientRepository
+{
+    /** Define the logger. */
+    private static final Logger log_ = LoggerFactory.getLogger(ClientBinaryRepository.class);
+    
+    /** Record format version, version 2 appends the verification time. */
+    private static final int FORMAT_VERSION = 2;
+    
+    /** Cluster index file name. */
+    private static final String CLUSTER_INDEX_FILE_NAME = "clusters.idx";
+    
+    /** Cluster directory name. */
+    private static final String CLUSTER_DIRECTORY_NAME = "clusters";
+    
+    /** Virtual machine directory name. */
+    private static final String VIRTUAL_MACHINE_DIRECTORY_NAME = "vms";
+    
+    /** Record file suffix. */
+    private static final String RECORD_SUFFIX = ".rec";
+    
+    /** Repository directory. */
+    private File repositoryDirectory_;
+    
+    /** Virtual cluster names (lazily loaded), only replaced once written. */
+    private List<String> virtualClusterNames_;
+    
+    /** Buffered writes of the current unit of work, null contents mark deletions. */
+    private Map<File, byte[]> pendingWrites_;
+    
+    /** Nesting depth of the current unit of work. */
+    private int transactionDepth_;
+    
+    /**
+     * Constructor.
+     * 
+     * @param repositoryDirectory   The repository directory
+     * @throws Exception            The exception
+     */
+    public ClientBinaryRepository(String repositoryDirectory) 
+        throws Exception
+    {
+        Guard.check(repositoryDirectory);
+        log_.debug(String.format("Initializing the binary repository in %s", repositoryDirectory));
+        
+        repositoryDirectory_ = new File(repositoryDirectory);
+        pendingWrites_ = new LinkedHashMap<File, byte[]>();
+        new File(repositoryDirectory_, CLUSTER_DIRECTORY_NAME).mkdirs();
+        new File(repositoryDirectory_, VIRTUAL_MACHINE_DIRECTORY_NAME).mkdirs();
+    }
+    
+    /**
+     * Begins a unit of work.
+     */
+    @Override
+    public synchronized void beginTransaction()
+    {
+        transactionDepth_++;
+        log_.debug(String.format("Unit of work started (depth %d)", transactionDepth_));
+    }
+    
+    /**
+     * Commits a unit of work.
+     * 
+     * @throws Exception       The exception
+     */
+    @Override
+    public synchronized void commitTransaction() 
+        throws Exception
+    {
+        if (transactionDepth_ == 0)
+        {
+            log_.debug("No unit of work in progress!");
+            return;
+        }
+        
+        transactionDepth_--;
+        if (transactionDepth_ > 0)
+        {
+            return;
+        }
+        
+        log_.debug(String.format("Unit of work committed! Applying %d file changes", pendingWrites_.size()));
+        Map<File, byte[]> pendingWrites = pendingWrites_;
+        pendingWrites_ = new LinkedHashMap<File, byte[]>();
+        Map<File, byte[]> originalContents = new LinkedHashMap<File, byte[]>();
+        try
+        {
+            for (Map.Entry<File, byte[]> entry : pendingWrites.entrySet())
+            {
+                File file = entry.getKey();
+                originalContents.put(file, loadFile(file));
+                storeFile(file, entry.getValue());
+            }
+        }
+        catch (IOException exception)
+        {
+            log_.error(String.format("Unable to commit the unit of work! Restoring %d files", 
+                                     originalContents.size()));
+            restoreFiles(originalContents);
+            virtualClusterNames_ = null;
+            throw exception;
+        }
+    }
+    
+    /**
+     * Restores files replaced by a failed commit.
+     * 
+     * @param originalContents  The original contents, null for files which did not exist
+     */
+    private void restoreFiles(Map<File, byte[]> originalContents)
+    {
+        for (Map.Entry<File, byte[]> entry : originalContents.entrySet())
+        {
+            try
+            {
+                storeFile(entry.getKey(), entry.getValue());
+            }
+            catch (IOException exception)
+            {
+                log_.error(String.format("Unable to restore %s: %s", entry.getKey(), exception.getMessage()));
+            }
+        }
+    }
+    
+    /**
+     * Defines a cluster.
+     * 
+     * @param virtualClusterName    The virtual cluster name
+     * @return                      true if defined, false otherwise
+     * @throws Exception            The exception
+     */
+    @Override
+    public synchronized boolean defineVirtualCluster(String virtualClusterName) 
+        throws Exception
+    {
+        Guard.check(virtualClusterName);
+        log_.debug(String.format("Defining cluster: %s", virtualClusterName));
+        
+        List<String> virtualClusterNames = getVirtualClusterNames();
+        if (virtualClusterNames.contains(virtualClusterName))
+        {
+            log_.debug("Such cluster already exists!");
+            return false;
+        }
+        
+        virtualClusterNames.add(virtualClusterName);
+        beginTransaction();
+        try
+        {
+            writeVirtualMachineIds(virtualClusterName, new ArrayList<String>());
+            writeVirtualClusterNames(virtualClusterNames);
+        }
+        finally
+        {
+            commitTransaction();
+        }
+        return true;
+    }
+    
+    /**
+     * Undefines a cluster and removes its virtual machines.
+     * 
+     * @param virtualClusterName    The virtual cluster name
+     * @return                      true if undefined, false otherwise
+     * @throws Exception            The exception
+     */
+    @Override
+    public synchronized boolean undefineVirtualCluster(String virtualClusterName) 
+        throws Exception
+    {
+        Guard.check(virtualClusterName);
+        log_.debug(String.format("Undefining cluster: %s", virtualClusterName));
+        
+        List<String> virtualClusterNames = getVirtualClusterNames();
+        if (!virtualClusterNames.contains(virtualClusterName))
+        {
+            log_.debug("No such cluster exists!");
+            return false;
+        }
+        
+        virtualClusterNames.remove(virtualClusterName);
+        beginTransaction();
+        try
+        {
+            for (String virtualMachineId : readVirtualMachineIds(virtualClusterName))
+            {
+                writeFile(getVirtualMachineFile(virtualMachineId), null);
+            }
+            
+            writeFile(getVirtualClusterFile(virtualClusterName), null);
+            writeVirtualClusterNames(virtualClusterNames);
+        }
+        finally
+        {
+            commitTransaction();
+        }
+        return true;
+    }
+    
+    /**
+     * Adds a virtual machine description to a given cluster.
+     * 
+     * @param description           The virtual machine description
+     * @param virtualClusterName    The virtual cluster name
+     * @return                      true if added, false otherwise
+     * @throws Exception            The exception
+     */
+    @Override
+    public synchronized boolean addVirtualMachineTemplate(VirtualMachineTemplate description, 
+                                                          String virtualClusterName) 
+        throws Exception
+    {
+        Guard.check(description, virtualClusterName);
+        log_.debug("Adding virtual machine description");
+        return addVirtualMachineRecord(createVirtualMachineRecord(description, virtualClusterName));
+    }
+    
+    /**
+     * Adds several virtual machine descriptions to a given cluster.
+     * 
+     * The cluster member list is written once for all virtual machines.
+     * 
+     * @param descriptions          The virtual machine descriptions
+     * @param virtualClusterName    The virtual cluster name
+     * @return                      true if all added, false otherwise
+     * @throws Exception            The exception
+     */
+    @Override
+    public synchronized boolean addVirtualMachineTemplates(List<VirtualMachineTemplate> descriptions, 
+                                                           String virtualClusterName) 
+        throws Exception
+    {
+        Guard.check(descriptions, virtualClusterName);
+        log_.debug(String.format("Adding %d virtual machine descriptions", descriptions.size()));
+        if (!getVirtualClusterNames().contains(virtualClusterName))
+        {
+            log_.debug("Unable to find the cluster");
+            return false;
+        }
+        
+        List<VirtualMachineRecord> records = new ArrayList<VirtualMachineRecord>(descriptions.size());
+        Set<String> newVirtualMachineIds = new HashSet<String>();
+        for (VirtualMachineTemplate description : descriptions)
+        {
+            VirtualMachineRecord record = createVirtualMachineRecord(description, virtualClusterName);
+            String virtualMachineId = record.getVirtualMachineId();
+            if (!newVirtualMachineIds.add(virtualMachineId) || readVirtualMachineRecord(virtualMachineId) != null)
+            {
+                log_.debug(String.format("Virtual machine %s already exists!", virtualMachineId));
+                return false;
+            }
+            
+            records.add(record);
+        }
+        
+        beginTransaction();
+        try
+        {
+            List<String> virtualMachineIds = readVirtualMachineIds(virtualClusterName);
+            for (VirtualMachineRecord record : records)
+            {
+                virtualMachineIds.add(record.getVirtualMachineId());
+                writeVirtualMachineRecord(record);
+            }
+            
+            writeVirtualMachineIds(virtualClusterName, virtualMachineIds);
+        }
+        finally
+        {
+            commitTransaction();
+        }
+        
+        return true;
+    }
+    
+    /**
+     * Creates the record of a virtual machine description.
+     * 
+     * @param description           The virtual machine description
+     * @param virtualClusterName    The virtual cluster name
+     * @return                      The record
+     * @throws Exception            The exception
+     */
+    private VirtualMachineRecord createVirtualMachineRecord(VirtualMachineTemplate description, 
+                                                            String virtualClusterName)
+        throws Exception
+    {
+        String virtualMachineId = description.getName();
+        if (description.getLibVirtTemplate() != null)
+        {
+            virtualMachineId = getVirtualMachineIdFromTemplate(description.getLibVirtTemplate());
+        }
+        
+        VirtualMachineRecord record = new VirtualMachineRecord(virtualMachineId, virtualClusterName);
+        record.setTemplate(description.getLibVirtTemplate());
+        if (description.getLibVirtDescription() == null)
+        {
+            record.setName(String.valueOf(description.getName()));
+            record.setImageId(description.getImageId());
+            record.setVcpus(description.getVcpus());
+            record.setMemory(description.getMemory());
+            record.setHostId(description.getHostId());
+        }
+        
+        record.setNetworkCapacity(description.getNetworkCapacityDemand());
+        return record;
+    }
+    
+    /**
+     * Adds a raw virtual machine entry to its cluster.
+     * 
+     * @param record            The virtual machine record
+     * @return                  true if added, false otherwise
+     * @throws Exception        The exception
+     */
+    @Override
+    public synchronized boolean addVirtualMachineRecord(VirtualMachineRecord record)
+        throws Exception
+    {
+        Guard.check(record);
+        String virtualClusterName = record.getVirtualClusterName();
+        if (!getVirtualClusterNames().contains(virtualClusterName))
+        {
+            log_.debug("Unable to find the cluster");
+            return false;
+        }
+        
+        if (readVirtualMachineRecord(record.getVirtualMachineId()) != null)
+        {
+            log_.debug("Such virtual machine already exists!");
+            return false;
+        }
+        
+        List<String> virtualMachineIds = readVirtualMachineIds(virtualClusterName);
+        virtualMachineIds.add(record.getVirtualMachineId());
+        writeVirtualMachineIds(virtualClusterName, virtualMachineIds);
+        writeVirtualMachineRecord(record);
+        return true;
+    }
+    
+    /**
+     * Removes a virtual machine description.
+     * 
+     * @param virtualMachineId      The virtual machine identifier
+     * @param virtualClusterName    The virtual cluster name
+     * @return                      true if removed, false otherwise
+     * @throws Exception            The exception
+     */
+    @Override
+    public synchronized boolean removeVirtualMachineDescription(String virtualMachineId, String virtualClusterName) 
+        throws Exception
+    {
+        Guard.check(virtualMachineId, virtualClusterName);
+        log_.debug("Removing virtual machine description");
+        
+        if (!getVirtualClusterNames().contains(virtualClusterName))
+        {
+            log_.debug("Unable to find the cluster");
+            return false;
+        }
+        
+        List<String> virtualMachineIds = readVirtualMachineIds(virtualClusterName);
+        if (!virtualMachineIds.remove(virtualMachineId))
+        {
+            log_.debug("Unable to find this virtual machine entry");
+            return false;
+        }
+        
+        writeVirtualMachineIds(virtualClusterName, virtualMachineIds);
+        writeFile(getVirtualMachineFile(virtualMachineId), null);
+        return true;
+    }
+    
+    /**
+     * Creates a virtual cluster submission request.
+     * 
+     * @param typeIdentifier    The type identifier
+     * @param attributeType     The attribute type
+     * @return                  The virtual cluster submission request
+     * @throws Exception        The exception
+     */
+    @Override
+    public synchronized VirtualClusterSubmissionRequest createVirtualClusterSubmissionRequest(String typeIdentifier,
+        AttributeType attributeType)
+        throws Exception
+    {
+        Guard.check(typeIdentifier, attributeType);
+        log_.debug(String.format("Generating virtual cluster submission request for: %s", typeIdentifier));
+        
+        ArrayList<VirtualMachineTemplate> templates = new ArrayList<VirtualMachineTemplate>();
+        switch (attributeType)
+        {
+            case vm :
+                VirtualMachineRecord record = readVirtualMachineRecord(typeIdentifier);
+                if (record == null)
+                {
+                    throw new ParseException("Unable to find the specified virtual machine! Define it first?", 0);
+                }
+                
+                VirtualMachineTemplate template = createVirtualMachineTemplate(record);
+                if (template == null)
+                {
+                    throw new ParseException("Error during virtual machine template generation!", 0);
+                }
+                templates.add(template);
+                break;
+                
+            case cluster :
+                for (String virtualMachineId : getVirtualMachineIds(typeIdentifier))
+                {
+                    VirtualMachineRecord entry = readVirtualMachineRecord(virtualMachineId);
+                    VirtualMachineTemplate entryTemplate = entry == null ? null : createVirtualMachineTemplate(entry);
+                    if (entryTemplate == null)
+                    {
+                        log_.debug("Error during virtual machine template generation!");
+                        continue;
+                    }
+                    templates.add(entryTemplate);
+                }
+                break;
+                
+            default:
+                throw new ParseException(String.format("Invalid attribute type selected: %s", attributeType), 0);
+        }
+        
+        VirtualClusterSubmissionRequest virtualCluster = new VirtualClusterSubmissionRequest();
+        virtualCluster.setVirtualMachineTemplates(templates);
+        return virtualCluster;
+    }
+    
+    /**
+     * Returns the virtual machine identifiers of a cluster.
+     * 
+     * @param virtualClusterName    The virtual cluster name
+     * @return                      The list of identifiers
+     * @throws Exception            The exception
+     */
+    @Override
+    public synchronized List<String> getVirtualMachineIds(String virtualClusterName) 
+        throws Exception
+    {
+        Guard.check(virtualClusterName);
+        if (!getVirtualClusterNames().contains(virtualClusterName))
+        {
+            throw new ParseException("Unable to find the cluster! Define it first?", 0);
+        }
+        
+        List<String> virtualMachineIds = readVirtualMachineIds(virtualClusterName);
+        if (virtualMachineIds.isEmpty())
+        {
+            throw new ParseException("Unable to detect any cluster entries! Add some VM?", 0);
+        }
+        
+        return virtualMachineIds;
+    }
+    
+    /**
+     * Prints the available clusters.
+     * 
+     * @throws Exception        The exception
+     */
+    @Override
+    public synchronized void printVirtualClusters() 
+        throws Exception
+    {
+        List<String> virtualClusterNames = getVirtualClusterNames();
+        if (virtualClusterNames.isEmpty())
+        {
+            throw new ParseException("No virtual clusters defined!", 0);
+        }
+        
+        log_.info("Virtual cluster(s):");
+        for (String virtualClusterName : virtualClusterNames)
+        {
+            log_.info(virtualClusterName);
+        }
+    }
+    
+    /**
+     * Prints the content of a cluster.
+     * 
+     * @param virtualClusterName    The virtual cluster name
+     * @throws Exception            The exception
+     */
+    @Override
+    public synchronized void printVirtualCluster(String virtualClusterName) 
+        throws Exception
+    {
+        Guard.check(virtualClusterName);
+        if (!getVirtualClusterNames().contains(virtualClusterName))
+        {
+            throw new ParseException("Unable to find the cluster! Define it first?", 0);
+        }
+        
+        List<String> virtualMachineIds = readVirtualMachineIds(virtualClusterName);
+        if (virtualMachineIds.isEmpty())
+        {
+            throw new ParseException("Unable to detect any cluster entries! No VMs in this cluster?", 0);
+        }
+        
+        log_.info(String.format("%20s \t %20s", "NAME", "TEMPLATE"));
+        for (String virtualMachineId : virtualMachineIds)
+        {
+            VirtualMachineRecord record = readVirtualMachineRecord(virtualMachineId);
+            String template = record == null ? null : record.getTemplate();
+            log_.info(String.format("%20s \t %20s", virtualMachineId, template));
+        }
+    }
+    
+    /**
+     * Returns the virtual machine meta data.
+     * 
+     * @param virtualMachineId      The virtual machine identifier
+     * @return                      The virtual machine meta data
+     * @throws Exception            The exception
+     */
+    @Override
+    public synchronized VirtualMachineMetaData getVirtualMachineMetaData(String virtualMachineId) 
+        throws Exception
+    {
+        Guard.check(virtualMachineId);
+        VirtualMachineRecord record = readVirtualMachineRecord(virtualMachineId);
+        if (record == null)
+        {
+            log_.debug("No such virtual machine avalable! Define it first!");
+            return null;
+        }
+        
+        NetworkAddress controlDataAddress = record.getGroupManagerAddress();
+        VirtualMachineMetaData metaData = new VirtualMachineMetaData();
+        metaData.setGroupManagerControlDataAddress(controlDataAddress == null ? new NetworkAddress() : 
+                                                                                controlDataAddress);
+        metaData.getVirtualMachineLocation().setVirtualMachineId(virtualMachineId);
+        metaData.getVirtualMachineLocation().setLocalControllerId(record.getLocalControllerId());
+        return metaData;
+    }
+    
+    /**
+     * Updates the virtual cluster mapping.
+     * 
+     * @param virtualClusterResponse    The virtual cluster response
+     * @throws Exception                The exception
+     */
+    @Override
+    public synchronized void addVirtualClusterResponse(VirtualClusterSubmissionResponse virtualClusterResponse) 
+        throws Exception
+    {
+        Guard.check(virtualClusterResponse);
+        for (VirtualMachineMetaData entry : virtualClusterResponse.getVirtualMachineMetaData())
+        {
+            if (entry.getStatus().equals(VirtualMachineStatus.ERROR))
+            {
+                log_.debug("Virtual machine is in ERROR state! Not updating!");
+                continue;
+            }
+            
+            updateVirtualMachineMetaData(entry.getVirtualMachineLocation().getVirtualMachineId(), 
+                                         entry.getVirtualMachineLocation().getLocalControllerId(),
+                                         entry.getGroupManagerControlDataAddress());
+        }
+    }
+    
+    /**
+     * Updates the virtual machine meta data.
+     * 
+     * @param virtualMachineId      The virtual machine identifier
+     * @param localControllerId     The local controller identifier
+     * @param groupManagerAddress   The group manager address
+     * @throws Exception            The exception
+     */
+    @Override
+    public synchronized void updateVirtualMachineMetaData(String virtualMachineId, 
+                                                          String localControllerId,
+                                                          NetworkAddress groupManagerAddress) 
+        throws Exception
+    {
+        Guard.check(virtualMachineId, localControllerId, groupManagerAddress);
+        VirtualMachineRecord record = readVirtualMachineRecord(virtualMachineId);
+        if (record == null)
+        {
+            log_.debug("No such virtual machine available! Define it first!");
+            return;
+        }
+        
+        NetworkAddress currentAddress = record.getGroupManagerAddress();
+        if (localControllerId.equals(record.getLocalControllerId()) && currentAddress != null &&
+            groupManagerAddress.getAddress().equals(currentAddress.getAddress()) &&
+            groupManagerAddress.getPort() == currentAddress.getPort())
+        {
+            log_.debug("Mapping is unchanged! Skipping update");
+            return;
+        }
+        
+        record.setLocalControllerId(localControllerId);
+        record.setGroupManagerAddress(groupManagerAddress);
+        writeVirtualMachineRecord(record);
+    }
+    
+    /**
+     * Returns the content of the virtual machine template.
+     * 
+     * @param virtualMachineId      The virtual machine identifier
+     * @return                      The template content
+     * @throws Exception            The exception
+     */
+    @Override
+    public synchronized String getVirtualMachineTemplateContent(String virtualMachineId) 
+        throws Exception
+    {
+        String virtualMachineTemplate = getVirtualMachineTemplate(virtualMachineId);
+        if (virtualMachineTemplate == null)
+        {
+            return null;
+        }
+        
+        TemplateReader templateReader = TemplateReaderFactory.newTemplateReader();
+        return templateReader.readTemplateDescription(virtualMachineTemplate);
+    }
+    
+    /**
+     * Returns the path of the virtual machine template.
+     * 
+     * @param virtualMachineId      The virtual machine identifier
+     * @return                      The template path
+     * @throws Exception            The exception
+     */
+    @Override
+    public synchronized String getVirtualMachineTemplate(String virtualMachineId) 
+        throws Exception
+    {
+        VirtualMachineRecord record = readVirtualMachineRecord(virtualMachineId);
+        if (record == null)
+        {
+            log_.debug("No such virtual machine available! Define it first!");
+            return null;
+        }
+        
+        return record.getTemplate();
+    }
+    
+    /**
+     * Updates the network capacity demand, zero values keep the current demand.
+     * 
+     * @param virtualMachineId      The virtual machine identifier
+     * @param networkDemand         The network demand
+     * @throws Exception            The exception
+     */
+    @Override
+    public synchronized void updateNetworkCapacityDemand(String virtualMachineId, NetworkDemand networkDemand) 
+        throws Exception
+    {
+        VirtualMachineRecord record = readVirtualMachineRecord(virtualMachineId);
+        if (record == null)
+        {
+            log_.debug("No such virtual machine available! Define it first!");
+            throw new Exception("No such virtual machine available! Define it first!");
+        }
+        
+        NetworkDemand oldNetworkDemand = record.getNetworkCapacity();
+        NetworkDemand newNetworkDemand = new NetworkDemand();
+        newNetworkDemand.setRxBytes(networkDemand.getRxBytes() == 0 ? oldNetworkDemand.getRxBytes() : 
+                                                                      networkDemand.getRxBytes());
+        newNetworkDemand.setTxBytes(networkDemand.getTxBytes() == 0 ? oldNetworkDemand.getTxBytes() : 
+                                                                      networkDemand.getTxBytes());
+        record.setNetworkCapacity(newNetworkDemand);
+        writeVirtualMachineRecord(record);
+    }
+    
+    /**
+     * Returns the virtual cluster names.
+     * 
+     * @return                  A copy of the virtual cluster names
+     * @throws Exception        The exception
+     */
+    @Override
+    public synchronized List<String> getVirtualClusterNames() 
+        throws Exception
+    {
+        if (virtualClusterNames_ == null)
+        {
+            virtualClusterNames_ = readStrings(new File(repositoryDirectory_, CLUSTER_INDEX_FILE_NAME));
+        }
+        
+        return new ArrayList<String>(virtualClusterNames_);
+    }
+    
+    /**
+     * Returns the raw virtual machine entries of a cluster.
+     * 
+     * @param virtualClusterName    The virtual cluster name
+     * @return                      The virtual machine records
+     * @throws Exception            The exception
+     */
+    @Override
+    public synchronized List<VirtualMachineRecord> getVirtualMachineRecords(String virtualClusterName) 
+        throws Exception
+    {
+        Guard.check(virtualClusterName);
+        List<VirtualMachineRecord> records = new ArrayList<VirtualMachineRecord>();
+        for (String virtualMachineId : readVirtualMachineIds(virtualClusterName))
+        {
+            VirtualMachineRecord record = readVirtualMachineRecord(virtualMachineId);
+            if (record != null)
+            {
+                records.add(record);
+            }
+        }
+        
+        return records;
+    }
+    
+    /**
+     * Returns the time the location of a virtual machine was last verified.
+     * 
+     * @param virtualMachineId      The virtual machine identifier
+     * @return                      The verification time (ms), 0 if never verified
+     * @throws Exception            The exception
+     */
+    @Override
+    public synchronized long getVirtualMachineVerificationTime(String virtualMachineId) 
+        throws Exception
+    {
+        VirtualMachineRecord record = readVirtualMachineRecord(virtualMachineId);
+        return record == null ? 0 : record.getVerificationTime();
+    }
+    
+    /**
+     * Stamps the location of a virtual machine as verified.
+     * 
+     * @param virtualMachineId      The virtual machine identifier
+     * @param verificationTime      The verification time (ms)
+     * @throws Exception            The exception
+     */
+    @Override
+    public synchronized void setVirtualMachineVerificationTime(String virtualMachineId, long verificationTime) 
+        throws Exception
+    {
+        VirtualMachineRecord record = readVirtualMachineRecord(virtualMachineId);
+        if (record == null)
+        {
+            log_.debug("No such virtual machine available! Define it first!");
+            return;
+        }
+        
+        record.setVerificationTime(verificationTime);
+        writeVirtualMachineRecord(record);
+    }
+    
+    /**
+     * Creates a virtual machine template from a record.
+     * 
+     * @param record        The virtual machine record
+     * @return              The virtual machine template, null if incomplete
+     * @throws Exception    The exception
+     */
+    private VirtualMachineTemplate createVirtualMachineTemplate(VirtualMachineRecord record) 
+        throws Exception
+    {
+        if (record.getTemplate() == null && record.getImageId() == null)
+        {
+            log_.debug("No template nor image id could be found for this virtual machine!");
+            return null;
+        }
+        
+        VirtualMachineTemplate template = new VirtualMachineTemplate();
+        if (record.getTemplate() != null)
+        {
+            TemplateReader templateReader = TemplateReaderFactory.newTemplateReader();
+            template.setLibVirtTemplate(templateReader.readTemplateDescription(record.getTemplate()));
+        } else
+        {
+            if (!record.isFlavorBased())
+            {
+                return null;
+            }
+            
+            if (record.getHostId() != null)
+            {
+                template.setHostId(record.getHostId());
+            }
+            template.setVcpus(record.getVcpus());
+            template.setMemory(record.getMemory());
+            template.setName(record.getName());
+            template.setImageId(record.getImageId());
+        }
+        
+        template.setNetworkCapacityDemand(record.getNetworkCapacity());
+        return template;
+    }
+    
+    /**
+     * Returns the virtual machine identifier from a libvirt template.
+     * 
+     * @param libVirtTemplate       The libvirt template
+     * @return                      The identifier
+     * @throws Exception            The exception
+     */
+    private String getVirtualMachineIdFromTemplate(String libVirtTemplate) 
+        throws Exception
+    {
+        Element root = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(new File(libVirtTemplate))
+                                                                                .getDocumentElement();
+        NodeList nodes = root.getElementsByTagName("name");
+        if (nodes.getLength() == 0)
+        {
+            throw new ParseException(String.format("No name found in template %s", libVirtTemplate), 0);
+        }
+        
+        return nodes.item(0).getTextContent();
+    }
+    
+    /**
+     * Returns the file of a cluster.
+     * 
+     * @param virtualClusterName    The virtual cluster name
+     * @return                      The file
+     * @throws IOException          The I/O exception
+     */
+    private File getVirtualClusterFile(String virtualClusterName) 
+        throws IOException
+    {
+        return new File(new File(repositoryDirectory_, CLUSTER_DIRECTORY_NAME), 
+                        URLEncoder.encode(virtualClusterName, "UTF-8") + RECORD_SUFFIX);
+    }
+    
+    /**
+     * Returns the file of a virtual machine.
+     * 
+     * @param virtualMachineId      The virtual machine identifier
+     * @return                      The file
+     * @throws IOException          The I/O exception
+     */
+    private File getVirtualMachineFile(String virtualMachineId) 
+        throws IOException
+    {
+        return new File(new File(repositoryDirectory_, VIRTUAL_MACHINE_DIRECTORY_NAME), 
+                        URLEncoder.encode(virtualMachineId, "UTF-8") + RECORD_SUFFIX);
+    }
+    
+    /**
+     * Writes the cluster names and caches them once written.
+     * 
+     * @param virtualClusterNames   The virtual cluster names
+     * @throws IOException          The I/O exception
+     */
+    private void writeVirtualClusterNames(List<String> virtualClusterNames) 
+        throws IOException
+    {
+        writeStrings(new File(repositoryDirectory_, CLUSTER_INDEX_FILE_NAME), virtualClusterNames);
+        virtualClusterNames_ = virtualClusterNames;
+    }
+    
+    /**
+     * Reads the virtual machine identifiers of a cluster.
+     * 
+     * @param virtualClusterName    The virtual cluster name
+     * @return                      The identifiers
+     * @throws IOException          The I/O exception
+     */
+    private List<String> readVirtualMachineIds(String virtualClusterName) 
+        throws IOException
+    {
+        return readStrings(getVirtualClusterFile(virtualClusterName));
+    }
+    
+    /**
+     * Writes the virtual machine identifiers of a cluster.
+     * 
+     * @param virtualClusterName    The virtual cluster name
+     * @param virtualMachineIds     The identifiers
+     * @throws IOException          The I/O exception
+     */
+    private void writeVirtualMachineIds(String virtualClusterName, List<String> virtualMachineIds) 
+        throws IOException
+    {
+        writeStrings(getVirtualClusterFile(virtualClusterName), virtualMachineIds);
+    }
+    
+    /**
+     * Reads a list of strings.
+     * 
+     * @param file              The file
+     * @return                  The strings, empty if the file does not exist
+     * @throws IOException      The I/O exception
+     */
+    private List<String> readStrings(File file) 
+        throws IOException
+    {
+        List<String> strings = new ArrayList<String>();
+        DataInputStream input = openRecord(file);
+        if (input == null)
+        {
+            return strings;
+        }
+        
+        int size = input.readInt();
+        for (int i = 0; i < size; i++)
+        {
+            strings.add(input.readUTF());
+        }
+        
+        return strings;
+    }
+    
+    /**
+     * Writes a list of strings.
+     * 
+     * @param file              The file
+     * @param strings           The strings
+     * @throws IOException      The I/O exception
+     */
+    private void writeStrings(File file, List<String> strings) 
+        throws IOException
+    {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(buffer);
+        output.writeInt(FORMAT_VERSION);
+        output.writeInt(strings.size());
+        for (String string : strings)
+        {
+            output.writeUTF(string);
+        }
+        
+        output.flush();
+        writeFile(file, buffer.toByteArray());
+    }
+    
+    /**
+     * Reads a virtual machine record.
+     * 
+     * @param virtualMachineId  The virtual machine identifier
+     * @return                  The record, null if it does not exist
+     * @throws IOException      The I/O exception
+     */
+    private VirtualMachineRecord readVirtualMachineRecord(String virtualMachineId) 
+        throws IOException
+    {
+        DataInputStream input = openRecord(getVirtualMachineFile(virtualMachineId));
+        if (input == null)
+        {
+            return null;
+        }
+        
+        VirtualMachineRecord record = new VirtualMachineRecord(input.readUTF(), input.readUTF());
+        record.setTemplate(readOptionalString(input));
+        record.setName(readOptionalString(input));
+        record.setImageId(readOptionalString(input));
+        record.setVcpus(input.readInt());
+        record.setMemory(input.readLong());
+        record.setHostId(readOptionalString(input));
+        record.setNetworkCapacity(new NetworkDemand(input.readDouble(), input.readDouble()));
+        String groupManagerAddress = readOptionalString(input);
+        int groupManagerPort = input.readInt();
+        if (groupManagerAddress != null)
+        {
+            record.setGroupManagerAddress(NetworkUtils.createNetworkAddress(groupManagerAddress, groupManagerPort));
+        }
+        record.setLocalControllerId(readOptionalString(input));
+        if (input.available() > 0)
+        {
+            record.setVerificationTime(input.readLong());
+        }
+        return record;
+    }
+    
+    /**
+     * Writes a virtual machine record.
+     * 
+     * @param record            The virtual machine record
+     * @throws IOException      The I/O exception
+     */
+    private void writeVirtualMachineRecord(VirtualMachineRecord record) 
+        throws IOException
+    {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(buffer);
+        output.writeInt(FORMAT_VERSION);
+        output.writeUTF(record.getVirtualMachineId());
+        output.writeUTF(record.getVirtualClusterName());
+        writeOptionalString(output, record.getTemplate());
+        writeOptionalString(output, record.getName());
+        writeOptionalString(output, record.getImageId());
+        output.writeInt(record.getVcpus());
+        output.writeLong(record.getMemory());
+        writeOptionalString(output, record.getHostId());
+        NetworkDemand networkCapacity = record.getNetworkCapacity();
+        output.writeDouble(networkCapacity == null ? 0 : networkCapacity.getRxBytes());
+        output.writeDouble(networkCapacity == null ? 0 : networkCapacity.getTxBytes());
+        NetworkAddress groupManagerAddress = record.getGroupManagerAddress();
+        writeOptionalString(output, groupManagerAddress == null ? null : groupManagerAddress.getAddress());
+        output.writeInt(groupManagerAddress == null ? 0 : groupManagerAddress.getPort());
+        writeOptionalString(output, record.getLocalControllerId());
+        output.writeLong(record.getVerificationTime());
+        output.flush();
+        writeFile(getVirtualMachineFile(record.getVirtualMachineId()), buffer.toByteArray());
+    }
+    
+    /**
+     * Reads a nullable string.
+     * 
+     * @param input             The input
+     * @return                  The string
+     * @throws IOException      The I/O exception
+     */
+    private String readOptionalString(DataInputStream input) 
+        throws IOException
+    {
+        boolean isPresent = input.readBoolean();
+        return isPresent ? input.readUTF() : null;
+    }
+    
+    /**
+     * Writes a nullable string.
+     * 
+     * @param output            The output
+     * @param string            The string
+     * @throws IOException      The I/O exception
+     */
+    private void writeOptionalString(DataOutputStream output, String string) 
+        throws IOException
+    {
+        output.writeBoolean(string != null);
+        if (string != null)
+        {
+            output.writeUTF(string);
+        }
+    }
+    
+    /**
+     * Opens a record file and checks its format version.
+     * 
+     * @param file              The file
+     * @return                  The input, null if the file does not exist
+     * @throws IOException      The I/O exception
+     */
+    private DataInputStream openRecord(File file) 
+        throws IOException
+    {
+        byte[] content = readFile(file);
+        if (content == null)
+        {
+            return null;
+        }
+        
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(content));
+        int version = input.readInt();
+        if (version < 1 || version > FORMAT_VERSION)
+        {
+            throw new IOException(String.format("Unsupported record version %d in %s", version, file));
+        }
+        
+        return input;
+    }
+    
+    /**
+     * Reads a file, taking buffered writes into account.
+     * 
+     * @param file              The file
+     * @return                  The content, null if the file does not exist
+     * @throws IOException      The I/O exception
+     */
+    private byte[] readFile(File file) 
+        throws IOException
+    {
+        if (pendingWrites_.containsKey(file))
+        {
+            return pendingWrites_.get(file);
+        }
+        
+        return loadFile(file);
+    }
+    
+    /**
+     * Loads a file from stable storage.
+     * 
+     * @param file              The file
+     * @return                  The content, null if the file does not exist
+     * @throws IOException      The I/O exception
+     */
+    private byte[] loadFile(File file) 
+        throws IOException
+    {
+        if (!file.exists())
+        {
+            return null;
+        }
+        
+        InputStream input = new FileInputStream(file);
+        try
+        {
+            ByteArrayOutputStream content = new ByteArrayOutputStream((int) file.length());
+            byte[] buffer = new byte[4096];
+            int length;
+            while ((length = input.read(buffer)) != -1)
+            {
+                content.write(buffer, 0, length);
+            }
+            return content.toByteArray();
+        }
+        finally
+        {
+            input.close();
+        }
+    }
+    
+    /**
+     * Writes a file, buffered until commit within a unit of work.
+     * 
+     * @param file              The file
+     * @param content           The content, null to delete the file
+     * @throws IOException      The I/O exception
+     */
+    private void writeFile(File file, byte[] content) 
+        throws IOException
+    {
+        if (transactionDepth_ > 0)
+        {
+            pendingWrites_.put(file, content);
+            return;
+        }
+        
+        storeFile(file, content);
+    }
+    
+    /**
+     * Atomically replaces or deletes a file.
+     * 
+     * @param file              The file
+     * @param content           The content, null to delete the file
+     * @throws IOException      The I/O exception
+     */
+    private void storeFile(File file, byte[] content) 
+        throws IOException
+    {
+        if (content == null)
+        {
+            if (file.exists() && !file.delete())
+            {
+                throw new IOException(String.format("Unable to delete %s", file));
+            }
+            return;
+        }
+        
+        File temporaryFile = new File(file.getPath() + ".tmp");
+        OutputStream output = new FileOutputStream(temporaryFile);
+        try
+        {
+            output.write(content);
+        }
+        finally
+        {
+            output.close();
+        }
+        
+        if (!temporaryFile.renameTo(file))
+        {
+            // Some platforms refuse to rename over an existing file
+            if (!file.delete() || !temporaryFile.renameTo(file))
+            {
+                throw new IOException(String.format("Unable to replace %s", file));
+            }
+        }
+    }
+}
@@ -19,26 +19,37 @@
  */
 package org.inria.myriads.snoozeclient.database.api.impl;
 
+import java.io.Closeable;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.text.ParseException;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
 import javax.xml.transform.Result;
 import javax.xml.transform.Source;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
-import javax.xml.xpath.XPath;
-import javax.xml.xpath.XPathConstants;
-import javax.xml.xpath.XPathExpression;
-import javax.xml.xpath.XPathFactory;
 
 import org.inria.myriads.snoozeclient.database.api.AttributeType;
 import org.inria.myriads.snoozeclient.database.api.ClientRepository;
+import org.inria.myriads.snoozeclient.database.api.VirtualMachineRecord;
 import org.inria.myriads.snoozeclient.templates.TemplateReaderFactory;
 import org.inria.myriads.snoozeclient.templates.api.TemplateReader;
 import org.inria.myriads.snoozecommon.communication.NetworkAddress;
@@ -63,6 +74,17 @@ import org.w3c.dom.Text;
 /**
  * Client data repository based on XML.
  * 
+ * The document is only materialized when the repository is mutated. Until then
+ * lookups stream the file with StAX, stop at the requested cluster or virtual
+ * machine and only keep that fragment in memory.
+ * 
+ * Cluster and virtual machine elements are indexed by name, the indexes are kept 
+ * in sync with the document on every mutation. Before the document is loaded they 
+ * cache the streamed fragments.
+ * 
+ * Within a unit of work mutations only mark the document as dirty, it is written
+ * once on commit through a temporary file which replaces the repository file.
+ * 
  * @author Eugen Feller
  */
 public final class ClientXMLRepository 
@@ -74,12 +96,36 @@ public final class ClientXMLRepository
     /** Root element of xml file. */
     private static final String ROOT_ELEMENT_NAME = "clusters";
     
-    /** Keeps XML in memory. */
+    /** Keeps XML in memory, null until the repository is mutated. */
     private Document document_;
     
+    /** Owner document of the streamed fragments. */
+    private Document fragmentDocument_;
+    
     /** Client repository file. */
     private String repositoryFile_;
     
+    /** Virtual cluster elements by name. */
+    private Map<String, Element> virtualClusterIndex_;
+    
+    /** Virtual machine elements by name. */
+    private Map<String, Element> virtualMachineIndex_;
+    
+    /** Transformer factory. */
+    private TransformerFactory transformerFactory_;
+    
+    /** Nesting depth of the current unit of work. */
+    private int transactionDepth_;
+    
+    /** Unsaved mutations flag. */
+    private boolean isDirty_;
+    
+    /** Location verification times by virtual machine, null until loaded. */
+    private Properties verificationTimes_;
+    
+    /** Unsaved verification times flag. */
+    private boolean isVerificationDirty_;
+    
     /**
      * Constructor.
      * 
@@ -93,16 +139,228 @@ public final class ClientXMLRepository
         repositoryFile_ = repositoryFile;
         
         log_.debug("Initializing the client xml repository");              
-        boolean fileExists = fileExists(repositoryFile); 
+        virtualClusterIndex_ = new HashMap<String, Element>();
+        virtualMachineIndex_ = new HashMap<String, Element>();
+    }
+    
+    /**
+     * Materializes the document, required before any mutation.
+     * 
+     * @throws Exception       The exception
+     */
+    private synchronized void loadDocument() 
+        throws Exception
+    {
+        if (document_ != null)
+        {
+            return;
+        }
+        
+        boolean fileExists = fileExists(repositoryFile_); 
         if (fileExists)
         {
             log_.debug("XML file exists! Creating document from it!");
-            document_ = createDocumentFromFile(repositoryFile);
-            return;
-        } 
-       
-        log_.debug("Snooze XML file is missing! Creating empty document!");
-        document_ = createDocument();
+            document_ = createDocumentFromFile(repositoryFile_);
+        } else
+        {
+            log_.debug("Snooze XML file is missing! Creating empty document!");
+            document_ = createDocument();
+        }
+        
+        buildIndexes();
+    }
+    
+    /**
+     * Finds an element for reading, without materializing the document.
+     * 
+     * The returned node must not be modified.
+     * 
+     * @param attributeType     The attribute type
+     * @param name              The name
+     * @return                  The node, null if not found
+     * @throws Exception        The exception
+     */
+    private synchronized Node findElement(AttributeType attributeType, String name) 
+        throws Exception
+    {
+        Guard.check(attributeType, name);
+        Map<String, Element> index = attributeType == AttributeType.cluster ? virtualClusterIndex_ : 
+                                                                              virtualMachineIndex_;
+        Element element = index.get(name);
+        if (element != null || document_ != null || !fileExists(repositoryFile_))
+        {
+            return element;
+        }
+        
+        log_.debug(String.format("Streaming repository for %s %s", attributeType, name));
+        element = streamElement(attributeType, name);
+        if (element == null)
+        {
+            return null;
+        }
+        
+        addToIndex(index, element);
+        if (attributeType == AttributeType.cluster)
+        {
+            NodeList childList = element.getChildNodes();
+            for (int i = 0; i < childList.getLength(); i++)
+            {
+                Node virtualMachine = childList.item(i);
+                if (virtualMachine.getNodeType() == Node.ELEMENT_NODE && virtualMachine.getNodeName().equals("vm"))
+                {
+                    addToIndex(virtualMachineIndex_, (Element) virtualMachine);
+                }
+            }
+        }
+        
+        return element;
+    }
+    
+    /**
+     * Streams the repository file up to the first matching element.
+     * 
+     * @param attributeType     The attribute type
+     * @param name              The name
+     * @return                  The detached element, null if not found
+     * @throws Exception        The exception
+     */
+    private Element streamElement(AttributeType attributeType, String name) 
+        throws Exception
+    {
+        if (fragmentDocument_ == null)
+        {
+            fragmentDocument_ = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+        }
+        
+        String tag = attributeType.toString();
+        InputStream input = new FileInputStream(repositoryFile_);
+        XMLStreamReader reader = createStreamReader(input);
+        try
+        {
+            while (reader.hasNext())
+            {
+                if (reader.next() == XMLStreamConstants.START_ELEMENT && 
+                    reader.getLocalName().equals(tag) &&
+                    name.equals(reader.getAttributeValue(null, "name")))
+                {
+                    return readElement(reader);
+                }
+            }
+            
+            return null;
+        }
+        finally
+        {
+            reader.close();
+            input.close();
+        }
+    }
+    
+    /**
+     * Reads the element the reader is positioned on, including its children.
+     * 
+     * @param reader            The stream reader
+     * @return                  The detached element
+     * @throws Exception        The exception
+     */
+    private Element readElement(XMLStreamReader reader) 
+        throws Exception
+    {
+        Element element = fragmentDocument_.createElement(reader.getLocalName());
+        for (int i = 0; i < reader.getAttributeCount(); i++)
+        {
+            element.setAttribute(reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+        }
+        
+        while (reader.hasNext())
+        {
+            switch (reader.next())
+            {
+                case XMLStreamConstants.START_ELEMENT :
+                    element.appendChild(readElement(reader));
+                    break;
+                    
+                case XMLStreamConstants.CHARACTERS :
+                case XMLStreamConstants.CDATA :
+                    element.appendChild(fragmentDocument_.createTextNode(reader.getText()));
+                    break;
+                    
+                case XMLStreamConstants.END_ELEMENT :
+                    return element;
+                    
+                default:
+                    break;
+            }
+        }
+        
+        return element;
+    }
+    
+    /**
+     * Creates a coalescing stream reader.
+     * 
+     * @param input             The input
+     * @return                  The stream reader
+     * @throws Exception        The exception
+     */
+    private XMLStreamReader createStreamReader(InputStream input) 
+        throws Exception
+    {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.TRUE);
+        return factory.createXMLStreamReader(input);
+    }
+    
+    /**
+     * Builds the cluster and virtual machine indexes from the document.
+     * 
+     * The first element in document order wins in case of duplicate names.
+     */
+    private void buildIndexes()
+    {
+        virtualClusterIndex_ = new HashMap<String, Element>();
+        virtualMachineIndex_ = new HashMap<String, Element>();
+        
+        NodeList clusterNodes = document_.getDocumentElement().getChildNodes();
+        for (int i = 0; i < clusterNodes.getLength(); i++)
+        {
+            Node clusterNode = clusterNodes.item(i);
+            if (clusterNode.getNodeType() != Node.ELEMENT_NODE || !clusterNode.getNodeName().equals("cluster"))
+            {
+                continue;
+            }
+            
+            Element cluster = (Element) clusterNode;
+            addToIndex(virtualClusterIndex_, cluster);
+            NodeList virtualMachineNodes = cluster.getChildNodes();
+            for (int j = 0; j < virtualMachineNodes.getLength(); j++)
+            {
+                Node virtualMachineNode = virtualMachineNodes.item(j);
+                if (virtualMachineNode.getNodeType() == Node.ELEMENT_NODE && 
+                    virtualMachineNode.getNodeName().equals("vm"))
+                {
+                    addToIndex(virtualMachineIndex_, (Element) virtualMachineNode);
+                }
+            }
+        }
+        
+        log_.debug(String.format("Indexed %d clusters and %d virtual machines", 
+                                 virtualClusterIndex_.size(), virtualMachineIndex_.size()));
+    }
+    
+    /**
+     * Adds an element to an index unless its name is already indexed.
+     * 
+     * @param index     The index
+     * @param element   The element
+     */
+    private void addToIndex(Map<String, Element> index, Element element)
+    {
+        String name = element.getAttribute("name");
+        if (!index.containsKey(name))
+        {
+            index.put(name, element);
+        }
     }
 
     /**
@@ -141,23 +399,93 @@ public final class ClientXMLRepository
     }
     
     /**
-     * Write document to file.
+     * Begins a unit of work.
+     */
+    @Override
+    public synchronized void beginTransaction()
+    {
+        transactionDepth_++;
+        log_.debug(String.format("Unit of work started (depth %d)", transactionDepth_));
+    }
+    
+    /**
+     * Commits a unit of work.
+     * 
+     * @throws Exception       The exception
+     */
+    @Override
+    public synchronized void commitTransaction() 
+        throws Exception
+    {
+        if (transactionDepth_ == 0)
+        {
+            log_.debug("No unit of work in progress!");
+            return;
+        }
+        
+        transactionDepth_--;
+        log_.debug(String.format("Unit of work committed (depth %d)", transactionDepth_));
+        if (transactionDepth_ == 0 && isDirty_)
+        {
+            flushXmlFile();
+        }
+        
+        if (transactionDepth_ == 0 && isVerificationDirty_)
+        {
+            storeVerificationTimes();
+        }
+    }
+    
+    /**
+     * Write document to file, deferred until commit within a unit of work.
+     * 
+     * @throws Exception       The exception
+     */
+    private synchronized void writeXmlFile() 
+        throws Exception
+    {
+        isDirty_ = true;
+        if (transactionDepth_ > 0)
+        {
+            log_.debug("Unit of work in progress! Deferring XML output");
+            return;
+        }
+        
+        flushXmlFile();
+    } 
+    
+    /**
+     * Atomically replaces the repository file with the document.
      * 
      * @throws Exception       The exception
      */
-    private void writeXmlFile() 
+    private void flushXmlFile() 
         throws Exception
     {
         log_.debug("Writing XML output to stable storage");
         
-        TransformerFactory factory = TransformerFactory.newInstance();
-        Transformer transformer = factory.newTransformer();
-                
+        if (transformerFactory_ == null)
+        {
+            transformerFactory_ = TransformerFactory.newInstance();
+        }
+        
+        Transformer transformer = transformerFactory_.newTransformer();
         Source source = new DOMSource(document_);
         File file = new File(repositoryFile_);
-        Result result = new StreamResult(file);
-        
+        File temporaryFile = new File(repositoryFile_ + ".tmp");
+        Result result = new StreamResult(temporaryFile);
         transformer.transform(source, result);
+        
+        if (!temporaryFile.renameTo(file))
+        {
+            // Some platforms refuse to rename over an existing file
+            if (!file.delete() || !temporaryFile.renameTo(file))
+            {
+                throw new IOException(String.format("Unable to replace %s", repositoryFile_));
+            }
+        }
+        
+        isDirty_ = false;
     } 
     
     /**
@@ -220,7 +548,6 @@ public final class ClientXMLRepository
     {
         Guard.check(virtualClusterName);
         log_.debug(String.format("Creating cluster definition for: %s", virtualClusterName)); 
-        Element root = document_.getDocumentElement();
         
         if (hasAttribute(AttributeType.cluster, virtualClusterName))
         {
@@ -228,9 +555,12 @@ public final class ClientXMLRepository
             return false;
         }
         
+        Element root = document_.getDocumentElement();
+        
         Element virtualCluster = document_.createElement("cluster");
         virtualCluster.setAttribute("name", virtualClusterName);      
         root.appendChild(virtualCluster);   
+        virtualClusterIndex_.put(virtualClusterName, virtualCluster);
         
         return true;
     }
@@ -255,8 +585,19 @@ public final class ClientXMLRepository
             return false;
         }
         
+        NodeList virtualMachines = node.getChildNodes();
+        for (int i = 0; i < virtualMachines.getLength(); i++)
+        {
+            Node virtualMachine = virtualMachines.item(i);
+            if (virtualMachine.getNodeType() == Node.ELEMENT_NODE && virtualMachine.getNodeName().equals("vm"))
+            {
+                removeVerificationTime(((Element) virtualMachine).getAttribute("name"));
+            }
+        }
+        
         Node root = document_.getDocumentElement();
         root.removeChild(node);
+        buildIndexes();
         
         return true;
     }
@@ -275,17 +616,19 @@ public final class ClientXMLRepository
         Guard.check(attributeType, name);
         log_.debug(String.format("Finding element by attribute: %s", name));
         
-        XPath xpath = XPathFactory.newInstance().newXPath();
-        String searchExpression = "//" + attributeType + "[@name = '" + name + "']";        
-        log_.debug("Search expression: " + searchExpression);
-        
-        XPathExpression expression = xpath.compile(searchExpression);
-        Object result = expression.evaluate(document_, XPathConstants.NODESET);
-        
-        NodeList nodes = (NodeList) result;
-        Node node = nodes.item(0);
-        
-        return node;
+        loadDocument();
+        switch (attributeType)
+        {
+            case vm :
+                return virtualMachineIndex_.get(name);
+                
+            case cluster :
+                return virtualClusterIndex_.get(name);
+                
+            default:
+                log_.error(String.format("Unknown attribute type: %s", attributeType));
+                return null;
+        }
     }
     
     /**
@@ -407,6 +750,68 @@ public final class ClientXMLRepository
             return false;
         }
         
+        appendVirtualMachine(cluster, virtualMachineId, description);
+        writeXmlFile();
+        
+        return true;
+    }
+    
+    /**
+     * Adds several virtual machine templates to a given cluster.
+     * 
+     * All identifiers are checked against the index before the first one is added.
+     * 
+     * @param descriptions          The virtual machine descriptions
+     * @param virtualClusterName    The virtual cluster name
+     * @return                      true if all added, false otherwise
+     * @throws Exception            The exception
+     */
+    @Override
+    public boolean addVirtualMachineTemplates(List<VirtualMachineTemplate> descriptions, String virtualClusterName) 
+        throws Exception 
+    {
+        Guard.check(descriptions, virtualClusterName);
+        log_.debug(String.format("Adding %d virtual machine descriptions", descriptions.size()));
+                
+        Node cluster = getElementByAttribute(AttributeType.cluster, virtualClusterName);
+        if (cluster == null)
+        {
+            log_.debug("Unable to find the cluster");
+            return false;
+        }
+        
+        List<String> virtualMachineIds = new ArrayList<String>(descriptions.size());
+        Set<String> newVirtualMachineIds = new HashSet<String>();
+        for (VirtualMachineTemplate description : descriptions)
+        {
+            String virtualMachineId = getVirtualMachineId(description);
+            if (!newVirtualMachineIds.add(virtualMachineId) || hasAttribute(AttributeType.vm, virtualMachineId))
+            {
+                log_.debug(String.format("Virtual machine %s already exists!", virtualMachineId));
+                return false;
+            }
+            
+            virtualMachineIds.add(virtualMachineId);
+        }
+        
+        for (int i = 0; i < descriptions.size(); i++)
+        {
+            appendVirtualMachine(cluster, virtualMachineIds.get(i), descriptions.get(i));
+        }
+        
+        writeXmlFile();
+        return true;
+    }
+    
+    /**
+     * Appends a virtual machine to a cluster and indexes it.
+     * 
+     * @param cluster               The cluster
+     * @param virtualMachineId      The virtual machine identifier
+     * @param description           The virtual machine description
+     */
+    private void appendVirtualMachine(Node cluster, String virtualMachineId, VirtualMachineTemplate description)
+    {
         Element virtualMachine = createVirtualMachineNode(virtualMachineId);
         
         // template based
@@ -440,9 +845,7 @@ public final class ClientXMLRepository
         virtualMachine.appendChild(networkDemand);
         
         cluster.appendChild(virtualMachine);
-        writeXmlFile();
-        
-        return true;
+        virtualMachineIndex_.put(virtualMachineId, virtualMachine);
     }
     
     private Element createHostIdDemandElement(String hostId) {
@@ -578,6 +981,8 @@ public final class ClientXMLRepository
         }
         
         virtualCluster.removeChild(virtualMachine);
+        virtualMachineIndex_.remove(virtualMachineId);
+        removeVerificationTime(virtualMachineId);
         writeXmlFile();
         return true;
     }
@@ -728,7 +1133,7 @@ public final class ClientXMLRepository
         Guard.check(typeIdentifier, attributeType);
         log_.debug(String.format("Generating virtual cluster submission request for: %s", typeIdentifier));
                                        
-        Node node = getElementByAttribute(attributeType, typeIdentifier);
+        Node node = findElement(attributeType, typeIdentifier);
         if (node == null)
         {
             throw new ParseException("Unable to find the specified virtual machine! Define it first?", 0);
@@ -777,7 +1182,7 @@ public final class ClientXMLRepository
         Guard.check(virtualClusterName);
         log_.debug(String.format("Generating virtual cluster mapping for cluster: %s", virtualClusterName));
                           
-        Node node = getElementByAttribute(AttributeType.cluster, virtualClusterName);
+        Node node = findElement(AttributeType.cluster, virtualClusterName);
         if (node == null)
         {
             throw new ParseException("Unable to find the cluster! Define it first?", 0);
@@ -848,7 +1253,7 @@ public final class ClientXMLRepository
         Guard.check(virtualClusterName);
         log_.debug(String.format("Printing content of cluster: %s", virtualClusterName));
         
-        Node virtualClusterNode = getElementByAttribute(AttributeType.cluster, virtualClusterName);
+        Node virtualClusterNode = findElement(AttributeType.cluster, virtualClusterName);
         if (virtualClusterNode == null)
         {
             throw new ParseException("Unable to find the cluster! Define it first?", 0);
@@ -906,19 +1311,15 @@ public final class ClientXMLRepository
     {
         log_.debug("Printing all clusters");
         
-        Element root = document_.getDocumentElement();
-        NodeList clusterNodes = root.getElementsByTagName("cluster");
-        if (clusterNodes.getLength() == 0)
+        List<String> virtualClusterNames = getVirtualClusterNames();
+        if (virtualClusterNames.isEmpty())
         {
             throw new ParseException("No virtual clusters defined!", 0);
         }
         
         log_.info("Virtual cluster(s):");
-        for (int i = 0; i < clusterNodes.getLength(); i++)
+        for (String virtualClusterName : virtualClusterNames)
         {
-            Node node = clusterNodes.item(i);
-            Element element = (Element) node;
-            String virtualClusterName = element.getAttribute("name");
             log_.info(virtualClusterName);
         }
     }
@@ -937,7 +1338,7 @@ public final class ClientXMLRepository
         Guard.check(virtualMachineId);
         log_.debug("Getting virtual machine meta data");
         
-        Node virtualMachine = getElementByAttribute(AttributeType.vm, virtualMachineId);
+        Node virtualMachine = findElement(AttributeType.vm, virtualMachineId);
         if (virtualMachine == null)
         {
             log_.debug("No such virtual machine avalable! Define it first!");
@@ -1171,10 +1572,56 @@ public final class ClientXMLRepository
         Guard.check(virtualMachineId, localControllerId, groupManagerAddress);
         log_.debug(String.format("Updating mapping of virtual machine: %s", virtualMachineId));   
         
+        if (hasVirtualMachineMetaData(virtualMachineId, localControllerId, groupManagerAddress))
+        {
+            log_.debug("Mapping is unchanged! Skipping update");
+            return;
+        }
+        
         updateGroupManagerAddress(virtualMachineId, groupManagerAddress);     
         updateLocalControllerId(virtualMachineId, localControllerId);      
         writeXmlFile();
     }
+    
+    /**
+     * Checks if the virtual machine is already mapped to the local controller and group manager.
+     * 
+     * @param virtualMachineId      The virtual machine identifier
+     * @param localControllerId     The local controller identifier
+     * @param groupManagerAddress   The group manager address
+     * @return                      true if mapped, false otherwise
+     * @throws Exception            The exception
+     */
+    private boolean hasVirtualMachineMetaData(String virtualMachineId, 
+                                              String localControllerId,
+                                              NetworkAddress groupManagerAddress)
+        throws Exception
+    {
+        Node virtualMachine = findElement(AttributeType.vm, virtualMachineId);
+        if (virtualMachine == null)
+        {
+            return false;
+        }
+        
+        Node localController = getNodeByName("local_controller", virtualMachine);
+        Node groupManager = getNodeByName("group_manager", virtualMachine);
+        if (localController == null || groupManager == null)
+        {
+            return false;
+        }
+        
+        Node localControllerIdNode = getNodeByName("id", localController);
+        Node listenAddress = getNodeByName("listen_address", groupManager);
+        Node controlDataPort = getNodeByName("control_data_port", groupManager);
+        if (localControllerIdNode == null || listenAddress == null || controlDataPort == null)
+        {
+            return false;
+        }
+        
+        return localControllerId.equals(localControllerIdNode.getTextContent()) &&
+               groupManagerAddress.getAddress().equals(listenAddress.getTextContent()) &&
+               String.valueOf(groupManagerAddress.getPort()).equals(controlDataPort.getTextContent());
+    }
         
     /**
      * Updates the local controller identifier.
@@ -1320,7 +1767,7 @@ public final class ClientXMLRepository
     @Override
     public String getVirtualMachineTemplateContent(String virtualMachineId) throws Exception 
     {
-        Node virtualMachine = getElementByAttribute(AttributeType.vm, virtualMachineId);
+        Node virtualMachine = findElement(AttributeType.vm, virtualMachineId);
         if (virtualMachine == null)
         {
             log_.debug("No such virtual machine available! Define it first!");
@@ -1338,7 +1785,7 @@ public final class ClientXMLRepository
     @Override
     public String getVirtualMachineTemplate(String virtualMachineId) throws Exception 
     {
-        Node virtualMachine = getElementByAttribute(AttributeType.vm, virtualMachineId);
+        Node virtualMachine = findElement(AttributeType.vm, virtualMachineId);
         if (virtualMachine == null)
         {
             log_.debug("No such virtual machine available! Define it first!");
@@ -1381,4 +1828,354 @@ public final class ClientXMLRepository
         } 
         writeXmlFile();
     }
+    
+    /**
+     * Returns the virtual cluster names.
+     * 
+     * @return              The virtual cluster names
+     * @throws Exception    The exception
+     */
+    @Override
+    public synchronized List<String> getVirtualClusterNames()
+        throws Exception
+    {
+        List<String> virtualClusterNames = new ArrayList<String>();
+        if (document_ != null)
+        {
+            NodeList clusterNodes = document_.getDocumentElement().getElementsByTagName("cluster");
+            for (int i = 0; i < clusterNodes.getLength(); i++)
+            {
+                virtualClusterNames.add(((Element) clusterNodes.item(i)).getAttribute("name"));
+            }
+            
+            return virtualClusterNames;
+        }
+        
+        if (!fileExists(repositoryFile_))
+        {
+            return virtualClusterNames;
+        }
+        
+        InputStream input = new FileInputStream(repositoryFile_);
+        XMLStreamReader reader = createStreamReader(input);
+        try
+        {
+            while (reader.hasNext())
+            {
+                if (reader.next() == XMLStreamConstants.START_ELEMENT && reader.getLocalName().equals("cluster"))
+                {
+                    virtualClusterNames.add(reader.getAttributeValue(null, "name"));
+                }
+            }
+        }
+        finally
+        {
+            reader.close();
+            input.close();
+        }
+        
+        return virtualClusterNames;
+    }
+    
+    /**
+     * Returns the raw virtual machine entries of a cluster.
+     * 
+     * @param virtualClusterName    The virtual cluster name
+     * @return                      The virtual machine records
+     * @throws Exception            The exception
+     */
+    @Override
+    public List<VirtualMachineRecord> getVirtualMachineRecords(String virtualClusterName)
+        throws Exception
+    {
+        Guard.check(virtualClusterName);
+        List<VirtualMachineRecord> records = new ArrayList<VirtualMachineRecord>();
+        Node virtualCluster = findElement(AttributeType.cluster, virtualClusterName);
+        if (virtualCluster == null)
+        {
+            log_.debug("Unable to find the cluster");
+            return records;
+        }
+        
+        NodeList childList = virtualCluster.getChildNodes();
+        for (int i = 0; i < childList.getLength(); i++)
+        {
+            Node virtualMachine = childList.item(i);
+            if (virtualMachine.getNodeType() != Node.ELEMENT_NODE || !virtualMachine.getNodeName().equals("vm"))
+            {
+                continue;
+            }
+            
+            String virtualMachineId = ((Element) virtualMachine).getAttribute("name");
+            VirtualMachineRecord record = new VirtualMachineRecord(virtualMachineId, virtualClusterName);
+            record.setTemplate(getVirtualMachineTemplateFromNode(virtualMachine));
+            record.setName(getValueFromNode(virtualMachine, "name"));
+            record.setImageId(getValueFromNode(virtualMachine, "imageId"));
+            
+            String vcpus = getValueFromNode(virtualMachine, "vcpus");
+            if (vcpus != null)
+            {
+                record.setVcpus(Integer.valueOf(vcpus));
+            }
+            
+            String memory = getValueFromNode(virtualMachine, "memory");
+            if (memory != null)
+            {
+                record.setMemory(Long.valueOf(memory));
+            }
+            
+            // Missing host identifiers used to be stored as "null"
+            String hostId = getHostIdFromNode(virtualMachine);
+            if (hostId != null && !hostId.equals("null"))
+            {
+                record.setHostId(hostId);
+            }
+            
+            NetworkDemand networkCapacity = getNetworkCapacityRequirementsFromNode(virtualMachine);
+            if (networkCapacity != null)
+            {
+                record.setNetworkCapacity(networkCapacity);
+            }
+            
+            if (getNodeByName("group_manager", virtualMachine) != null)
+            {
+                record.setGroupManagerAddress(getGroupManagerControlDataAddressFromNode(virtualMachine));
+            }
+            
+            record.setLocalControllerId(getLocalControllerIdFromNode(virtualMachine));
+            record.setVerificationTime(getVirtualMachineVerificationTime(virtualMachineId));
+            records.add(record);
+        }
+        
+        return records;
+    }
+    
+    /**
+     * Adds a raw virtual machine entry to its cluster.
+     * 
+     * @param record            The virtual machine record
+     * @return                  true if added, false otherwise
+     * @throws Exception        The exception
+     */
+    @Override
+    public boolean addVirtualMachineRecord(VirtualMachineRecord record)
+        throws Exception
+    {
+        Guard.check(record);
+        Node cluster = getElementByAttribute(AttributeType.cluster, record.getVirtualClusterName());
+        if (cluster == null)
+        {
+            log_.debug("Unable to find the cluster");
+            return false;
+        }
+        
+        if (hasAttribute(AttributeType.vm, record.getVirtualMachineId()))
+        {
+            log_.debug("Such virtual machine already exists!");
+            return false;
+        }
+        
+        Element virtualMachine = createVirtualMachineNode(record.getVirtualMachineId());
+        if (record.getTemplate() != null)
+        {
+            virtualMachine.appendChild(createLibVirtTemplateElement(record.getTemplate()));
+        }
+        
+        if (record.isFlavorBased())
+        {
+            virtualMachine.appendChild(createNameElement(record.getName()));
+            if (record.getImageId() != null)
+            {
+                virtualMachine.appendChild(createImageElement(record.getImageId()));
+            }
+            virtualMachine.appendChild(createVcpusDemandElement(record.getVcpus()));
+            virtualMachine.appendChild(createMemoryDemandElement(record.getMemory()));
+            virtualMachine.appendChild(createHostIdDemandElement(record.getHostId()));
+        }
+        
+        virtualMachine.appendChild(createNetworkCapacityElement(record.getNetworkCapacity()));
+        if (record.getGroupManagerAddress() != null && record.getGroupManagerAddress().getAddress() != null)
+        {
+            virtualMachine.appendChild(createGroupManagerAddressElement(record.getGroupManagerAddress()));
+        }
+        
+        if (record.getLocalControllerId() != null)
+        {
+            virtualMachine.appendChild(createLocalControllerIdNode(record.getLocalControllerId()));
+        }
+        
+        cluster.appendChild(virtualMachine);
+        virtualMachineIndex_.put(record.getVirtualMachineId(), virtualMachine);
+        if (record.getVerificationTime() > 0)
+        {
+            setVirtualMachineVerificationTime(record.getVirtualMachineId(), record.getVerificationTime());
+        }
+        writeXmlFile();
+        
+        return true;
+    }
+    
+    /**
+     * Returns the time the location of a virtual machine was last verified.
+     * 
+     * Verification times are kept in a side file, stamping thus never materializes nor rewrites the document.
+     * 
+     * @param virtualMachineId      The virtual machine identifier
+     * @return                      The verification time (ms), 0 if never verified
+     */
+    @Override
+    public synchronized long getVirtualMachineVerificationTime(String virtualMachineId)
+    {
+        Guard.check(virtualMachineId);
+        String verificationTime = getVerificationTimes().getProperty(virtualMachineId);
+        if (verificationTime == null)
+        {
+            return 0;
+        }
+        
+        try
+        {
+            return Long.parseLong(verificationTime);
+        }
+        catch (NumberFormatException exception)
+        {
+            log_.debug(String.format("Invalid verification time for virtual machine %s", virtualMachineId));
+            return 0;
+        }
+    }
+    
+    /**
+     * Stamps the location of a virtual machine as verified.
+     * 
+     * @param virtualMachineId      The virtual machine identifier
+     * @param verificationTime      The verification time (ms)
+     */
+    @Override
+    public synchronized void setVirtualMachineVerificationTime(String virtualMachineId, long verificationTime)
+    {
+        Guard.check(virtualMachineId);
+        getVerificationTimes().setProperty(virtualMachineId, String.valueOf(verificationTime));
+        writeVerificationTimes();
+    }
+    
+    /**
+     * Drops the verification time of a virtual machine.
+     * 
+     * @param virtualMachineId      The virtual machine identifier
+     */
+    private void removeVerificationTime(String virtualMachineId)
+    {
+        if (getVerificationTimes().remove(virtualMachineId) != null)
+        {
+            writeVerificationTimes();
+        }
+    }
+    
+    /**
+     * Returns the verification times, loads them if required.
+     * 
+     * @return  The verification times
+     */
+    private Properties getVerificationTimes()
+    {
+        if (verificationTimes_ != null)
+        {
+            return verificationTimes_;
+        }
+        
+        verificationTimes_ = new Properties();
+        File file = new File(getVerificationFileName());
+        if (!file.exists())
+        {
+            return verificationTimes_;
+        }
+        
+        InputStream input = null;
+        try
+        {
+            input = new FileInputStream(file);
+            verificationTimes_.load(input);
+        }
+        catch (IOException exception)
+        {
+            log_.debug(String.format("Unable to load the verification times: %s", exception.getMessage()));
+        }
+        finally
+        {
+            close(input);
+        }
+        
+        return verificationTimes_;
+    }
+    
+    /**
+     * Writes the verification times, deferred until commit within a unit of work.
+     */
+    private void writeVerificationTimes()
+    {
+        isVerificationDirty_ = true;
+        if (transactionDepth_ > 0)
+        {
+            return;
+        }
+        
+        storeVerificationTimes();
+    }
+    
+    /**
+     * Stores the verification times.
+     * 
+     * The times only save verification calls, a failed write is thus not fatal.
+     */
+    private void storeVerificationTimes()
+    {
+        OutputStream output = null;
+        try
+        {
+            output = new FileOutputStream(getVerificationFileName());
+            verificationTimes_.store(output, "Snooze client location verification times");
+        }
+        catch (IOException exception)
+        {
+            log_.debug(String.format("Unable to write the verification times: %s", exception.getMessage()));
+        }
+        finally
+        {
+            close(output);
+        }
+        
+        isVerificationDirty_ = false;
+    }
+    
+    /**
+     * Returns the name of the verification times file.
+     * 
+     * @return  The file name
+     */
+    private String getVerificationFileName()
+    {
+        return repositoryFile_ + ".verified";
+    }
+    
+    /**
+     * Closes a stream.
+     * 
+     * @param stream    The stream
+     */
+    private static void close(Closeable stream)
+    {
+        if (stream == null)
+        {
+            return;
+        }
+        
+        try
+        {
+            stream.close();
+        }
+        catch (IOException exception)
+        {
+            log_.debug(String.format("Unable to close the stream: %s", exception.getMessage()));
+        }
+    }
 }
@@ -0,0 +1,375 @@
+/**
+ * Copyright (C) 2010-2013 Eugen Feller, INRIA <eugen.feller@inria.fr>
+ *
+ * This file is part of Snooze, a scalable, autonomic, and
+ * energy-aware virtual machine (VM) management framework.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package org.inria.myriads.snoozeclient.database.api.impl;
+
+import java.util.List;
+
+import org.inria.myriads.snoozeclient.database.api.AttributeType;
+import org.inria.myriads.snoozeclient.database.api.ClientRepository;
+import org.inria.myriads.snoozeclient.database.api.VirtualMachineRecord;
+import org.inria.myriads.snoozecommon.communication.NetworkAddress;
+import org.inria.myriads.snoozecommon.communication.virtualcluster.VirtualMachineMetaData;
+import org.inria.myriads.snoozecommon.communication.virtualcluster.monitoring.NetworkDemand;
+import org.inria.myriads.snoozecommon.communication.virtualcluster.submission.VirtualClusterSubmissionRequest;
+import org.inria.myriads.snoozecommon.communication.virtualcluster.submission.VirtualClusterSubmissionResponse;
+import org.inria.myriads.snoozecommon.communication.virtualcluster.submission.VirtualMachineTemplate;
+import org.inria.myriads.snoozecommon.guard.Guard;
+
+/**
+ * Client repository which serializes all calls to another repository.
+ * 
+ * Used when several commands share one repository concurrently.
+ * 
+ * @author Eugen Feller
+ */
+public final class SynchronizedClientRepository 
+    implements ClientRepository 
+{
+    /** The repository. */
+    private ClientRepository repository_;
+    
+    /**
+     * Constructor.
+     * 
+     * @param repository    The repository
+     */
+    public SynchronizedClientRepository(ClientRepository repository)
+    {
+        Guard.check(repository);
+        repository_ = repository;
+    }
+    
+    /**
+     * Begins a unit of work.
+     * 
+     * Mutations performed until the matching commit are persisted at once.
+     * Units of work may be nested, only the outermost commit persists.
+     */
+    @Override
+    public synchronized void beginTransaction()
+    {
+        repository_.beginTransaction();
+    }
+    
+    /**
+     * Commits a unit of work.
+     * 
+     * Persists all mutations since the outermost begin, nothing is written
+     * if nothing has changed.
+     * 
+     * @throws Exception        The exception
+     */
+    @Override
+    public synchronized void commitTransaction()
+        throws Exception
+    {
+        repository_.commitTransaction();
+    }
+    
+    /**
+     * Defines a cluster.
+     * 
+     * @param virtualClusterId  The virtual cluster identifier
+     * @return                  true if everything ok, false otherwise
+     * @throws Exception        The exception
+     */
+    @Override
+    public synchronized boolean defineVirtualCluster(String virtualClusterId)
+        throws Exception
+    {
+        return repository_.defineVirtualCluster(virtualClusterId);
+    }
+    
+    /**
+     * Undefines a cluster.
+     * 
+     * @param virtualClusterId  The virtual cluster identifier
+     * @return                  true if everything ok, false otherwise
+     * @throws Exception        The exception
+     */
+    @Override
+    public synchronized boolean undefineVirtualCluster(String virtualClusterId)
+        throws Exception
+    {
+        return repository_.undefineVirtualCluster(virtualClusterId);
+    }
+    
+    /**
+     * Add a virtual machine template.
+     * 
+     * @param template              The virtual machine template
+     * @param virtualClusterId      The virtual cluster identifier
+     * @return                      true if everything ok, false otherwise
+     * @throws Exception            The exception
+     */
+    @Override
+    public synchronized boolean addVirtualMachineTemplate(VirtualMachineTemplate template, String virtualClusterId)
+        throws Exception
+    {
+        return repository_.addVirtualMachineTemplate(template, virtualClusterId);
+    }
+    
+    /**
+     * Adds several virtual machine templates at once.
+     * 
+     * Nothing is added if the cluster does not exist or any of the virtual machines 
+     * already exists or is given twice.
+     * 
+     * @param templates             The virtual machine templates
+     * @param virtualClusterId      The virtual cluster identifier
+     * @return                      true if all added, false otherwise
+     * @throws Exception            The exception
+     */
+    @Override
+    public synchronized boolean addVirtualMachineTemplates(List<VirtualMachineTemplate> templates, 
+                                                           String virtualClusterId)
+        throws Exception
+    {
+        return repository_.addVirtualMachineTemplates(templates, virtualClusterId);
+    }
+    
+    /**
+     * Removes virtual machine description from a virtual cluster.
+     * 
+     * @param virtualMachineId    The virtual machine identifier
+     * @param virtualClusterId    The virtual cluster identifier
+     * @return                    true if everything ok, false otherwise
+     * @throws Exception          The exception
+     */
+    @Override
+    public synchronized boolean removeVirtualMachineDescription(String virtualMachineId, String virtualClusterId)
+        throws Exception
+    {
+        return repository_.removeVirtualMachineDescription(virtualMachineId, virtualClusterId);
+    }
+    
+    /**
+     * Creates virtual cluster submission request.
+     * 
+     * @param attributeName     The attribute name
+     * @param attributeType     The attribute type
+     * @return                  The virtual cluster submission request
+     * @throws Exception        The exception
+     */
+    @Override
+    public synchronized VirtualClusterSubmissionRequest createVirtualClusterSubmissionRequest(String attributeName, 
+                                                                                           AttributeType attributeType)
+        throws Exception
+    {
+        return repository_.createVirtualClusterSubmissionRequest(attributeName, attributeType);
+    }
+    
+    /**
+     * Returns virtual machine names.
+     * 
+     * @param virtualClusterId  The virtual cluster identifier
+     * @return                  The list of virtual machine identifiers
+     * @throws Exception        The exception
+     */
+    @Override
+    public synchronized List<String> getVirtualMachineIds(String virtualClusterId)
+        throws Exception
+    {
+        return repository_.getVirtualMachineIds(virtualClusterId);
+    }
+    
+    /**
+     * Prints the clusters.
+     * 
+     * @throws Exception        The exception
+     */
+    @Override
+    public synchronized void printVirtualClusters()
+        throws Exception
+    {
+        repository_.printVirtualClusters();
+    }
+    
+    /**
+     * Prints the cluster content.
+     * 
+     * @param virtualClusterId  The virtual cluster identifier
+     * @throws Exception        The exception
+     */
+    @Override
+    public synchronized void printVirtualCluster(String virtualClusterId)
+        throws Exception
+    {
+        repository_.printVirtualCluster(virtualClusterId);
+    }
+    
+    /**
+     * Returns the virtual machine meta data.
+     * 
+     * @param virtualMachineId  The virtual machine identifier
+     * @return                  The virtual machine meta data
+     * @throws Exception        The exception
+     */
+    @Override
+    public synchronized VirtualMachineMetaData getVirtualMachineMetaData(String virtualMachineId)
+        throws Exception
+    {
+        return repository_.getVirtualMachineMetaData(virtualMachineId);
+    }
+    
+    /**
+     * Adds virtual cluster response.
+     * 
+     * @param virtualClusterResponse    The virtual cluster response
+     * @throws Exception                The exception
+     */
+    @Override
+    public synchronized void addVirtualClusterResponse(VirtualClusterSubmissionResponse virtualClusterResponse)
+        throws Exception
+    {
+        repository_.addVirtualClusterResponse(virtualClusterResponse);
+    }
+    
+    /**
+     * Updates virtual machine meta data.
+     * 
+     * @param virtualMachineId      The virtual machine identifier
+     * @param localControllerId     The local controller identifier
+     * @param groupManagerAddress   The group manager address
+     * @throws Exception 
+     */
+    @Override
+    public synchronized void updateVirtualMachineMetaData(String virtualMachineId, 
+                                                          String localControllerId,
+                                                          NetworkAddress groupManagerAddress)
+        throws Exception
+    {
+        repository_.updateVirtualMachineMetaData(virtualMachineId, localControllerId, groupManagerAddress);
+    }
+    
+    /**
+     * 
+     * Gets the content of the templates of the virtual machine.
+     * 
+     * @param virtualMachineId          The virtual machine id
+     * @return                          The content of the template
+     * @throws Exception 
+     */
+    @Override
+    public synchronized String getVirtualMachineTemplateContent(String virtualMachineId)
+        throws Exception
+    {
+        return repository_.getVirtualMachineTemplateContent(virtualMachineId);
+    }
+    
+    /**
+     * 
+     * Gets the path of the templates of the virtual machine.
+     * 
+     * @param virtualMachineId          The virtual machine id
+     * @return                          The template path
+     * @throws Exception                Exception
+     */
+    @Override
+    public synchronized String getVirtualMachineTemplate(String virtualMachineId)
+        throws Exception
+    {
+        return repository_.getVirtualMachineTemplate(virtualMachineId);
+    }
+    
+    /**
+     * 
+     * Update the network capacity demand.
+     * 
+     * @param virtualMachineId          The virtual machine id
+     * @param networkDemand             The network demand
+     * @throws Exception                Exception
+     */
+    @Override
+    public synchronized void updateNetworkCapacityDemand(String virtualMachineId, NetworkDemand networkDemand)
+        throws Exception
+    {
+        repository_.updateNetworkCapacityDemand(virtualMachineId, networkDemand);
+    }
+    
+    /**
+     * Returns the virtual cluster names.
+     * 
+     * @return                  The virtual cluster names in definition order
+     * @throws Exception        The exception
+     */
+    @Override
+    public synchronized List<String> getVirtualClusterNames()
+        throws Exception
+    {
+        return repository_.getVirtualClusterNames();
+    }
+    
+    /**
+     * Returns the raw virtual machine entries of a cluster.
+     * 
+     * @param virtualClusterId  The virtual cluster identifier
+     * @return                  The virtual machine records
+     * @throws Exception        The exception
+     */
+    @Override
+    public synchronized List<VirtualMachineRecord> getVirtualMachineRecords(String virtualClusterId)
+        throws Exception
+    {
+        return repository_.getVirtualMachineRecords(virtualClusterId);
+    }
+    
+    /**
+     * Adds a raw virtual machine entry to its (defined) cluster.
+     * 
+     * @param record            The virtual machine record
+     * @return                  true if added, false otherwise
+     * @throws Exception        The exception
+     */
+    @Override
+    public synchronized boolean addVirtualMachineRecord(VirtualMachineRecord record)
+        throws Exception
+    {
+        return repository_.addVirtualMachineRecord(record);
+    }
+    
+    /**
+     * Returns the time the location of a virtual machine was last verified.
+     * 
+     * @param virtualMachineId  The virtual machine identifier
+     * @return                  The verification time (ms), 0 if never verified
+     * @throws Exception        The exception
+     */
+    @Override
+    public synchronized long getVirtualMachineVerificationTime(String virtualMachineId)
+        throws Exception
+    {
+        return repository_.getVirtualMachineVerificationTime(virtualMachineId);
+    }
+    
+    /**
+     * Stamps the location of a virtual machine as verified.
+     * 
+     * @param virtualMachineId  The virtual machine identifier
+     * @param verificationTime  The verification time (ms)
+     * @throws Exception        The exception
+     */
+    @Override
+    public synchronized void setVirtualMachineVerificationTime(String virtualMachineId, long verificationTime)
+        throws Exception
+    {
+        repository_.setVirtualMachineVerificationTime(virtualMachineId, verificationTime);
+    }
+}
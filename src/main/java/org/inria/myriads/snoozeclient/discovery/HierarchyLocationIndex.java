@@ -0,0 +1,144 @@
+/**
+ * Copyright (C) 2010-2013 Eugen Feller, INRIA <eugen.feller@inria.fr>
+ *
+ * This file is part of Snooze, a scalable, autonomic, and
+ * energy-aware virtual machine (VM) management framework.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package org.inria.myriads.snoozeclient.discovery;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.inria.myriads.snoozeclient.resourcecontrol.GroupManagerBatch;
+import org.inria.myriads.snoozecommon.communication.NetworkAddress;
+import org.inria.myriads.snoozecommon.communication.groupmanager.GroupManagerDescription;
+import org.inria.myriads.snoozecommon.communication.groupmanager.repository.GroupLeaderRepositoryInformation;
+import org.inria.myriads.snoozecommon.communication.localcontroller.LocalControllerDescription;
+import org.inria.myriads.snoozecommon.communication.virtualcluster.discovery.VirtualMachineDiscoveryResponse;
+import org.inria.myriads.snoozecommon.guard.Guard;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Index of virtual machine locations built from a hierarchy snapshot.
+ * 
+ * @author Eugen Feller
+ */
+public final class HierarchyLocationIndex 
+{
+    /** Define the logger. */
+    private static final Logger log_ = LoggerFactory.getLogger(HierarchyLocationIndex.class);
+    
+    /** Virtual machine locations (virtual machine id : location). */
+    private Map<String, VirtualMachineDiscoveryResponse> locations_;
+    
+    /**
+     * Constructor.
+     * 
+     * @param hierarchy     The complete hierarchy
+     */
+    public HierarchyLocationIndex(GroupLeaderRepositoryInformation hierarchy)
+    {
+        Guard.check(hierarchy);
+        locations_ = new HashMap<String, VirtualMachineDiscoveryResponse>();
+        for (GroupManagerDescription groupManager : hierarchy.getGroupManagerDescriptions())
+        {
+            NetworkAddress groupManagerAddress = groupManager.getListenSettings().getControlDataAddress();
+            for (LocalControllerDescription localController : groupManager.getLocalControllers().values())
+            {
+                for (String virtualMachineId : localController.getVirtualMachineMetaData().keySet())
+                {
+                    VirtualMachineDiscoveryResponse location = new VirtualMachineDiscoveryResponse();
+                    location.setLocalControllerId(localController.getId());
+                    location.setGroupManagerAddress(groupManagerAddress);
+                    locations_.put(virtualMachineId, location);
+                }
+            }
+        }
+        
+        log_.debug(String.format("Indexed %d virtual machines of %d group managers", 
+                                 locations_.size(), hierarchy.getGroupManagerDescriptions().size()));
+    }
+    
+    /**
+     * Returns the location of a virtual machine.
+     * 
+     * @param virtualMachineId      The virtual machine identifier
+     * @return                      The location, null if not in the snapshot
+     */
+    public VirtualMachineDiscoveryResponse getLocation(String virtualMachineId)
+    {
+        return locations_.get(virtualMachineId);
+    }
+    
+    /**
+     * Returns the locations of several virtual machines.
+     * 
+     * @param virtualMachineIds     The virtual machine identifiers
+     * @return                      The locations of the virtual machines found in the snapshot
+     */
+    public Map<String, VirtualMachineDiscoveryResponse> getLocations(Collection<String> virtualMachineIds)
+    {
+        Map<String, VirtualMachineDiscoveryResponse> locations = new HashMap<String, VirtualMachineDiscoveryResponse>();
+        for (String virtualMachineId : virtualMachineIds)
+        {
+            VirtualMachineDiscoveryResponse location = locations_.get(virtualMachineId);
+            if (location != null)
+            {
+                locations.put(virtualMachineId, location);
+            }
+        }
+        
+        return locations;
+    }
+    
+    /**
+     * Checks if a recorded location differs from the snapshot.
+     * 
+     * @param virtualMachineId      The virtual machine identifier
+     * @param localControllerId     The recorded local controller identifier
+     * @param groupManagerAddress   The recorded group manager address
+     * @return                      true if the virtual machine is in the snapshot on another location
+     */
+    public boolean hasMoved(String virtualMachineId, String localControllerId, NetworkAddress groupManagerAddress)
+    {
+        VirtualMachineDiscoveryResponse location = locations_.get(virtualMachineId);
+        if (location == null)
+        {
+            return false;
+        }
+        
+        if (localControllerId == null || groupManagerAddress == null)
+        {
+            return true;
+        }
+        
+        return !localControllerId.equals(location.getLocalControllerId()) ||
+               !GroupManagerBatch.getKey(groupManagerAddress).equals(
+                   GroupManagerBatch.getKey(location.getGroupManagerAddress()));
+    }
+    
+    /**
+     * Returns the number of indexed virtual machines.
+     * 
+     * @return  The number of virtual machines
+     */
+    public int size()
+    {
+        return locations_.size();
+    }
+}
@@ -19,8 +19,12 @@
  */
 package org.inria.myriads.snoozeclient.discovery;
 
+import java.util.Collection;
+import java.util.Map;
+
+import org.inria.myriads.snoozeclient.communication.CommunicatorCache;
 import org.inria.myriads.snoozecommon.communication.NetworkAddress;
-import org.inria.myriads.snoozecommon.communication.rest.CommunicatorFactory;
+import org.inria.myriads.snoozecommon.communication.groupmanager.repository.GroupLeaderRepositoryInformation;
 import org.inria.myriads.snoozecommon.communication.rest.api.GroupManagerAPI;
 import org.inria.myriads.snoozecommon.communication.virtualcluster.discovery.VirtualMachineDiscoveryResponse;
 import org.inria.myriads.snoozecommon.communication.virtualcluster.submission.VirtualMachineLocation;
@@ -57,7 +61,7 @@ public final class VirtualMachineDiscovery
                                  location.getVirtualMachineId(), 
                                  location.getLocalControllerId()));
         
-        GroupManagerAPI groupManagerCommunicator = CommunicatorFactory.newGroupManagerCommunicator(networkAddress);
+        GroupManagerAPI groupManagerCommunicator = CommunicatorCache.getGroupManagerCommunicator(networkAddress);
         boolean hasVirtualMachine = groupManagerCommunicator.hasVirtualMachine(location);
         return hasVirtualMachine;       
     }
@@ -75,8 +79,24 @@ public final class VirtualMachineDiscovery
         log_.debug(String.format("Sending virtual machine discovery request for: %s", 
                                  virtualMachineId));
         
-        GroupManagerAPI groupLeaderCommunicator = CommunicatorFactory.newGroupManagerCommunicator(networkAddress);
+        GroupManagerAPI groupLeaderCommunicator = CommunicatorCache.getGroupManagerCommunicator(networkAddress);
         VirtualMachineDiscoveryResponse response = groupLeaderCommunicator.discoverVirtualMachine(virtualMachineId);
         return response;       
     }
+    
+    /**
+     * Discovers several virtual machines with one scan of the hierarchy.
+     * 
+     * The group leader has no bulk discovery endpoint, the complete hierarchy is therefore used.
+     * 
+     * @param virtualMachineIds         The virtual machine identifiers
+     * @param hierarchy                 The complete hierarchy
+     * @return                          The responses of the discovered virtual machines
+     */
+    public static Map<String, VirtualMachineDiscoveryResponse> 
+        discoverVirtualMachines(Collection<String> virtualMachineIds, GroupLeaderRepositoryInformation hierarchy)
+    {
+        log_.debug(String.format("Discovering %d virtual machines in the hierarchy", virtualMachineIds.size()));
+        return new HierarchyLocationIndex(hierarchy).getLocations(virtualMachineIds);
+    }
 }
@@ -34,6 +34,15 @@ public final class Globals
     /** Name of the database. */
     public static final String REPOSITORT_FILE_NAME = "snooze_client.xml";
     
+    /** Name of the binary database directory. */
+    public static final String BINARY_REPOSITORY_DIRECTORY_NAME = "snooze_client.db";
+    
+    /** Name of the bootstrap cache. */
+    public static final String BOOTSTRAP_CACHE_FILE_NAME = "bootstrap.cache";
+    
+    /** Name of the submission history. */
+    public static final String SUBMISSION_HISTORY_FILE_NAME = "submission.history";
+    
     /** Hide constructor. */
     private Globals()
     {
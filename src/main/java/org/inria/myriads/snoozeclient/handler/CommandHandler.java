@@ -23,35 +23,70 @@ import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.text.DecimalFormat;
+import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 
 import org.codehaus.jackson.JsonGenerationException;
 import org.codehaus.jackson.map.JsonMappingException;
 import org.codehaus.jackson.map.ObjectMapper;
+import org.inria.myriads.snoozeclient.bench.BenchmarkSettings;
+import org.inria.myriads.snoozeclient.bench.SubmissionBenchmark;
+import org.inria.myriads.snoozeclient.communication.CommunicatorCache;
 import org.inria.myriads.snoozeclient.configurator.api.ClientConfiguration;
 import org.inria.myriads.snoozeclient.configurator.general.GeneralSettings;
+import org.inria.myriads.snoozeclient.configurator.statistics.StatisticsSettings;
+import org.inria.myriads.snoozeclient.database.DatabaseFactory;
+import org.inria.myriads.snoozeclient.database.RepositoryConverter;
 import org.inria.myriads.snoozeclient.database.api.AttributeType;
 import org.inria.myriads.snoozeclient.database.api.ClientRepository;
+import org.inria.myriads.snoozeclient.database.api.RepositoryBackend;
+import org.inria.myriads.snoozeclient.discovery.HierarchyLocationIndex;
 import org.inria.myriads.snoozeclient.discovery.VirtualMachineDiscovery;
 import org.inria.myriads.snoozeclient.exception.BootstrapUtilityException;
+import org.inria.myriads.snoozeclient.exception.CallTimeoutException;
 import org.inria.myriads.snoozeclient.exception.CommandHandlerException;
+import org.inria.myriads.snoozeclient.exception.ManifestParserException;
+import org.inria.myriads.snoozeclient.exception.VirtualClusterControlException;
 import org.inria.myriads.snoozeclient.parser.commands.ClientCommand;
 import org.inria.myriads.snoozeclient.parser.output.ParserOutput;
+import org.inria.myriads.snoozeclient.resourcecontrol.GroupManagerBatch;
+import org.inria.myriads.snoozeclient.resourcecontrol.RetryBudgets;
+import org.inria.myriads.snoozeclient.resourcecontrol.SubmissionListener;
+import org.inria.myriads.snoozeclient.resourcecontrol.SubmissionTask;
+import org.inria.myriads.snoozeclient.resourcecontrol.SubmissionTracker;
 import org.inria.myriads.snoozeclient.resourcecontrol.VirtualClusterControl;
+import org.inria.myriads.snoozeclient.statistics.histogram.LatencyHistogram;
+import org.inria.myriads.snoozeclient.statistics.history.HistorySlot;
+import org.inria.myriads.snoozeclient.statistics.history.SubmissionHistory;
+import org.inria.myriads.snoozeclient.statistics.history.SubmissionStatistics;
 import org.inria.myriads.snoozeclient.statistics.results.SubmissionResults;
 import org.inria.myriads.snoozeclient.statistics.util.SubmissionResultsUtils;
+import org.inria.myriads.snoozeclient.systemtree.enums.DumpFormat;
 import org.inria.myriads.snoozeclient.systemtree.graph.SystemGraphGenerator;
+import org.inria.myriads.snoozeclient.systemtree.snapshot.ColumnarSnapshot;
 import org.inria.myriads.snoozeclient.systemtree.util.DumpUtil;
+import org.inria.myriads.snoozeclient.systemtree.watch.HierarchyWatcher;
+import org.inria.myriads.snoozeclient.templates.VirtualMachineManifest;
 import org.inria.myriads.snoozeclient.util.BootstrapUtilis;
+import org.inria.myriads.snoozeclient.util.StorageUtils;
 import org.inria.myriads.snoozecommon.communication.NetworkAddress;
-import org.inria.myriads.snoozecommon.communication.groupmanager.GroupManagerDescription;
 import org.inria.myriads.snoozecommon.communication.localcontroller.LocalControllerDescription;
 import org.inria.myriads.snoozecommon.communication.localcontroller.LocalControllerList;
 import org.inria.myriads.snoozecommon.communication.rest.api.GroupManagerAPI;
-import org.inria.myriads.snoozecommon.communication.rest.CommunicatorFactory;
 import org.inria.myriads.snoozecommon.communication.groupmanager.repository.GroupLeaderRepositoryInformation;
 import org.inria.myriads.snoozecommon.communication.rest.api.BootstrapAPI;
 import org.inria.myriads.snoozecommon.communication.virtualcluster.VirtualMachineMetaData;
@@ -72,6 +107,7 @@ import org.inria.myriads.snoozecommon.guard.Guard;
 import org.inria.myriads.snoozecommon.parser.VirtualClusterParserFactory;
 import org.inria.myriads.snoozecommon.parser.api.VirtualClusterParser;
 import org.inria.myriads.snoozecommon.util.MonitoringUtils;
+import org.inria.myriads.snoozecommon.util.TimeUtils;
 import org.inria.myriads.snoozecommon.virtualmachineimage.VirtualMachineImage;
 import org.inria.myriads.snoozecommon.virtualmachineimage.VirtualMachineImageList;
 import org.inria.myriads.snoozeimages.communication.rest.api.ImagesRepositoryAPI;
@@ -100,6 +136,27 @@ public final class CommandHandler
     /** Indicates the first virtual machine to be processed. */
     private boolean isFirst_ = true;
     
+    /** Group leader address, resolved once per command. */
+    private NetworkAddress groupLeaderAddress_;
+    
+    /** Virtual machines of the current cluster command, candidates for bulk discovery. */
+    private Set<String> discoveryScope_;
+    
+    /** Number of individual discoveries of the current cluster command. */
+    private int numberOfDiscoveries_;
+    
+    /** Bulk discovery of the current cluster command, null until it is started. */
+    private FutureTask<Map<String, VirtualMachineDiscoveryResponse>> bulkDiscovery_;
+    
+    /** Virtual machines of the current cluster command located from the hierarchy snapshot. */
+    private Set<String> snapshotLocated_ = new HashSet<String>();
+    
+    /** Retry budgets of the group managers, shared by all controls of the command. */
+    private RetryBudgets retryBudgets_;
+    
+    /** Submission history, created on the first recorded submission. */
+    private SubmissionHistory submissionHistory_;
+    
     /**
      * CommandHandler constructor.
      * 
@@ -117,22 +174,50 @@ public final class CommandHandler
         clientConfiguration_ = clientConfiguration;
         clientRepository_ = clientRepository;
         parserOutput_ = parserOutput;     
+        retryBudgets_ = new RetryBudgets(clientConfiguration.getGeneralSettings());
     }
             
     /**
      * Dispatches the client command.
      * 
+     * All repository mutations of the command are persisted at once.
+     * 
      * @throws Exception 
      */
     public void dispatchCommand() 
         throws Exception
     {                    
-        ClientCommand command = parserOutput_.getClientCommand();
+        synchronized (this)
+        {
+            groupLeaderAddress_ = null;
+        }
+        
+        clientRepository_.beginTransaction();
+        try
+        {
+            dispatchCommand(parserOutput_.getClientCommand());
+        }
+        finally
+        {
+            clientRepository_.commitTransaction();
+        }
+    }
+    
+    /**
+     * Dispatches a client command.
+     * 
+     * @param command       The client command
+     * @throws Exception 
+     */
+    private void dispatchCommand(ClientCommand command) 
+        throws Exception
+    {                    
         log_.debug(String.format("Dispatching client request: %s", command));
         
         GeneralSettings generalSettings = clientConfiguration_.getGeneralSettings();
         int numberOfMonitoringEntries = generalSettings.getNumberOfMonitoringEntries();
-        SystemGraphGenerator graphGenerator = new SystemGraphGenerator(numberOfMonitoringEntries);
+        SystemGraphGenerator graphGenerator = new SystemGraphGenerator(numberOfMonitoringEntries, 
+                                                                       parserOutput_.isDumpVerbose());
         List<NetworkAddress> bootstrapNodes = generalSettings.getBootstrapNodes();
         
         switch (command) 
@@ -158,7 +243,14 @@ public final class CommandHandler
                 break;
  
             case START : 
-                processStart();
+                try
+                {
+                    processStart();
+                }
+                finally
+                {
+                    flushSubmissionHistory();
+                }
                 return;
                 
             case INFO : 
@@ -186,7 +278,16 @@ public final class CommandHandler
                 break;
                 
             case DUMP :
-                processDumpCommand(bootstrapNodes, graphGenerator, generalSettings.getDumpOutputFile());
+                if (parserOutput_.isDumpWatch())
+                {
+                    processDumpWatchCommand(bootstrapNodes, generalSettings);
+                    break;
+                }
+                
+                processDumpCommand(bootstrapNodes, 
+                                   graphGenerator, 
+                                   generalSettings.getDumpOutputFile(), 
+                                   parserOutput_.getDumpFormat());
                 break;
                 
             case RESIZE:
@@ -205,6 +306,22 @@ public final class CommandHandler
                 processMigrateCommand(command);
                 break;
                 
+            case CONVERT:
+                processConvertCommand();
+                break;
+                
+            case RESOLVE:
+                processResolveCommand();
+                break;
+                
+            case STATS:
+                processStatsCommand();
+                break;
+                
+            case BENCH:
+                processBenchCommand();
+                break;
+                
             default:
                 throw new CommandHandlerException(String.format("Unknown cluster command specified: %s", command));
         }
@@ -281,6 +398,132 @@ public final class CommandHandler
         
     }
     
+    /**
+     * Resolves the virtual machine locations of a cluster from the hierarchy snapshot.
+     * 
+     * Virtual machines missing from the client repository are reported separately and fail the command.
+     * 
+     * @throws Exception 
+     */
+    private void processResolveCommand() 
+        throws Exception
+    {
+        List<String> virtualMachineIds;
+        String virtualMachineName = parserOutput_.getVirtualMachineName();
+        String virtualClusterName = parserOutput_.getVirtualClusterName();
+        if (virtualMachineName != null)
+        {
+            virtualMachineIds = Arrays.asList(virtualMachineName);
+        } else if (virtualClusterName != null)
+        {
+            virtualMachineIds = clientRepository_.getVirtualMachineIds(virtualClusterName);
+        } else
+        {
+            throw new CommandHandlerException("You must atleast specify a virtual machine or cluster name!");
+        }
+        
+        List<String> unknownVirtualMachines = new ArrayList<String>();
+        Set<String> locatedVirtualMachines = resolveLocations(virtualMachineIds, unknownVirtualMachines);
+        log_.info(String.format("Resolved %d of %d virtual machines, %d not found in the hierarchy, %d unknown", 
+                                locatedVirtualMachines.size(), 
+                                virtualMachineIds.size(),
+                                virtualMachineIds.size() - locatedVirtualMachines.size() - 
+                                    unknownVirtualMachines.size(),
+                                unknownVirtualMachines.size()));
+        if (!unknownVirtualMachines.isEmpty())
+        {
+            throw new CommandHandlerException(String.format("Unknown virtual machine(s): %s! Are they added?", 
+                                                            unknownVirtualMachines));
+        }
+    }
+    
+    /**
+     * Resolves virtual machine locations from one hierarchy snapshot.
+     * 
+     * Recorded locations which differ from the snapshot are updated with one repository write,
+     * all located virtual machines are stamped as verified.
+     * 
+     * @param virtualMachineIds         The virtual machine identifiers
+     * @param unknownVirtualMachines    Receives the virtual machines missing from the client repository
+     * @return                          The virtual machines found in the snapshot
+     * @throws Exception                The exception
+     */
+    private Set<String> resolveLocations(List<String> virtualMachineIds, List<String> unknownVirtualMachines) 
+        throws Exception
+    {
+        List<NetworkAddress> bootstrapNodes = clientConfiguration_.getGeneralSettings().getBootstrapNodes();
+        HierarchyLocationIndex index = new HierarchyLocationIndex(BootstrapUtilis.getCompleteHierarchy(bootstrapNodes));
+        
+        Set<String> locatedVirtualMachines = new HashSet<String>();
+        int numberOfMoved = 0;
+        synchronized (clientRepository_)
+        {
+            clientRepository_.beginTransaction();
+            try
+            {
+                for (String virtualMachineId : virtualMachineIds)
+                {
+                    VirtualMachineMetaData metaData = clientRepository_.getVirtualMachineMetaData(virtualMachineId);
+                    if (metaData == null)
+                    {
+                        log_.debug(String.format("Virtual machine %s is not in the repository", virtualMachineId));
+                        unknownVirtualMachines.add(virtualMachineId);
+                        continue;
+                    }
+                    
+                    VirtualMachineDiscoveryResponse location = index.getLocation(virtualMachineId);
+                    if (location == null)
+                    {
+                        log_.debug(String.format("Virtual machine %s is not in the hierarchy", virtualMachineId));
+                        continue;
+                    }
+                    
+                    if (index.hasMoved(virtualMachineId, 
+                                       metaData.getVirtualMachineLocation().getLocalControllerId(),
+                                       metaData.getGroupManagerControlDataAddress()))
+                    {
+                        log_.debug(String.format("Virtual machine %s moved to local controller %s", 
+                                                 virtualMachineId, location.getLocalControllerId()));
+                        clientRepository_.updateVirtualMachineMetaData(virtualMachineId, 
+                                                                       location.getLocalControllerId(),
+                                                                       location.getGroupManagerAddress());
+                        numberOfMoved++;
+                    }
+                    
+                    stampLocation(virtualMachineId);
+                    locatedVirtualMachines.add(virtualMachineId);
+                }
+            }
+            finally
+            {
+                clientRepository_.commitTransaction();
+            }
+        }
+        
+        log_.debug(String.format("%d virtual machines located from the hierarchy, %d moved", 
+                                 locatedVirtualMachines.size(), numberOfMoved));
+        return locatedVirtualMachines;
+    }
+    
+    /**
+     * Converts the client repository from one backend to another.
+     * 
+     * @throws Exception 
+     */
+    private void processConvertCommand() 
+        throws Exception
+    {
+        RepositoryBackend sourceBackend = parserOutput_.getSourceBackend();
+        RepositoryBackend targetBackend = parserOutput_.getTargetBackend();
+        log_.debug(String.format("Converting the client repository from %s to %s", sourceBackend, targetBackend));
+        
+        ClientRepository source = DatabaseFactory.newClientRepository(sourceBackend);
+        ClientRepository target = DatabaseFactory.newClientRepository(targetBackend);
+        int numberOfVirtualMachines = RepositoryConverter.convert(source, target);
+        log_.info(String.format("Converted %d virtual machines from %s to %s", 
+                                numberOfVirtualMachines, sourceBackend, targetBackend));
+    }
+    
     /**
      * 
      * Process the hosts list request.
@@ -290,10 +533,8 @@ public final class CommandHandler
      */
     private void processHosts() throws CommandHandlerException, BootstrapUtilityException 
     {
-        GroupManagerDescription groupLeader = getGroupLeaderDescription(); 
-        
-        NetworkAddress groupLeaderAddress = groupLeader.getListenSettings().getControlDataAddress();
-        GroupManagerAPI groupLeaderCommunicator = CommunicatorFactory.newGroupManagerCommunicator(groupLeaderAddress); 
+        NetworkAddress groupLeaderAddress = getGroupLeaderAddress();
+        GroupManagerAPI groupLeaderCommunicator = CommunicatorCache.getGroupManagerCommunicator(groupLeaderAddress); 
         
         LocalControllerList localControllers = groupLeaderCommunicator.getLocalControllerList();
         
@@ -431,11 +672,13 @@ public final class CommandHandler
      * @param bootstrapNodes    The bootstrap nodes
      * @param graphGenerator    The graph generator
      * @param dumpOutputFile    The dump output file
+     * @param dumpFormat        The dump format
      * @throws Exception        The exception
      */
     private void processDumpCommand(List<NetworkAddress> bootstrapNodes, 
                                     SystemGraphGenerator graphGenerator,
-                                    String dumpOutputFile)
+                                    String dumpOutputFile,
+                                    DumpFormat dumpFormat)
         throws Exception
     {
         BootstrapAPI bootstrapCommunicator_ = BootstrapUtilis.getActiveBootstrapCommunicator(bootstrapNodes);
@@ -451,7 +694,44 @@ public final class CommandHandler
                         return; 
         }
         
-        DumpUtil.writeGraph(graphGenerator.generateGraph(hierarchy), dumpOutputFile);
+        switch (dumpFormat)
+        {
+            case jung :
+                DumpUtil.writeGraph(graphGenerator.generateGraph(hierarchy), dumpOutputFile);
+                break;
+                
+            case snapshot :
+                ColumnarSnapshot snapshot = DumpUtil.writeSnapshot(hierarchy, dumpOutputFile);
+                log_.debug(String.format("Snapshot of %d nodes written", snapshot.getNumberOfNodes()));
+                break;
+                
+            default :
+                DumpUtil.writeHierarchy(hierarchy, dumpOutputFile);
+                break;
+        }
+        
+        log_.info(String.format("Hierarchy dumped to %s", dumpOutputFile));
+    }
+    
+    /**
+     * Processes the dump command in watch mode.
+     * 
+     * @param bootstrapNodes    The bootstrap nodes
+     * @param generalSettings   The general settings
+     * @throws Exception        The exception
+     */
+    private void processDumpWatchCommand(List<NetworkAddress> bootstrapNodes, GeneralSettings generalSettings)
+        throws Exception
+    {
+        String eventsFile = parserOutput_.getDumpEventsFile();
+        if (eventsFile == null)
+        {
+            eventsFile = generalSettings.getDumpOutputFile() + ".events";
+        }
+        
+        long pollingInterval = TimeUtils.convertSecondsToMilliseconds(generalSettings.getGraphPollingInterval());
+        HierarchyWatcher watcher = new HierarchyWatcher(bootstrapNodes, pollingInterval);
+        watcher.watch(eventsFile, parserOutput_.getNumberOfDumpPolls());
     }
     
     /**
@@ -500,12 +780,16 @@ public final class CommandHandler
         boolean isAdded = false;
         String virtualMachineTemplate = parserOutput_.getVirtualMachineTemplate();
         String virtualMachineImage = parserOutput_.getVirtualMachineImage();
-        if (virtualMachineTemplate == null && virtualMachineImage == null)
+        boolean isBulk = parserOutput_.getManifestFile() != null || parserOutput_.getNumberOfVirtualMachines() > 0;
+        if (virtualMachineTemplate == null && virtualMachineImage == null && 
+            parserOutput_.getManifestFile() == null)
         {
             throw new CommandHandlerException("" +
             		"Add command failed! " +
             		"You must specify either a virtual machine template or an image name");
         }
+        
+        checkBulkAddOptions();
 
         VirtualMachineTemplate template = new VirtualMachineTemplate();
         template.setLibVirtTemplate(virtualMachineTemplate);
@@ -515,6 +799,11 @@ public final class CommandHandler
         template.setImageId(virtualMachineImage);
         template.setName(parserOutput_.getVirtualMachineName());
         template.setHostId(parserOutput_.getHostId());
+        if (isBulk)
+        {
+            processBulkAdd(template);
+            return;
+        }
         
         isAdded = clientRepository_.addVirtualMachineTemplate(template, parserOutput_.getVirtualClusterName());        
         if (!isAdded)
@@ -525,6 +814,82 @@ public final class CommandHandler
         log_.info("Add command successfull!");
     }
 
+    /**
+     * Rejects the bulk add options which can not be combined.
+     * 
+     * Template based virtual machines are named after their libvirt domain, a name pattern 
+     * would thus be ignored.
+     * 
+     * @throws CommandHandlerException      The command handler exception
+     */
+    private void checkBulkAddOptions() 
+        throws CommandHandlerException
+    {
+        boolean hasCount = parserOutput_.getNumberOfVirtualMachines() > 0;
+        boolean hasPattern = parserOutput_.getNamePattern() != null;
+        if (hasCount != hasPattern)
+        {
+            throw new CommandHandlerException("Add command failed! The count (-n) and the name pattern " +
+                                              "(e.g. -pattern web-%03d) must be specified together");
+        }
+        
+        if (!hasCount)
+        {
+            return;
+        }
+        
+        if (parserOutput_.getManifestFile() != null)
+        {
+            throw new CommandHandlerException("Add command failed! A manifest (-f) can not be combined " +
+                                              "with a count and name pattern");
+        }
+        
+        if (parserOutput_.getVirtualMachineTemplate() != null)
+        {
+            throw new CommandHandlerException("Add command failed! Template based virtual machines are named " +
+                                              "after their libvirt domain, use an image (-iid) with a name pattern");
+        }
+    }
+    
+    /**
+     * Adds the virtual machines of a manifest or name pattern at once.
+     * 
+     * @param defaults      The default values of the command line
+     * @throws Exception 
+     */
+    private void processBulkAdd(VirtualMachineTemplate defaults) 
+        throws Exception 
+    {
+        List<VirtualMachineTemplate> templates;
+        try
+        {
+            String manifestFile = parserOutput_.getManifestFile();
+            if (manifestFile != null)
+            {
+                templates = VirtualMachineManifest.readManifest(manifestFile, defaults);
+            } else
+            {
+                templates = VirtualMachineManifest.generate(parserOutput_.getNamePattern(), 
+                                                            parserOutput_.getNumberOfVirtualMachines(), 
+                                                            defaults);
+            }
+        }
+        catch (ManifestParserException exception)
+        {
+            throw new CommandHandlerException(String.format("Add command failed! %s", exception.getMessage()));
+        }
+        
+        boolean isAdded = clientRepository_.addVirtualMachineTemplates(templates, 
+                                                                       parserOutput_.getVirtualClusterName());
+        if (!isAdded)
+        {
+            throw new CommandHandlerException("Add command failed! Does the cluster exist and are all the " +
+                                              "virtual machine names new and unique?");
+        }
+        
+        log_.info(String.format("Add command successfull! %d virtual machines added", templates.size()));
+    }
+    
     /** 
      * Processes the define command.
      * 
@@ -602,14 +967,17 @@ public final class CommandHandler
     /**
      * Starts the virtual cluster submission.
      *  
+     * @param virtualClusterControl             The virtual cluster control
      * @param submissionRequest                 The virtual cluster submission request
      * @return                                  The virtual cluster submission response
      * @throws BootstrapUtilityException 
      * @throws CommandHandlerException 
+     * @throws VirtualClusterControlException 
      */
     private VirtualClusterSubmissionResponse 
-        startVirtualClusterSubmission(VirtualClusterSubmissionRequest submissionRequest) 
-        throws CommandHandlerException, BootstrapUtilityException
+        startVirtualClusterSubmission(VirtualClusterControl virtualClusterControl,
+                                      VirtualClusterSubmissionRequest submissionRequest) 
+        throws CommandHandlerException, BootstrapUtilityException, VirtualClusterControlException
     {
         List<NetworkAddress> bootstrapAddress = clientConfiguration_.getGeneralSettings().getBootstrapNodes();    
         BootstrapAPI bootstrapCommunicator = BootstrapUtilis.getActiveBootstrapCommunicator(bootstrapAddress);
@@ -618,7 +986,6 @@ public final class CommandHandler
             throw new BootstrapUtilityException("Unable to find any active bootstrap node!");
         }
         
-        VirtualClusterControl virtualClusterControl = new VirtualClusterControl(clientConfiguration_);
         VirtualClusterSubmissionResponse response = virtualClusterControl.start(submissionRequest); 
         return response;
     }
@@ -633,127 +1000,504 @@ public final class CommandHandler
     {
         log_.debug("Processing the start command");
         
+        List<String> virtualClusterNames = parserOutput_.getVirtualClusterNames();
+        if (parserOutput_.getVirtualMachineName() == null && 
+            virtualClusterNames != null && virtualClusterNames.size() > 1)
+        {
+            processMultipleStart(virtualClusterNames);
+            return;
+        }
+        
         VirtualClusterSubmissionRequest submissionRequest = createVirtualClusterSubmissionRequest();            
         if (submissionRequest == null)
         {
             throw new CommandHandlerException("Unable to generate the virtual cluster description!");
         }
                            
+        VirtualClusterControl virtualClusterControl = new VirtualClusterControl(clientConfiguration_);
+        int numberOfVirtualMachines = submissionRequest.getVirtualMachineTemplates().size();
         long startSystemTime = System.currentTimeMillis();
-        VirtualClusterSubmissionResponse response = startVirtualClusterSubmission(submissionRequest);   
+        VirtualClusterSubmissionResponse response;
+        try
+        {
+            response = startVirtualClusterSubmission(virtualClusterControl, submissionRequest);
+        }
+        catch (VirtualClusterControlException exception)
+        {
+            recordSubmissionFailure(startSystemTime, numberOfVirtualMachines);
+            throw exception;
+        }
+        
         if (response == null)
         {
+            recordSubmissionFailure(startSystemTime, numberOfVirtualMachines);
             throw new CommandHandlerException("The cluster submission response is emtpy! Report this to the system " +
                                               "administrator!");
         }
         long finishSystemTime = System.currentTimeMillis();
+        recordSubmission(response, numberOfVirtualMachines, startSystemTime, finishSystemTime);
         
         processVirtualClusterResponse(response); 
         if (clientConfiguration_.getStatisticsSettings().isEnabled())
         {
             log_.debug("Statistics mode is enabled! Starting the creation!");
             generateAndWriteSubmissionResults(response, 
-                                              submissionRequest.getVirtualMachineTemplates().size(),
+                                              virtualClusterControl.getLastSubmission(),
                                               startSystemTime, 
                                               finishSystemTime);           
         }
     }
         
     /**
-     * Returns the group leader description.
-     * 
-     * @return                              The group leader description
-     * @throws CommandHandlerException      The command handler exception
-     * @throws BootstrapUtilityException       The global utility exception
-     */
-    private GroupManagerDescription getGroupLeaderDescription() 
-        throws CommandHandlerException, BootstrapUtilityException 
-    {
-        List<NetworkAddress> bootstrapNodes = clientConfiguration_.getGeneralSettings().getBootstrapNodes();
-        GroupManagerDescription groupLeaderDescription = BootstrapUtilis.getGroupLeaderDescription(bootstrapNodes); 
-        return groupLeaderDescription;
-    }
-
-    /**
-     * Generates and writes submission results.
+     * Starts several virtual clusters.
      * 
-     * @param virtualClusterResponse    The virtual cluster response
-     * @param numberOfVirtualMachines   The number of virtual machines
-     * @param startSystemTime           The start system time
-     * @param finishSystemTime          The finish system time
-     * @throws IOException              The IO exception
-     */
-    private void generateAndWriteSubmissionResults(VirtualClusterSubmissionResponse virtualClusterResponse,
-                                                   int numberOfVirtualMachines,
-                                                   long startSystemTime,
-                                                   long finishSystemTime)
-        throws IOException
-    {
-        Guard.check(virtualClusterResponse, startSystemTime, finishSystemTime);
-        log_.debug("Generating and writing submission results");
-        
-        SubmissionResults submissionResults = 
-            SubmissionResultsUtils.generateSubmissionResults(virtualClusterResponse,
-                                                               numberOfVirtualMachines,
-                                                               startSystemTime,
-                                                               finishSystemTime);
-        SubmissionResultsUtils.writeSubmissionResults(clientConfiguration_.getStatisticsSettings().getOutput(), 
-                                                        submissionResults);            
-    }
-
-    /**
-     * Generates information output.
+     * All clusters are submitted back to back and their responses are tracked by a single 
+     * submission tracker. Each response is processed as soon as it arrives.
      * 
-     * @param virtualMachine     The virtual machine description
-     * @return                   The output data
+     * @param virtualClusterNames       The virtual cluster names
+     * @throws Exception                The exception
      */
-    private ConsoleOutput generateInformationOutput(VirtualMachineMetaData virtualMachine)
+    private void processMultipleStart(List<String> virtualClusterNames) 
+        throws Exception
     {
-        Guard.check(virtualMachine);
-        log_.debug("Generating information output");
+        log_.debug(String.format("Starting %d virtual clusters", virtualClusterNames.size()));
         
-        String cpuUtilization = Globals.DEFAULT_INITIALIZATION;
-        String memoryUtilization = Globals.DEFAULT_INITIALIZATION;
-        String networkUtilization = Globals.DEFAULT_INITIALIZATION;    
-        String finalStatus = Globals.DEFAULT_INITIALIZATION;
+        Map<String, VirtualClusterSubmissionRequest> submissionRequests = 
+            new LinkedHashMap<String, VirtualClusterSubmissionRequest>();
+        for (String virtualClusterName : virtualClusterNames)
+        {
+            VirtualClusterSubmissionRequest submissionRequest = 
+                clientRepository_.createVirtualClusterSubmissionRequest(virtualClusterName, AttributeType.cluster);
+            submissionRequests.put(virtualClusterName, submissionRequest);
+        }
         
-        VirtualMachineStatus tmpStatus = virtualMachine.getStatus();
-        if (tmpStatus.equals(VirtualMachineStatus.ERROR))
-        { 
-            finalStatus = tmpStatus + "(" + virtualMachine.getErrorCode() + ")";
-        } else 
+        List<NetworkAddress> bootstrapAddress = clientConfiguration_.getGeneralSettings().getBootstrapNodes();    
+        if (BootstrapUtilis.getActiveBootstrapCommunicator(bootstrapAddress) == null)
         {
-            finalStatus = tmpStatus.toString();
+            throw new BootstrapUtilityException("Unable to find any active bootstrap node!");
         }
         
-        Map<Long, VirtualMachineMonitoringData> usageHistory = virtualMachine.getUsedCapacity();
-        if (usageHistory != null && !usageHistory.isEmpty())
+        VirtualClusterControl virtualClusterControl = new VirtualClusterControl(clientConfiguration_);
+        SubmissionTracker tracker = virtualClusterControl.newSubmissionTracker();
+        final List<String> failedVirtualClusters = new ArrayList<String>();
+        for (Map.Entry<String, VirtualClusterSubmissionRequest> entry : submissionRequests.entrySet())
         {
-            VirtualMachineMonitoringData monitoring = 
-                MonitoringUtils.getLatestVirtualMachineMonitoringData(usageHistory);
-            ArrayList<Double> usedCapacity = monitoring.getUsedCapacity();
-            
-            DecimalFormat format = new DecimalFormat("#.##"); 
-            cpuUtilization = format.format(usedCapacity.get(Globals.CPU_UTILIZATION_INDEX));            
-            memoryUtilization = format.format(usedCapacity.get(Globals.MEMORY_UTILIZATION_INDEX));
+            SubmissionTask task = tracker.submit(entry.getKey(), entry.getValue());
+            if (task == null)
+            {
+                log_.error(String.format("Submission of virtual cluster %s failed!", entry.getKey()));
+                recordSubmissionFailure(System.currentTimeMillis(), 
+                                        entry.getValue().getVirtualMachineTemplates().size());
+                failedVirtualClusters.add(entry.getKey());
+                continue;
+            }
             
-            String usedRxTraffic = format.format(usedCapacity.get(Globals.NETWORK_RX_UTILIZATION_INDEX));
-            String usedTxTraffic = format.format(usedCapacity.get(Globals.NETWORK_TX_UTILIZATION_INDEX));
-            networkUtilization = usedRxTraffic + "/" + usedTxTraffic;
+            log_.info(String.format("Virtual cluster %s submitted with task identifier: %s", 
+                                    entry.getKey(), task.getTaskIdentifier()));
         }
         
-        ConsoleOutput output = new ConsoleOutput(cpuUtilization, 
-                                                         memoryUtilization, 
-                                                         networkUtilization,
-                                                         finalStatus);        
-        return output;
-                
+        tracker.track(new SubmissionListener()
+        {
+            @Override
+            public void onSubmissionResponse(SubmissionTask task, VirtualClusterSubmissionResponse response) 
+            {
+                String virtualClusterName = task.getVirtualClusterName();
+                log_.info(String.format("Virtual cluster %s response received:", virtualClusterName));
+                try
+                {
+                    recordSubmission(response, 
+                                     task.getNumberOfVirtualMachines(), 
+                                     task.getSubmissionTime(), 
+                                     task.getResponseTime());
+                    processVirtualClusterResponse(response);
+                    if (clientConfiguration_.getStatisticsSettings().isEnabled())
+                    {
+                        generateAndWriteSubmissionResults(response,
+                                                          task,
+                                                          task.getSubmissionTime(),
+                                                          task.getResponseTime());
+                    }
+                }
+                catch (Exception exception)
+                {
+                    log_.error(String.format("Virtual cluster %s: %s", virtualClusterName, exception.getMessage()));
+                    failedVirtualClusters.add(virtualClusterName);
+                }
+            }
+
+            @Override
+            public void onSubmissionTimeout(SubmissionTask task) 
+            {
+                log_.error(String.format("No response for virtual cluster %s after %d polls!", 
+                                         task.getVirtualClusterName(), task.getBackoff().getNumberOfPolls()));
+                recordSubmissionFailure(task.getSubmissionTime(), task.getNumberOfVirtualMachines());
+                failedVirtualClusters.add(task.getVirtualClusterName());
+            }
+        });
+        
+        if (!failedVirtualClusters.isEmpty())
+        {
+            throw new CommandHandlerException(String.format("Failed to start %d of %d virtual clusters: %s", 
+                                                            failedVirtualClusters.size(),
+                                                            virtualClusterNames.size(),
+                                                            failedVirtualClusters));
+        }
     }
     
     /**
-     * Print the virtual machine information.
+     * Returns the submission history.
      * 
-     * @param virtualMachine  The virtual machine meta data
+     * @return  The submission history, null if disabled
+     */
+    private synchronized SubmissionHistory getSubmissionHistory()
+    {
+        StatisticsSettings statisticsSettings = clientConfiguration_.getStatisticsSettings();
+        if (!statisticsSettings.isHistoryEnabled())
+        {
+            return null;
+        }
+        
+        if (submissionHistory_ == null)
+        {
+            long interval = TimeUtils.convertSecondsToMilliseconds(statisticsSettings.getHistoryInterval());
+            submissionHistory_ = new SubmissionHistory(StorageUtils.getSubmissionHistoryFileName(), interval);
+        }
+        
+        return submissionHistory_;
+    }
+    
+    /**
+     * Records a submission which received a response in the history.
+     * 
+     * @param response                  The virtual cluster response
+     * @param numberOfVirtualMachines   The number of virtual machines
+     * @param startSystemTime           The submission time
+     * @param finishSystemTime          The response time
+     */
+    private void recordSubmission(VirtualClusterSubmissionResponse response,
+                                  int numberOfVirtualMachines,
+                                  long startSystemTime,
+                                  long finishSystemTime)
+    {
+        SubmissionHistory history = getSubmissionHistory();
+        if (history == null)
+        {
+            return;
+        }
+        
+        history.recordSubmission(startSystemTime, 
+                                 finishSystemTime - startSystemTime, 
+                                 numberOfVirtualMachines,
+                                 SubmissionResultsUtils.computeNumberOfFailedAllocations(response));
+    }
+    
+    /**
+     * Records a submission without response in the history.
+     * 
+     * @param startSystemTime           The submission time
+     * @param numberOfVirtualMachines   The number of virtual machines
+     */
+    private void recordSubmissionFailure(long startSystemTime, int numberOfVirtualMachines)
+    {
+        SubmissionHistory history = getSubmissionHistory();
+        if (history != null)
+        {
+            history.recordFailure(startSystemTime, numberOfVirtualMachines);
+        }
+    }
+    
+    /**
+     * Appends the recorded submissions to the history file.
+     * 
+     * A history failure never fails the command.
+     */
+    private void flushSubmissionHistory()
+    {
+        SubmissionHistory history;
+        synchronized (this)
+        {
+            history = submissionHistory_;
+        }
+        
+        if (history == null)
+        {
+            return;
+        }
+        
+        try
+        {
+            history.flush();
+        }
+        catch (IOException exception)
+        {
+            log_.warn(String.format("Unable to write the submission history: %s", exception.getMessage()));
+        }
+    }
+    
+    /**
+     * Processes the stats command.
+     * 
+     * @throws IOException  The exception
+     */
+    private void processStatsCommand() 
+        throws IOException
+    {
+        StatisticsSettings statisticsSettings = clientConfiguration_.getStatisticsSettings();
+        long interval = TimeUtils.convertSecondsToMilliseconds(statisticsSettings.getHistoryInterval());
+        SubmissionHistory history = new SubmissionHistory(StorageUtils.getSubmissionHistoryFileName(), interval);
+        if (parserOutput_.isStatsCompact())
+        {
+            long retention = statisticsSettings.getHistoryRetention() * 24L * 60 * 60 * 1000;
+            int numberOfRecords = history.compact(retention);
+            log_.info(String.format("Submission history compacted, %d records kept", numberOfRecords));
+            return;
+        }
+        
+        SubmissionStatistics statistics = history.query(parserOutput_.getStatsFrom(), parserOutput_.getStatsTo());
+        if (statistics.getNumberOfSlots() == 0)
+        {
+            log_.info("No submissions recorded in this window");
+            return;
+        }
+        
+        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+        HistorySlot total = statistics.getTotal();
+        LatencyHistogram latencies = total.getLatencies();
+        log_.info(String.format("Window: %s - %s (%d slots of %d s)", 
+                                dateFormat.format(new Date(statistics.getFirstSlotStart())),
+                                dateFormat.format(new Date(statistics.getLastSlotEnd())),
+                                statistics.getNumberOfSlots(),
+                                statisticsSettings.getHistoryInterval()));
+        log_.info(String.format("Submissions: %d, %d without response (%.2f%%)", 
+                                total.getNumberOfSubmissions(),
+                                total.getNumberOfFailedSubmissions(),
+                                statistics.getSubmissionFailureRate() * 100));
+        log_.info(String.format("Virtual machines: %d, %d failed (%.2f%%)", 
+                                total.getNumberOfVirtualMachines(),
+                                total.getNumberOfFailedVirtualMachines(),
+                                statistics.getVirtualMachineFailureRate() * 100));
+        log_.info(String.format("Throughput: %.2f submissions/min, %.2f virtual machines/min",
+                                statistics.getSubmissionThroughput(),
+                                statistics.getVirtualMachineThroughput()));
+        if (latencies.getTotalCount() == 0)
+        {
+            return;
+        }
+        
+        log_.info(String.format("Time to response (ms): p50 %d, p90 %d, p99 %d, p99.9 %d", 
+                                latencies.getValueAtPercentile(50),
+                                latencies.getValueAtPercentile(90),
+                                latencies.getValueAtPercentile(99),
+                                latencies.getValueAtPercentile(99.9)));
+        log_.info(String.format("Time to response (ms): min %d, max %d, mean %.1f", 
+                                latencies.getMinimum(),
+                                latencies.getMaximum(),
+                                latencies.getMean()));
+    }
+    
+    /**
+     * Processes the bench command.
+     * 
+     * @throws Exception 
+     */
+    private void processBenchCommand() 
+        throws Exception
+    {
+        BenchmarkSettings settings = parserOutput_.getBenchmarkSettings();
+        List<VirtualClusterSubmissionRequest> templates = new ArrayList<VirtualClusterSubmissionRequest>();
+        for (String virtualClusterName : settings.getVirtualClusterNames())
+        {
+            VirtualClusterSubmissionRequest submissionRequest = 
+                clientRepository_.createVirtualClusterSubmissionRequest(virtualClusterName, AttributeType.cluster);
+            if (submissionRequest == null || submissionRequest.getVirtualMachineTemplates().isEmpty())
+            {
+                throw new CommandHandlerException(String.format("Unable to generate the description of virtual " +
+                                                                "cluster %s!", virtualClusterName));
+            }
+            templates.add(submissionRequest);
+        }
+        
+        List<NetworkAddress> bootstrapAddress = clientConfiguration_.getGeneralSettings().getBootstrapNodes();    
+        if (BootstrapUtilis.getActiveBootstrapCommunicator(bootstrapAddress) == null)
+        {
+            throw new BootstrapUtilityException("Unable to find any active bootstrap node!");
+        }
+        
+        final SubmissionBenchmark benchmark = new SubmissionBenchmark(clientConfiguration_, settings, templates);
+        Thread tearDownHook = null;
+        if (settings.isDestroy())
+        {
+            tearDownHook = new Thread(new Runnable()
+            {
+                public void run()
+                {
+                    try
+                    {
+                        benchmark.tearDown();
+                    }
+                    catch (InterruptedException exception)
+                    {
+                        log_.error("Benchmark teardown interrupted");
+                    }
+                }
+            }, "benchmark-teardown");
+            Runtime.getRuntime().addShutdownHook(tearDownHook);
+        }
+        
+        try
+        {
+            benchmark.run();
+        }
+        finally
+        {
+            if (tearDownHook != null && removeShutdownHook(tearDownHook))
+            {
+                benchmark.tearDown();
+            }
+        }
+    }
+    
+    /**
+     * Removes a shutdown hook.
+     * 
+     * @param hook      The hook
+     * @return          true if removed, false if the shutdown is already in progress
+     */
+    private static boolean removeShutdownHook(Thread hook)
+    {
+        try
+        {
+            return Runtime.getRuntime().removeShutdownHook(hook);
+        }
+        catch (IllegalStateException exception)
+        {
+            return false;
+        }
+    }
+    
+    /**
+     * Returns the group leader address.
+     * 
+     * @return                              The group leader address
+     * @throws BootstrapUtilityException    The bootstrap utility exception
+     */
+    private synchronized NetworkAddress getGroupLeaderAddress() 
+        throws BootstrapUtilityException 
+    {
+        if (groupLeaderAddress_ == null)
+        {
+            List<NetworkAddress> bootstrapNodes = clientConfiguration_.getGeneralSettings().getBootstrapNodes();
+            groupLeaderAddress_ = BootstrapUtilis.getGroupLeaderAddress(bootstrapNodes);
+        }
+        
+        return groupLeaderAddress_;
+    }
+    
+    /**
+     * Resolves the group leader address again after a call to it failed.
+     * 
+     * The bootstrap cache is only invalidated once if several callers report the same address.
+     * 
+     * @param failedAddress                 The failed group leader address
+     * @return                              The group leader address
+     * @throws BootstrapUtilityException    The bootstrap utility exception
+     */
+    private synchronized NetworkAddress resolveGroupLeaderAddress(NetworkAddress failedAddress) 
+        throws BootstrapUtilityException 
+    {
+        if (groupLeaderAddress_ == failedAddress)
+        {
+            log_.debug("Group leader address is stale! Invalidating the bootstrap cache");
+            BootstrapUtilis.invalidateCache();
+            groupLeaderAddress_ = null;
+        }
+        
+        return getGroupLeaderAddress();
+    }
+    
+    /**
+     * Generates and writes submission results.
+     * 
+     * @param virtualClusterResponse    The virtual cluster response
+     * @param task                      The submission task
+     * @param startSystemTime           The start system time
+     * @param finishSystemTime          The finish system time
+     * @throws IOException              The IO exception
+     */
+    private void generateAndWriteSubmissionResults(VirtualClusterSubmissionResponse virtualClusterResponse,
+                                                   SubmissionTask task,
+                                                   long startSystemTime,
+                                                   long finishSystemTime)
+        throws IOException
+    {
+        Guard.check(virtualClusterResponse, task, startSystemTime, finishSystemTime);
+        log_.debug("Generating and writing submission results");
+        
+        SubmissionResults submissionResults = 
+            SubmissionResultsUtils.generateSubmissionResults(virtualClusterResponse,
+                                                               task.getTaskIdentifier(),
+                                                               task.getNumberOfVirtualMachines(),
+                                                               startSystemTime,
+                                                               task.getTaskIdentifierTime(),
+                                                               finishSystemTime,
+                                                               task.getBackoff().getNumberOfPolls());
+        SubmissionResultsUtils.writeSubmissionResults(clientConfiguration_.getStatisticsSettings().getOutput(), 
+                                                        submissionResults);            
+    }
+
+    /**
+     * Generates information output.
+     * 
+     * @param virtualMachine     The virtual machine description
+     * @return                   The output data
+     */
+    private ConsoleOutput generateInformationOutput(VirtualMachineMetaData virtualMachine)
+    {
+        Guard.check(virtualMachine);
+        log_.debug("Generating information output");
+        
+        String cpuUtilization = Globals.DEFAULT_INITIALIZATION;
+        String memoryUtilization = Globals.DEFAULT_INITIALIZATION;
+        String networkUtilization = Globals.DEFAULT_INITIALIZATION;    
+        String finalStatus = Globals.DEFAULT_INITIALIZATION;
+        
+        VirtualMachineStatus tmpStatus = virtualMachine.getStatus();
+        if (tmpStatus.equals(VirtualMachineStatus.ERROR))
+        { 
+            finalStatus = tmpStatus + "(" + virtualMachine.getErrorCode() + ")";
+        } else 
+        {
+            finalStatus = tmpStatus.toString();
+        }
+        
+        Map<Long, VirtualMachineMonitoringData> usageHistory = virtualMachine.getUsedCapacity();
+        if (usageHistory != null && !usageHistory.isEmpty())
+        {
+            VirtualMachineMonitoringData monitoring = 
+                MonitoringUtils.getLatestVirtualMachineMonitoringData(usageHistory);
+            ArrayList<Double> usedCapacity = monitoring.getUsedCapacity();
+            
+            DecimalFormat format = new DecimalFormat("#.##"); 
+            cpuUtilization = format.format(usedCapacity.get(Globals.CPU_UTILIZATION_INDEX));            
+            memoryUtilization = format.format(usedCapacity.get(Globals.MEMORY_UTILIZATION_INDEX));
+            
+            String usedRxTraffic = format.format(usedCapacity.get(Globals.NETWORK_RX_UTILIZATION_INDEX));
+            String usedTxTraffic = format.format(usedCapacity.get(Globals.NETWORK_TX_UTILIZATION_INDEX));
+            networkUtilization = usedRxTraffic + "/" + usedTxTraffic;
+        }
+        
+        ConsoleOutput output = new ConsoleOutput(cpuUtilization, 
+                                                         memoryUtilization, 
+                                                         networkUtilization,
+                                                         finalStatus);        
+        return output;
+                
+    }
+    
+    /**
+     * Print the virtual machine information.
+     * 
+     * @param virtualMachine  The virtual machine meta data
      */
     private void displayVirtualMachineInformation(VirtualMachineMetaData virtualMachine)
     {
@@ -969,6 +1713,8 @@ public final class CommandHandler
     /**
      * Processes cluster command.
      * 
+     * Lifecycle commands are grouped by group manager, info commands are sent per virtual machine.
+     * 
      * @param virtualClusterName        The virtual cluster name
      * @param command                   The virtual cluster command
      * @throws Exception 
@@ -978,57 +1724,650 @@ public final class CommandHandler
     {        
         Guard.check(virtualClusterName, command);
         
-        List<String> virtualMachineIds = clientRepository_.getVirtualMachineIds(virtualClusterName);        
-        for (String virtualMachineId : virtualMachineIds)
-        {               
-            processVirtualMachineCommand(virtualMachineId, command);    
-        }       
-    }
+        List<String> virtualMachineIds = clientRepository_.getVirtualMachineIds(virtualClusterName);
+        Set<String> snapshotLocated = resolveLocationsUpFront(virtualMachineIds);
+        int numberOfThreads = Math.max(1, Math.min(clientConfiguration_.getGeneralSettings().getNumberOfCommandThreads(), 
+                                                   virtualMachineIds.size()));
+        
+        List<Callable<List<VirtualMachineCommandResult>>> tasks;
+        if (command.equals(ClientCommand.INFO))
+        {
+            tasks = createVirtualMachineTasks(virtualMachineIds, command);
+        } else
+        {
+            tasks = createGroupManagerTasks(virtualMachineIds, command, numberOfThreads);
+        }
+        
+        List<VirtualMachineCommandResult> results;
+        synchronized (this)
+        {
+            discoveryScope_ = snapshotLocated.isEmpty() ? new HashSet<String>(virtualMachineIds) : null;
+            numberOfDiscoveries_ = 0;
+            bulkDiscovery_ = null;
+            snapshotLocated_ = snapshotLocated;
+        }
+        
+        try
+        {
+            results = executeTasks(tasks, numberOfThreads);
+        }
+        finally
+        {
+            synchronized (this)
+            {
+                discoveryScope_ = null;
+                bulkDiscovery_ = null;
+                snapshotLocated_ = new HashSet<String>();
+            }
+        }
         
+        reportVirtualClusterCommandResults(sortResults(results, virtualMachineIds));
+    }
+    
     /**
-     * Creates a meta data request.
+     * Resolves the locations of a large cluster from the hierarchy snapshot before the command is sent.
      * 
-     * @param location  The virtual machine location
-     * @return          The meta data request
+     * @param virtualMachineIds     The virtual machine identifiers
+     * @return                      The virtual machines located from the snapshot
      */
-    private MetaDataRequest createMetaDataRequest(VirtualMachineLocation location)
+    private Set<String> resolveLocationsUpFront(List<String> virtualMachineIds)
     {
-        Guard.check(location);
-        int numberOfMonitoringEntries = clientConfiguration_.getGeneralSettings().getNumberOfMonitoringEntries();
-        MetaDataRequest request = new MetaDataRequest();
-        request.setVirtualMachineLocation(location);
-        request.setNumberOfMonitoringEntries(numberOfMonitoringEntries);
-        return request;
+        int threshold = clientConfiguration_.getGeneralSettings().getResolveLocationsThreshold();
+        if (threshold <= 0 || virtualMachineIds.size() < threshold)
+        {
+            return new HashSet<String>();
+        }
+        
+        try
+        {
+            return resolveLocations(virtualMachineIds, new ArrayList<String>());
+        }
+        catch (Exception exception)
+        {
+            log_.debug("Unable to resolve the locations from the hierarchy! Verifying them individually", exception);
+            return new HashSet<String>();
+        }
     }
     
     /**
-     * Processes virtual machine command.
+     * Checks if a virtual machine of the current cluster command was located from the hierarchy snapshot.
+     * 
+     * Such locations are used without probing, a failing command triggers the discovery.
      * 
      * @param virtualMachineId      The virtual machine identifier
-     * @param command               The command
-     * @throws Exception            The exception
+     * @return                      true if located from the snapshot, false otherwise
      */
-    private void processVirtualMachineCommand(String virtualMachineId, ClientCommand command)
-        throws Exception 
+    private synchronized boolean isSnapshotLocated(String virtualMachineId)
     {
-        Guard.check(virtualMachineId, command);
-        VirtualMachineMetaData metaData = clientRepository_.getVirtualMachineMetaData(virtualMachineId);
-        if (metaData == null)
-        {
-            log_.error(String.format("Virtual machine: %s meta data not found! Is it added?", virtualMachineId));
-            return;
+        return snapshotLocated_.contains(virtualMachineId);
+    }
+    
+    /**
+     * Creates one task per virtual machine.
+     * 
+     * The repository is only read from the calling thread.
+     * 
+     * @param virtualMachineIds         The virtual machine identifiers
+     * @param command                   The virtual cluster command
+     * @return                          The tasks
+     * @throws Exception                The exception
+     */
+    private List<Callable<List<VirtualMachineCommandResult>>> 
+        createVirtualMachineTasks(List<String> virtualMachineIds, ClientCommand command)
+        throws Exception
+    {
+        List<Callable<List<VirtualMachineCommandResult>>> tasks = 
+            new ArrayList<Callable<List<VirtualMachineCommandResult>>>();
+        for (String virtualMachineId : virtualMachineIds)
+        {
+            VirtualMachineMetaData metaData = clientRepository_.getVirtualMachineMetaData(virtualMachineId);
+            tasks.add(createVirtualMachineTask(virtualMachineId, metaData, command));
+        }
+        
+        return tasks;
+    }
+    
+    /**
+     * Creates one task per group manager batch.
+     * 
+     * Virtual machines without known group manager are handled by individual tasks. Batches 
+     * are split so that the available threads are used even if only few group managers are involved.
+     * 
+     * @param virtualMachineIds         The virtual machine identifiers
+     * @param command                   The virtual cluster command
+     * @param numberOfThreads           The number of threads
+     * @return                          The tasks
+     * @throws Exception                The exception
+     */
+    private List<Callable<List<VirtualMachineCommandResult>>> 
+        createGroupManagerTasks(List<String> virtualMachineIds, final ClientCommand command, int numberOfThreads)
+        throws Exception
+    {
+        List<Callable<List<VirtualMachineCommandResult>>> tasks = 
+            new ArrayList<Callable<List<VirtualMachineCommandResult>>>();
+        List<VirtualMachineMetaData> locatedVirtualMachines = new ArrayList<VirtualMachineMetaData>();
+        for (String virtualMachineId : virtualMachineIds)
+        {
+            VirtualMachineMetaData metaData = clientRepository_.getVirtualMachineMetaData(virtualMachineId);
+            if (metaData == null || 
+                metaData.getGroupManagerControlDataAddress() == null ||
+                metaData.getVirtualMachineLocation().getLocalControllerId() == null)
+            {
+                tasks.add(createVirtualMachineTask(virtualMachineId, metaData, command));
+                continue;
+            }
+            
+            locatedVirtualMachines.add(metaData);
+        }
+        
+        int batchSize = Math.max(1, (locatedVirtualMachines.size() + numberOfThreads - 1) / numberOfThreads);
+        for (GroupManagerBatch groupManagerBatch : VirtualClusterControl.groupByGroupManager(locatedVirtualMachines))
+        {
+            log_.debug(String.format("Group manager %s manages %d virtual machines", 
+                                     GroupManagerBatch.getKey(groupManagerBatch.getGroupManagerAddress()),
+                                     groupManagerBatch.size()));
+            for (final GroupManagerBatch batch : groupManagerBatch.split(batchSize))
+            {
+                tasks.add(new Callable<List<VirtualMachineCommandResult>>()
+                {
+                    public List<VirtualMachineCommandResult> call()
+                    {
+                        return executeGroupManagerBatchSafely(batch, command);
+                    }
+                });
+            }
+        }
+        
+        return tasks;
+    }
+    
+    /**
+     * Creates a task executing a command on a single virtual machine.
+     * 
+     * @param virtualMachineId      The virtual machine identifier
+     * @param metaData              The virtual machine meta data
+     * @param command               The command
+     * @return                      The task
+     */
+    private Callable<List<VirtualMachineCommandResult>> createVirtualMachineTask(final String virtualMachineId,
+                                                                                 final VirtualMachineMetaData metaData,
+                                                                                 final ClientCommand command)
+    {
+        return new Callable<List<VirtualMachineCommandResult>>()
+        {
+            public List<VirtualMachineCommandResult> call()
+            {
+                return Arrays.asList(executeVirtualMachineCommandSafely(virtualMachineId, metaData, command));
+            }
+        };
+    }
+    
+    /**
+     * Executes the tasks using a bounded pool of threads.
+     * 
+     * @param tasks                     The tasks
+     * @param numberOfThreads           The number of threads
+     * @return                          The results
+     * @throws Exception                The exception
+     */
+    private List<VirtualMachineCommandResult> executeTasks(List<Callable<List<VirtualMachineCommandResult>>> tasks,
+                                                           int numberOfThreads)
+        throws Exception
+    {
+        List<VirtualMachineCommandResult> results = new ArrayList<VirtualMachineCommandResult>();
+        int poolSize = Math.min(numberOfThreads, tasks.size());
+        if (poolSize <= 1)
+        {
+            for (Callable<List<VirtualMachineCommandResult>> task : tasks)
+            {
+                results.addAll(task.call());
+            }
+            
+            return results;
+        }
+        
+        log_.debug(String.format("Executing %d tasks using %d threads", tasks.size(), poolSize));
+        ExecutorService executor = Executors.newFixedThreadPool(poolSize);
+        try
+        {
+            List<Future<List<VirtualMachineCommandResult>>> futures = 
+                new ArrayList<Future<List<VirtualMachineCommandResult>>>();
+            for (Callable<List<VirtualMachineCommandResult>> task : tasks)
+            {
+                futures.add(executor.submit(task));
+            }
+            
+            for (Future<List<VirtualMachineCommandResult>> future : futures)
+            {
+                results.addAll(future.get());
+            }
+            
+            return results;
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+    
+    /**
+     * Sorts the results according to the virtual machine identifiers.
+     * 
+     * @param results                   The results
+     * @param virtualMachineIds         The virtual machine identifiers
+     * @return                          The sorted results
+     */
+    private List<VirtualMachineCommandResult> sortResults(List<VirtualMachineCommandResult> results, 
+                                                          List<String> virtualMachineIds)
+    {
+        Map<String, VirtualMachineCommandResult> resultsById = new HashMap<String, VirtualMachineCommandResult>();
+        for (VirtualMachineCommandResult result : results)
+        {
+            resultsById.put(result.getVirtualMachineId(), result);
+        }
+        
+        List<VirtualMachineCommandResult> sortedResults = new ArrayList<VirtualMachineCommandResult>();
+        for (String virtualMachineId : virtualMachineIds)
+        {
+            VirtualMachineCommandResult result = resultsById.get(virtualMachineId);
+            if (result != null)
+            {
+                sortedResults.add(result);
+            }
+        }
+        
+        return sortedResults;
+    }
+    
+    /**
+     * Executes a command on a group manager batch and turns exceptions into failed results.
+     * 
+     * Virtual machines which are no longer on the group manager are discovered and handled individually.
+     * In optimistic mode the locations are not verified upfront, virtual machines for which the command
+     * fails on the recorded group manager are only discovered and retried when the group manager confirms 
+     * it does not host them. Virtual machines whose requests timed out are reported as failed without 
+     * discovery to keep the command within its deadline.
+     * 
+     * @param batch     The group manager batch
+     * @param command   The command
+     * @return          The results
+     */
+    private List<VirtualMachineCommandResult> executeGroupManagerBatchSafely(GroupManagerBatch batch, 
+                                                                             ClientCommand command)
+    {
+        Map<String, VirtualMachineCommandResult> results = new LinkedHashMap<String, VirtualMachineCommandResult>();
+        try
+        {
+            VirtualClusterControl control = new VirtualClusterControl(clientConfiguration_, 
+                                                                      batch.getGroupManagerAddress(),
+                                                                      retryBudgets_);
+            List<VirtualMachineLocation> hostedLocations = new ArrayList<VirtualMachineLocation>();
+            Set<String> unverifiedVirtualMachines = new HashSet<String>();
+            for (VirtualMachineLocation location : batch.getLocations())
+            {
+                String virtualMachineId = location.getVirtualMachineId();
+                if (isOptimisticCommands() || isSnapshotLocated(virtualMachineId))
+                {
+                    hostedLocations.add(location);
+                    unverifiedVirtualMachines.add(virtualMachineId);
+                    continue;
+                }
+                
+                if (isLocationFresh(virtualMachineId))
+                {
+                    log_.debug(String.format("Location of virtual machine %s was recently verified", virtualMachineId));
+                    hostedLocations.add(location);
+                    continue;
+                }
+                
+                try
+                {
+                    if (control.hasVirtualMachine(location))
+                    {
+                        stampLocation(virtualMachineId);
+                        hostedLocations.add(location);
+                        continue;
+                    }
+                }
+                catch (CallTimeoutException exception)
+                {
+                    results.put(virtualMachineId, 
+                                VirtualMachineCommandResult.newFailedResult(virtualMachineId, 
+                                                                            command, 
+                                                                            exception.getMessage()));
+                    continue;
+                }
+                
+                log_.debug(String.format("Virtual machine %s is not on the original group manager! Starting discovery!",
+                                         location.getVirtualMachineId()));
+                VirtualClusterControl discoveredControl = createDiscoveredVirtualClusterControl(location);
+                results.put(location.getVirtualMachineId(), 
+                            executeVirtualMachineCommand(discoveredControl, command, location));
+            }
+            
+            Map<String, Boolean> flags = control.executeBatch(command, hostedLocations);
+            Map<String, String> timedOutVirtualMachines = control.getTimedOutVirtualMachines();
+            Map<String, String> failedVirtualMachines = control.getFailedVirtualMachines();
+            for (VirtualMachineLocation location : hostedLocations)
+            {
+                String virtualMachineId = location.getVirtualMachineId();
+                String timeoutMessage = timedOutVirtualMachines.get(virtualMachineId);
+                if (timeoutMessage != null)
+                {
+                    results.put(virtualMachineId, 
+                                VirtualMachineCommandResult.newFailedResult(virtualMachineId, command, timeoutMessage));
+                    continue;
+                }
+                
+                boolean isSuccessfull = Boolean.TRUE.equals(flags.get(virtualMachineId));
+                boolean isUnverified = unverifiedVirtualMachines.contains(virtualMachineId);
+                String failureMessage = failedVirtualMachines.get(virtualMachineId);
+                boolean isRelocated = !isSuccessfull && isUnverified && isConfirmedMissing(control, location);
+                if (failureMessage != null && !isRelocated)
+                {
+                    results.put(virtualMachineId, 
+                                VirtualMachineCommandResult.newFailedResult(virtualMachineId, command, failureMessage));
+                    continue;
+                }
+                
+                if (isSuccessfull && isUnverified && !isLocationFresh(virtualMachineId))
+                {
+                    stampLocation(virtualMachineId);
+                }
+                
+                if (!isRelocated)
+                {
+                    results.put(virtualMachineId, new VirtualMachineCommandResult(virtualMachineId, 
+                                                                                  command, 
+                                                                                  isSuccessfull));
+                    continue;
+                }
+                
+                log_.debug(String.format("Virtual machine %s is not on its recorded group manager! Starting discovery!",
+                                         virtualMachineId));
+                VirtualClusterControl discoveredControl = createDiscoveredVirtualClusterControl(location);
+                results.put(virtualMachineId, executeVirtualMachineCommand(discoveredControl, command, location));
+            }
+        }
+        catch (Exception exception)
+        {
+            log_.debug(String.format("Command: %s failed for group manager: %s", 
+                                     command, GroupManagerBatch.getKey(batch.getGroupManagerAddress())), 
+                       exception);
+            for (VirtualMachineLocation location : batch.getLocations())
+            {
+                String virtualMachineId = location.getVirtualMachineId();
+                if (!results.containsKey(virtualMachineId))
+                {
+                    results.put(virtualMachineId, 
+                                VirtualMachineCommandResult.newFailedResult(virtualMachineId, 
+                                                                            command, 
+                                                                            exception.getMessage()));
+                }
+            }
+        }
+        
+        return new ArrayList<VirtualMachineCommandResult>(results.values());
+    }
+    
+    /**
+     * Reports the results of a cluster command and the aggregated failures.
+     * 
+     * @param results                   The ordered results
+     * @throws CommandHandlerException  If the command failed for any virtual machine
+     */
+    private void reportVirtualClusterCommandResults(List<VirtualMachineCommandResult> results)
+        throws CommandHandlerException
+    {
+        List<String> failedVirtualMachines = new ArrayList<String>();
+        for (VirtualMachineCommandResult result : results)
+        {
+            reportVirtualMachineCommandResult(result);
+            if (!result.isSuccessfull())
+            {
+                failedVirtualMachines.add(result.getVirtualMachineId());
+            }
+        }
+        
+        if (!failedVirtualMachines.isEmpty())
+        {
+            throw new CommandHandlerException(String.format("Command failed for %d of %d virtual machine(s): %s", 
+                                                            failedVirtualMachines.size(), 
+                                                            results.size(), 
+                                                            failedVirtualMachines));
+        }
+    }
+        
+    /**
+     * Creates a meta data request.
+     * 
+     * @param location  The virtual machine location
+     * @return          The meta data request
+     */
+    private MetaDataRequest createMetaDataRequest(VirtualMachineLocation location)
+    {
+        Guard.check(location);
+        int numberOfMonitoringEntries = clientConfiguration_.getGeneralSettings().getNumberOfMonitoringEntries();
+        MetaDataRequest request = new MetaDataRequest();
+        request.setVirtualMachineLocation(location);
+        request.setNumberOfMonitoringEntries(numberOfMonitoringEntries);
+        return request;
+    }
+    
+    /**
+     * Processes virtual machine command.
+     * 
+     * @param virtualMachineId      The virtual machine identifier
+     * @param command               The command
+     * @throws Exception            The exception
+     */
+    private void processVirtualMachineCommand(String virtualMachineId, ClientCommand command)
+        throws Exception 
+    {
+        Guard.check(virtualMachineId, command);
+        VirtualMachineMetaData metaData = clientRepository_.getVirtualMachineMetaData(virtualMachineId);
+        VirtualMachineCommandResult result = executeVirtualMachineCommand(virtualMachineId, metaData, command);
+        reportVirtualMachineCommandResult(result);
+        if (!result.isSuccessfull())
+        {
+            throw new CommandHandlerException(String.format("Command %s failed for virtual machine %s!", 
+                                                            command, virtualMachineId));
+        }
+    }
+    
+    /**
+     * Executes virtual machine command and turns exceptions into failed results.
+     * 
+     * @param virtualMachineId      The virtual machine identifier
+     * @param metaData              The virtual machine meta data
+     * @param command               The command
+     * @return                      The result
+     */
+    private VirtualMachineCommandResult executeVirtualMachineCommandSafely(String virtualMachineId,
+                                                                           VirtualMachineMetaData metaData,
+                                                                           ClientCommand command)
+    {
+        try
+        {
+            return executeVirtualMachineCommand(virtualMachineId, metaData, command);
+        }
+        catch (Exception exception)
+        {
+            log_.debug(String.format("Command: %s failed for virtual machine: %s", command, virtualMachineId), 
+                       exception);
+            return VirtualMachineCommandResult.newFailedResult(virtualMachineId, command, exception.getMessage());
+        }
+    }
+    
+    /**
+     * Executes virtual machine command.
+     * 
+     * @param virtualMachineId      The virtual machine identifier
+     * @param metaData              The virtual machine meta data
+     * @param command               The command
+     * @return                      The result
+     * @throws Exception            The exception
+     */
+    private VirtualMachineCommandResult executeVirtualMachineCommand(String virtualMachineId,
+                                                                     VirtualMachineMetaData metaData,
+                                                                     ClientCommand command)
+        throws Exception 
+    {
+        if (metaData == null)
+        {
+            return VirtualMachineCommandResult.newFailedResult(virtualMachineId, 
+                                                               command, 
+                                                               "meta data not found! Is it added?");
         }
-              
         
         VirtualMachineLocation location = metaData.getVirtualMachineLocation();
         
         log_.debug(String.format("Command: %s for virtual machine: %s on local controller %s", 
                 command, virtualMachineId, location.getLocalControllerId()));
         NetworkAddress groupManagerAddress = metaData.getGroupManagerControlDataAddress();
+        if ((isOptimisticCommands() || isSnapshotLocated(virtualMachineId)) && 
+            location.getLocalControllerId() != null)
+        {
+            return executeOptimisticVirtualMachineCommand(location, groupManagerAddress, command);
+        }
 
         VirtualClusterControl virtualClusterControl = createVirtualClusterControl(location, groupManagerAddress);
-        executeVirtualMachineCommand(virtualClusterControl, command, location);
+        return executeVirtualMachineCommand(virtualClusterControl, command, location);
+    }
+    
+    /**
+     * Executes the virtual machine command on the recorded group manager without verifying the location.
+     * 
+     * If the command fails there, it is only re-issued on the discovered group manager when the recorded 
+     * group manager confirms the virtual machine is not hosted by it. Otherwise the command may already 
+     * have taken effect and the failure is reported.
+     * 
+     * @param location              The virtual machine location
+     * @param groupManagerAddress   The recorded group manager address
+     * @param command               The command
+     * @return                      The result
+     * @throws Exception            The exception
+     */
+    private VirtualMachineCommandResult executeOptimisticVirtualMachineCommand(VirtualMachineLocation location,
+                                                                               NetworkAddress groupManagerAddress,
+                                                                               ClientCommand command)
+        throws Exception 
+    {
+        String virtualMachineId = location.getVirtualMachineId();
+        VirtualClusterControl control = 
+            new VirtualClusterControl(clientConfiguration_, groupManagerAddress, retryBudgets_);
+        try
+        {
+            VirtualMachineCommandResult result = executeVirtualMachineCommand(control, command, location);
+            if (result.isSuccessfull())
+            {
+                if (!isLocationFresh(virtualMachineId))
+                {
+                    stampLocation(virtualMachineId);
+                }
+                return result;
+            }
+            
+            if (!isConfirmedMissing(control, location))
+            {
+                return result;
+            }
+        }
+        catch (CallTimeoutException exception)
+        {
+            return VirtualMachineCommandResult.newFailedResult(virtualMachineId, command, exception.getMessage());
+        }
+        catch (Exception exception)
+        {
+            log_.debug(String.format("Command %s failed on the recorded group manager", command), exception);
+            if (!isConfirmedMissing(control, location))
+            {
+                return VirtualMachineCommandResult.newFailedResult(virtualMachineId, command, exception.getMessage());
+            }
+        }
+        
+        log_.debug(String.format("Virtual machine %s not on the recorded group manager! Starting discovery!",
+                                 virtualMachineId));
+        VirtualClusterControl discoveredControl = createDiscoveredVirtualClusterControl(location);
+        return executeVirtualMachineCommand(discoveredControl, command, location);
+    }
+    
+    /**
+     * Checks if a group manager confirms that it does not host a virtual machine.
+     * 
+     * @param control       The group manager control
+     * @param location      The virtual machine location
+     * @return              true if the virtual machine is not hosted, false if hosted or unknown
+     */
+    private boolean isConfirmedMissing(VirtualClusterControl control, VirtualMachineLocation location)
+    {
+        try
+        {
+            return !control.hasVirtualMachine(location);
+        }
+        catch (RuntimeException exception)
+        {
+            log_.debug(String.format("Unable to check virtual machine %s on its recorded group manager", 
+                                     location.getVirtualMachineId()), exception);
+            return false;
+        }
+    }
+    
+    /**
+     * Checks if commands are sent optimistically.
+     * 
+     * @return      true if optimistic, false otherwise
+     */
+    private boolean isOptimisticCommands()
+    {
+        return clientConfiguration_.getGeneralSettings().isOptimisticCommands();
+    }
+    
+    /**
+     * Checks if the location of a virtual machine was verified recently.
+     * 
+     * @param virtualMachineId      The virtual machine identifier
+     * @return                      true if recently verified, false otherwise
+     * @throws Exception            The exception
+     */
+    private boolean isLocationFresh(String virtualMachineId) 
+        throws Exception
+    {
+        long timeToLive = 
+            TimeUtils.convertSecondsToMilliseconds(clientConfiguration_.getGeneralSettings()
+                                                                       .getLocationVerificationTimeToLive());
+        if (timeToLive <= 0)
+        {
+            return false;
+        }
+        
+        long verificationTime;
+        synchronized (clientRepository_)
+        {
+            verificationTime = clientRepository_.getVirtualMachineVerificationTime(virtualMachineId);
+        }
+        
+        return verificationTime > 0 && System.currentTimeMillis() - verificationTime < timeToLive;
+    }
+    
+    /**
+     * Stamps the location of a virtual machine as verified, if location stamps are enabled.
+     * 
+     * @param virtualMachineId      The virtual machine identifier
+     * @throws Exception            The exception
+     */
+    private void stampLocation(String virtualMachineId) 
+        throws Exception
+    {
+        if (clientConfiguration_.getGeneralSettings().getLocationVerificationTimeToLive() <= 0)
+        {
+            return;
+        }
         
+        synchronized (clientRepository_)
+        {
+            clientRepository_.setVirtualMachineVerificationTime(virtualMachineId, System.currentTimeMillis());
+        }
     }
     
     /**
@@ -1037,19 +2376,20 @@ public final class CommandHandler
      * @param control        The virtual machine control
      * @param command        The virtual cluster command
      * @param location       The virtual machine location
+     * @return               The result
      * @throws Exception     The exception
      */
-    private void executeVirtualMachineCommand(VirtualClusterControl control,
-                                              ClientCommand command, 
-                                              VirtualMachineLocation location) 
+    private VirtualMachineCommandResult executeVirtualMachineCommand(VirtualClusterControl control,
+                                                                     ClientCommand command, 
+                                                                     VirtualMachineLocation location) 
         throws Exception
     {
         boolean isSuccessfull = false;
-        log_.error(command.toString());
+        VirtualMachineMetaData virtualMachine = null;
+        log_.debug(command.toString());
         switch (command)
         {
             case INFO :
-                VirtualMachineMetaData virtualMachine = null;
                 if (control == null)
                 {
                     virtualMachine = new VirtualMachineMetaData();
@@ -1061,7 +2401,7 @@ public final class CommandHandler
                     virtualMachine = control.info(request);   
                 }
                 
-                displayVirtualMachineInformation(virtualMachine);
+                isSuccessfull = virtualMachine != null;
                 break;
                 
             case SUSPEND:
@@ -1103,41 +2443,206 @@ public final class CommandHandler
                 throw new CommandHandlerException(String.format("Unknown command specified: %s", command));
         }        
         
-        String virtualMachineId = location.getVirtualMachineId();
-        if (!command.equals(ClientCommand.INFO))
+        VirtualMachineCommandResult result = 
+            new VirtualMachineCommandResult(location.getVirtualMachineId(), command, isSuccessfull);
+        result.setMetaData(virtualMachine);
+        return result;
+    }
+    
+    /**
+     * Reports the result of a virtual machine command.
+     * 
+     * @param result    The result
+     */
+    private void reportVirtualMachineCommandResult(VirtualMachineCommandResult result)
+    {
+        String virtualMachineId = result.getVirtualMachineId();
+        ClientCommand command = result.getCommand();
+        if (result.getErrorMessage() != null)
         {
-            if (isSuccessfull)
+            log_.error(String.format("Virtual machine %s %s failed: %s", 
+                                     virtualMachineId, command, result.getErrorMessage()));
+            return;
+        }
+        
+        if (command.equals(ClientCommand.INFO))
+        {
+            if (result.getMetaData() != null)
             {
-                log_.info(String.format("Virtual machine %s %s executed successfully!", virtualMachineId, command));
+                displayVirtualMachineInformation(result.getMetaData());
             } else
             {
                 log_.info(String.format("Virtual machine %s %s failed!", virtualMachineId, command));
-            }            
+            }
+            return;
         }
+        
+        if (result.isSuccessfull())
+        {
+            log_.info(String.format("Virtual machine %s %s executed successfully!", virtualMachineId, command));
+        } else
+        {
+            log_.info(String.format("Virtual machine %s %s failed!", virtualMachineId, command));
+        }            
     }
     
     
     /**
      * Discovers virtual machine.
      * 
+     * Virtual machines of a cluster command are served from the bulk discovery once it took place.
+     * If the group leader fails, its address is resolved again and the discovery retried once.
+     * 
      * @param virtualMachineId          The virtual machine identifier
      * @return                          The response
-     * @throws BootstrapUtilityException 
-     * @throws CommandHandlerException 
+     * @throws Exception                The exception
      */
     private VirtualMachineDiscoveryResponse discoverVirtualMachine(String virtualMachineId)
-        throws CommandHandlerException, BootstrapUtilityException
+        throws Exception
     {
-        GroupManagerDescription groupLeader = getGroupLeaderDescription();        
-        NetworkAddress groupLeaderAddress = groupLeader.getListenSettings().getControlDataAddress();
-        VirtualMachineDiscoveryResponse response = VirtualMachineDiscovery.discoverVirtualMachine(virtualMachineId, 
-                                                                                                  groupLeaderAddress);
-        return response;
+        Map<String, VirtualMachineDiscoveryResponse> bulkResponses = getBulkDiscoveryResponses(virtualMachineId);
+        if (bulkResponses != null)
+        {
+            return bulkResponses.get(virtualMachineId);
+        }
+        
+        NetworkAddress groupLeaderAddress = getGroupLeaderAddress();
+        try
+        {
+            return VirtualMachineDiscovery.discoverVirtualMachine(virtualMachineId, groupLeaderAddress);
+        }
+        catch (RuntimeException exception)
+        {
+            log_.debug(String.format("Discovery failed on group leader %s! Resolving it again", 
+                                     GroupManagerBatch.getKey(groupLeaderAddress)), exception);
+        }
+        
+        groupLeaderAddress = resolveGroupLeaderAddress(groupLeaderAddress);
+        return VirtualMachineDiscovery.discoverVirtualMachine(virtualMachineId, groupLeaderAddress);
+    }
+    
+    /**
+     * Returns the bulk discovery responses for a virtual machine of the current cluster command.
+     * 
+     * Once the number of individual discoveries reaches the bulk discovery threshold, all virtual 
+     * machines of the command are resolved with one scan of the hierarchy. The thread reaching the
+     * threshold runs the scan outside of the handler monitor, the other threads wait for its result.
+     * 
+     * @param virtualMachineId          The virtual machine identifier
+     * @return                          The responses, null if the virtual machine must be discovered individually
+     */
+    private Map<String, VirtualMachineDiscoveryResponse> getBulkDiscoveryResponses(String virtualMachineId)
+    {
+        FutureTask<Map<String, VirtualMachineDiscoveryResponse>> bulkDiscovery;
+        boolean isStarted = false;
+        synchronized (this)
+        {
+            if (discoveryScope_ == null || !discoveryScope_.contains(virtualMachineId))
+            {
+                return null;
+            }
+            
+            if (bulkDiscovery_ == null)
+            {
+                int threshold = clientConfiguration_.getGeneralSettings().getBulkDiscoveryThreshold();
+                numberOfDiscoveries_++;
+                if (threshold <= 0 || numberOfDiscoveries_ < threshold)
+                {
+                    return null;
+                }
+                
+                log_.debug(String.format("%d virtual machines discovered individually! Starting bulk discovery!", 
+                                         numberOfDiscoveries_ - 1));
+                final Set<String> scope = discoveryScope_;
+                bulkDiscovery_ = new FutureTask<Map<String, VirtualMachineDiscoveryResponse>>(
+                    new Callable<Map<String, VirtualMachineDiscoveryResponse>>()
+                    {
+                        public Map<String, VirtualMachineDiscoveryResponse> call() 
+                            throws Exception
+                        {
+                            return discoverVirtualMachines(scope);
+                        }
+                    });
+                isStarted = true;
+            }
+            
+            bulkDiscovery = bulkDiscovery_;
+        }
+        
+        if (isStarted)
+        {
+            bulkDiscovery.run();
+        }
+        
+        try
+        {
+            return bulkDiscovery.get();
+        }
+        catch (ExecutionException exception)
+        {
+            log_.debug("Bulk discovery failed! Falling back to individual discovery", exception.getCause());
+            synchronized (this)
+            {
+                if (bulkDiscovery_ == bulkDiscovery)
+                {
+                    discoveryScope_ = null;
+                }
+            }
+        }
+        catch (InterruptedException exception)
+        {
+            log_.debug("Interrupted while waiting for the bulk discovery!");
+            Thread.currentThread().interrupt();
+        }
+        
+        return null;
+    }
+    
+    /**
+     * Discovers virtual machines with one scan of the hierarchy.
+     * 
+     * The resulting meta data updates are persisted with one repository write.
+     * 
+     * @param virtualMachineIds         The virtual machine identifiers
+     * @return                          The responses of the discovered virtual machines
+     * @throws Exception                The exception
+     */
+    private Map<String, VirtualMachineDiscoveryResponse> discoverVirtualMachines(Set<String> virtualMachineIds)
+        throws Exception
+    {
+        List<NetworkAddress> bootstrapNodes = clientConfiguration_.getGeneralSettings().getBootstrapNodes();
+        GroupLeaderRepositoryInformation hierarchy = BootstrapUtilis.getCompleteHierarchy(bootstrapNodes);
+        Map<String, VirtualMachineDiscoveryResponse> responses = 
+            VirtualMachineDiscovery.discoverVirtualMachines(virtualMachineIds, hierarchy);
+        
+        synchronized (clientRepository_)
+        {
+            clientRepository_.beginTransaction();
+            try
+            {
+                for (Map.Entry<String, VirtualMachineDiscoveryResponse> entry : responses.entrySet())
+                {
+                    VirtualMachineDiscoveryResponse response = entry.getValue();
+                    clientRepository_.updateVirtualMachineMetaData(entry.getKey(), 
+                                                                   response.getLocalControllerId(),
+                                                                   response.getGroupManagerAddress());
+                }
+            }
+            finally
+            {
+                clientRepository_.commitTransaction();
+            }
+        }
+        
+        return responses;
     }
     
     /**
      * Updates virtual machine meta data.
      * 
+     * Collective commands may discover virtual machines from several threads, the repository
+     * update is therefore serialized.
+     * 
      * @param location      The virtual machine location
      * @param response      The virtual machine discovery response
      * @throws Exception 
@@ -1147,9 +2652,12 @@ public final class CommandHandler
         throws Exception
     {
         location.setLocalControllerId(response.getLocalControllerId());
-        clientRepository_.updateVirtualMachineMetaData(location.getVirtualMachineId(), 
-                                                       response.getLocalControllerId(),
-                                                       response.getGroupManagerAddress()); 
+        synchronized (clientRepository_)
+        {
+            clientRepository_.updateVirtualMachineMetaData(location.getVirtualMachineId(), 
+                                                           response.getLocalControllerId(),
+                                                           response.getGroupManagerAddress()); 
+        }
     }
     
     /**
@@ -1168,14 +2676,35 @@ public final class CommandHandler
         log_.debug(String.format("Creating the virtual cluster control for virtual machine %s and local controller %s",
                                  virtualMachineId, location.getLocalControllerId()));
            
+        if (location.getLocalControllerId() != null && isLocationFresh(virtualMachineId))
+        {
+            log_.debug("Virtual machine location was recently verified!");
+            return new VirtualClusterControl(clientConfiguration_, groupManagerAddress, retryBudgets_);
+        }
+        
         if (location.getLocalControllerId() != null && 
             VirtualMachineDiscovery.hasVirtualMachine(location, groupManagerAddress))
         {          
             log_.debug("Virtual machine found on original group manager!");
-            return new VirtualClusterControl(clientConfiguration_, groupManagerAddress);   
+            stampLocation(virtualMachineId);
+            return new VirtualClusterControl(clientConfiguration_, groupManagerAddress, retryBudgets_);
         }
         
         log_.debug("Virtual machine is not on the original group manager! Starting discovery!");
+        return createDiscoveredVirtualClusterControl(location);
+    }
+    
+    /**
+     * Creates virtual cluster control for a discovered virtual machine.
+     * 
+     * @param location              The virtual machine location
+     * @return                      The virtual cluster control object
+     * @throws Exception            The exception
+     */
+    private VirtualClusterControl createDiscoveredVirtualClusterControl(VirtualMachineLocation location) 
+        throws Exception 
+    {
+        String virtualMachineId = location.getVirtualMachineId();
         VirtualMachineDiscoveryResponse response = discoverVirtualMachine(virtualMachineId);
         if (response == null)
         {
@@ -1185,8 +2714,10 @@ public final class CommandHandler
         
         log_.debug(String.format("Virtual machine found on local controller: %s", response.getLocalControllerId()));
         updateVirtualMachineMetaData(location, response);
+        stampLocation(virtualMachineId);
         VirtualClusterControl control = new VirtualClusterControl(clientConfiguration_, 
-                                                                  response.getGroupManagerAddress());
+                                                                  response.getGroupManagerAddress(),
+                                                                  retryBudgets_);
         return control;
     }
 }
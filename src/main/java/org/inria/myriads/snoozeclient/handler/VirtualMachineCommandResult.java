@@ -0,0 +1,147 @@
+/**
+ * Copyright (C) 2010-2013 Eugen Feller, INRIA <eugen.feller@inria.fr>
+ *
+ * This file is part of Snooze, a scalable, autonomic, and
+ * energy-aware virtual machine (VM) management framework.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package org.inria.myriads.snoozeclient.handler;
+
+import org.inria.myriads.snoozeclient.parser.commands.ClientCommand;
+import org.inria.myriads.snoozecommon.communication.virtualcluster.VirtualMachineMetaData;
+
+/**
+ * Outcome of a command executed on a single virtual machine.
+ * 
+ * @author Eugen Feller
+ */
+public final class VirtualMachineCommandResult 
+{
+    /** Virtual machine identifier. */
+    private String virtualMachineId_;
+    
+    /** Executed command. */
+    private ClientCommand command_;
+    
+    /** Success flag. */
+    private boolean isSuccessfull_;
+    
+    /** Virtual machine meta data (info command only). */
+    private VirtualMachineMetaData metaData_;
+    
+    /** Error message. */
+    private String errorMessage_;
+    
+    /**
+     * Constructor.
+     * 
+     * @param virtualMachineId      The virtual machine identifier
+     * @param command               The command
+     * @param isSuccessfull         true if successfull, false otherwise
+     */
+    public VirtualMachineCommandResult(String virtualMachineId, ClientCommand command, boolean isSuccessfull) 
+    {
+        virtualMachineId_ = virtualMachineId;
+        command_ = command;
+        isSuccessfull_ = isSuccessfull;
+    }
+    
+    /**
+     * Creates a failed result.
+     * 
+     * @param virtualMachineId      The virtual machine identifier
+     * @param command               The command
+     * @param errorMessage          The error message
+     * @return                      The result
+     */
+    public static VirtualMachineCommandResult newFailedResult(String virtualMachineId, 
+                                                              ClientCommand command, 
+                                                              String errorMessage)
+    {
+        VirtualMachineCommandResult result = new VirtualMachineCommandResult(virtualMachineId, command, false);
+        result.setErrorMessage(errorMessage);
+        return result;
+    }
+
+    /**
+     * Returns the virtual machine identifier.
+     * 
+     * @return  The virtual machine identifier
+     */
+    public String getVirtualMachineId() 
+    {
+        return virtualMachineId_;
+    }
+
+    /**
+     * Returns the command.
+     * 
+     * @return  The command
+     */
+    public ClientCommand getCommand() 
+    {
+        return command_;
+    }
+
+    /**
+     * Returns the success flag.
+     * 
+     * @return  true if successfull, false otherwise
+     */
+    public boolean isSuccessfull() 
+    {
+        return isSuccessfull_;
+    }
+
+    /**
+     * Returns the virtual machine meta data.
+     * 
+     * @return  The virtual machine meta data
+     */
+    public VirtualMachineMetaData getMetaData() 
+    {
+        return metaData_;
+    }
+
+    /**
+     * Sets the virtual machine meta data.
+     * 
+     * @param metaData  The virtual machine meta data
+     */
+    public void setMetaData(VirtualMachineMetaData metaData) 
+    {
+        metaData_ = metaData;
+    }
+
+    /**
+     * Returns the error message.
+     * 
+     * @return  The error message
+     */
+    public String getErrorMessage() 
+    {
+        return errorMessage_;
+    }
+
+    /**
+     * Sets the error message.
+     * 
+     * @param errorMessage  The error message
+     */
+    public void setErrorMessage(String errorMessage) 
+    {
+        errorMessage_ = errorMessage;
+    }
+}
@@ -19,31 +19,43 @@
  */
 package org.inria.myriads.snoozeclient.main;
 
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
 import java.text.ParseException;
 import java.util.Arrays;
 
 import javax.xml.parsers.ParserConfigurationException;
 
 import com.beust.jcommander.ParameterException;
+import org.inria.myriads.snoozeclient.communication.ClientConnectorPool;
 import org.inria.myriads.snoozeclient.configurator.ClientConfiguratorFactory;
 import org.inria.myriads.snoozeclient.configurator.api.ClientConfiguration;
 import org.inria.myriads.snoozeclient.configurator.api.ClientConfigurator;
+import org.inria.myriads.snoozeclient.configurator.general.GeneralSettings;
 import org.inria.myriads.snoozeclient.database.DatabaseFactory;
 import org.inria.myriads.snoozeclient.database.api.ClientRepository;
+import org.inria.myriads.snoozeclient.database.api.RepositoryBackend;
 import org.inria.myriads.snoozeclient.exception.BootstrapUtilityException;
 import org.inria.myriads.snoozeclient.exception.ClientConfiguratorException;
 import org.inria.myriads.snoozeclient.exception.CommandHandlerException;
 import org.inria.myriads.snoozeclient.exception.SystemTreeGeneratorException;
+import org.inria.myriads.snoozeclient.exception.VirtualClusterControlException;
 import org.inria.myriads.snoozeclient.globals.Globals;
 import org.inria.myriads.snoozeclient.handler.CommandHandler;
 import org.inria.myriads.snoozeclient.parser.CommandLineParserFactory;
 import org.inria.myriads.snoozeclient.parser.api.CommandLineParser;
+import org.inria.myriads.snoozeclient.parser.commands.ClientCommand;
 import org.inria.myriads.snoozeclient.parser.output.ParserOutput;
+import org.inria.myriads.snoozeclient.shell.ClientShell;
+import org.inria.myriads.snoozeclient.util.BootstrapCache;
+import org.inria.myriads.snoozeclient.util.BootstrapUtilis;
 import org.inria.myriads.snoozeclient.util.OutputUtils;
 import org.inria.myriads.snoozeclient.util.StorageUtils;
 import org.inria.myriads.snoozecommon.util.ErrorUtils;
 import org.inria.myriads.snoozecommon.util.LoggerUtils;
+import org.inria.myriads.snoozecommon.util.TimeUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.xml.sax.SAXParseException;
@@ -85,21 +97,82 @@ public final class Main
         return clientConfiguration;
     }
     
+    /**
+     * Configures the bootstrap probing and enables the bootstrap cache if configured.
+     * 
+     * @param clientConfiguration   The client configuration
+     */
+    private static void configureBootstrap(ClientConfiguration clientConfiguration)
+    {
+        BootstrapUtilis.setConnectTimeout(clientConfiguration.getGeneralSettings().getBootstrapConnectTimeout());
+        
+        int timeToLive = clientConfiguration.getGeneralSettings().getBootstrapCacheTimeToLive();
+        if (timeToLive <= 0)
+        {
+            log_.debug("Bootstrap cache is disabled");
+            return;
+        }
+        
+        BootstrapCache cache = new BootstrapCache(StorageUtils.getBootstrapCacheFileName(), 
+                                                  TimeUtils.convertSecondsToMilliseconds(timeToLive));
+        BootstrapUtilis.setCache(cache);
+    }
+    
+    /**
+     * Sets the HTTP timeouts and starts the shared HTTP connector if configured.
+     * 
+     * @param clientConfiguration   The client configuration
+     * @throws Exception            The exception
+     */
+    private static void configureConnectors(ClientConfiguration clientConfiguration)
+        throws Exception
+    {
+        GeneralSettings generalSettings = clientConfiguration.getGeneralSettings();
+        ClientConnectorPool.setDefaultTimeouts(generalSettings.getConnectTimeout(), generalSettings.getCallTimeout());
+        if (!generalSettings.isHttpKeepAlive())
+        {
+            log_.debug("HTTP keep alive is disabled");
+            return;
+        }
+        
+        ClientConnectorPool.enable(generalSettings.getHttpPoolSize(), 
+                                   generalSettings.getConnectTimeout(), 
+                                   generalSettings.getCallTimeout());
+    }
+    
     /**
      * Returns the client repository.
      * 
-     * @return              The client repository
-     * @throws Exception    The exception
+     * @param clientConfiguration   The client configuration
+     * @return                      The client repository
+     * @throws Exception            The exception
      */
-    private static ClientRepository getClientRepository() 
+    private static ClientRepository getClientRepository(ClientConfiguration clientConfiguration) 
         throws Exception
     {
         log_.debug("Getting the client repository");   
-        String databaseFileName = StorageUtils.getDatabaseFileName();
-        ClientRepository clientRepository = DatabaseFactory.newClientRepository(databaseFileName);
+        RepositoryBackend backend = clientConfiguration.getGeneralSettings().getRepositoryBackend();
+        ClientRepository clientRepository = DatabaseFactory.newClientRepository(backend);
         return clientRepository;
     }
     
+    /**
+     * Starts the interactive shell on the standard input.
+     * 
+     * The prompt is only shown if a console is attached.
+     * 
+     * @param clientConfiguration   The client configuration
+     * @param clientRepository      The client repository
+     * @throws IOException          The I/O exception
+     */
+    private static void startShell(ClientConfiguration clientConfiguration, ClientRepository clientRepository) 
+        throws IOException
+    {
+        BufferedReader input = new BufferedReader(new InputStreamReader(System.in));
+        PrintStream output = System.console() != null ? System.out : null;
+        new ClientShell(clientConfiguration, clientRepository).run(input, output);
+    }
+    
     /**
      * Main method.
      * 
@@ -125,6 +198,7 @@ public final class Main
         log_.debug("Starting Snooze client");   
         
         CommandLineParser parser = CommandLineParserFactory.newParser();
+        boolean isBatchFailed = false;
         try 
         {            
             ParserOutput parserOutput = parser.parse(Arrays.copyOfRange(args, 2, args.length));     
@@ -143,8 +217,22 @@ public final class Main
                 log_.debug("Repository directory seems to exist! Good!");
             }
             
-            ClientRepository clientRepository = getClientRepository();
             ClientConfiguration clientConfiguration = getClientConfiguration(configurationFile);
+            ClientRepository clientRepository = getClientRepository(clientConfiguration);
+            configureBootstrap(clientConfiguration);
+            configureConnectors(clientConfiguration);
+            if (parserOutput.getClientCommand().equals(ClientCommand.SHELL))
+            {
+                startShell(clientConfiguration, clientRepository);
+                return;
+            }
+            
+            if (parserOutput.getClientCommand().equals(ClientCommand.BATCH))
+            {
+                isBatchFailed = !new ClientShell(clientConfiguration, clientRepository).dispatch(parserOutput);
+                return;
+            }
+            
             CommandHandler commandHandler = new CommandHandler(clientConfiguration, clientRepository, parserOutput);
             commandHandler.dispatchCommand();
         }
@@ -157,6 +245,11 @@ public final class Main
             log_.warn(String.format("%s", exception.getMessage()));
         }
         catch (BootstrapUtilityException exception)
+        {
+            BootstrapUtilis.invalidateCache();
+            log_.warn(String.format("%s", exception.getMessage()));
+        }
+        catch (VirtualClusterControlException exception)
         {
             log_.warn(String.format("%s", exception.getMessage()));
         }
@@ -192,7 +285,16 @@ public final class Main
         }
         catch (Exception exception)
         {
+            BootstrapUtilis.invalidateCache();
             ErrorUtils.processError(String.format("Exception: %s", ErrorUtils.getStackTrace(exception)));
+        }
+        finally
+        {
+            ClientConnectorPool.disable();
+            if (isBatchFailed)
+            {
+                System.exit(1);
+            }
         }   
     }   
 }
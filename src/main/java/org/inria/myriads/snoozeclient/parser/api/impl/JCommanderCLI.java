@@ -19,13 +19,22 @@
  */
 package org.inria.myriads.snoozeclient.parser.api.impl;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
+import org.inria.myriads.snoozeclient.bench.BenchmarkSettings;
+import org.inria.myriads.snoozeclient.bench.enums.ArrivalProcess;
+import org.inria.myriads.snoozeclient.database.api.RepositoryBackend;
 import org.inria.myriads.snoozeclient.parser.api.CommandLineParser;
 import org.inria.myriads.snoozeclient.parser.api.impl.commands.AddCommand;
+import org.inria.myriads.snoozeclient.parser.api.impl.commands.BatchCommand;
+import org.inria.myriads.snoozeclient.parser.api.impl.commands.BenchCommand;
 import org.inria.myriads.snoozeclient.parser.api.impl.commands.ClusterCommandBase;
 import org.inria.myriads.snoozeclient.parser.api.impl.commands.Command;
+import org.inria.myriads.snoozeclient.parser.api.impl.commands.ConvertCommand;
 import org.inria.myriads.snoozeclient.parser.api.impl.commands.DefineCommand;
 import org.inria.myriads.snoozeclient.parser.api.impl.commands.DestroyCommand;
 import org.inria.myriads.snoozeclient.parser.api.impl.commands.DumpCommand;
@@ -38,13 +47,18 @@ import org.inria.myriads.snoozeclient.parser.api.impl.commands.MigrateCommand;
 import org.inria.myriads.snoozeclient.parser.api.impl.commands.RebootCommand;
 import org.inria.myriads.snoozeclient.parser.api.impl.commands.RemoveCommand;
 import org.inria.myriads.snoozeclient.parser.api.impl.commands.ResizeCommand;
+import org.inria.myriads.snoozeclient.parser.api.impl.commands.ResolveCommand;
 import org.inria.myriads.snoozeclient.parser.api.impl.commands.ResumeCommand;
+import org.inria.myriads.snoozeclient.parser.api.impl.commands.ShellCommand;
 import org.inria.myriads.snoozeclient.parser.api.impl.commands.ShutdownCommand;
 import org.inria.myriads.snoozeclient.parser.api.impl.commands.StartCommand;
+import org.inria.myriads.snoozeclient.parser.api.impl.commands.StatsCommand;
 import org.inria.myriads.snoozeclient.parser.api.impl.commands.SuspendCommand;
 import org.inria.myriads.snoozeclient.parser.api.impl.commands.UndefineCommand;
 import org.inria.myriads.snoozeclient.parser.commands.ClientCommand;
 import org.inria.myriads.snoozeclient.parser.output.ParserOutput;
+import org.inria.myriads.snoozeclient.statistics.util.StatisticsTimeUtils;
+import org.inria.myriads.snoozeclient.systemtree.enums.DumpFormat;
 import org.inria.myriads.snoozecommon.communication.virtualcluster.monitoring.NetworkDemand;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -104,6 +118,12 @@ public final class JCommanderCLI
         commands_.put(ClientCommand.HOSTS, new HostsCommand());
         commands_.put(ClientCommand.IMAGESLIST, new ImagesListCommand());
         commands_.put(ClientCommand.MIGRATE, new MigrateCommand());
+        commands_.put(ClientCommand.CONVERT, new ConvertCommand());
+        commands_.put(ClientCommand.RESOLVE, new ResolveCommand());
+        commands_.put(ClientCommand.SHELL, new ShellCommand());
+        commands_.put(ClientCommand.BATCH, new BatchCommand());
+        commands_.put(ClientCommand.STATS, new StatsCommand());
+        commands_.put(ClientCommand.BENCH, new BenchCommand());
         
         for (ClientCommand command : ClientCommand.values()) 
         {
@@ -222,7 +242,7 @@ public final class JCommanderCLI
                 break;
                 
             case START :
-                clusterCommand(getStartCommand(), output);
+                startCommand(getStartCommand(), output);
                 break;
                 
             case SHUTDOWN :
@@ -251,6 +271,7 @@ public final class JCommanderCLI
 
             case DUMP :
                 output.setDump(true);
+                output = dumpCommand(getDumpCommand(), output);
                 break;
 
             case IMAGESLIST : 
@@ -261,6 +282,29 @@ public final class JCommanderCLI
                 migrateCommand(getMigrateCommand(), output);
                 break;
                 
+            case CONVERT :
+                output = convertCommand(getConvertCommand(), output);
+                break;
+                
+            case RESOLVE :
+                clusterCommand(getResolveCommand(), output);
+                break;
+                
+            case SHELL :
+                break;
+                
+            case BATCH :
+                batchCommand(getBatchCommand(), output);
+                break;
+                
+            case STATS :
+                output = statsCommand(getStatsCommand(), output);
+                break;
+                
+            case BENCH :
+                output = benchCommand(getBenchCommand(), output);
+                break;
+                
             default :
                 log_.error(String.format("Unknown command specified: %s", command));
         }
@@ -369,6 +413,208 @@ public final class JCommanderCLI
         // common
         output.getNetworkCapacity().setRxBytes(addCommand.getNetworkRxCapacity());
         output.getNetworkCapacity().setTxBytes(addCommand.getNetworkTxCapaciy());
+        
+        // bulk
+        output.setManifestFile(addCommand.getManifestFile());
+        output.setNumberOfVirtualMachines(addCommand.getNumberOfVirtualMachines());
+        output.setNamePattern(addCommand.getNamePattern());
+        return output;
+    }
+    
+    /**
+     * Start command.
+     * 
+     * Several virtual clusters can be started at once by separating their names with commas.
+     * 
+     * @param startCommand      The start command
+     * @param output            The parser output
+     */
+    private void startCommand(StartCommand startCommand, ParserOutput output)
+    {
+        clusterCommand(startCommand, output);
+        List<String> virtualClusterNames = new ArrayList<String>();
+        for (String virtualClusterName : startCommand.getVirtualClusterName().split(","))
+        {
+            if (virtualClusterName.trim().length() > 0)
+            {
+                virtualClusterNames.add(virtualClusterName.trim());
+            }
+        }
+        
+        if (virtualClusterNames.size() == 1)
+        {
+            output.setClusterName(virtualClusterNames.get(0));
+        }
+        
+        output.setVirtualClusterNames(virtualClusterNames);
+    }
+    
+    /**
+     * Batch command.
+     * 
+     * @param batchCommand      The batch command
+     * @param output            The parser output
+     */
+    private void batchCommand(BatchCommand batchCommand, ParserOutput output)
+    {
+        output.setBatchFile(batchCommand.getBatchFile());
+        output.setNumberOfBatchThreads(batchCommand.getNumberOfThreads());
+    }
+    
+    /**
+     * Bench command.
+     * 
+     * @param benchCommand      The bench command
+     * @param output            The parser output
+     * @return                  The parser output, null if the settings are invalid
+     */
+    private ParserOutput benchCommand(BenchCommand benchCommand, ParserOutput output)
+    {
+        BenchmarkSettings settings = new BenchmarkSettings();
+        try
+        {
+            settings.setArrivalProcess(ArrivalProcess.valueOf(benchCommand.getArrivalProcess()));
+        }
+        catch (IllegalArgumentException exception)
+        {
+            showWarning(String.format("Unknown arrival process! Supported: %s", 
+                                      Arrays.toString(ArrivalProcess.values())));
+            return null;
+        }
+        
+        if (benchCommand.getRate() <= 0 || benchCommand.getNumberOfSubmissions() <= 0)
+        {
+            showWarning("The arrival rate and the number of submissions must be positive!");
+            return null;
+        }
+        
+        if (settings.getArrivalProcess().equals(ArrivalProcess.ramp) && benchCommand.getPeakRate() <= 0)
+        {
+            showWarning("The ramp needs a positive peak rate!");
+            return null;
+        }
+        
+        List<String> virtualClusterNames = new ArrayList<String>();
+        for (String virtualClusterName : benchCommand.getVirtualClusterName().split(","))
+        {
+            if (virtualClusterName.trim().length() > 0)
+            {
+                virtualClusterNames.add(virtualClusterName.trim());
+            }
+        }
+        
+        settings.setVirtualClusterNames(virtualClusterNames);
+        settings.setRate(benchCommand.getRate());
+        settings.setPeakRate(benchCommand.getPeakRate());
+        settings.setBurstSize(benchCommand.getBurstSize());
+        settings.setNumberOfSubmissions(benchCommand.getNumberOfSubmissions());
+        settings.setNumberOfThreads(benchCommand.getNumberOfThreads());
+        settings.setSeed(benchCommand.getSeed());
+        settings.setDestroy(benchCommand.isDestroy());
+        output.setBenchmarkSettings(settings);
+        return output;
+    }
+    
+    /**
+     * Stats command.
+     * 
+     * The window defaults to the whole history, -last counts back from -to.
+     * 
+     * @param statsCommand      The stats command
+     * @param output            The parser output
+     * @return                  The parser output, null if the window is invalid
+     */
+    private ParserOutput statsCommand(StatsCommand statsCommand, ParserOutput output)
+    {
+        long from = 0;
+        long to = Long.MAX_VALUE;
+        try
+        {
+            if (statsCommand.getTo() != null)
+            {
+                to = StatisticsTimeUtils.parseTime(statsCommand.getTo());
+            }
+            
+            if (statsCommand.getFrom() != null)
+            {
+                from = StatisticsTimeUtils.parseTime(statsCommand.getFrom());
+            } else if (statsCommand.getLast() != null)
+            {
+                long end = to == Long.MAX_VALUE ? System.currentTimeMillis() : to;
+                from = end - StatisticsTimeUtils.parseDuration(statsCommand.getLast());
+            }
+        }
+        catch (IllegalArgumentException exception)
+        {
+            showWarning(exception.getMessage());
+            return null;
+        }
+        
+        if (from >= to)
+        {
+            showWarning("The window start must be before its end!");
+            return null;
+        }
+        
+        output.setStatsFrom(from);
+        output.setStatsTo(to);
+        output.setStatsCompact(statsCommand.isCompact());
+        return output;
+    }
+    
+    /**
+     * Dump command.
+     * 
+     * @param dumpCommand       The dump command
+     * @param output            The parser output
+     * @return                  The parser output, null if the format is unknown
+     */
+    private ParserOutput dumpCommand(DumpCommand dumpCommand, ParserOutput output)
+    {
+        try
+        {
+            output.setDumpFormat(DumpFormat.valueOf(dumpCommand.getFormat()));
+        }
+        catch (IllegalArgumentException exception)
+        {
+            showWarning(String.format("Unknown dump format! Supported: %s", Arrays.toString(DumpFormat.values())));
+            return null;
+        }
+        
+        output.setDumpVerbose(dumpCommand.isVerbose());
+        output.setDumpWatch(dumpCommand.isWatch());
+        output.setNumberOfDumpPolls(dumpCommand.getNumberOfPolls());
+        output.setDumpEventsFile(dumpCommand.getEventsFile());
+        return output;
+    }
+    
+    /**
+     * Convert command.
+     * 
+     * @param convertCommand    The convert command
+     * @param output            The parser output
+     * @return                  The parser output, null if a backend is unknown
+     */
+    private ParserOutput convertCommand(ConvertCommand convertCommand, ParserOutput output)
+    {
+        try
+        {
+            output.setSourceBackend(RepositoryBackend.valueOf(convertCommand.getSourceBackend()));
+            output.setTargetBackend(RepositoryBackend.valueOf(convertCommand.getTargetBackend()));
+        }
+        catch (IllegalArgumentException exception)
+        {
+            showWarning(String.format("Unknown repository backend! Supported: %s", 
+                                      Arrays.toString(RepositoryBackend.values())));
+            return null;
+        }
+        
+        if (output.getSourceBackend() == output.getTargetBackend())
+        {
+            showWarning("Source and target repository backends must differ");
+            return null;
+        }
+        
         return output;
     }
     
@@ -410,6 +656,66 @@ public final class JCommanderCLI
         return (MigrateCommand) commands_.get(ClientCommand.MIGRATE);
     }
     
+    /**
+     * Returns the convert command.
+     * 
+     * @return   The convert command
+     */
+    public ConvertCommand getConvertCommand()
+    {
+        return (ConvertCommand) commands_.get(ClientCommand.CONVERT);
+    }
+    
+    /**
+     * Returns the dump command.
+     * 
+     * @return   The dump command
+     */
+    public DumpCommand getDumpCommand()
+    {
+        return (DumpCommand) commands_.get(ClientCommand.DUMP);
+    }
+    
+    /**
+     * Returns the batch command.
+     * 
+     * @return   The batch command
+     */
+    public BatchCommand getBatchCommand()
+    {
+        return (BatchCommand) commands_.get(ClientCommand.BATCH);
+    }
+    
+    /**
+     * Returns the stats command.
+     * 
+     * @return   The stats command
+     */
+    public StatsCommand getStatsCommand()
+    {
+        return (StatsCommand) commands_.get(ClientCommand.STATS);
+    }
+    
+    /**
+     * Returns the bench command.
+     * 
+     * @return   The bench command
+     */
+    public BenchCommand getBenchCommand()
+    {
+        return (BenchCommand) commands_.get(ClientCommand.BENCH);
+    }
+    
+    /**
+     * Returns the resolve command.
+     * 
+     * @return   The resolve command
+     */
+    public ResolveCommand getResolveCommand()
+    {
+        return (ResolveCommand) commands_.get(ClientCommand.RESOLVE);
+    }
+    
     /**
      * Returns the remove command.
      * 
@@ -80,6 +80,22 @@ public final class AddCommand extends HelpCommandBase
     @Parameter(names = {"-hid", "--hostId"}, description = "Hosts id on which the vm will attempt to start")
     private String hostId_;
     
+    /** Manifest file. */
+    @Parameter(names = {"-f", "--manifest" }, 
+               description = "Manifest of virtual machines to add (.json or CSV with header line)")
+    private String manifestFile_;
+    
+    /** Number of virtual machines. */
+    @Parameter(names = {"-n", "--count" }, 
+               description = "Number of virtual machines to add (requires -pattern and -iid, not with -f)",
+               validateWith = PositiveIntegerValidator.class)
+    private int numberOfVirtualMachines_;
+    
+    /** Name pattern. */
+    @Parameter(names = {"-pattern", "--namePattern" }, 
+               description = "Virtual machine name pattern (e.g. web-%03d, requires -n)")
+    private String namePattern_;
+    
     /** Constructor. */
     public AddCommand()
     {
@@ -179,4 +195,34 @@ public final class AddCommand extends HelpCommandBase
     {
         return hostId_;
     }
+
+    /**
+     * Returns the manifest file.
+     * 
+     * @return  The manifest file
+     */
+    public String getManifestFile() 
+    {
+        return manifestFile_;
+    }
+
+    /**
+     * Returns the number of virtual machines.
+     * 
+     * @return  The number of virtual machines
+     */
+    public int getNumberOfVirtualMachines() 
+    {
+        return numberOfVirtualMachines_;
+    }
+
+    /**
+     * Returns the name pattern.
+     * 
+     * @return  The name pattern
+     */
+    public String getNamePattern() 
+    {
+        return namePattern_;
+    }
 }
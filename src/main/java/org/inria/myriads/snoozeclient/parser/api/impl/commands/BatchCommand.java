@@ -0,0 +1,61 @@
+/**
+ * Copyright (C) 2010-2013 Eugen Feller, INRIA <eugen.feller@inria.fr>
+ *
+ * This file is part of Snooze, a scalable, autonomic, and
+ * energy-aware virtual machine (VM) management framework.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package org.inria.myriads.snoozeclient.parser.api.impl.commands;
+
+import com.beust.jcommander.Parameter;
+import com.beust.jcommander.Parameters;
+
+/**
+ * Batch command.
+ * 
+ * @author Eugen Feller
+ */
+@Parameters(separators = "=", commandDescription = "Executes the commands of a file (one per line) in one client")
+public final class BatchCommand extends HelpCommandBase
+{  
+    /** Batch file. */
+    @Parameter(names = {"-f", "--file" }, description = "Command file, - for the standard input")
+    private String batchFile_ = "-";
+    
+    /** Number of threads. */
+    @Parameter(names = {"-t", "--threads" }, 
+               description = "Number of commands executed concurrently (default: general.numberOfCommandThreads)")
+    private int numberOfThreads_;
+    
+    /**
+     * Returns the batch file.
+     * 
+     * @return      The batch file
+     */
+    public String getBatchFile() 
+    {
+        return batchFile_;
+    }
+    
+    /**
+     * Returns the number of threads.
+     * 
+     * @return      The number of threads, 0 for the configured value
+     */
+    public int getNumberOfThreads() 
+    {
+        return numberOfThreads_;
+    }
+}
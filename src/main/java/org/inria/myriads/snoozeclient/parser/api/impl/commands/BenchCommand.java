@@ -0,0 +1,164 @@
+/**
+ * Copyright (C) 2010-2013 Eugen Feller, INRIA <eugen.feller@inria.fr>
+ *
+ * This file is part of Snooze, a scalable, autonomic, and
+ * energy-aware virtual machine (VM) management framework.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package org.inria.myriads.snoozeclient.parser.api.impl.commands;
+
+import com.beust.jcommander.Parameter;
+import com.beust.jcommander.Parameters;
+
+/**
+ * Bench command.
+ * 
+ * @author Eugen Feller
+ */
+@Parameters(separators = "=", 
+            commandDescription = "Submit copies of virtual clusters following an arrival process and " +
+                                 "write the results to statistics.output.file")
+public final class BenchCommand extends HelpCommandBase
+{  
+    /** Template virtual clusters. */
+    @Parameter(names = {"-vcn", "--virtualClusterName" }, 
+               description = "Template virtual clusters (comma separated, used round robin)", required = true)
+    private String virtualClusterName_;
+    
+    /** Arrival process. */
+    @Parameter(names = {"-arrival", "--arrival" }, description = "Arrival process (constant, poisson, ramp, burst)")
+    private String arrivalProcess_ = "constant";
+    
+    /** Arrival rate. */
+    @Parameter(names = {"-rate", "--rate" }, description = "Mean arrival rate (submissions/s)")
+    private double rate_ = 1;
+    
+    /** Final arrival rate of the ramp. */
+    @Parameter(names = {"-peak", "--peak" }, description = "Final arrival rate of the ramp (submissions/s)")
+    private double peakRate_;
+    
+    /** Burst size. */
+    @Parameter(names = {"-burst", "--burst" }, description = "Number of simultaneous submissions of a burst")
+    private int burstSize_ = 10;
+    
+    /** Number of submissions. */
+    @Parameter(names = {"-n", "--submissions" }, description = "Number of submissions")
+    private int numberOfSubmissions_ = 10;
+    
+    /** Number of threads. */
+    @Parameter(names = {"-t", "--threads" }, 
+               description = "Maximum number of concurrent submissions (default: general.numberOfCommandThreads)")
+    private int numberOfThreads_;
+    
+    /** Random seed. */
+    @Parameter(names = {"-seed", "--seed" }, description = "Random seed of the poisson arrivals (0 = random)")
+    private long seed_;
+    
+    /** Teardown. */
+    @Parameter(names = {"-destroy", "--destroy" }, 
+               description = "Destroy the started virtual machines at the end, also on interruption " +
+                             "(virtual machines of submissions without response are left behind)")
+    private boolean isDestroy_;
+    
+    /**
+     * Returns the template virtual clusters.
+     * 
+     * @return      The comma separated virtual cluster names
+     */
+    public String getVirtualClusterName() 
+    {
+        return virtualClusterName_;
+    }
+    
+    /**
+     * Returns the arrival process.
+     * 
+     * @return      The arrival process
+     */
+    public String getArrivalProcess() 
+    {
+        return arrivalProcess_;
+    }
+    
+    /**
+     * Returns the arrival rate.
+     * 
+     * @return      The arrival rate (submissions/s)
+     */
+    public double getRate() 
+    {
+        return rate_;
+    }
+    
+    /**
+     * Returns the final arrival rate of the ramp.
+     * 
+     * @return      The peak rate (submissions/s)
+     */
+    public double getPeakRate() 
+    {
+        return peakRate_;
+    }
+    
+    /**
+     * Returns the burst size.
+     * 
+     * @return      The burst size
+     */
+    public int getBurstSize() 
+    {
+        return burstSize_;
+    }
+    
+    /**
+     * Returns the number of submissions.
+     * 
+     * @return      The number of submissions
+     */
+    public int getNumberOfSubmissions() 
+    {
+        return numberOfSubmissions_;
+    }
+    
+    /**
+     * Returns the number of threads.
+     * 
+     * @return      The number of threads, 0 for the number of command threads
+     */
+    public int getNumberOfThreads() 
+    {
+        return numberOfThreads_;
+    }
+    
+    /**
+     * Returns the random seed.
+     * 
+     * @return      The seed
+     */
+    public long getSeed() 
+    {
+        return seed_;
+    }
+    
+    /**
+     * Checks if the teardown is requested.
+     * 
+     * @return      true if requested, false otherwise
+     */
+    public boolean isDestroy() 
+    {
+        return isDestroy_;
+    }
+}
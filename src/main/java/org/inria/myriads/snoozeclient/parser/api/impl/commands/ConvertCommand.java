@@ -0,0 +1,60 @@
+/**
+ * Copyright (C) 2010-2013 Eugen Feller, INRIA <eugen.feller@inria.fr>
+ *
+ * This file is part of Snooze, a scalable, autonomic, and
+ * energy-aware virtual machine (VM) management framework.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package org.inria.myriads.snoozeclient.parser.api.impl.commands;
+
+import com.beust.jcommander.Parameter;
+import com.beust.jcommander.Parameters;
+
+/**
+ * Convert command.
+ * 
+ * @author Eugen Feller
+ */
+@Parameters(separators = "=", commandDescription = "Convert the client repository to another backend")
+public final class ConvertCommand extends HelpCommandBase
+{  
+    /** Source backend. */
+    @Parameter(names = {"-from", "--from" }, description = "Source repository backend (xml, binary)")
+    private String sourceBackend_ = "xml";
+    
+    /** Target backend. */
+    @Parameter(names = {"-to", "--to" }, description = "Target repository backend (xml, binary)")
+    private String targetBackend_ = "binary";
+    
+    /**
+     * Returns the source backend.
+     * 
+     * @return      The source backend
+     */
+    public String getSourceBackend() 
+    {
+        return sourceBackend_;
+    }
+    
+    /**
+     * Returns the target backend.
+     * 
+     * @return      The target backend
+     */
+    public String getTargetBackend() 
+    {
+        return targetBackend_;
+    }
+}
@@ -19,6 +19,7 @@
  */
 package org.inria.myriads.snoozeclient.parser.api.impl.commands;
 
+import com.beust.jcommander.Parameter;
 import com.beust.jcommander.Parameters;
 
 /**
@@ -29,4 +30,75 @@ import com.beust.jcommander.Parameters;
 @Parameters(separators = "=", commandDescription = "Dump system hierarchy")
 public class DumpCommand extends HelpCommandBase 
 {
+    /** Dump format. */
+    @Parameter(names = {"-format", "--format" }, description = "Dump format (graphml, jung, snapshot)")
+    private String format_ = "graphml";
+    
+    /** Verbose mode. */
+    @Parameter(names = {"-verbose", "--verbose" }, description = "Log every node of the hierarchy (jung format)")
+    private boolean isVerbose_;
+    
+    /** Watch mode. */
+    @Parameter(names = {"-watch", "--watch" }, 
+               description = "Poll the hierarchy every general.graphPollingInterval and log the changes only")
+    private boolean isWatch_;
+    
+    /** Number of polls. */
+    @Parameter(names = {"-polls", "--polls" }, description = "Number of polls in watch mode (0 = until interrupted)")
+    private int numberOfPolls_;
+    
+    /** Event log file. */
+    @Parameter(names = {"-events", "--events" }, 
+               description = "Event log of the watch mode (default: general.dumpOutputFile with .events suffix)")
+    private String eventsFile_;
+    
+    /**
+     * Returns the dump format.
+     * 
+     * @return      The dump format
+     */
+    public String getFormat() 
+    {
+        return format_;
+    }
+    
+    /**
+     * Checks if the verbose mode is requested.
+     * 
+     * @return      true if verbose, false otherwise
+     */
+    public boolean isVerbose() 
+    {
+        return isVerbose_;
+    }
+    
+    /**
+     * Checks if the watch mode is requested.
+     * 
+     * @return      true if watch mode, false otherwise
+     */
+    public boolean isWatch() 
+    {
+        return isWatch_;
+    }
+    
+    /**
+     * Returns the number of polls.
+     * 
+     * @return      The number of polls
+     */
+    public int getNumberOfPolls() 
+    {
+        return numberOfPolls_;
+    }
+    
+    /**
+     * Returns the event log file.
+     * 
+     * @return      The event log file, null for default
+     */
+    public String getEventsFile() 
+    {
+        return eventsFile_;
+    }
 }
@@ -26,7 +26,8 @@ import com.beust.jcommander.Parameters;
  * 
  * @author Eugen Feller
  */
-@Parameters(separators = "=", commandDescription = "Start virtual cluster/machine")
+@Parameters(separators = "=", commandDescription = "Start virtual cluster/machine " +
+                                                           "(comma separated cluster names start several clusters)")
 public final class StartCommand extends ClusterCommandBase 
 {    
 }
@@ -0,0 +1,90 @@
+/**
+ * Copyright (C) 2010-2013 Eugen Feller, INRIA <eugen.feller@inria.fr>
+ *
+ * This file is part of Snooze, a scalable, autonomic, and
+ * energy-aware virtual machine (VM) management framework.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package org.inria.myriads.snoozeclient.parser.api.impl.commands;
+
+import com.beust.jcommander.Parameter;
+import com.beust.jcommander.Parameters;
+
+/**
+ * Stats command.
+ * 
+ * @author Eugen Feller
+ */
+@Parameters(separators = "=", commandDescription = "Show the submission history statistics")
+public final class StatsCommand extends HelpCommandBase
+{  
+    /** Window start. */
+    @Parameter(names = {"-from", "--from" }, 
+               description = "Window start (ms since epoch, yyyy-MM-dd, yyyy-MM-dd'T'HH:mm[:ss])")
+    private String from_;
+    
+    /** Window end. */
+    @Parameter(names = {"-to", "--to" }, description = "Window end (default: now)")
+    private String to_;
+    
+    /** Window length. */
+    @Parameter(names = {"-last", "--last" }, description = "Window length before -to (e.g. 30m, 2h, 7d)")
+    private String last_;
+    
+    /** Compact mode. */
+    @Parameter(names = {"-compact", "--compact" }, 
+               description = "Drop the records older than statistics.history.retention")
+    private boolean isCompact_;
+    
+    /**
+     * Returns the window start.
+     * 
+     * @return      The window start
+     */
+    public String getFrom() 
+    {
+        return from_;
+    }
+    
+    /**
+     * Returns the window end.
+     * 
+     * @return      The window end
+     */
+    public String getTo() 
+    {
+        return to_;
+    }
+    
+    /**
+     * Returns the window length.
+     * 
+     * @return      The window length
+     */
+    public String getLast() 
+    {
+        return last_;
+    }
+    
+    /**
+     * Checks if the compact mode is requested.
+     * 
+     * @return      true if compact mode, false otherwise
+     */
+    public boolean isCompact() 
+    {
+        return isCompact_;
+    }
+}
@@ -59,7 +59,19 @@ public enum ClientCommand
     /** Images List. */
     IMAGESLIST("images"),
     /** Migrate*/
-    MIGRATE("migrate");
+    MIGRATE("migrate"),
+    /** Convert repository. */
+    CONVERT("convert"),
+    /** Resolve locations. */
+    RESOLVE("resolve"),
+    /** Interactive shell. */
+    SHELL("shell"),
+    /** Batch. */
+    BATCH("batch"),
+    /** Submission history statistics. */
+    STATS("stats"),
+    /** Submission benchmark. */
+    BENCH("bench");
     
     /** Command name. */
     private String commandName_;
@@ -19,7 +19,12 @@
  */
 package org.inria.myriads.snoozeclient.parser.output;
 
+import java.util.List;
+
+import org.inria.myriads.snoozeclient.database.api.RepositoryBackend;
 import org.inria.myriads.snoozeclient.parser.commands.ClientCommand;
+import org.inria.myriads.snoozeclient.bench.BenchmarkSettings;
+import org.inria.myriads.snoozeclient.systemtree.enums.DumpFormat;
 import org.inria.myriads.snoozecommon.communication.virtualcluster.monitoring.NetworkDemand;
 
 /**
@@ -35,6 +40,9 @@ public final class ParserOutput
     /** Virtual cluster names. */
     private String virtualClusterName_;
     
+    /** Virtual cluster names (multi-cluster start). */
+    private List<String> virtualClusterNames_;
+    
     /** Virtual machine template. */
     private String virtualMachineTemplate_;
     
@@ -65,6 +73,54 @@ public final class ParserOutput
     /** Host id.*/
     private String hostId_;
     
+    /** Source repository backend. */
+    private RepositoryBackend sourceBackend_;
+    
+    /** Target repository backend. */
+    private RepositoryBackend targetBackend_;
+    
+    /** Batch file. */
+    private String batchFile_;
+    
+    /** Number of batch threads. */
+    private int numberOfBatchThreads_;
+    
+    /** Manifest file. */
+    private String manifestFile_;
+    
+    /** Number of virtual machines to add. */
+    private int numberOfVirtualMachines_;
+    
+    /** Virtual machine name pattern. */
+    private String namePattern_;
+    
+    /** Dump format. */
+    private DumpFormat dumpFormat_ = DumpFormat.graphml;
+    
+    /** Dump verbose mode. */
+    private boolean isDumpVerbose_;
+    
+    /** Dump watch mode. */
+    private boolean isDumpWatch_;
+    
+    /** Number of polls in dump watch mode (0 = unlimited). */
+    private int numberOfDumpPolls_;
+    
+    /** Dump event log file. */
+    private String dumpEventsFile_;
+    
+    /** Statistics window start (ms since epoch). */
+    private long statsFrom_;
+    
+    /** Statistics window end (ms since epoch). */
+    private long statsTo_;
+    
+    /** Statistics compact mode. */
+    private boolean isStatsCompact_;
+    
+    /** Benchmark settings. */
+    private BenchmarkSettings benchmarkSettings_;
+    
     /** Constructor. */
     public ParserOutput()
     {
@@ -111,6 +167,26 @@ public final class ParserOutput
         return virtualClusterName_;
     }
     
+    /**
+     * Sets the virtual cluster names.
+     * 
+     * @param virtualClusterNames   The virtual cluster names
+     */
+    public void setVirtualClusterNames(List<String> virtualClusterNames)
+    {
+        virtualClusterNames_ = virtualClusterNames;
+    }
+    
+    /**
+     * Returns the virtual cluster names.
+     * 
+     * @return  The virtual cluster names
+     */
+    public List<String> getVirtualClusterNames()
+    {
+        return virtualClusterNames_;
+    }
+    
     /**
      * Sets the virtual machine description.
      * 
@@ -280,4 +356,324 @@ public final class ParserOutput
     {
         hostId_ = hostId;
     }
+
+    /**
+     * Returns the source repository backend.
+     * 
+     * @return  The source backend
+     */
+    public RepositoryBackend getSourceBackend() 
+    {
+        return sourceBackend_;
+    }
+
+    /**
+     * Sets the source repository backend.
+     * 
+     * @param sourceBackend     The source backend
+     */
+    public void setSourceBackend(RepositoryBackend sourceBackend) 
+    {
+        sourceBackend_ = sourceBackend;
+    }
+
+    /**
+     * Returns the target repository backend.
+     * 
+     * @return  The target backend
+     */
+    public RepositoryBackend getTargetBackend() 
+    {
+        return targetBackend_;
+    }
+
+    /**
+     * Sets the target repository backend.
+     * 
+     * @param targetBackend     The target backend
+     */
+    public void setTargetBackend(RepositoryBackend targetBackend) 
+    {
+        targetBackend_ = targetBackend;
+    }
+
+    /**
+     * Returns the batch file.
+     * 
+     * @return  The batch file, - for the standard input
+     */
+    public String getBatchFile() 
+    {
+        return batchFile_;
+    }
+
+    /**
+     * Sets the batch file.
+     * 
+     * @param batchFile     The batch file
+     */
+    public void setBatchFile(String batchFile) 
+    {
+        batchFile_ = batchFile;
+    }
+
+    /**
+     * Returns the number of batch threads.
+     * 
+     * @return  The number of batch threads, 0 for the configured value
+     */
+    public int getNumberOfBatchThreads() 
+    {
+        return numberOfBatchThreads_;
+    }
+
+    /**
+     * Sets the number of batch threads.
+     * 
+     * @param numberOfBatchThreads  The number of batch threads
+     */
+    public void setNumberOfBatchThreads(int numberOfBatchThreads) 
+    {
+        numberOfBatchThreads_ = numberOfBatchThreads;
+    }
+
+    /**
+     * Returns the manifest file.
+     * 
+     * @return  The manifest file
+     */
+    public String getManifestFile() 
+    {
+        return manifestFile_;
+    }
+
+    /**
+     * Sets the manifest file.
+     * 
+     * @param manifestFile  The manifest file
+     */
+    public void setManifestFile(String manifestFile) 
+    {
+        manifestFile_ = manifestFile;
+    }
+
+    /**
+     * Returns the number of virtual machines to add.
+     * 
+     * @return  The number of virtual machines
+     */
+    public int getNumberOfVirtualMachines() 
+    {
+        return numberOfVirtualMachines_;
+    }
+
+    /**
+     * Sets the number of virtual machines to add.
+     * 
+     * @param numberOfVirtualMachines   The number of virtual machines
+     */
+    public void setNumberOfVirtualMachines(int numberOfVirtualMachines) 
+    {
+        numberOfVirtualMachines_ = numberOfVirtualMachines;
+    }
+
+    /**
+     * Returns the virtual machine name pattern.
+     * 
+     * @return  The name pattern
+     */
+    public String getNamePattern() 
+    {
+        return namePattern_;
+    }
+
+    /**
+     * Sets the virtual machine name pattern.
+     * 
+     * @param namePattern   The name pattern
+     */
+    public void setNamePattern(String namePattern) 
+    {
+        namePattern_ = namePattern;
+    }
+
+    /**
+     * Returns the dump format.
+     * 
+     * @return  The dump format
+     */
+    public DumpFormat getDumpFormat() 
+    {
+        return dumpFormat_;
+    }
+
+    /**
+     * Sets the dump format.
+     * 
+     * @param dumpFormat    The dump format
+     */
+    public void setDumpFormat(DumpFormat dumpFormat) 
+    {
+        dumpFormat_ = dumpFormat;
+    }
+
+    /**
+     * Checks if the dump verbose mode is requested.
+     * 
+     * @return  true if verbose, false otherwise
+     */
+    public boolean isDumpVerbose() 
+    {
+        return isDumpVerbose_;
+    }
+
+    /**
+     * Sets the dump verbose mode.
+     * 
+     * @param isDumpVerbose     true if verbose, false otherwise
+     */
+    public void setDumpVerbose(boolean isDumpVerbose) 
+    {
+        isDumpVerbose_ = isDumpVerbose;
+    }
+
+    /**
+     * Checks if the dump watch mode is requested.
+     * 
+     * @return  true if watch mode, false otherwise
+     */
+    public boolean isDumpWatch() 
+    {
+        return isDumpWatch_;
+    }
+
+    /**
+     * Sets the dump watch mode.
+     * 
+     * @param isDumpWatch   true if watch mode, false otherwise
+     */
+    public void setDumpWatch(boolean isDumpWatch) 
+    {
+        isDumpWatch_ = isDumpWatch;
+    }
+
+    /**
+     * Returns the number of polls in dump watch mode.
+     * 
+     * @return  The number of polls
+     */
+    public int getNumberOfDumpPolls() 
+    {
+        return numberOfDumpPolls_;
+    }
+
+    /**
+     * Sets the number of polls in dump watch mode.
+     * 
+     * @param numberOfDumpPolls     The number of polls
+     */
+    public void setNumberOfDumpPolls(int numberOfDumpPolls) 
+    {
+        numberOfDumpPolls_ = numberOfDumpPolls;
+    }
+
+    /**
+     * Returns the dump event log file.
+     * 
+     * @return  The event log file
+     */
+    public String getDumpEventsFile() 
+    {
+        return dumpEventsFile_;
+    }
+
+    /**
+     * Sets the dump event log file.
+     * 
+     * @param dumpEventsFile    The event log file
+     */
+    public void setDumpEventsFile(String dumpEventsFile) 
+    {
+        dumpEventsFile_ = dumpEventsFile;
+    }
+
+    /**
+     * Returns the statistics window start.
+     * 
+     * @return  The window start (ms since epoch)
+     */
+    public long getStatsFrom() 
+    {
+        return statsFrom_;
+    }
+
+    /**
+     * Sets the statistics window start.
+     * 
+     * @param statsFrom     The window start (ms since epoch)
+     */
+    public void setStatsFrom(long statsFrom) 
+    {
+        statsFrom_ = statsFrom;
+    }
+
+    /**
+     * Returns the statistics window end.
+     * 
+     * @return  The window end (ms since epoch)
+     */
+    public long getStatsTo() 
+    {
+        return statsTo_;
+    }
+
+    /**
+     * Sets the statistics window end.
+     * 
+     * @param statsTo       The window end (ms since epoch)
+     */
+    public void setStatsTo(long statsTo) 
+    {
+        statsTo_ = statsTo;
+    }
+
+    /**
+     * Checks if the statistics compact mode is requested.
+     * 
+     * @return  true if compact mode, false otherwise
+     */
+    public boolean isStatsCompact() 
+    {
+        return isStatsCompact_;
+    }
+
+    /**
+     * Sets the statistics compact mode.
+     * 
+     * @param isStatsCompact    true if compact mode, false otherwise
+     */
+    public void setStatsCompact(boolean isStatsCompact) 
+    {
+        isStatsCompact_ = isStatsCompact;
+    }
+
+    /**
+     * Returns the benchmark settings.
+     * 
+     * @return  The benchmark settings
+     */
+    public BenchmarkSettings getBenchmarkSettings() 
+    {
+        return benchmarkSettings_;
+    }
+
+    /**
+     * Sets the benchmark settings.
+     * 
+     * @param benchmarkSettings     The benchmark settings
+     */
+    public void setBenchmarkSettings(BenchmarkSettings benchmarkSettings) 
+    {
+        benchmarkSettings_ = benchmarkSettings;
+    }
 }
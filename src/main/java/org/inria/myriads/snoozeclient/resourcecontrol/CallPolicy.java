@@ -0,0 +1,378 @@
+/**
+ * Copyright (C) 2010-2013 Eugen Feller, INRIA <eugen.feller@inria.fr>
+ *
+ * This file is part of Snooze, a scalable, autonomic, and
+ * energy-aware virtual machine (VM) management framework.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package org.inria.myriads.snoozeclient.resourcecontrol;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.inria.myriads.snoozeclient.configurator.general.GeneralSettings;
+import org.inria.myriads.snoozeclient.exception.CallTimeoutException;
+import org.inria.myriads.snoozecommon.guard.Guard;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Deadline and retry policy of the group manager calls.
+ * 
+ * Calls with a timeout run on a shared, bounded pool of daemon threads and are abandoned once 
+ * the deadline passed, a hung node thus only costs the timeout. An abandoned call blocked in 
+ * I/O keeps its thread, once all threads are taken new calls wait in the queue and fail at 
+ * their own deadline. Failed or timed out idempotent calls are retried with a jittered 
+ * exponential backoff as long as the retry budget allows it. The budget is shared by all 
+ * policies of a command talking to the same group manager (see {@link RetryBudgets}), which 
+ * bounds the time a command spends on a group manager to
+ * calls * timeout + budget * (timeout + maximum backoff).
+ * 
+ * Calls which change the state of a virtual machine are not idempotent in outcome: a call which 
+ * timed out may have been executed anyway. Such calls are re-issued only after a verification 
+ * call confirmed that the change did not happen, see {@link #callVerified}.
+ * 
+ * @author Eugen Feller
+ */
+public final class CallPolicy 
+{
+    /** Define the logger. */
+    private static final Logger log_ = LoggerFactory.getLogger(CallPolicy.class);
+    
+    /** Maximum backoff as a multiple of the initial backoff. */
+    private static final int MAXIMUM_BACKOFF_FACTOR = 8;
+    
+    /** Maximum number of call threads. */
+    private static final int MAXIMUM_CALL_THREADS = 64;
+    
+    /** Shared call executor. */
+    private static final ExecutorService executor_ = createExecutor();
+    
+    /** Call timeout (ms, 0 = none). */
+    private long callTimeout_;
+    
+    /** Maximum number of retries of a call. */
+    private int maximumRetries_;
+    
+    /** Initial backoff (ms). */
+    private long retryBackoff_;
+    
+    /** Remaining retries. */
+    private AtomicInteger retryBudget_;
+    
+    /**
+     * Constructor with a private retry budget.
+     * 
+     * @param generalSettings   The general settings
+     */
+    public CallPolicy(GeneralSettings generalSettings) 
+    {
+        this(generalSettings, new AtomicInteger(Math.max(0, generalSettings.getRetryBudget())));
+    }
+    
+    /**
+     * Constructor.
+     * 
+     * @param generalSettings   The general settings
+     * @param retryBudget       The shared retry budget
+     */
+    public CallPolicy(GeneralSettings generalSettings, AtomicInteger retryBudget) 
+    {
+        Guard.check(generalSettings, retryBudget);
+        callTimeout_ = Math.max(0, generalSettings.getCallTimeout());
+        maximumRetries_ = Math.max(0, generalSettings.getCallRetries());
+        retryBackoff_ = Math.max(1, generalSettings.getRetryBackoff());
+        retryBudget_ = retryBudget;
+    }
+    
+    /**
+     * Creates the call executor.
+     * 
+     * @return  The executor
+     */
+    private static ExecutorService createExecutor()
+    {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(MAXIMUM_CALL_THREADS, 
+                                                             MAXIMUM_CALL_THREADS, 
+                                                             60, 
+                                                             TimeUnit.SECONDS, 
+                                                             new LinkedBlockingQueue<Runnable>(), 
+                                                             new ThreadFactory()
+        {
+            public Thread newThread(Runnable runnable)
+            {
+                Thread thread = new Thread(runnable, "group-manager-call");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+    
+    /**
+     * Executes a call.
+     * 
+     * @param operation         The operation name (for reporting)
+     * @param isIdempotent      true if the call may be retried, false otherwise
+     * @param callable          The call
+     * @param <T>               The result type
+     * @return                  The result
+     * @throws CallTimeoutException     If the last attempt missed its deadline
+     */
+    public <T> T call(String operation, boolean isIdempotent, Callable<T> callable)
+    {
+        Guard.check(operation, callable);
+        PollingBackoff backoff = null;
+        int numberOfRetries = 0;
+        while (true)
+        {
+            try
+            {
+                return invoke(operation, callable);
+            }
+            catch (RuntimeException exception)
+            {
+                if (!isIdempotent || numberOfRetries >= maximumRetries_ || !consumeRetry())
+                {
+                    throw exception;
+                }
+                
+                if (backoff == null)
+                {
+                    backoff = new PollingBackoff(retryBackoff_, retryBackoff_ * MAXIMUM_BACKOFF_FACTOR, 0);
+                }
+                
+                numberOfRetries++;
+                waitBeforeRetry(operation, exception, backoff, numberOfRetries);
+            }
+        }
+    }
+    
+    /**
+     * Executes a state changing call.
+     * 
+     * A failed or timed out attempt is followed by the verification call. The call is considered 
+     * successful if the verification confirms the change, and re-issued within the retries and 
+     * the budget only if it denies it. An attempt which returned false is never re-issued.
+     * 
+     * @param operation         The operation name (for reporting)
+     * @param callable          The call
+     * @param verification      Returns true if the change took effect, false otherwise
+     * @return                  The call result
+     * @throws CallTimeoutException     If the last attempt missed its deadline
+     */
+    public boolean callVerified(String operation, Callable<Boolean> callable, Callable<Boolean> verification)
+    {
+        Guard.check(operation, callable, verification);
+        PollingBackoff backoff = null;
+        int numberOfRetries = 0;
+        while (true)
+        {
+            RuntimeException failure;
+            try
+            {
+                return invoke(operation, callable);
+            }
+            catch (RuntimeException exception)
+            {
+                failure = exception;
+            }
+            
+            Boolean isApplied = verify(operation, verification);
+            if (isApplied == null)
+            {
+                throw failure;
+            }
+            
+            if (isApplied)
+            {
+                log_.debug(String.format("Call %s failed: %s! The change took effect anyway", 
+                                         operation, failure.getMessage()));
+                return true;
+            }
+            
+            if (numberOfRetries >= maximumRetries_ || !consumeRetry())
+            {
+                throw failure;
+            }
+            
+            if (backoff == null)
+            {
+                backoff = new PollingBackoff(retryBackoff_, retryBackoff_ * MAXIMUM_BACKOFF_FACTOR, 0);
+            }
+            
+            numberOfRetries++;
+            waitBeforeRetry(operation, failure, backoff, numberOfRetries);
+        }
+    }
+    
+    /**
+     * Executes a verification call.
+     * 
+     * @param operation         The verified operation name
+     * @param verification      The verification call
+     * @return                  The verification result, null if unknown
+     */
+    private Boolean verify(String operation, Callable<Boolean> verification)
+    {
+        try
+        {
+            return invoke(operation + " verification", verification);
+        }
+        catch (RuntimeException exception)
+        {
+            log_.debug(String.format("Unable to verify %s: %s", operation, exception.getMessage()));
+            return null;
+        }
+    }
+    
+    /**
+     * Waits for the backoff interval before a retry.
+     * 
+     * @param operation         The operation name
+     * @param failure           The failure of the last attempt
+     * @param backoff           The backoff
+     * @param numberOfRetries   The retry number
+     */
+    private void waitBeforeRetry(String operation, RuntimeException failure, PollingBackoff backoff, 
+                                 int numberOfRetries)
+    {
+        long interval = backoff.nextInterval();
+        log_.debug(String.format("Call %s failed: %s! Retry %d of %d in %d ms", 
+                                 operation, failure.getMessage(), numberOfRetries, maximumRetries_, interval));
+        try
+        {
+            Thread.sleep(interval);
+        }
+        catch (InterruptedException interruption)
+        {
+            Thread.currentThread().interrupt();
+            throw failure;
+        }
+    }
+    
+    /**
+     * Returns the remaining retries.
+     * 
+     * @return  The remaining retries
+     */
+    public int getRemainingRetries()
+    {
+        return retryBudget_.get();
+    }
+    
+    /**
+     * Takes a retry from the budget.
+     * 
+     * @return  true if available, false otherwise
+     */
+    private boolean consumeRetry()
+    {
+        while (true)
+        {
+            int remaining = retryBudget_.get();
+            if (remaining <= 0)
+            {
+                log_.debug("Retry budget exhausted");
+                return false;
+            }
+            
+            if (retryBudget_.compareAndSet(remaining, remaining - 1))
+            {
+                return true;
+            }
+        }
+    }
+    
+    /**
+     * Executes a single attempt.
+     * 
+     * @param operation     The operation name
+     * @param callable      The call
+     * @param <T>           The result type
+     * @return              The result
+     */
+    private <T> T invoke(String operation, Callable<T> callable)
+    {
+        if (callTimeout_ == 0)
+        {
+            return callDirectly(callable);
+        }
+        
+        Future<T> future = executor_.submit(callable);
+        try
+        {
+            return future.get(callTimeout_, TimeUnit.MILLISECONDS);
+        }
+        catch (TimeoutException exception)
+        {
+            future.cancel(true);
+            throw new CallTimeoutException(String.format("%s timed out after %d ms", operation, callTimeout_));
+        }
+        catch (InterruptedException exception)
+        {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new CallTimeoutException(String.format("%s interrupted", operation));
+        }
+        catch (ExecutionException exception)
+        {
+            Throwable cause = exception.getCause();
+            if (cause instanceof RuntimeException)
+            {
+                throw (RuntimeException) cause;
+            }
+            
+            if (cause instanceof Error)
+            {
+                throw (Error) cause;
+            }
+            
+            throw new IllegalStateException(String.format("%s failed", operation), cause);
+        }
+    }
+    
+    /**
+     * Executes a call on the current thread.
+     * 
+     * @param callable      The call
+     * @param <T>           The result type
+     * @return              The result
+     */
+    private static <T> T callDirectly(Callable<T> callable)
+    {
+        try
+        {
+            return callable.call();
+        }
+        catch (RuntimeException exception)
+        {
+            throw exception;
+        }
+        catch (Exception exception)
+        {
+            throw new IllegalStateException(exception.getMessage(), exception);
+        }
+    }
+}
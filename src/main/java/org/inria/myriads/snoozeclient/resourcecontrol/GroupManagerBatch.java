@@ -0,0 +1,130 @@
+/**
+ * Copyright (C) 2010-2013 Eugen Feller, INRIA <eugen.feller@inria.fr>
+ *
+ * This file is part of Snooze, a scalable, autonomic, and
+ * energy-aware virtual machine (VM) management framework.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package org.inria.myriads.snoozeclient.resourcecontrol;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.inria.myriads.snoozecommon.communication.NetworkAddress;
+import org.inria.myriads.snoozecommon.communication.virtualcluster.submission.VirtualMachineLocation;
+import org.inria.myriads.snoozecommon.guard.Guard;
+
+/**
+ * Virtual machine locations managed by the same group manager.
+ * 
+ * @author Eugen Feller
+ */
+public final class GroupManagerBatch 
+{
+    /** Group manager address. */
+    private NetworkAddress groupManagerAddress_;
+    
+    /** Virtual machine locations. */
+    private List<VirtualMachineLocation> locations_;
+    
+    /**
+     * Constructor.
+     * 
+     * @param groupManagerAddress     The group manager address
+     */
+    public GroupManagerBatch(NetworkAddress groupManagerAddress) 
+    {
+        Guard.check(groupManagerAddress);
+        groupManagerAddress_ = groupManagerAddress;
+        locations_ = new ArrayList<VirtualMachineLocation>();
+    }
+    
+    /**
+     * Generates the key identifying a group manager.
+     * 
+     * @param groupManagerAddress     The group manager address
+     * @return                        The key
+     */
+    public static String getKey(NetworkAddress groupManagerAddress)
+    {
+        Guard.check(groupManagerAddress);
+        return groupManagerAddress.getAddress() + ":" + groupManagerAddress.getPort();
+    }
+    
+    /**
+     * Adds a location.
+     * 
+     * @param location      The virtual machine location
+     */
+    public void addLocation(VirtualMachineLocation location)
+    {
+        Guard.check(location);
+        locations_.add(location);
+    }
+    
+    /**
+     * Splits the batch into batches of at most the given size.
+     * 
+     * @param maximumSize   The maximum batch size
+     * @return              The batches
+     */
+    public List<GroupManagerBatch> split(int maximumSize)
+    {
+        List<GroupManagerBatch> batches = new ArrayList<GroupManagerBatch>();
+        GroupManagerBatch current = null;
+        for (VirtualMachineLocation location : locations_)
+        {
+            if (current == null || current.size() >= maximumSize)
+            {
+                current = new GroupManagerBatch(groupManagerAddress_);
+                batches.add(current);
+            }
+            
+            current.addLocation(location);
+        }
+        
+        return batches;
+    }
+    
+    /**
+     * Returns the number of locations.
+     * 
+     * @return  The number of locations
+     */
+    public int size()
+    {
+        return locations_.size();
+    }
+    
+    /**
+     * Returns the group manager address.
+     * 
+     * @return  The group manager address
+     */
+    public NetworkAddress getGroupManagerAddress() 
+    {
+        return groupManagerAddress_;
+    }
+
+    /**
+     * Returns the virtual machine locations.
+     * 
+     * @return  The locations
+     */
+    public List<VirtualMachineLocation> getLocations() 
+    {
+        return locations_;
+    }
+}
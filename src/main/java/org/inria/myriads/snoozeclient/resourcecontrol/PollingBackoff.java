@@ -0,0 +1,119 @@
+/**
+ * Copyright (C) 2010-2013 Eugen Feller, INRIA <eugen.feller@inria.fr>
+ *
+ * This file is part of Snooze, a scalable, autonomic, and
+ * energy-aware virtual machine (VM) management framework.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package org.inria.myriads.snoozeclient.resourcecontrol;
+
+import java.util.Random;
+
+import org.inria.myriads.snoozecommon.guard.Guard;
+
+/**
+ * Exponential polling backoff with jitter and deadline.
+ * 
+ * The interval starts at the initial interval and doubles after every poll until it 
+ * reaches the maximum interval. Each interval is randomized between half and the full 
+ * value to spread the polls of concurrent clients.
+ * 
+ * @author Eugen Feller
+ */
+public final class PollingBackoff 
+{
+    /** Initial interval (ms). */
+    private long initialInterval_;
+    
+    /** Maximum interval (ms). */
+    private long maximumInterval_;
+    
+    /** Deadline (ms since epoch, 0 = none). */
+    private long deadline_;
+    
+    /** Current interval (ms). */
+    private long currentInterval_;
+    
+    /** Number of polls. */
+    private int numberOfPolls_;
+    
+    /** Random generator. */
+    private Random random_;
+    
+    /**
+     * Constructor.
+     * 
+     * @param initialInterval   The initial interval (ms)
+     * @param maximumInterval   The maximum interval (ms)
+     * @param timeout           The timeout (ms, 0 = none)
+     */
+    public PollingBackoff(long initialInterval, long maximumInterval, long timeout) 
+    {
+        Guard.check(initialInterval, maximumInterval, timeout);
+        initialInterval_ = Math.max(1, initialInterval);
+        maximumInterval_ = Math.max(initialInterval_, maximumInterval);
+        deadline_ = timeout > 0 ? System.currentTimeMillis() + timeout : 0;
+        currentInterval_ = initialInterval_;
+        random_ = new Random();
+    }
+    
+    /**
+     * Returns the time to wait before the next poll.
+     * 
+     * The interval never exceeds the remaining time until the deadline.
+     * 
+     * @return  The interval (ms)
+     */
+    public long nextInterval()
+    {
+        long halfInterval = currentInterval_ / 2;
+        long interval = halfInterval + (long) (random_.nextDouble() * (currentInterval_ - halfInterval + 1));
+        currentInterval_ = Math.min(maximumInterval_, currentInterval_ * 2);
+        if (deadline_ > 0)
+        {
+            interval = Math.min(interval, Math.max(0, deadline_ - System.currentTimeMillis()));
+        }
+        
+        return interval;
+    }
+    
+    /**
+     * Records a poll.
+     */
+    public void recordPoll()
+    {
+        numberOfPolls_++;
+    }
+    
+    /**
+     * Checks if the deadline has passed.
+     * 
+     * @return  true if expired, false otherwise
+     */
+    public boolean isExpired()
+    {
+        return deadline_ > 0 && System.currentTimeMillis() >= deadline_;
+    }
+    
+    /**
+     * Returns the number of polls.
+     * 
+     * @return  The number of polls
+     */
+    public int getNumberOfPolls() 
+    {
+        return numberOfPolls_;
+    }
+}
@@ -0,0 +1,81 @@
+/**
+ * Copyright (C) 2010-2013 Eugen Feller, INRIA <eugen.feller@inria.fr>
+ *
+ * This file is part of Snooze, a scalable, autonomic, and
+ * energy-aware virtual machine (VM) management framework.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package org.inria.myriads.snoozeclient.resourcecontrol;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.inria.myriads.snoozeclient.configurator.general.GeneralSettings;
+import org.inria.myriads.snoozecommon.communication.NetworkAddress;
+import org.inria.myriads.snoozecommon.guard.Guard;
+
+/**
+ * Retry budgets of a command, one per group manager.
+ * 
+ * All controls of a command which talk to the same group manager share its budget, whatever 
+ * the number of virtual machines, batches or discoveries involved.
+ * 
+ * @author Eugen Feller
+ */
+public final class RetryBudgets 
+{
+    /** Initial budget of a group manager. */
+    private int retryBudget_;
+    
+    /** Budgets by group manager key. */
+    private Map<String, AtomicInteger> budgets_;
+    
+    /**
+     * Constructor.
+     * 
+     * @param generalSettings   The general settings
+     */
+    public RetryBudgets(GeneralSettings generalSettings) 
+    {
+        Guard.check(generalSettings);
+        retryBudget_ = Math.max(0, generalSettings.getRetryBudget());
+        budgets_ = new HashMap<String, AtomicInteger>();
+    }
+    
+    /**
+     * Returns the budget of a group manager.
+     * 
+     * @param groupManagerAddress   The group manager address, null for a private budget
+     * @return                      The remaining retries
+     */
+    public synchronized AtomicInteger getBudget(NetworkAddress groupManagerAddress)
+    {
+        if (groupManagerAddress == null)
+        {
+            return new AtomicInteger(retryBudget_);
+        }
+        
+        String key = GroupManagerBatch.getKey(groupManagerAddress);
+        AtomicInteger budget = budgets_.get(key);
+        if (budget == null)
+        {
+            budget = new AtomicInteger(retryBudget_);
+            budgets_.put(key, budget);
+        }
+        
+        return budget;
+    }
+}
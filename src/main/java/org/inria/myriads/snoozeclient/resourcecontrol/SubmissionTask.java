@@ -0,0 +1,197 @@
+/**
+ * Copyright (C) 2010-2013 Eugen Feller, INRIA <eugen.feller@inria.fr>
+ *
+ * This file is part of Snooze, a scalable, autonomic, and
+ * energy-aware virtual machine (VM) management framework.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package org.inria.myriads.snoozeclient.resourcecontrol;
+
+import org.inria.myriads.snoozecommon.guard.Guard;
+
+/**
+ * Virtual cluster submission tracked by the submission tracker.
+ * 
+ * @author Eugen Feller
+ */
+public final class SubmissionTask 
+    implements Comparable<SubmissionTask>
+{
+    /** Virtual cluster name. */
+    private String virtualClusterName_;
+    
+    /** Task identifier. */
+    private String taskIdentifier_;
+    
+    /** Number of submitted virtual machines. */
+    private int numberOfVirtualMachines_;
+    
+    /** Submission time (ms). */
+    private long submissionTime_;
+    
+    /** Task identifier reception time (ms). */
+    private long taskIdentifierTime_;
+    
+    /** Response time (ms). */
+    private long responseTime_;
+    
+    /** Next poll time (ms). */
+    private long nextPollTime_;
+    
+    /** Polling backoff. */
+    private PollingBackoff backoff_;
+    
+    /**
+     * Constructor.
+     * 
+     * @param virtualClusterName        The virtual cluster name
+     * @param taskIdentifier            The task identifier
+     * @param numberOfVirtualMachines   The number of submitted virtual machines
+     * @param submissionTime            The submission time (ms)
+     * @param taskIdentifierTime        The task identifier reception time (ms)
+     * @param backoff                   The polling backoff
+     */
+    public SubmissionTask(String virtualClusterName, 
+                          String taskIdentifier, 
+                          int numberOfVirtualMachines,
+                          long submissionTime,
+                          long taskIdentifierTime,
+                          PollingBackoff backoff) 
+    {
+        Guard.check(taskIdentifier, backoff);
+        virtualClusterName_ = virtualClusterName;
+        taskIdentifier_ = taskIdentifier;
+        numberOfVirtualMachines_ = numberOfVirtualMachines;
+        submissionTime_ = submissionTime;
+        taskIdentifierTime_ = taskIdentifierTime;
+        backoff_ = backoff;
+        scheduleNextPoll();
+    }
+    
+    /**
+     * Schedules the next poll according to the backoff.
+     */
+    public void scheduleNextPoll()
+    {
+        nextPollTime_ = System.currentTimeMillis() + backoff_.nextInterval();
+    }
+    
+    /**
+     * Orders the tasks by next poll time.
+     * 
+     * @param task      The other task
+     * @return          The comparison result
+     */
+    @Override
+    public int compareTo(SubmissionTask task) 
+    {
+        if (nextPollTime_ < task.nextPollTime_)
+        {
+            return -1;
+        }
+        
+        return nextPollTime_ == task.nextPollTime_ ? 0 : 1;
+    }
+    
+    /**
+     * Returns the virtual cluster name.
+     * 
+     * @return  The virtual cluster name
+     */
+    public String getVirtualClusterName() 
+    {
+        return virtualClusterName_;
+    }
+
+    /**
+     * Returns the task identifier.
+     * 
+     * @return  The task identifier
+     */
+    public String getTaskIdentifier() 
+    {
+        return taskIdentifier_;
+    }
+
+    /**
+     * Returns the number of submitted virtual machines.
+     * 
+     * @return  The number of virtual machines
+     */
+    public int getNumberOfVirtualMachines() 
+    {
+        return numberOfVirtualMachines_;
+    }
+
+    /**
+     * Returns the submission time.
+     * 
+     * @return  The submission time (ms)
+     */
+    public long getSubmissionTime() 
+    {
+        return submissionTime_;
+    }
+
+    /**
+     * Returns the task identifier reception time.
+     * 
+     * @return  The task identifier reception time (ms)
+     */
+    public long getTaskIdentifierTime() 
+    {
+        return taskIdentifierTime_;
+    }
+
+    /**
+     * Returns the response time.
+     * 
+     * @return  The response time (ms)
+     */
+    public long getResponseTime() 
+    {
+        return responseTime_;
+    }
+
+    /**
+     * Sets the response time.
+     * 
+     * @param responseTime  The response time (ms)
+     */
+    public void setResponseTime(long responseTime) 
+    {
+        responseTime_ = responseTime;
+    }
+
+    /**
+     * Returns the next poll time.
+     * 
+     * @return  The next poll time (ms)
+     */
+    public long getNextPollTime() 
+    {
+        return nextPollTime_;
+    }
+
+    /**
+     * Returns the polling backoff.
+     * 
+     * @return  The polling backoff
+     */
+    public PollingBackoff getBackoff() 
+    {
+        return backoff_;
+    }
+}
@@ -0,0 +1,197 @@
+/**
+ * Copyright (C) 2010-2013 Eugen Feller, INRIA <eugen.feller@inria.fr>
+ *
+ * This file is part of Snooze, a scalable, autonomic, and
+ * energy-aware virtual machine (VM) management framework.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package org.inria.myriads.snoozeclient.resourcecontrol;
+
+import java.util.PriorityQueue;
+
+import org.inria.myriads.snoozeclient.configurator.general.GeneralSettings;
+import org.inria.myriads.snoozecommon.communication.rest.api.GroupManagerAPI;
+import org.inria.myriads.snoozecommon.communication.virtualcluster.submission.VirtualClusterSubmissionRequest;
+import org.inria.myriads.snoozecommon.communication.virtualcluster.submission.VirtualClusterSubmissionResponse;
+import org.inria.myriads.snoozecommon.guard.Guard;
+import org.inria.myriads.snoozecommon.util.TimeUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Tracks several virtual cluster submissions from a single thread.
+ * 
+ * Pending tasks are kept in a queue ordered by their next poll time, each task 
+ * follows its own polling backoff.
+ * 
+ * @author Eugen Feller
+ */
+public final class SubmissionTracker 
+{
+    /** Define the logger. */
+    private static final Logger log_ = LoggerFactory.getLogger(SubmissionTracker.class);
+    
+    /** Group leader communicator. */
+    private GroupManagerAPI groupLeaderCommunicator_;
+    
+    /** General settings. */
+    private GeneralSettings generalSettings_;
+    
+    /** Pending tasks. */
+    private PriorityQueue<SubmissionTask> pendingTasks_;
+    
+    /**
+     * Constructor.
+     * 
+     * @param groupLeaderCommunicator   The group leader communicator
+     * @param generalSettings           The general settings
+     */
+    public SubmissionTracker(GroupManagerAPI groupLeaderCommunicator, GeneralSettings generalSettings) 
+    {
+        Guard.check(groupLeaderCommunicator, generalSettings);
+        log_.debug("Initializing the submission tracker");
+        groupLeaderCommunicator_ = groupLeaderCommunicator;
+        generalSettings_ = generalSettings;
+        pendingTasks_ = new PriorityQueue<SubmissionTask>();
+    }
+    
+    /**
+     * Submits a virtual cluster to the group leader.
+     * 
+     * A failed submission only fails this virtual cluster, the pending tasks are kept.
+     * 
+     * @param virtualClusterName    The virtual cluster name
+     * @param submissionRequest     The virtual cluster submission request
+     * @return                      The submission task, null if the submission failed
+     */
+    public SubmissionTask submit(String virtualClusterName, VirtualClusterSubmissionRequest submissionRequest)
+    {
+        Guard.check(submissionRequest);
+        long submissionTime = System.currentTimeMillis();
+        String taskIdentifier;
+        try
+        {
+            taskIdentifier = groupLeaderCommunicator_.startVirtualCluster(submissionRequest);
+        }
+        catch (RuntimeException exception)
+        {
+            log_.debug(String.format("Submission of virtual cluster %s failed", virtualClusterName), exception);
+            return null;
+        }
+        
+        long taskIdentifierTime = System.currentTimeMillis();
+        log_.debug(String.format("Virtual cluster %s received identifier: %s", virtualClusterName, taskIdentifier));
+        if (taskIdentifier == null)
+        {
+            return null;
+        }
+        
+        SubmissionTask task = new SubmissionTask(virtualClusterName, 
+                                                 taskIdentifier, 
+                                                 submissionRequest.getVirtualMachineTemplates().size(),
+                                                 submissionTime,
+                                                 taskIdentifierTime,
+                                                 createBackoff());
+        pendingTasks_.add(task);
+        return task;
+    }
+    
+    /**
+     * Creates the polling backoff of a task.
+     * 
+     * @return  The polling backoff
+     */
+    private PollingBackoff createBackoff()
+    {
+        return new PollingBackoff(generalSettings_.getSubmissionInitialPollingInterval(),
+                                  TimeUtils.convertSecondsToMilliseconds(generalSettings_.getSubmissionPollingInterval()),
+                                  TimeUtils.convertSecondsToMilliseconds(generalSettings_.getSubmissionTimeout()));
+    }
+    
+    /**
+     * Polls the pending tasks until all of them completed or timed out.
+     * 
+     * A failed poll counts as a poll without response, the task is polled again until its 
+     * backoff expires.
+     * 
+     * @param listener                  The submission listener
+     * @throws InterruptedException     The interrupted exception
+     */
+    public void track(SubmissionListener listener)
+        throws InterruptedException
+    {
+        Guard.check(listener);
+        while (!pendingTasks_.isEmpty())
+        {
+            SubmissionTask task = pendingTasks_.poll();
+            long waitTime = task.getNextPollTime() - System.currentTimeMillis();
+            if (waitTime > 0)
+            {
+                Thread.sleep(waitTime);
+            }
+            
+            VirtualClusterSubmissionResponse response = pollResponse(task);
+            task.getBackoff().recordPoll();
+            if (response != null)
+            {
+                task.setResponseTime(System.currentTimeMillis());
+                log_.debug(String.format("Received response for task %s after %d polls", 
+                                         task.getTaskIdentifier(), task.getBackoff().getNumberOfPolls()));
+                listener.onSubmissionResponse(task, response);
+                continue;
+            }
+            
+            if (task.getBackoff().isExpired())
+            {
+                log_.debug(String.format("Task %s timed out after %d polls", 
+                                         task.getTaskIdentifier(), task.getBackoff().getNumberOfPolls()));
+                listener.onSubmissionTimeout(task);
+                continue;
+            }
+            
+            task.scheduleNextPoll();
+            pendingTasks_.add(task);
+        }
+    }
+    
+    /**
+     * Polls the response of a task.
+     * 
+     * @param task      The submission task
+     * @return          The response, null if not available yet or if the poll failed
+     */
+    private VirtualClusterSubmissionResponse pollResponse(SubmissionTask task)
+    {
+        try
+        {
+            return groupLeaderCommunicator_.getVirtualClusterResponse(task.getTaskIdentifier());
+        }
+        catch (RuntimeException exception)
+        {
+            log_.debug(String.format("Poll of task %s failed! Polling again", task.getTaskIdentifier()), exception);
+            return null;
+        }
+    }
+    
+    /**
+     * Returns the number of pending tasks.
+     * 
+     * @return  The number of pending tasks
+     */
+    public int getNumberOfPendingTasks()
+    {
+        return pendingTasks_.size();
+    }
+}
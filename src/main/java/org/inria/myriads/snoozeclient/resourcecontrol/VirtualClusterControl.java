@@ -20,27 +20,35 @@
 package org.inria.myriads.snoozeclient.resourcecontrol;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
 
 import org.codehaus.jackson.JsonGenerationException;
 import org.codehaus.jackson.JsonGenerator;
 import org.codehaus.jackson.map.JsonMappingException;
 import org.codehaus.jackson.map.ObjectMapper;
+import org.inria.myriads.snoozeclient.communication.CommunicatorCache;
 import org.inria.myriads.snoozeclient.configurator.api.ClientConfiguration;
+import org.inria.myriads.snoozeclient.exception.BootstrapUtilityException;
+import org.inria.myriads.snoozeclient.exception.CallTimeoutException;
+import org.inria.myriads.snoozeclient.exception.VirtualClusterControlException;
+import org.inria.myriads.snoozeclient.parser.commands.ClientCommand;
 import org.inria.myriads.snoozeclient.util.BootstrapUtilis;
 import org.inria.myriads.snoozecommon.communication.NetworkAddress;
-import org.inria.myriads.snoozecommon.communication.groupmanager.GroupManagerDescription;
-import org.inria.myriads.snoozecommon.communication.rest.CommunicatorFactory;
 import org.inria.myriads.snoozecommon.communication.rest.api.BootstrapAPI;
 import org.inria.myriads.snoozecommon.communication.rest.api.GroupManagerAPI;
 import org.inria.myriads.snoozecommon.communication.virtualcluster.VirtualMachineMetaData;
 import org.inria.myriads.snoozecommon.communication.virtualcluster.migration.ClientMigrationRequestSimple;
 import org.inria.myriads.snoozecommon.communication.virtualcluster.requests.MetaDataRequest;
+import org.inria.myriads.snoozecommon.communication.virtualcluster.status.VirtualMachineStatus;
 import org.inria.myriads.snoozecommon.communication.virtualcluster.submission.VirtualClusterSubmissionRequest;
 import org.inria.myriads.snoozecommon.communication.virtualcluster.submission.VirtualClusterSubmissionResponse;
 import org.inria.myriads.snoozecommon.communication.virtualcluster.submission.VirtualMachineLocation;
 import org.inria.myriads.snoozecommon.communication.virtualmachine.ResizeRequest;
 import org.inria.myriads.snoozecommon.guard.Guard;
-import org.inria.myriads.snoozecommon.util.TimeUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -60,8 +68,23 @@ public final class VirtualClusterControl
     /** Client parameters. */
     private ClientConfiguration clientConfiguration_;
     
+    /** Number of polls of the last submission. */
+    private int numberOfPolls_;
+    
+    /** Task of the last submission. */
+    private SubmissionTask lastSubmission_;
+    
+    /** Deadline and retry policy of the group manager calls. */
+    private CallPolicy callPolicy_;
+    
+    /** Timed out virtual machines of the last batch (identifier to message). */
+    private Map<String, String> timedOutVirtualMachines_;
+    
+    /** Failed virtual machines of the last batch, timeouts excluded (identifier to message). */
+    private Map<String, String> failedVirtualMachines_;
+    
     /**
-     * Constructor.
+     * Constructor with a private retry budget.
      * 
      * @param clientConfiguration    The client configuration
      * @param groupManagerAddress    The group manager address
@@ -69,10 +92,28 @@ public final class VirtualClusterControl
     public VirtualClusterControl(ClientConfiguration clientConfiguration, 
                                  NetworkAddress groupManagerAddress) 
     {
-        Guard.check(clientConfiguration);
+        this(clientConfiguration, groupManagerAddress, new RetryBudgets(clientConfiguration.getGeneralSettings()));
+    }
+    
+    /**
+     * Constructor.
+     * 
+     * @param clientConfiguration    The client configuration
+     * @param groupManagerAddress    The group manager address
+     * @param retryBudgets           The retry budgets of the command
+     */
+    public VirtualClusterControl(ClientConfiguration clientConfiguration, 
+                                 NetworkAddress groupManagerAddress,
+                                 RetryBudgets retryBudgets) 
+    {
+        Guard.check(clientConfiguration, retryBudgets);
         log_.debug("Initializing virtual cluster control");  
         clientConfiguration_ = clientConfiguration;
-        groupManagerCommunicator_ = CommunicatorFactory.newGroupManagerCommunicator(groupManagerAddress);
+        groupManagerCommunicator_ = CommunicatorCache.getGroupManagerCommunicator(groupManagerAddress);
+        callPolicy_ = new CallPolicy(clientConfiguration.getGeneralSettings(), 
+                                     retryBudgets.getBudget(groupManagerAddress));
+        timedOutVirtualMachines_ = new LinkedHashMap<String, String>();
+        failedVirtualMachines_ = new LinkedHashMap<String, String>();
     }
     
     /**
@@ -85,56 +126,93 @@ public final class VirtualClusterControl
         Guard.check(clientConfiguration);
         log_.debug("Initializing virtual cluster control without group manager");  
         clientConfiguration_ = clientConfiguration;
+        callPolicy_ = new CallPolicy(clientConfiguration.getGeneralSettings());
+        timedOutVirtualMachines_ = new LinkedHashMap<String, String>();
+        failedVirtualMachines_ = new LinkedHashMap<String, String>();
     }
     
     /**  
      * Start a virtual machine.
      *  
-     * @param virtualClusterDescription  Virtual cluster description
-     * @param networkAddress             The group manager address
-     * @return                           The virtual cluster response
+     * The submission response is polled with an exponential backoff starting at the initial 
+     * polling interval and bounded by the submission polling interval.
+     *  
+     * @param virtualClusterDescription         Virtual cluster description
+     * @return                                  The virtual cluster response
+     * @throws VirtualClusterControlException   If no response arrived before the submission timeout
+     * @throws BootstrapUtilityException        The bootstrap utility exception
      */
     public VirtualClusterSubmissionResponse start(VirtualClusterSubmissionRequest virtualClusterDescription)
+        throws VirtualClusterControlException, BootstrapUtilityException
     {
         Guard.check(virtualClusterDescription);
         log_.debug("Starting virtual cluster");
         
-        BootstrapAPI bootstrapCommunicator  = 
-                BootstrapUtilis.getActiveBootstrapCommunicator(clientConfiguration_.getGeneralSettings().getBootstrapNodes());
-        GroupManagerDescription groupLeaderDescription = bootstrapCommunicator.getGroupLeaderDescription();
-        
-        GroupManagerAPI groupLeader = CommunicatorFactory.newGroupManagerCommunicator(groupLeaderDescription.getListenSettings().getControlDataAddress());
-        String taskIdentifier = groupLeader.startVirtualCluster(virtualClusterDescription);
-        log_.debug(String.format("Virtual cluster received identifier: %s", taskIdentifier));
-        
-        if (taskIdentifier == null)
+        SubmissionTracker tracker = newSubmissionTracker();
+        SubmissionTask task = tracker.submit(null, virtualClusterDescription);
+        if (task == null)
         {
             return null;
         }
+        lastSubmission_ = task;
         
-        VirtualClusterSubmissionResponse virtualClusterResponse = null;
-        int pollingInterval = clientConfiguration_.getGeneralSettings().getSubmissionPollingInterval();
-        while (true)
-        {
-            try 
-            {              
-                log_.debug("Waiting for virtual cluster response retrieval");
-                Thread.sleep(TimeUtils.convertSecondsToMilliseconds(pollingInterval));
-                virtualClusterResponse = groupLeader.getVirtualClusterResponse(taskIdentifier);
-                if (virtualClusterResponse != null)
-                {
-                    log_.debug("Received valid virtual cluster response!");
-                    break;
-                }
-            } 
-            catch (InterruptedException exception) 
-            {
-                log_.error("Interrupted exception", exception);
-                break;
-            }
+        SingleSubmissionListener listener = new SingleSubmissionListener();
+        try 
+        {
+            tracker.track(listener);
+        } 
+        catch (InterruptedException exception) 
+        {
+            log_.error("Interrupted exception", exception);
+        }
+        
+        numberOfPolls_ = task.getBackoff().getNumberOfPolls();
+        if (listener.isTimedOut())
+        {
+            throw new VirtualClusterControlException(
+                    String.format("No response for virtual cluster submission %s after %d s (%d polls)!", 
+                                  task.getTaskIdentifier(), 
+                                  clientConfiguration_.getGeneralSettings().getSubmissionTimeout(), 
+                                  numberOfPolls_));
         }
         
-        return virtualClusterResponse;
+        log_.debug(String.format("Virtual cluster response retrieved after %d polls", numberOfPolls_));
+        return listener.getResponse();
+    }
+    
+    /**
+     * Creates a submission tracker for the current group leader.
+     * 
+     * @return                              The submission tracker
+     * @throws BootstrapUtilityException    The bootstrap utility exception
+     */
+    public SubmissionTracker newSubmissionTracker()
+        throws BootstrapUtilityException
+    {
+        NetworkAddress groupLeaderAddress = 
+            BootstrapUtilis.getGroupLeaderAddress(clientConfiguration_.getGeneralSettings().getBootstrapNodes());
+        GroupManagerAPI groupLeader = CommunicatorCache.getGroupManagerCommunicator(groupLeaderAddress);
+        return new SubmissionTracker(groupLeader, clientConfiguration_.getGeneralSettings());
+    }
+    
+    /**
+     * Returns the number of polls of the last submission.
+     * 
+     * @return  The number of polls
+     */
+    public int getNumberOfPolls() 
+    {
+        return numberOfPolls_;
+    }
+    
+    /**
+     * Returns the task of the last submission.
+     * 
+     * @return  The submission task, null if none was accepted
+     */
+    public SubmissionTask getLastSubmission() 
+    {
+        return lastSubmission_;
     }
 
     /** 
@@ -143,10 +221,23 @@ public final class VirtualClusterControl
      * @param location      The virtual machine location
      * @return              true if everything ok, false otherwise
      */
-    public boolean suspend(VirtualMachineLocation location)
+    public boolean suspend(final VirtualMachineLocation location)
     {
         Guard.check(location);
-        return groupManagerCommunicator_.suspendVirtualMachine(location);
+        return callPolicy_.callVerified("suspend", new Callable<Boolean>()
+        {
+            public Boolean call()
+            {
+                return groupManagerCommunicator_.suspendVirtualMachine(location);
+            }
+        }, 
+        new Callable<Boolean>()
+        {
+            public Boolean call()
+            {
+                return hasStatus(location, VirtualMachineStatus.PAUSED);
+            }
+        });
     }
        
     /** 
@@ -155,10 +246,23 @@ public final class VirtualClusterControl
      * @param location      The virtual machine location
      * @return              true if everything ok, false otherwise
      */
-    public boolean resume(VirtualMachineLocation location)
+    public boolean resume(final VirtualMachineLocation location)
     {
         Guard.check(location);
-        return groupManagerCommunicator_.resumeVirtualMachine(location);
+        return callPolicy_.callVerified("resume", new Callable<Boolean>()
+        {
+            public Boolean call()
+            {
+                return groupManagerCommunicator_.resumeVirtualMachine(location);
+            }
+        }, 
+        new Callable<Boolean>()
+        {
+            public Boolean call()
+            {
+                return hasStatus(location, VirtualMachineStatus.RUNNING);
+            }
+        });
     }
             
     /** 
@@ -167,10 +271,16 @@ public final class VirtualClusterControl
      * @param request     The virtual machine meta data request
      * @return            The virtual machine meta data
      */
-    public VirtualMachineMetaData info(MetaDataRequest request)
+    public VirtualMachineMetaData info(final MetaDataRequest request)
     {
         Guard.check(request);
-        return groupManagerCommunicator_.getVirtualMachineMetaData(request);
+        return callPolicy_.call("info", true, new Callable<VirtualMachineMetaData>()
+        {
+            public VirtualMachineMetaData call()
+            {
+                return groupManagerCommunicator_.getVirtualMachineMetaData(request);
+            }
+        });
     }
     
     /** 
@@ -179,10 +289,23 @@ public final class VirtualClusterControl
      * @param location      The virtual machine location
      * @return              true if everything ok, false otherwise
      */
-    public boolean shutdown(VirtualMachineLocation location)
+    public boolean shutdown(final VirtualMachineLocation location)
     {
         Guard.check(location);
-        return groupManagerCommunicator_.shutdownVirtualMachine(location);
+        return callPolicy_.callVerified("shutdown", new Callable<Boolean>()
+        {
+            public Boolean call()
+            {
+                return groupManagerCommunicator_.shutdownVirtualMachine(location);
+            }
+        }, 
+        new Callable<Boolean>()
+        {
+            public Boolean call()
+            {
+                return isRemoved(location);
+            }
+        });
     }
     
     /** 
@@ -191,10 +314,16 @@ public final class VirtualClusterControl
      * @param location      The virtual machine location
      * @return              true if everything ok, false otherwise
      */
-    public boolean reboot(VirtualMachineLocation location)
+    public boolean reboot(final VirtualMachineLocation location)
     {
         Guard.check(location);
-        return groupManagerCommunicator_.rebootVirtualMachine(location);
+        return callPolicy_.call("reboot", false, new Callable<Boolean>()
+        {
+            public Boolean call()
+            {
+                return groupManagerCommunicator_.rebootVirtualMachine(location);
+            }
+        });
     }
 
     /** 
@@ -203,16 +332,218 @@ public final class VirtualClusterControl
      * @param location      The virtual machine location
      * @return              true if everything ok, false otherwise
      */
-    public boolean destroy(VirtualMachineLocation location)
+    public boolean destroy(final VirtualMachineLocation location)
+    {
+        Guard.check(location);
+        return callPolicy_.callVerified("destroy", new Callable<Boolean>()
+        {
+            public Boolean call()
+            {
+                return groupManagerCommunicator_.destroyVirtualMachine(location);
+            }
+        }, 
+        new Callable<Boolean>()
+        {
+            public Boolean call()
+            {
+                return isRemoved(location);
+            }
+        });
+    }
+    
+    /**
+     * Checks if a virtual machine has the given status on this group manager.
+     * 
+     * @param location      The virtual machine location
+     * @param status        The expected status
+     * @return              true if it has, false otherwise
+     */
+    private boolean hasStatus(VirtualMachineLocation location, VirtualMachineStatus status)
+    {
+        MetaDataRequest request = new MetaDataRequest();
+        request.setVirtualMachineLocation(location);
+        request.setNumberOfMonitoringEntries(0);
+        VirtualMachineMetaData metaData = groupManagerCommunicator_.getVirtualMachineMetaData(request);
+        return metaData != null && status.equals(metaData.getStatus());
+    }
+    
+    /**
+     * Checks if a virtual machine is gone from this group manager.
+     * 
+     * @param location      The virtual machine location
+     * @return              true if gone or offline, false otherwise
+     */
+    private boolean isRemoved(VirtualMachineLocation location)
+    {
+        if (!groupManagerCommunicator_.hasVirtualMachine(location))
+        {
+            return true;
+        }
+        
+        return hasStatus(location, VirtualMachineStatus.OFFLINE);
+    }
+    
+    /**
+     * Groups virtual machines by their group manager.
+     * 
+     * Virtual machines without a known group manager or local controller are skipped.
+     * The batches are returned in the order of first appearance.
+     * 
+     * @param metaData      The virtual machine meta data
+     * @return              The batches
+     */
+    public static List<GroupManagerBatch> groupByGroupManager(List<VirtualMachineMetaData> metaData)
+    {
+        Guard.check(metaData);
+        Map<String, GroupManagerBatch> batches = new LinkedHashMap<String, GroupManagerBatch>();
+        for (VirtualMachineMetaData virtualMachine : metaData)
+        {
+            NetworkAddress groupManagerAddress = virtualMachine.getGroupManagerControlDataAddress();
+            VirtualMachineLocation location = virtualMachine.getVirtualMachineLocation();
+            if (groupManagerAddress == null || location.getLocalControllerId() == null)
+            {
+                continue;
+            }
+            
+            String key = GroupManagerBatch.getKey(groupManagerAddress);
+            GroupManagerBatch batch = batches.get(key);
+            if (batch == null)
+            {
+                batch = new GroupManagerBatch(groupManagerAddress);
+                batches.put(key, batch);
+            }
+            
+            batch.addLocation(location);
+        }
+        
+        return new ArrayList<GroupManagerBatch>(batches.values());
+    }
+    
+    /**
+     * Checks if the group manager hosts the virtual machine.
+     * 
+     * @param location      The virtual machine location
+     * @return              true if yes, false otherwise
+     */
+    public boolean hasVirtualMachine(final VirtualMachineLocation location)
     {
         Guard.check(location);
-        return groupManagerCommunicator_.destroyVirtualMachine(location);
+        return callPolicy_.call("hasVirtualMachine", true, new Callable<Boolean>()
+        {
+            public Boolean call()
+            {
+                return groupManagerCommunicator_.hasVirtualMachine(location);
+            }
+        });
+    }
+    
+    /**
+     * Executes a lifecycle command on a batch of virtual machines of this group manager.
+     * 
+     * The group manager API has no batch endpoint yet, the requests are thus sent one 
+     * by one over the communicator of this control. A request which misses its deadline or throws only 
+     * fails its own virtual machine, see {@link #getTimedOutVirtualMachines()} and 
+     * {@link #getFailedVirtualMachines()}.
+     * 
+     * @param command       The command
+     * @param locations     The virtual machine locations
+     * @return              The success flags by virtual machine identifier
+     */
+    public Map<String, Boolean> executeBatch(ClientCommand command, List<VirtualMachineLocation> locations)
+    {
+        Guard.check(command, locations);
+        log_.debug(String.format("Executing command: %s on %d virtual machines", command, locations.size()));
+        
+        timedOutVirtualMachines_.clear();
+        failedVirtualMachines_.clear();
+        Map<String, Boolean> results = new LinkedHashMap<String, Boolean>();
+        for (VirtualMachineLocation location : locations)
+        {
+            String virtualMachineId = location.getVirtualMachineId();
+            try
+            {
+                results.put(virtualMachineId, execute(command, location));
+            }
+            catch (CallTimeoutException exception)
+            {
+                log_.warn(String.format("Virtual machine %s: %s", virtualMachineId, exception.getMessage()));
+                timedOutVirtualMachines_.put(virtualMachineId, exception.getMessage());
+                results.put(virtualMachineId, false);
+            }
+            catch (RuntimeException exception)
+            {
+                log_.warn(String.format("Command: %s failed for virtual machine: %s", command, virtualMachineId), 
+                          exception);
+                failedVirtualMachines_.put(virtualMachineId, String.valueOf(exception.getMessage()));
+                results.put(virtualMachineId, false);
+            }
+        }
+        
+        return results;
+    }
+    
+    /**
+     * Returns the virtual machines whose request timed out in the last batch.
+     * 
+     * @return  The timeout messages by virtual machine identifier
+     */
+    public Map<String, String> getTimedOutVirtualMachines()
+    {
+        return timedOutVirtualMachines_;
     }
     
-    public VirtualMachineMetaData resize(ResizeRequest resizeRequest)
+    /**
+     * Returns the virtual machines whose request failed with an error in the last batch.
+     * 
+     * @return  The error messages by virtual machine identifier
+     */
+    public Map<String, String> getFailedVirtualMachines()
+    {
+        return failedVirtualMachines_;
+    }
+    
+    /**
+     * Executes a lifecycle command on a virtual machine.
+     * 
+     * @param command       The command
+     * @param location      The virtual machine location
+     * @return              true if everything ok, false otherwise
+     */
+    public boolean execute(ClientCommand command, VirtualMachineLocation location)
+    {
+        Guard.check(command, location);
+        switch (command)
+        {
+            case SUSPEND :
+                return suspend(location);
+                
+            case RESUME :
+                return resume(location);
+                
+            case SHUTDOWN :
+                return shutdown(location);
+                
+            case REBOOT :
+                return reboot(location);
+                
+            case DESTROY :
+                return destroy(location);
+                
+            default:
+                throw new IllegalArgumentException(String.format("Unsupported batch command: %s", command));
+        }
+    }
+    
+    public VirtualMachineMetaData resize(final ResizeRequest resizeRequest)
     {
         Guard.check(resizeRequest);
-        return groupManagerCommunicator_.resizeVirtualMachine(resizeRequest);
+        return callPolicy_.call("resize", false, new Callable<VirtualMachineMetaData>()
+        {
+            public VirtualMachineMetaData call()
+            {
+                return groupManagerCommunicator_.resizeVirtualMachine(resizeRequest);
+            }
+        });
     }
 
     public boolean migrate(ClientMigrationRequestSimple migrationRequest) 
@@ -222,4 +553,49 @@ public final class VirtualClusterControl
         
         return bootstrapCommunicator.migrateVirtualMachine(migrationRequest);
     }
+    
+    /**
+     * Listener of a single submission.
+     */
+    private static final class SingleSubmissionListener 
+        implements SubmissionListener
+    {
+        /** Virtual cluster response. */
+        private VirtualClusterSubmissionResponse response_;
+        
+        /** Timeout flag. */
+        private boolean isTimedOut_;
+        
+        @Override
+        public void onSubmissionResponse(SubmissionTask task, VirtualClusterSubmissionResponse response) 
+        {
+            response_ = response;
+        }
+
+        @Override
+        public void onSubmissionTimeout(SubmissionTask task) 
+        {
+            isTimedOut_ = true;
+        }
+        
+        /**
+         * Returns the response.
+         * 
+         * @return  The virtual cluster response
+         */
+        public VirtualClusterSubmissionResponse getResponse()
+        {
+            return response_;
+        }
+        
+        /**
+         * Returns the timeout flag.
+         * 
+         * @return  true if timed out, false otherwise
+         */
+        public boolean isTimedOut()
+        {
+            return isTimedOut_;
+        }
+    }
 }
@@ -0,0 +1,244 @@
+/**
+ * Copyright (C) 2010-2013 Eugen Feller, INRIA <eugen.feller@inria.fr>
+ *
+ * This file is part of Snooze, a scalable, autonomic, and
+ * energy-aware virtual machine (VM) management framework.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package org.inria.myriads.snoozeclient.shell;
+
+import java.io.BufferedReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.inria.myriads.snoozeclient.configurator.api.ClientConfiguration;
+import org.inria.myriads.snoozeclient.database.DatabaseFactory;
+import org.inria.myriads.snoozeclient.database.api.ClientRepository;
+import org.inria.myriads.snoozeclient.parser.commands.ClientCommand;
+import org.inria.myriads.snoozeclient.parser.output.ParserOutput;
+import org.inria.myriads.snoozecommon.guard.Guard;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Batch command executor.
+ * 
+ * Commands are executed in file order. Consecutive remote commands on distinct clusters run 
+ * concurrently, all other commands wait for the running ones and run alone. The repository
+ * is written once at the end of the batch.
+ * 
+ * @author Eugen Feller
+ */
+public final class BatchExecutor 
+{
+    /** Define the logger. */
+    private static final Logger log_ = LoggerFactory.getLogger(BatchExecutor.class);
+    
+    /** Client repository shared by the commands. */
+    private ClientRepository clientRepository_;
+    
+    /** Shell executing the commands. */
+    private ClientShell shell_;
+    
+    /** Number of threads. */
+    private int numberOfThreads_;
+    
+    /**
+     * Constructor.
+     * 
+     * @param clientConfiguration   The client configuration
+     * @param clientRepository      The client repository
+     * @param numberOfThreads       The number of commands executed concurrently
+     */
+    public BatchExecutor(ClientConfiguration clientConfiguration, 
+                         ClientRepository clientRepository,
+                         int numberOfThreads)
+    {
+        Guard.check(clientConfiguration, clientRepository);
+        clientRepository_ = DatabaseFactory.newSynchronizedClientRepository(clientRepository);
+        shell_ = new ClientShell(clientConfiguration, clientRepository_);
+        numberOfThreads_ = Math.max(1, numberOfThreads);
+    }
+    
+    /**
+     * Executes all commands of the input.
+     * 
+     * @param input             The input
+     * @return                  The number of failed commands
+     * @throws Exception        The exception
+     */
+    public int run(BufferedReader input) 
+        throws Exception
+    {
+        Guard.check(input);
+        log_.debug(String.format("Executing batch with %d threads", numberOfThreads_));
+        
+        ExecutorService executorService = Executors.newFixedThreadPool(numberOfThreads_);
+        List<Future<Boolean>> runningCommands = new ArrayList<Future<Boolean>>();
+        Set<String> runningClusters = new HashSet<String>();
+        int numberOfCommands = 0;
+        int numberOfFailures = 0;
+        
+        clientRepository_.beginTransaction();
+        try
+        {
+            int lineNumber = 0;
+            String line;
+            while ((line = input.readLine()) != null)
+            {
+                lineNumber++;
+                String[] arguments = ClientShell.tokenize(line);
+                if (ClientShell.isEmpty(arguments))
+                {
+                    continue;
+                }
+                
+                numberOfCommands++;
+                final ParserOutput parserOutput = ClientShell.parse(arguments);
+                if (parserOutput == null || isNested(parserOutput))
+                {
+                    log_.warn(String.format("Line %d: invalid command skipped: %s", lineNumber, line));
+                    numberOfFailures++;
+                    continue;
+                }
+                
+                Set<String> clusters = getConcurrentClusters(parserOutput);
+                if (clusters == null || !Collections.disjoint(clusters, runningClusters))
+                {
+                    numberOfFailures += waitForCommands(runningCommands);
+                    runningClusters.clear();
+                }
+                
+                if (clusters == null)
+                {
+                    numberOfFailures += shell_.dispatch(parserOutput) ? 0 : 1;
+                    continue;
+                }
+                
+                runningClusters.addAll(clusters);
+                runningCommands.add(executorService.submit(new Callable<Boolean>()
+                {
+                    public Boolean call()
+                    {
+                        return shell_.dispatch(parserOutput);
+                    }
+                }));
+            }
+            
+            numberOfFailures += waitForCommands(runningCommands);
+        }
+        finally
+        {
+            executorService.shutdown();
+            executorService.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+            clientRepository_.commitTransaction();
+        }
+        
+        log_.info(String.format("Batch executed %d commands, %d failed", numberOfCommands, numberOfFailures));
+        return numberOfFailures;
+    }
+    
+    /**
+     * Checks if a command can not be used within a batch.
+     * 
+     * @param parserOutput      The parser output
+     * @return                  true if nested batch or shell, false otherwise
+     */
+    private static boolean isNested(ParserOutput parserOutput)
+    {
+        ClientCommand command = parserOutput.getClientCommand();
+        return command.equals(ClientCommand.BATCH) || command.equals(ClientCommand.SHELL);
+    }
+    
+    /**
+     * Returns the clusters of a command which may run concurrently to commands on other clusters.
+     * 
+     * @param parserOutput      The parser output
+     * @return                  The cluster names, null if the command must run alone
+     */
+    private static Set<String> getConcurrentClusters(ParserOutput parserOutput)
+    {
+        switch (parserOutput.getClientCommand())
+        {
+            case START :
+            case SUSPEND :
+            case RESUME :
+            case SHUTDOWN :
+            case DESTROY :
+            case REBOOT :
+            case INFO :
+            case RESIZE :
+            case RESOLVE :
+                break;
+                
+            default :
+                return null;
+        }
+        
+        List<String> virtualClusterNames = parserOutput.getVirtualClusterNames();
+        if (virtualClusterNames != null && !virtualClusterNames.isEmpty())
+        {
+            return new HashSet<String>(virtualClusterNames);
+        }
+        
+        String virtualClusterName = parserOutput.getVirtualClusterName();
+        if (virtualClusterName == null)
+        {
+            return null;
+        }
+        
+        return Collections.singleton(virtualClusterName);
+    }
+    
+    /**
+     * Waits for the running commands.
+     * 
+     * @param runningCommands   The running commands
+     * @return                  The number of failed commands
+     * @throws InterruptedException 
+     */
+    private static int waitForCommands(List<Future<Boolean>> runningCommands) 
+        throws InterruptedException
+    {
+        int numberOfFailures = 0;
+        for (Future<Boolean> command : runningCommands)
+        {
+            try
+            {
+                if (!command.get())
+                {
+                    numberOfFailures++;
+                }
+            }
+            catch (ExecutionException exception)
+            {
+                log_.debug("Batch command failed", exception);
+                numberOfFailures++;
+            }
+        }
+        
+        runningCommands.clear();
+        return numberOfFailures;
+    }
+}
@@ -0,0 +1,323 @@
+/**
+ * Copyright (C) 2010-2013 Eugen Feller, INRIA <eugen.feller@inria.fr>
+ *
+ * This file is part of Snooze, a scalable, autonomic, and
+ * energy-aware virtual machine (VM) management framework.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package org.inria.myriads.snoozeclient.shell;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.inria.myriads.snoozeclient.configurator.api.ClientConfiguration;
+import org.inria.myriads.snoozeclient.database.api.ClientRepository;
+import org.inria.myriads.snoozeclient.exception.BootstrapUtilityException;
+import org.inria.myriads.snoozeclient.exception.CommandHandlerException;
+import org.inria.myriads.snoozeclient.exception.VirtualClusterControlException;
+import org.inria.myriads.snoozeclient.handler.CommandHandler;
+import org.inria.myriads.snoozeclient.parser.CommandLineParserFactory;
+import org.inria.myriads.snoozeclient.parser.api.CommandLineParser;
+import org.inria.myriads.snoozeclient.parser.commands.ClientCommand;
+import org.inria.myriads.snoozeclient.parser.output.ParserOutput;
+import org.inria.myriads.snoozeclient.util.BootstrapUtilis;
+import org.inria.myriads.snoozecommon.guard.Guard;
+import org.inria.myriads.snoozecommon.util.ErrorUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Interactive client shell.
+ * 
+ * Executes successive command lines with the same configuration, repository and bootstrap cache.
+ * Also executes the batch command.
+ * 
+ * @author Eugen Feller
+ */
+public final class ClientShell 
+{
+    /** Define the logger. */
+    private static final Logger log_ = LoggerFactory.getLogger(ClientShell.class);
+    
+    /** Shell prompt. */
+    private static final String PROMPT = "snoozeclient> ";
+    
+    /** Comment prefix. */
+    private static final String COMMENT_PREFIX = "#";
+    
+    /** Standard input file name. */
+    private static final String STANDARD_INPUT = "-";
+    
+    /** Client configuration. */
+    private ClientConfiguration clientConfiguration_;
+    
+    /** Client repository. */
+    private ClientRepository clientRepository_;
+    
+    /**
+     * Constructor.
+     * 
+     * @param clientConfiguration   The client configuration
+     * @param clientRepository      The client repository
+     */
+    public ClientShell(ClientConfiguration clientConfiguration, ClientRepository clientRepository)
+    {
+        Guard.check(clientConfiguration, clientRepository);
+        clientConfiguration_ = clientConfiguration;
+        clientRepository_ = clientRepository;
+    }
+    
+    /**
+     * Reads and executes command lines until the end of the input or an exit command.
+     * 
+     * @param input             The input
+     * @param output            The output for the prompt, null for none
+     * @throws IOException      The I/O exception
+     */
+    public void run(BufferedReader input, PrintStream output) 
+        throws IOException
+    {
+        Guard.check(input);
+        log_.debug("Starting the client shell");
+        
+        while (true)
+        {
+            if (output != null)
+            {
+                output.print(PROMPT);
+                output.flush();
+            }
+            
+            String line = input.readLine();
+            if (line == null || isExit(line))
+            {
+                break;
+            }
+            
+            execute(line);
+        }
+        
+        log_.debug("Client shell terminated");
+    }
+    
+    /**
+     * Checks if a command line terminates the shell.
+     * 
+     * @param line      The command line
+     * @return          true if exit, false otherwise
+     */
+    private static boolean isExit(String line)
+    {
+        String command = line.trim();
+        return command.equals("exit") || command.equals("quit");
+    }
+    
+    /**
+     * Executes one command line.
+     * 
+     * Errors are reported and do not terminate the shell.
+     * 
+     * @param line      The command line
+     * @return          true if the command was executed without error, false otherwise
+     */
+    public boolean execute(String line)
+    {
+        Guard.check(line);
+        String[] arguments = tokenize(line);
+        if (isEmpty(arguments))
+        {
+            return true;
+        }
+        
+        log_.debug(String.format("Executing command line: %s", line));
+        ParserOutput parserOutput = parse(arguments);
+        if (parserOutput == null)
+        {
+            return false;
+        }
+        
+        if (parserOutput.getClientCommand().equals(ClientCommand.SHELL))
+        {
+            log_.warn("The shell is already running!");
+            return false;
+        }
+        
+        return dispatch(parserOutput);
+    }
+    
+    /**
+     * Checks if a command line has no command.
+     * 
+     * @param arguments     The arguments
+     * @return              true if empty or comment, false otherwise
+     */
+    public static boolean isEmpty(String[] arguments)
+    {
+        return arguments.length == 0 || arguments[0].startsWith(COMMENT_PREFIX);
+    }
+    
+    /**
+     * Parses the arguments of one command line.
+     * 
+     * A new parser is used for every command line since the parser keeps the parsed values.
+     * 
+     * @param arguments     The arguments
+     * @return              The parser output, null if invalid
+     */
+    public static ParserOutput parse(String[] arguments)
+    {
+        CommandLineParser parser = CommandLineParserFactory.newParser();
+        return parser.parse(arguments);
+    }
+    
+    /**
+     * Dispatches a parsed command.
+     * 
+     * Errors are reported and do not terminate the shell.
+     * 
+     * @param parserOutput      The parser output
+     * @return                  true if the command was executed without error, false otherwise
+     */
+    public boolean dispatch(ParserOutput parserOutput)
+    {
+        Guard.check(parserOutput);
+        try 
+        {
+            if (parserOutput.getClientCommand().equals(ClientCommand.BATCH))
+            {
+                return executeBatch(parserOutput) == 0;
+            }
+            
+            CommandHandler commandHandler = new CommandHandler(clientConfiguration_, clientRepository_, parserOutput);
+            commandHandler.dispatchCommand();
+            return true;
+        }
+        catch (CommandHandlerException exception)
+        {
+            log_.warn(String.format("%s", exception.getMessage()));
+        }
+        catch (BootstrapUtilityException exception)
+        {
+            BootstrapUtilis.invalidateCache();
+            log_.warn(String.format("%s", exception.getMessage()));
+        }
+        catch (VirtualClusterControlException exception)
+        {
+            log_.warn(String.format("%s", exception.getMessage()));
+        }
+        catch (Exception exception)
+        {
+            BootstrapUtilis.invalidateCache();
+            log_.error(String.format("Exception: %s", ErrorUtils.getStackTrace(exception)));
+        }
+        
+        return false;
+    }
+    
+    /**
+     * Executes the commands of a batch file.
+     * 
+     * @param parserOutput      The parser output
+     * @return                  The number of failed commands
+     * @throws Exception        The exception
+     */
+    private int executeBatch(ParserOutput parserOutput) 
+        throws Exception
+    {
+        int numberOfThreads = parserOutput.getNumberOfBatchThreads();
+        if (numberOfThreads <= 0)
+        {
+            numberOfThreads = clientConfiguration_.getGeneralSettings().getNumberOfCommandThreads();
+        }
+        
+        String batchFile = parserOutput.getBatchFile();
+        boolean isStandardInput = batchFile == null || batchFile.equals(STANDARD_INPUT);
+        BufferedReader input = isStandardInput ? new BufferedReader(new InputStreamReader(System.in)) :
+                                                 new BufferedReader(new FileReader(batchFile));
+        try
+        {
+            BatchExecutor executor = new BatchExecutor(clientConfiguration_, clientRepository_, numberOfThreads);
+            return executor.run(input);
+        }
+        finally
+        {
+            if (!isStandardInput)
+            {
+                input.close();
+            }
+        }
+    }
+    
+    /**
+     * Splits a command line into arguments.
+     * 
+     * Single and double quotes group arguments containing whitespaces.
+     * 
+     * @param line      The command line
+     * @return          The arguments
+     */
+    public static String[] tokenize(String line)
+    {
+        List<String> arguments = new ArrayList<String>();
+        StringBuilder argument = new StringBuilder();
+        boolean isArgument = false;
+        char quote = 0;
+        for (int i = 0; i < line.length(); i++)
+        {
+            char character = line.charAt(i);
+            if (quote != 0)
+            {
+                if (character == quote)
+                {
+                    quote = 0;
+                } else
+                {
+                    argument.append(character);
+                }
+                continue;
+            }
+            
+            if (character == '"' || character == '\'')
+            {
+                quote = character;
+                isArgument = true;
+            } else if (Character.isWhitespace(character))
+            {
+                if (isArgument)
+                {
+                    arguments.add(argument.toString());
+                    argument.setLength(0);
+                    isArgument = false;
+                }
+            } else
+            {
+                argument.append(character);
+                isArgument = true;
+            }
+        }
+        
+        if (isArgument)
+        {
+            arguments.add(argument.toString());
+        }
+        
+        return arguments.toArray(new String[arguments.size()]);
+    }
+}
@@ -0,0 +1,291 @@
+/**
+ * Copyright (C) 2010-2013 Eugen Feller, INRIA <eugen.feller@inria.fr>
+ *
+ * This file is part of Snooze, a scalable, autonomic, and
+ * energy-aware virtual machine (VM) management framework.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package org.inria.myriads.snoozeclient.statistics.histogram;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import org.inria.myriads.snoozecommon.guard.Guard;
+
+/**
+ * Fixed memory log-linear latency histogram.
+ * 
+ * Values below 128 ms are counted exactly, larger values in buckets whose width doubles at 
+ * every power of two, each power of two being split into 64 sub-buckets. The relative error
+ * of a reported value is thus below 1/64, whatever the magnitude, with a constant footprint 
+ * (values above 2^40 ms are clamped). Histograms are mergeable and serialized sparsely.
+ * 
+ * @author Eugen Feller
+ */
+public final class LatencyHistogram 
+{
+    /** Number of bits of the sub-bucket index. */
+    private static final int SUB_BUCKET_BITS = 7;
+    
+    /** Number of sub-buckets of the first bucket. */
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    
+    /** Number of sub-buckets of the following buckets. */
+    private static final int SUB_BUCKET_HALF_COUNT = SUB_BUCKET_COUNT / 2;
+    
+    /** Largest trackable value (ms). */
+    private static final long MAXIMUM_VALUE = (1L << 40) - 1;
+    
+    /** Number of counters. */
+    private static final int NUMBER_OF_COUNTERS = getIndex(MAXIMUM_VALUE) + 1;
+    
+    /** Counters. */
+    private long[] counts_;
+    
+    /** Total count. */
+    private long totalCount_;
+    
+    /** Minimum value. */
+    private long minimum_;
+    
+    /** Maximum value. */
+    private long maximum_;
+    
+    /** Sum of the values. */
+    private long sum_;
+    
+    /**
+     * Constructor.
+     */
+    public LatencyHistogram() 
+    {
+        counts_ = new long[NUMBER_OF_COUNTERS];
+        minimum_ = Long.MAX_VALUE;
+        maximum_ = 0;
+    }
+    
+    /**
+     * Records a value.
+     * 
+     * @param value     The value (ms), negative values are recorded as 0
+     */
+    public void record(long value)
+    {
+        long clamped = Math.min(MAXIMUM_VALUE, Math.max(0, value));
+        counts_[getIndex(clamped)]++;
+        totalCount_++;
+        minimum_ = Math.min(minimum_, clamped);
+        maximum_ = Math.max(maximum_, clamped);
+        sum_ += clamped;
+    }
+    
+    /**
+     * Adds the values of another histogram.
+     * 
+     * @param histogram     The histogram
+     */
+    public void add(LatencyHistogram histogram)
+    {
+        Guard.check(histogram);
+        if (histogram.totalCount_ == 0)
+        {
+            return;
+        }
+        
+        for (int i = 0; i < NUMBER_OF_COUNTERS; i++)
+        {
+            counts_[i] += histogram.counts_[i];
+        }
+        
+        totalCount_ += histogram.totalCount_;
+        minimum_ = Math.min(minimum_, histogram.minimum_);
+        maximum_ = Math.max(maximum_, histogram.maximum_);
+        sum_ += histogram.sum_;
+    }
+    
+    /**
+     * Returns the value at a percentile.
+     * 
+     * The highest value equivalent to the bucket holding the percentile is returned, 
+     * bounded by the maximum recorded value.
+     * 
+     * @param percentile    The percentile (0 - 100)
+     * @return              The value (ms), 0 if empty
+     */
+    public long getValueAtPercentile(double percentile)
+    {
+        if (totalCount_ == 0)
+        {
+            return 0;
+        }
+        
+        double boundedPercentile = Math.min(100, Math.max(0, percentile));
+        long targetCount = Math.max(1, (long) Math.ceil(boundedPercentile / 100 * totalCount_));
+        long count = 0;
+        for (int i = 0; i < NUMBER_OF_COUNTERS; i++)
+        {
+            count += counts_[i];
+            if (count >= targetCount)
+            {
+                return Math.max(minimum_, Math.min(maximum_, getHighestEquivalentValue(i)));
+            }
+        }
+        
+        return maximum_;
+    }
+    
+    /**
+     * Returns the total count.
+     * 
+     * @return  The number of recorded values
+     */
+    public long getTotalCount() 
+    {
+        return totalCount_;
+    }
+    
+    /**
+     * Returns the minimum value.
+     * 
+     * @return  The minimum (ms), 0 if empty
+     */
+    public long getMinimum() 
+    {
+        return totalCount_ == 0 ? 0 : minimum_;
+    }
+    
+    /**
+     * Returns the maximum value.
+     * 
+     * @return  The maximum (ms)
+     */
+    public long getMaximum() 
+    {
+        return maximum_;
+    }
+    
+    /**
+     * Returns the mean value.
+     * 
+     * @return  The mean (ms), 0 if empty
+     */
+    public double getMean() 
+    {
+        return totalCount_ == 0 ? 0 : (double) sum_ / totalCount_;
+    }
+    
+    /**
+     * Writes the histogram (non empty counters only).
+     * 
+     * @param output        The output
+     * @throws IOException  The exception
+     */
+    public void write(DataOutput output) 
+        throws IOException
+    {
+        Guard.check(output);
+        int numberOfCounters = 0;
+        for (int i = 0; i < NUMBER_OF_COUNTERS; i++)
+        {
+            if (counts_[i] != 0)
+            {
+                numberOfCounters++;
+            }
+        }
+        
+        output.writeLong(totalCount_);
+        output.writeLong(getMinimum());
+        output.writeLong(maximum_);
+        output.writeLong(sum_);
+        output.writeShort(numberOfCounters);
+        for (int i = 0; i < NUMBER_OF_COUNTERS; i++)
+        {
+            if (counts_[i] != 0)
+            {
+                output.writeShort(i);
+                output.writeLong(counts_[i]);
+            }
+        }
+    }
+    
+    /**
+     * Reads a histogram.
+     * 
+     * @param input         The input
+     * @return              The histogram
+     * @throws IOException  The exception
+     */
+    public static LatencyHistogram read(DataInput input) 
+        throws IOException
+    {
+        Guard.check(input);
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.totalCount_ = input.readLong();
+        long minimum = input.readLong();
+        histogram.minimum_ = histogram.totalCount_ == 0 ? Long.MAX_VALUE : minimum;
+        histogram.maximum_ = input.readLong();
+        histogram.sum_ = input.readLong();
+        int numberOfCounters = input.readUnsignedShort();
+        for (int i = 0; i < numberOfCounters; i++)
+        {
+            int index = input.readUnsignedShort();
+            if (index >= NUMBER_OF_COUNTERS)
+            {
+                throw new IOException(String.format("Invalid histogram counter index: %d", index));
+            }
+            
+            histogram.counts_[index] = input.readLong();
+        }
+        
+        return histogram;
+    }
+    
+    /**
+     * Returns the counter index of a value.
+     * 
+     * @param value     The value
+     * @return          The index
+     */
+    private static int getIndex(long value)
+    {
+        if (value < SUB_BUCKET_COUNT)
+        {
+            return (int) value;
+        }
+        
+        int magnitude = 63 - Long.numberOfLeadingZeros(value) - (SUB_BUCKET_BITS - 1);
+        int subBucket = (int) (value >>> magnitude);
+        return magnitude * SUB_BUCKET_HALF_COUNT + subBucket;
+    }
+    
+    /**
+     * Returns the highest value counted by a counter.
+     * 
+     * @param index     The index
+     * @return          The value
+     */
+    private static long getHighestEquivalentValue(int index)
+    {
+        if (index < SUB_BUCKET_COUNT)
+        {
+            return index;
+        }
+        
+        int magnitude = index / SUB_BUCKET_HALF_COUNT - 1;
+        long subBucket = index - magnitude * SUB_BUCKET_HALF_COUNT;
+        return ((subBucket + 1) << magnitude) - 1;
+    }
+}
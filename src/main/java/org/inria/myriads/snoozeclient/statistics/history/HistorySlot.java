@@ -0,0 +1,205 @@
+/**
+ * Copyright (C) 2010-2013 Eugen Feller, INRIA <eugen.feller@inria.fr>
+ *
+ * This file is part of Snooze, a scalable, autonomic, and
+ * energy-aware virtual machine (VM) management framework.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package org.inria.myriads.snoozeclient.statistics.history;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import org.inria.myriads.snoozeclient.statistics.histogram.LatencyHistogram;
+import org.inria.myriads.snoozecommon.guard.Guard;
+
+/**
+ * Submission statistics of a time slot.
+ * 
+ * @author Eugen Feller
+ */
+public final class HistorySlot 
+{
+    /** Slot start (ms since epoch). */
+    private long slotStart_;
+    
+    /** Number of submissions. */
+    private long numberOfSubmissions_;
+    
+    /** Number of submissions without response. */
+    private long numberOfFailedSubmissions_;
+    
+    /** Number of submitted virtual machines. */
+    private long numberOfVirtualMachines_;
+    
+    /** Number of failed virtual machine allocations. */
+    private long numberOfFailedVirtualMachines_;
+    
+    /** Submission latencies (ms). */
+    private LatencyHistogram latencies_;
+    
+    /**
+     * Constructor.
+     * 
+     * @param slotStart     The slot start
+     */
+    public HistorySlot(long slotStart) 
+    {
+        slotStart_ = slotStart;
+        latencies_ = new LatencyHistogram();
+    }
+    
+    /**
+     * Records a submission which received a response.
+     * 
+     * @param latency                           The time to response (ms)
+     * @param numberOfVirtualMachines           The number of virtual machines
+     * @param numberOfFailedVirtualMachines     The number of failed allocations
+     */
+    public void recordSubmission(long latency, int numberOfVirtualMachines, int numberOfFailedVirtualMachines)
+    {
+        numberOfSubmissions_++;
+        numberOfVirtualMachines_ += numberOfVirtualMachines;
+        numberOfFailedVirtualMachines_ += numberOfFailedVirtualMachines;
+        latencies_.record(latency);
+    }
+    
+    /**
+     * Records a submission without response.
+     * 
+     * @param numberOfVirtualMachines   The number of virtual machines
+     */
+    public void recordFailure(int numberOfVirtualMachines)
+    {
+        numberOfSubmissions_++;
+        numberOfFailedSubmissions_++;
+        numberOfVirtualMachines_ += numberOfVirtualMachines;
+        numberOfFailedVirtualMachines_ += numberOfVirtualMachines;
+    }
+    
+    /**
+     * Adds the statistics of another slot.
+     * 
+     * @param slot  The slot
+     */
+    public void add(HistorySlot slot)
+    {
+        Guard.check(slot);
+        numberOfSubmissions_ += slot.numberOfSubmissions_;
+        numberOfFailedSubmissions_ += slot.numberOfFailedSubmissions_;
+        numberOfVirtualMachines_ += slot.numberOfVirtualMachines_;
+        numberOfFailedVirtualMachines_ += slot.numberOfFailedVirtualMachines_;
+        latencies_.add(slot.latencies_);
+    }
+    
+    /**
+     * Writes the slot.
+     * 
+     * @param output        The output
+     * @throws IOException  The exception
+     */
+    public void write(DataOutput output) 
+        throws IOException
+    {
+        Guard.check(output);
+        output.writeLong(slotStart_);
+        output.writeLong(numberOfSubmissions_);
+        output.writeLong(numberOfFailedSubmissions_);
+        output.writeLong(numberOfVirtualMachines_);
+        output.writeLong(numberOfFailedVirtualMachines_);
+        latencies_.write(output);
+    }
+    
+    /**
+     * Reads a slot.
+     * 
+     * @param input         The input
+     * @return              The slot
+     * @throws IOException  The exception
+     */
+    public static HistorySlot read(DataInput input) 
+        throws IOException
+    {
+        Guard.check(input);
+        HistorySlot slot = new HistorySlot(input.readLong());
+        slot.numberOfSubmissions_ = input.readLong();
+        slot.numberOfFailedSubmissions_ = input.readLong();
+        slot.numberOfVirtualMachines_ = input.readLong();
+        slot.numberOfFailedVirtualMachines_ = input.readLong();
+        slot.latencies_ = LatencyHistogram.read(input);
+        return slot;
+    }
+
+    /**
+     * Returns the slot start.
+     * 
+     * @return  The slot start (ms since epoch)
+     */
+    public long getSlotStart() 
+    {
+        return slotStart_;
+    }
+
+    /**
+     * Returns the number of submissions.
+     * 
+     * @return  The number of submissions
+     */
+    public long getNumberOfSubmissions() 
+    {
+        return numberOfSubmissions_;
+    }
+
+    /**
+     * Returns the number of submissions without response.
+     * 
+     * @return  The number of failed submissions
+     */
+    public long getNumberOfFailedSubmissions() 
+    {
+        return numberOfFailedSubmissions_;
+    }
+
+    /**
+     * Returns the number of submitted virtual machines.
+     * 
+     * @return  The number of virtual machines
+     */
+    public long getNumberOfVirtualMachines() 
+    {
+        return numberOfVirtualMachines_;
+    }
+
+    /**
+     * Returns the number of failed virtual machine allocations.
+     * 
+     * @return  The number of failed allocations
+     */
+    public long getNumberOfFailedVirtualMachines() 
+    {
+        return numberOfFailedVirtualMachines_;
+    }
+
+    /**
+     * Returns the submission latencies.
+     * 
+     * @return  The latency histogram
+     */
+    public LatencyHistogram getLatencies() 
+    {
+        return latencies_;
+    }
+}
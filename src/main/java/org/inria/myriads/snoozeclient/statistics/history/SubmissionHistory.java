@@ -0,0 +1,423 @@
+/**
+ * Copyright (C) 2010-2013 Eugen Feller, INRIA <eugen.feller@inria.fr>
+ *
+ * This file is part of Snooze, a scalable, autonomic, and
+ * energy-aware virtual machine (VM) management framework.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package org.inria.myriads.snoozeclient.statistics.history;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+import org.inria.myriads.snoozecommon.guard.Guard;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Persistent submission history.
+ * 
+ * Submissions are aggregated in memory per time slot and appended to the history file on flush,
+ * one record per slot. Records of the same slot written by different runs are merged when the 
+ * history is queried, which streams the file with a single histogram in memory. Appends and 
+ * compactions take an exclusive file lock, queries a shared one.
+ * 
+ * A record is a marker, the payload length, the payload and its CRC-32. Records damaged by 
+ * an interrupted write are skipped by scanning for the next marker.
+ * 
+ * @author Eugen Feller
+ */
+public final class SubmissionHistory 
+{
+    /** Define the logger. */
+    private static final Logger log_ = LoggerFactory.getLogger(SubmissionHistory.class);
+    
+    /** Record marker. */
+    private static final int RECORD_MARKER = 0x534E5332;
+    
+    /** Largest valid record payload (bytes). */
+    private static final int MAXIMUM_PAYLOAD_LENGTH = 1 << 16;
+    
+    /** History file name. */
+    private String fileName_;
+    
+    /** Slot length (ms). */
+    private long interval_;
+    
+    /** Slots not written yet by start time. */
+    private Map<Long, HistorySlot> pendingSlots_;
+    
+    /**
+     * Constructor.
+     * 
+     * @param fileName      The history file name
+     * @param interval      The slot length (ms)
+     */
+    public SubmissionHistory(String fileName, long interval) 
+    {
+        Guard.check(fileName);
+        fileName_ = fileName;
+        interval_ = Math.max(1, interval);
+        pendingSlots_ = new TreeMap<Long, HistorySlot>();
+    }
+    
+    /**
+     * Records a submission which received a response.
+     * 
+     * @param submissionTime                    The submission time (ms since epoch)
+     * @param latency                           The time to response (ms)
+     * @param numberOfVirtualMachines           The number of virtual machines
+     * @param numberOfFailedVirtualMachines     The number of failed allocations
+     */
+    public synchronized void recordSubmission(long submissionTime, 
+                                              long latency, 
+                                              int numberOfVirtualMachines, 
+                                              int numberOfFailedVirtualMachines)
+    {
+        getSlot(submissionTime).recordSubmission(latency, numberOfVirtualMachines, numberOfFailedVirtualMachines);
+    }
+    
+    /**
+     * Records a submission without response.
+     * 
+     * @param submissionTime            The submission time (ms since epoch)
+     * @param numberOfVirtualMachines   The number of virtual machines
+     */
+    public synchronized void recordFailure(long submissionTime, int numberOfVirtualMachines)
+    {
+        getSlot(submissionTime).recordFailure(numberOfVirtualMachines);
+    }
+    
+    /**
+     * Appends the pending slots to the history file.
+     * 
+     * @throws IOException  The exception
+     */
+    public synchronized void flush() 
+        throws IOException
+    {
+        if (pendingSlots_.isEmpty())
+        {
+            return;
+        }
+        
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(buffer);
+        for (HistorySlot slot : pendingSlots_.values())
+        {
+            writeRecord(output, slot);
+        }
+        output.flush();
+        
+        log_.debug(String.format("Appending %d history slots to %s", pendingSlots_.size(), fileName_));
+        FileOutputStream fileOutput = new FileOutputStream(fileName_, true);
+        try
+        {
+            FileLock lock = fileOutput.getChannel().lock();
+            try
+            {
+                fileOutput.write(buffer.toByteArray());
+                fileOutput.flush();
+            }
+            finally
+            {
+                lock.release();
+            }
+        }
+        finally
+        {
+            fileOutput.close();
+        }
+        
+        pendingSlots_.clear();
+    }
+    
+    /**
+     * Computes the statistics of a time window.
+     * 
+     * A slot belongs to the window if it starts within it.
+     * 
+     * @param from          The window start (ms since epoch, inclusive)
+     * @param to            The window end (ms since epoch, exclusive)
+     * @return              The statistics
+     * @throws IOException  The exception
+     */
+    public SubmissionStatistics query(long from, long to) 
+        throws IOException
+    {
+        SubmissionStatistics statistics = new SubmissionStatistics(interval_);
+        if (!new File(fileName_).exists())
+        {
+            return statistics;
+        }
+        
+        FileInputStream fileInput = new FileInputStream(fileName_);
+        try
+        {
+            FileLock lock = fileInput.getChannel().lock(0, Long.MAX_VALUE, true);
+            try
+            {
+                DataInputStream input = new DataInputStream(new BufferedInputStream(fileInput));
+                HistorySlot slot;
+                while ((slot = readSlot(input)) != null)
+                {
+                    if (slot.getSlotStart() >= from && slot.getSlotStart() < to)
+                    {
+                        statistics.add(slot);
+                    }
+                }
+            }
+            finally
+            {
+                lock.release();
+            }
+        }
+        finally
+        {
+            fileInput.close();
+        }
+        
+        return statistics;
+    }
+    
+    /**
+     * Compacts the history file.
+     * 
+     * Records of slots older than the retention are dropped. The file is rewritten in place 
+     * under the lock, concurrent appends thus wait for the compaction.
+     * 
+     * @param retention     The retention (ms)
+     * @return              The number of remaining records
+     * @throws IOException  The exception
+     */
+    public int compact(long retention) 
+        throws IOException
+    {
+        if (!new File(fileName_).exists())
+        {
+            return 0;
+        }
+        
+        long oldestSlotStart = System.currentTimeMillis() - retention;
+        RandomAccessFile file = new RandomAccessFile(fileName_, "rw");
+        try
+        {
+            FileChannel channel = file.getChannel();
+            FileLock lock = channel.lock();
+            try
+            {
+                DataInputStream input = 
+                    new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+                ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+                DataOutputStream output = new DataOutputStream(buffer);
+                int numberOfRecords = 0;
+                HistorySlot slot;
+                while ((slot = readSlot(input)) != null)
+                {
+                    if (slot.getSlotStart() >= oldestSlotStart)
+                    {
+                        writeRecord(output, slot);
+                        numberOfRecords++;
+                    }
+                }
+                output.flush();
+                
+                channel.truncate(0);
+                channel.position(0);
+                ByteBuffer content = ByteBuffer.wrap(buffer.toByteArray());
+                while (content.hasRemaining())
+                {
+                    channel.write(content);
+                }
+                channel.force(true);
+                log_.debug(String.format("Compacted the history to %d records", numberOfRecords));
+                return numberOfRecords;
+            }
+            finally
+            {
+                lock.release();
+            }
+        }
+        finally
+        {
+            file.close();
+        }
+    }
+    
+    /**
+     * Returns the slot length.
+     * 
+     * @return  The slot length (ms)
+     */
+    public long getInterval() 
+    {
+        return interval_;
+    }
+    
+    /**
+     * Returns the pending slot of a time.
+     * 
+     * @param time  The time (ms since epoch)
+     * @return      The slot
+     */
+    private HistorySlot getSlot(long time)
+    {
+        long slotStart = time - time % interval_;
+        HistorySlot slot = pendingSlots_.get(slotStart);
+        if (slot == null)
+        {
+            slot = new HistorySlot(slotStart);
+            pendingSlots_.put(slotStart, slot);
+        }
+        
+        return slot;
+    }
+    
+    /**
+     * Writes a slot record.
+     * 
+     * @param output        The output
+     * @param slot          The slot
+     * @throws IOException  The exception
+     */
+    private static void writeRecord(DataOutputStream output, HistorySlot slot) 
+        throws IOException
+    {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        DataOutputStream payloadOutput = new DataOutputStream(buffer);
+        slot.write(payloadOutput);
+        payloadOutput.flush();
+        byte[] payload = buffer.toByteArray();
+        
+        output.writeInt(RECORD_MARKER);
+        output.writeInt(payload.length);
+        output.write(payload);
+        output.writeInt(computeChecksum(payload));
+    }
+    
+    /**
+     * Reads the next valid slot record.
+     * 
+     * Damaged records (e.g. interrupted writes followed by later appends) are skipped by 
+     * scanning for the next marker. The input must support mark and reset.
+     * 
+     * @param input         The input
+     * @return              The slot, null at the end of the file
+     * @throws IOException  The exception
+     */
+    private static HistorySlot readSlot(DataInputStream input) 
+        throws IOException
+    {
+        while (true)
+        {
+            if (!skipToMarker(input))
+            {
+                return null;
+            }
+            
+            input.mark(MAXIMUM_PAYLOAD_LENGTH + 8);
+            try
+            {
+                int length = input.readInt();
+                if (length >= 0 && length <= MAXIMUM_PAYLOAD_LENGTH)
+                {
+                    byte[] payload = new byte[length];
+                    input.readFully(payload);
+                    if (input.readInt() == computeChecksum(payload))
+                    {
+                        return HistorySlot.read(new DataInputStream(new ByteArrayInputStream(payload)));
+                    }
+                }
+            }
+            catch (EOFException exception)
+            {
+                log_.debug("Truncated submission history record", exception);
+            }
+            
+            log_.warn("Skipping a damaged submission history record");
+            input.reset();
+        }
+    }
+    
+    /**
+     * Consumes the input up to and including the next record marker.
+     * 
+     * @param input         The input
+     * @return              true if a marker was found, false at the end of the file
+     * @throws IOException  The exception
+     */
+    private static boolean skipToMarker(DataInputStream input) 
+        throws IOException
+    {
+        int window;
+        try
+        {
+            window = input.readInt();
+        }
+        catch (EOFException exception)
+        {
+            return false;
+        }
+        
+        long numberOfSkippedBytes = 0;
+        while (window != RECORD_MARKER)
+        {
+            int value = input.read();
+            if (value < 0)
+            {
+                return false;
+            }
+            
+            window = (window << 8) | value;
+            numberOfSkippedBytes++;
+        }
+        
+        if (numberOfSkippedBytes > 0)
+        {
+            log_.warn(String.format("Skipped %d corrupted submission history bytes", numberOfSkippedBytes));
+        }
+        
+        return true;
+    }
+    
+    /**
+     * Computes the checksum of a record payload.
+     * 
+     * @param payload   The payload
+     * @return          The CRC-32
+     */
+    private static int computeChecksum(byte[] payload)
+    {
+        CRC32 checksum = new CRC32();
+        checksum.update(payload);
+        return (int) checksum.getValue();
+    }
+}
@@ -0,0 +1,170 @@
+/**
+ * Copyright (C) 2010-2013 Eugen Feller, INRIA <eugen.feller@inria.fr>
+ *
+ * This file is part of Snooze, a scalable, autonomic, and
+ * energy-aware virtual machine (VM) management framework.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package org.inria.myriads.snoozeclient.statistics.history;
+
+import org.inria.myriads.snoozecommon.guard.Guard;
+
+/**
+ * Submission statistics over a time window.
+ * 
+ * @author Eugen Feller
+ */
+public final class SubmissionStatistics 
+{
+    /** Merged statistics. */
+    private HistorySlot total_;
+    
+    /** Start of the first slot with data (ms since epoch, 0 if none). */
+    private long firstSlotStart_;
+    
+    /** End of the last slot with data (ms since epoch, 0 if none). */
+    private long lastSlotEnd_;
+    
+    /** Number of merged slots. */
+    private int numberOfSlots_;
+    
+    /** Slot length (ms). */
+    private long interval_;
+    
+    /**
+     * Constructor.
+     * 
+     * @param interval  The slot length (ms)
+     */
+    public SubmissionStatistics(long interval) 
+    {
+        total_ = new HistorySlot(0);
+        interval_ = interval;
+    }
+    
+    /**
+     * Adds a slot.
+     * 
+     * @param slot  The slot
+     */
+    public void add(HistorySlot slot)
+    {
+        Guard.check(slot);
+        total_.add(slot);
+        long slotStart = slot.getSlotStart();
+        if (numberOfSlots_ == 0 || slotStart < firstSlotStart_)
+        {
+            firstSlotStart_ = slotStart;
+        }
+        
+        lastSlotEnd_ = Math.max(lastSlotEnd_, slotStart + interval_);
+        numberOfSlots_++;
+    }
+    
+    /**
+     * Returns the merged statistics.
+     * 
+     * @return  The merged statistics
+     */
+    public HistorySlot getTotal() 
+    {
+        return total_;
+    }
+    
+    /**
+     * Returns the start of the first slot with data.
+     * 
+     * @return  The time (ms since epoch), 0 if none
+     */
+    public long getFirstSlotStart() 
+    {
+        return firstSlotStart_;
+    }
+    
+    /**
+     * Returns the end of the last slot with data.
+     * 
+     * @return  The time (ms since epoch), 0 if none
+     */
+    public long getLastSlotEnd() 
+    {
+        return lastSlotEnd_;
+    }
+    
+    /**
+     * Returns the number of merged slot records.
+     * 
+     * @return  The number of records
+     */
+    public int getNumberOfSlots() 
+    {
+        return numberOfSlots_;
+    }
+    
+    /**
+     * Returns the submission throughput between the first and the last slot with data.
+     * 
+     * @return  The submissions per minute
+     */
+    public double getSubmissionThroughput()
+    {
+        return perMinute(total_.getNumberOfSubmissions());
+    }
+    
+    /**
+     * Returns the virtual machine throughput between the first and the last slot with data.
+     * 
+     * @return  The virtual machines per minute
+     */
+    public double getVirtualMachineThroughput()
+    {
+        return perMinute(total_.getNumberOfVirtualMachines() - total_.getNumberOfFailedVirtualMachines());
+    }
+    
+    /**
+     * Returns the ratio of submissions without response.
+     * 
+     * @return  The failure rate (0 - 1)
+     */
+    public double getSubmissionFailureRate()
+    {
+        long numberOfSubmissions = total_.getNumberOfSubmissions();
+        return numberOfSubmissions == 0 ? 0 : (double) total_.getNumberOfFailedSubmissions() / numberOfSubmissions;
+    }
+    
+    /**
+     * Returns the ratio of failed virtual machine allocations.
+     * 
+     * @return  The failure rate (0 - 1)
+     */
+    public double getVirtualMachineFailureRate()
+    {
+        long numberOfVirtualMachines = total_.getNumberOfVirtualMachines();
+        return numberOfVirtualMachines == 0 ? 0 : 
+            (double) total_.getNumberOfFailedVirtualMachines() / numberOfVirtualMachines;
+    }
+    
+    /**
+     * Converts a count into a rate per minute over the covered time.
+     * 
+     * @param count     The count
+     * @return          The rate per minute
+     */
+    private double perMinute(long count)
+    {
+        long duration = lastSlotEnd_ - firstSlotStart_;
+        return duration <= 0 ? 0 : count * 60000.0 / duration;
+    }
+}
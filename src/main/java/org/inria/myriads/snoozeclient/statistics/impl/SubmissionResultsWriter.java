@@ -19,9 +19,14 @@
  */
 package org.inria.myriads.snoozeclient.statistics.impl;
 
+import java.io.File;
 import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
+import org.codehaus.jackson.map.ObjectMapper;
 import org.inria.myriads.snoozeclient.configurator.statistics.StatisticsFormat;
+import org.inria.myriads.snoozeclient.statistics.results.PlacementResult;
 import org.inria.myriads.snoozeclient.statistics.results.SubmissionResults;
 import org.inria.myriads.snoozeclient.statistics.results.writer.FileResultsWriter;
 import org.inria.myriads.snoozecommon.guard.Guard;
@@ -44,6 +49,9 @@ public final class SubmissionResultsWriter
     /** Statistics output format. */
     private StatisticsFormat statisticsOutputFormat_;
     
+    /** Defines if the file was empty when opened. */
+    private boolean isNewFile_;
+    
     /**
      * Constructor.
      * 
@@ -56,12 +64,13 @@ public final class SubmissionResultsWriter
     {
         Guard.check(fileName);
         log_.debug("Initializing the submission results writer");
+        isNewFile_ = new File(fileName).length() == 0;
         fileResultsWriter_ = new FileResultsWriter(fileName);
         statisticsOutputFormat_ = statisticsOutputFormat;
     }
     
     /** 
-     * Will write the submission results in GNUPlot format.
+     * Writes the submission results in the configured format.
      *  
      * @param submissionResults  Submission results result
      * @throws IOException 
@@ -78,6 +87,14 @@ public final class SubmissionResultsWriter
                 writeGNUPlotInFormat(submissionResults);
                 break;
                 
+            case csv :
+                writeCSVFormat(submissionResults);
+                break;
+                
+            case jsonlines :
+                writeJSONLinesFormat(submissionResults);
+                break;
+                
             default:
                 log_.error("Unknown statistics output format selected!");
         }
@@ -100,20 +117,115 @@ public final class SubmissionResultsWriter
          * Create the resulting simulation line 
          * 
          * Constrained: submission time, number of virtual machines, number of successfull allocations, 
-         *              number of failed allocations, time to schedule, 
+         *              number of failed allocations, time to schedule, number of polls
          */
         String submissionTime = String.valueOf(schedulingResults.getSubmissionTime());
         String numberOfVirtualMachines = String.valueOf(schedulingResults.getNumberOfVirtualMachines());
         String numberOfSuccessfullAllocations = String.valueOf(schedulingResults.getNumberOfSuccessfullAllocations());
         String numberOfFailedAllocations = String.valueOf(schedulingResults.getNumberOfFailedAllocations());
         String timeToSchedule = String.valueOf((double) schedulingResults.getTimeToSchedule() / 1000);
+        String numberOfPolls = String.valueOf(schedulingResults.getNumberOfPolls());
         
         result = submissionTime + separator + numberOfVirtualMachines + separator + numberOfSuccessfullAllocations + 
-                 separator + numberOfFailedAllocations + separator + timeToSchedule;
+                 separator + numberOfFailedAllocations + separator + timeToSchedule + separator + numberOfPolls;
         
         log_.debug(String.format("Writing line: %s", result));
         
         fileResultsWriter_.writeData(result);
         fileResultsWriter_.closeFile(); 
     }
+    
+    /**
+     * Writes the placements in CSV format, one line per virtual machine.
+     * 
+     * The header is written to new files only, so the results of several runs can be appended.
+     * 
+     * @param submissionResults     The submission results
+     * @throws IOException 
+     */
+    private void writeCSVFormat(SubmissionResults submissionResults) 
+        throws IOException
+    {
+        try
+        {
+            if (isNewFile_)
+            {
+                fileResultsWriter_.writeData("submissionTime,taskIdentifier,virtualMachineId,timeToTaskIdentifier," +
+                                             "timeToResponse,groupManager,localController,status,errorCode");
+                isNewFile_ = false;
+            }
+            
+            for (PlacementResult placement : submissionResults.getPlacementResults())
+            {
+                String result = placement.getSubmissionTime() + "," + 
+                                escapeCSV(placement.getTaskIdentifier()) + "," + 
+                                escapeCSV(placement.getVirtualMachineId()) + "," + 
+                                placement.getTimeToTaskIdentifier() + "," + 
+                                placement.getTimeToResponse() + "," +
+                                escapeCSV(placement.getGroupManager()) + "," + 
+                                escapeCSV(placement.getLocalController()) + "," + 
+                                escapeCSV(placement.getStatus()) + "," + 
+                                escapeCSV(placement.getErrorCode());
+                fileResultsWriter_.writeData(result);
+            }
+        }
+        finally
+        {
+            fileResultsWriter_.closeFile();
+        }
+    }
+    
+    /**
+     * Escapes a CSV field.
+     * 
+     * @param field     The field
+     * @return          The escaped field, empty if null
+     */
+    private static String escapeCSV(String field)
+    {
+        if (field == null)
+        {
+            return "";
+        }
+        
+        if (field.indexOf(',') < 0 && field.indexOf('"') < 0 && field.indexOf('\n') < 0)
+        {
+            return field;
+        }
+        
+        return "\"" + field.replace("\"", "\"\"") + "\"";
+    }
+    
+    /**
+     * Writes the placements in JSON lines format, one object per virtual machine.
+     * 
+     * @param submissionResults     The submission results
+     * @throws IOException 
+     */
+    private void writeJSONLinesFormat(SubmissionResults submissionResults) 
+        throws IOException
+    {
+        ObjectMapper mapper = new ObjectMapper();
+        try
+        {
+            for (PlacementResult placement : submissionResults.getPlacementResults())
+            {
+                Map<String, Object> fields = new LinkedHashMap<String, Object>();
+                fields.put("submissionTime", placement.getSubmissionTime());
+                fields.put("taskIdentifier", placement.getTaskIdentifier());
+                fields.put("virtualMachineId", placement.getVirtualMachineId());
+                fields.put("timeToTaskIdentifier", placement.getTimeToTaskIdentifier());
+                fields.put("timeToResponse", placement.getTimeToResponse());
+                fields.put("groupManager", placement.getGroupManager());
+                fields.put("localController", placement.getLocalController());
+                fields.put("status", placement.getStatus());
+                fields.put("errorCode", placement.getErrorCode());
+                fileResultsWriter_.writeData(mapper.writeValueAsString(fields));
+            }
+        }
+        finally
+        {
+            fileResultsWriter_.closeFile();
+        }
+    }
 }
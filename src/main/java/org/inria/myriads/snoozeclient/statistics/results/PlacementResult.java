@@ -0,0 +1,182 @@
+/**
+ * Copyright (C) 2010-2013 Eugen Feller, INRIA <eugen.feller@inria.fr>
+ *
+ * This file is part of Snooze, a scalable, autonomic, and
+ * energy-aware virtual machine (VM) management framework.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package org.inria.myriads.snoozeclient.statistics.results;
+
+import org.inria.myriads.snoozecommon.guard.Guard;
+
+/**
+ * Placement of one virtual machine of a submission.
+ * 
+ * @author Eugen Feller
+ */
+public final class PlacementResult 
+{
+    /** Task identifier. */
+    private String taskIdentifier_;
+    
+    /** Virtual machine identifier. */
+    private String virtualMachineId_;
+    
+    /** Submission time (ms). */
+    private long submissionTime_;
+    
+    /** Time to task identifier (ms). */
+    private long timeToTaskIdentifier_;
+    
+    /** Time to response (ms). */
+    private long timeToResponse_;
+    
+    /** Group manager address, null if not placed. */
+    private String groupManager_;
+    
+    /** Local controller identifier, null if not placed. */
+    private String localController_;
+    
+    /** Final status. */
+    private String status_;
+    
+    /** Error code, null if none. */
+    private String errorCode_;
+
+    /**
+     * Constructor.
+     * 
+     * @param taskIdentifier            The task identifier
+     * @param virtualMachineId          The virtual machine identifier
+     * @param submissionTime            The submission time (ms)
+     * @param timeToTaskIdentifier      The time to task identifier (ms)
+     * @param timeToResponse            The time to response (ms)
+     * @param groupManager              The group manager address
+     * @param localController           The local controller identifier
+     * @param status                    The final status
+     * @param errorCode                 The error code
+     */
+    public PlacementResult(String taskIdentifier,
+                           String virtualMachineId,
+                           long submissionTime,
+                           long timeToTaskIdentifier,
+                           long timeToResponse,
+                           String groupManager,
+                           String localController,
+                           String status,
+                           String errorCode)
+    {
+        Guard.check(virtualMachineId, status);
+        taskIdentifier_ = taskIdentifier;
+        virtualMachineId_ = virtualMachineId;
+        submissionTime_ = submissionTime;
+        timeToTaskIdentifier_ = timeToTaskIdentifier;
+        timeToResponse_ = timeToResponse;
+        groupManager_ = groupManager;
+        localController_ = localController;
+        status_ = status;
+        errorCode_ = errorCode;
+    }
+
+    /**
+     * Returns the task identifier.
+     * 
+     * @return  The task identifier
+     */
+    public String getTaskIdentifier() 
+    {
+        return taskIdentifier_;
+    }
+
+    /**
+     * Returns the virtual machine identifier.
+     * 
+     * @return  The virtual machine identifier
+     */
+    public String getVirtualMachineId() 
+    {
+        return virtualMachineId_;
+    }
+
+    /**
+     * Returns the submission time.
+     * 
+     * @return  The submission time (ms)
+     */
+    public long getSubmissionTime() 
+    {
+        return submissionTime_;
+    }
+
+    /**
+     * Returns the time to task identifier.
+     * 
+     * @return  The time to task identifier (ms)
+     */
+    public long getTimeToTaskIdentifier() 
+    {
+        return timeToTaskIdentifier_;
+    }
+
+    /**
+     * Returns the time to response.
+     * 
+     * @return  The time to response (ms)
+     */
+    public long getTimeToResponse() 
+    {
+        return timeToResponse_;
+    }
+
+    /**
+     * Returns the group manager address.
+     * 
+     * @return  The group manager address
+     */
+    public String getGroupManager() 
+    {
+        return groupManager_;
+    }
+
+    /**
+     * Returns the local controller identifier.
+     * 
+     * @return  The local controller identifier
+     */
+    public String getLocalController() 
+    {
+        return localController_;
+    }
+
+    /**
+     * Returns the final status.
+     * 
+     * @return  The final status
+     */
+    public String getStatus() 
+    {
+        return status_;
+    }
+
+    /**
+     * Returns the error code.
+     * 
+     * @return  The error code
+     */
+    public String getErrorCode() 
+    {
+        return errorCode_;
+    }
+}
@@ -19,6 +19,9 @@
  */
 package org.inria.myriads.snoozeclient.statistics.results;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.inria.myriads.snoozecommon.guard.Guard;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -44,6 +47,12 @@ public final class SubmissionResults
     
     /** Number of failed allocations. */
     private int numberOfFailedAllocations_;
+    
+    /** Number of response polls. */
+    private int numberOfPolls_;
+    
+    /** Placements of the virtual machines. */
+    private List<PlacementResult> placementResults_;
 
     /**
      * The scheduling results.
@@ -52,11 +61,13 @@ public final class SubmissionResults
      * @param submissionTime                    The submission time
      * @param timeToSchedule                    The time to schedule
      * @param numberofFailedAllocations         The number of failed allocations
+     * @param numberOfPolls                     The number of response polls
      */
     public SubmissionResults(int numberOfVirtualMachines,
                              long submissionTime,
                              long timeToSchedule,
-                             int numberofFailedAllocations)
+                             int numberofFailedAllocations,
+                             int numberOfPolls)
     {
         Guard.check(numberOfVirtualMachines, submissionTime, timeToSchedule, numberofFailedAllocations);
         log_.debug("Initializing the scheduling results");
@@ -65,6 +76,8 @@ public final class SubmissionResults
         submissionTime_ = submissionTime;
         timeToSchedule_ = timeToSchedule;
         numberOfFailedAllocations_ = numberofFailedAllocations;
+        numberOfPolls_ = numberOfPolls;
+        placementResults_ = new ArrayList<PlacementResult>();
     }
     
     /**
@@ -116,4 +129,24 @@ public final class SubmissionResults
     {
         return numberOfFailedAllocations_;
     }
+
+    /**
+     * Returns the number of response polls.
+     * 
+     * @return  The number of polls
+     */
+    public int getNumberOfPolls() 
+    {
+        return numberOfPolls_;
+    }
+
+    /**
+     * Returns the placements of the virtual machines.
+     * 
+     * @return  The placement results
+     */
+    public List<PlacementResult> getPlacementResults() 
+    {
+        return placementResults_;
+    }
 }
@@ -0,0 +1,106 @@
+/**
+ * Copyright (C) 2010-2013 Eugen Feller, INRIA <eugen.feller@inria.fr>
+ *
+ * This file is part of Snooze, a scalable, autonomic, and
+ * energy-aware virtual machine (VM) management framework.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package org.inria.myriads.snoozeclient.statistics.util;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+
+import org.inria.myriads.snoozecommon.guard.Guard;
+
+/**
+ * Statistics time utilities.
+ * 
+ * @author Eugen Feller
+ */
+public final class StatisticsTimeUtils 
+{
+    /** Supported date patterns, most specific first. */
+    private static final String[] DATE_PATTERNS = {"yyyy-MM-dd'T'HH:mm:ss", "yyyy-MM-dd'T'HH:mm", "yyyy-MM-dd"};
+    
+    /** Hide constructor. */
+    private StatisticsTimeUtils()
+    {
+        throw new UnsupportedOperationException();
+    }
+    
+    /**
+     * Parses a point in time.
+     * 
+     * @param time                          Milliseconds since epoch or a local date
+     * @return                              The time (ms since epoch)
+     * @throws IllegalArgumentException     If the time is invalid
+     */
+    public static long parseTime(String time)
+    {
+        Guard.check(time);
+        if (time.matches("\\d+"))
+        {
+            return Long.parseLong(time);
+        }
+        
+        for (String pattern : DATE_PATTERNS)
+        {
+            SimpleDateFormat format = new SimpleDateFormat(pattern);
+            format.setLenient(false);
+            try
+            {
+                return format.parse(time).getTime();
+            }
+            catch (ParseException exception)
+            {
+                continue;
+            }
+        }
+        
+        throw new IllegalArgumentException(String.format("Invalid time: %s", time));
+    }
+    
+    /**
+     * Parses a duration.
+     * 
+     * @param duration                      A number followed by s, m, h or d
+     * @return                              The duration (ms)
+     * @throws IllegalArgumentException     If the duration is invalid
+     */
+    public static long parseDuration(String duration)
+    {
+        Guard.check(duration);
+        if (!duration.matches("\\d+[smhd]"))
+        {
+            throw new IllegalArgumentException(String.format("Invalid duration: %s", duration));
+        }
+        
+        long value = Long.parseLong(duration.substring(0, duration.length() - 1));
+        switch (duration.charAt(duration.length() - 1))
+        {
+            case 's' :
+                return value * 1000L;
+                
+            case 'm' :
+                return value * 60 * 1000L;
+                
+            case 'h' :
+                return value * 60 * 60 * 1000L;
+                
+            default :
+                return value * 24 * 60 * 60 * 1000L;
+        }
+    }
+}
@@ -25,10 +25,13 @@ import java.util.List;
 import org.inria.myriads.snoozeclient.configurator.statistics.StatisticsOutput;
 import org.inria.myriads.snoozeclient.statistics.SubmissionResultsWriterFactory;
 import org.inria.myriads.snoozeclient.statistics.impl.SubmissionResultsWriter;
+import org.inria.myriads.snoozeclient.statistics.results.PlacementResult;
 import org.inria.myriads.snoozeclient.statistics.results.SubmissionResults;
+import org.inria.myriads.snoozecommon.communication.NetworkAddress;
 import org.inria.myriads.snoozecommon.communication.virtualcluster.VirtualMachineMetaData;
 import org.inria.myriads.snoozecommon.communication.virtualcluster.status.VirtualMachineStatus;
 import org.inria.myriads.snoozecommon.communication.virtualcluster.submission.VirtualClusterSubmissionResponse;
+import org.inria.myriads.snoozecommon.communication.virtualcluster.submission.VirtualMachineLocation;
 import org.inria.myriads.snoozecommon.guard.Guard;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -53,15 +56,21 @@ public final class SubmissionResultsUtils
      * Generates the submission results.
      * 
      * @param virtualClusterResponse    The virtual cluster response
+     * @param taskIdentifier            The task identifier
      * @param numberOfVirtualMachines   The number of virual machines
      * @param startSystemTime           The start system time
+     * @param taskIdentifierTime        The task identifier reception time
      * @param finishSystemTime          The finish system time
+     * @param numberOfPolls             The number of response polls
      * @return                          The submission results
      */
     public static SubmissionResults generateSubmissionResults(VirtualClusterSubmissionResponse virtualClusterResponse, 
+                                                              String taskIdentifier,
                                                               int numberOfVirtualMachines,
                                                               long startSystemTime,
-                                                              long finishSystemTime) 
+                                                              long taskIdentifierTime,
+                                                              long finishSystemTime,
+                                                              int numberOfPolls) 
     {
         Guard.check(virtualClusterResponse, startSystemTime, finishSystemTime);
         log_.debug("Generating the submission results");
@@ -71,9 +80,43 @@ public final class SubmissionResultsUtils
         SubmissionResults submissionResults = new SubmissionResults(numberOfVirtualMachines, 
                                                                     startSystemTime, 
                                                                     timeToSchedule,
-                                                                    numberOfFailedAllocations);     
+                                                                    numberOfFailedAllocations,
+                                                                    numberOfPolls);     
+        for (VirtualMachineMetaData entry : virtualClusterResponse.getVirtualMachineMetaData())
+        {
+            VirtualMachineLocation location = entry.getVirtualMachineLocation();
+            String groupManager = formatAddress(entry.getGroupManagerControlDataAddress());
+            String errorCode = entry.getErrorCode() == null ? null : entry.getErrorCode().toString();
+            PlacementResult placementResult = new PlacementResult(taskIdentifier,
+                                                                  location.getVirtualMachineId(),
+                                                                  startSystemTime,
+                                                                  taskIdentifierTime - startSystemTime,
+                                                                  timeToSchedule,
+                                                                  groupManager,
+                                                                  location.getLocalControllerId(),
+                                                                  String.valueOf(entry.getStatus()),
+                                                                  errorCode);
+            submissionResults.getPlacementResults().add(placementResult);
+        }
+        
         return submissionResults;
     }
+    
+    /**
+     * Formats a network address.
+     * 
+     * @param address   The address
+     * @return          The address as host:port, null if unknown
+     */
+    private static String formatAddress(NetworkAddress address)
+    {
+        if (address == null || address.getAddress() == null)
+        {
+            return null;
+        }
+        
+        return address.getAddress() + ":" + address.getPort();
+    }
 
     /**
      * Computes the number of failed allocations.
@@ -81,7 +124,7 @@ public final class SubmissionResultsUtils
      * @param virtualClusterResponse    The virtual cluster response
      * @return                          The number of failed allocations
      */
-    private static int computeNumberOfFailedAllocations(VirtualClusterSubmissionResponse virtualClusterResponse) 
+    public static int computeNumberOfFailedAllocations(VirtualClusterSubmissionResponse virtualClusterResponse) 
     {
         Guard.check(virtualClusterResponse);
         log_.debug("Computing the number of failed allocations");
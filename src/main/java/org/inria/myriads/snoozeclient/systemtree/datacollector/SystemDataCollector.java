@@ -19,10 +19,10 @@
  */
 package org.inria.myriads.snoozeclient.systemtree.datacollector;
 
+import org.inria.myriads.snoozeclient.communication.CommunicatorCache;
 import org.inria.myriads.snoozecommon.communication.NetworkAddress;
 import org.inria.myriads.snoozecommon.communication.groupmanager.repository.GroupLeaderRepositoryInformation;
 import org.inria.myriads.snoozecommon.communication.groupmanager.repository.GroupManagerRepositoryInformation;
-import org.inria.myriads.snoozecommon.communication.rest.CommunicatorFactory;
 import org.inria.myriads.snoozecommon.communication.rest.api.GroupManagerAPI;
 import org.inria.myriads.snoozecommon.guard.Guard;
 import org.slf4j.Logger;
@@ -59,7 +59,7 @@ public final class SystemDataCollector
         Guard.check(groupLeaderAddress);
         log_.info(String.format("Getting group leader repository information"));
         GroupManagerAPI groupLeaderCommunicator = 
-                CommunicatorFactory.newGroupManagerCommunicator(groupLeaderAddress); 
+                CommunicatorCache.getGroupManagerCommunicator(groupLeaderAddress); 
         GroupLeaderRepositoryInformation information = 
             groupLeaderCommunicator.getGroupLeaderRepositoryInformation(numberOfBacklogEntries);
         return information;
@@ -79,7 +79,7 @@ public final class SystemDataCollector
         log_.info(String.format("Getting group manager repository informations"));
         
         GroupManagerAPI groupManagerCommunicator = 
-                CommunicatorFactory.newGroupManagerCommunicator(groupManagerAddress); 
+                CommunicatorCache.getGroupManagerCommunicator(groupManagerAddress); 
         GroupManagerRepositoryInformation information = 
                 groupManagerCommunicator.getGroupManagerRepositoryInformation(numberOfBacklogEntries);
         return information;        
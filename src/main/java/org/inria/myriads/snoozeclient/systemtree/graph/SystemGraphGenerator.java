@@ -19,14 +19,12 @@
  */
 package org.inria.myriads.snoozeclient.systemtree.graph;
 
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import edu.uci.ics.jung.graph.DelegateForest;
 import edu.uci.ics.jung.graph.Forest;
 
-import org.codehaus.jackson.map.ObjectMapper;
 import org.inria.myriads.snoozeclient.systemtree.enums.NodeType;
 import org.inria.myriads.snoozeclient.systemtree.factory.EdgeFactory;
 import org.inria.myriads.snoozeclient.systemtree.vertex.SnoozeVertex;
@@ -56,6 +54,9 @@ public final class SystemGraphGenerator
     /** Number of backlog entries. */
     private int numberOfBacklogEntries_;
     
+    /** Log every vertex instead of a summary. */
+    private boolean isVerbose_;
+    
     /**
      * Constructor.
      * 
@@ -63,46 +64,23 @@ public final class SystemGraphGenerator
      */
     public SystemGraphGenerator(int numberOfBacklogEntries) 
     {
-        log_.debug("Initializing the system  graph generator");
-        numberOfBacklogEntries_ = numberOfBacklogEntries;
-        edgeFactory_ = new EdgeFactory();
+        this(numberOfBacklogEntries, false);
     }
     
     /**
-     * Generates the graph.
-     *
-     * @param groupLeader                        The group leader description
-     * @return                                   The graph
-     * @throws SystemTreeGeneratorException 
-     */
-
-   
-    /**
-     * Adds a virtual machine branch.
+     * Constructor.
      * 
-     * @param graph                     The graph
-     * @param localControllerVertex      The local controller vertex
-     * @param virtualMachines           The virtual machines
+     * @param numberOfBacklogEntries    The number of backlog entries
+     * @param isVerbose                 true to log every vertex, false for a summary
      */
-    private void addVirtualMachineBranch(Forest<SnoozeVertex, Integer> graph,
-                                         SnoozeVertex localControllerVertex,
-                                         HashMap<String, VirtualMachineMetaData> virtualMachines)
+    public SystemGraphGenerator(int numberOfBacklogEntries, boolean isVerbose) 
     {
-        Guard.check(graph, localControllerVertex, virtualMachines);
-        //log_.info(String.format("Adding virtual machine branch to: %s", localControllerVertex.getHostId()));
-        
-        for (Map.Entry<String, VirtualMachineMetaData> entry : virtualMachines.entrySet()) 
-        {
-            String virtualMachineId = entry.getKey();
-            String virtualMachineName = virtualMachineId;
-            SnoozeVertex virtualMachineVertex = new SnoozeVertex(NodeType.VM, virtualMachineId, virtualMachineName);
-            log_.info(String.format("\t \t \t VM : %s", virtualMachineVertex.getHostId()));
-            graph.addEdge(edgeFactory_.create(), localControllerVertex, virtualMachineVertex);
-        }       
+        log_.debug("Initializing the system  graph generator");
+        numberOfBacklogEntries_ = numberOfBacklogEntries;
+        isVerbose_ = isVerbose;
+        edgeFactory_ = new EdgeFactory();
     }
     
-    
-
     /**
      * 
      * Generates the graph according to the hierarchy.
@@ -112,29 +90,45 @@ public final class SystemGraphGenerator
      */
     public Forest<SnoozeVertex, Integer> generateGraph(GroupLeaderRepositoryInformation hierarchy) 
     {
+        Guard.check(hierarchy);
         log_.debug("Starting graph generation");
         
         Forest<SnoozeVertex, Integer> graph = new DelegateForest<SnoozeVertex, Integer>();
         SnoozeVertex groupLeaderVertex = new SnoozeVertex(NodeType.GL, "0", "");
-        log_.info(String.format("GL : %s", groupLeaderVertex.getHostId()));
+        logVertex(groupLeaderVertex);
         graph.addVertex(groupLeaderVertex);
 
         List<GroupManagerDescription> groupManagers = hierarchy.getGroupManagerDescriptions();
+        if (groupManagers == null)
+        {
+            return graph;
+        }
+        
+        int numberOfLocalControllers = 0;
+        int numberOfVirtualMachines = 0;
         for (GroupManagerDescription groupManager : groupManagers) 
         {
             SnoozeVertex groupManagerVertex = new SnoozeVertex(NodeType.GM, 
-                                                                groupManager.getId(),
-                                                                groupManager.getHostname());
-            log_.info(String.format("\t GM : %s", groupManagerVertex.getHostId()));
+                                                               groupManager.getId(),
+                                                               groupManager.getHostname());
+            logVertex(groupManagerVertex);
             graph.addEdge(edgeFactory_.create(), groupLeaderVertex, groupManagerVertex);
             
-            if (groupManager.getLocalControllers() != null)
-                addLocalControllerBranch(graph, groupManagerVertex, groupManager.getLocalControllers());
+            Map<String, LocalControllerDescription> localControllers = groupManager.getLocalControllers();
+            if (localControllers == null)
+            {
+                continue;
+            }
+            
+            numberOfLocalControllers += localControllers.size();
+            numberOfVirtualMachines += addLocalControllerBranch(graph, groupManagerVertex, localControllers);
         }
         
+        log_.info(String.format("Hierarchy: %d group managers, %d local controllers, %d virtual machines", 
+                                groupManagers.size(), numberOfLocalControllers, numberOfVirtualMachines));
         return graph;
     }
-
+    
     /**
      * 
      * Add a local controller branch to the graph.
@@ -142,20 +136,17 @@ public final class SystemGraphGenerator
      * @param graph                     the graph under construction.
      * @param groupManagerVertex        the vertex
      * @param localControllers          the local controllers
+     * @return                          the number of virtual machines of the branch
      */
-    private void addLocalControllerBranch(Forest<SnoozeVertex, Integer> graph,
-            SnoozeVertex groupManagerVertex,
-            HashMap<String, LocalControllerDescription> localControllers) 
+    private int addLocalControllerBranch(Forest<SnoozeVertex, Integer> graph,
+                                         SnoozeVertex groupManagerVertex,
+                                         Map<String, LocalControllerDescription> localControllers) 
     {
-
-        Guard.check(graph, groupManagerVertex, localControllers);               
-        
-                
-        for (Map.Entry<String, LocalControllerDescription> entry : localControllers.entrySet()) 
+        int numberOfVirtualMachines = 0;
+        for (LocalControllerDescription localController : localControllers.values()) 
         {
-            LocalControllerDescription localController = entry.getValue();
             NodeType nodeType = NodeType.LC;
-            if (localController.getStatus().equals(LocalControllerStatus.PASSIVE))
+            if (LocalControllerStatus.PASSIVE.equals(localController.getStatus()))
             {
                 nodeType = NodeType.LC_PASSIVE;
             }
@@ -163,13 +154,56 @@ public final class SystemGraphGenerator
             SnoozeVertex localControllerVertex = new SnoozeVertex(nodeType,
                                                                   localController.getId(),
                                                                   localController.getHostname());
-            log_.info(String.format("\t \t LC : %s", localControllerVertex.getHostId()));
-            graph.addEdge(edgeFactory_.create(), groupManagerVertex, localControllerVertex);        
-            addVirtualMachineBranch(graph,
-                                    localControllerVertex, 
-                                    localController.getVirtualMachineMetaData());
+            logVertex(localControllerVertex);
+            graph.addEdge(edgeFactory_.create(), groupManagerVertex, localControllerVertex);
+            Map<String, VirtualMachineMetaData> virtualMachines = localController.getVirtualMachineMetaData();
+            if (virtualMachines == null)
+            {
+                continue;
+            }
+            
+            for (String virtualMachineId : virtualMachines.keySet()) 
+            {
+                SnoozeVertex virtualMachineVertex = new SnoozeVertex(NodeType.VM, virtualMachineId, virtualMachineId);
+                logVertex(virtualMachineVertex);
+                graph.addEdge(edgeFactory_.create(), localControllerVertex, virtualMachineVertex);
+            }
+            
+            numberOfVirtualMachines += virtualMachines.size();
         }
         
+        return numberOfVirtualMachines;
+    }
+    
+    /**
+     * Logs a vertex in verbose mode.
+     * 
+     * @param vertex    The vertex
+     */
+    private void logVertex(SnoozeVertex vertex)
+    {
+        if (!isVerbose_)
+        {
+            return;
+        }
+        
+        switch (vertex.getNodeType())
+        {
+            case GL :
+                log_.info(String.format("GL : %s", vertex.getHostId()));
+                break;
+                
+            case GM :
+                log_.info(String.format("\t GM : %s", vertex.getHostId()));
+                break;
+                
+            case VM :
+                log_.info(String.format("\t \t \t VM : %s", vertex.getHostId()));
+                break;
+                
+            default :
+                log_.info(String.format("\t \t LC : %s", vertex.getHostId()));
+                break;
+        }
     }
-
 }
@@ -0,0 +1,642 @@
+/**
+ * Copyright (C) 2010-2013 Eugen Feller, INRIA <eugen.feller@inria.fr>
+ *
+ * This file is part of Snooze, a scalable, autonomic, and
+ * energy-aware virtual machine (VM) management framework.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package org.inria.myriads.snoozeclient.systemtree.snapshot;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.inria.myriads.snoozeclient.systemtree.enums.NodeType;
+import org.inria.myriads.snoozecommon.communication.groupmanager.GroupManagerDescription;
+import org.inria.myriads.snoozecommon.communication.groupmanager.repository.GroupLeaderRepositoryInformation;
+import org.inria.myriads.snoozecommon.communication.localcontroller.LocalControllerDescription;
+import org.inria.myriads.snoozecommon.communication.localcontroller.LocalControllerStatus;
+import org.inria.myriads.snoozecommon.communication.virtualcluster.VirtualMachineMetaData;
+import org.inria.myriads.snoozecommon.guard.Guard;
+
+/**
+ * Compact columnar snapshot of the hierarchy.
+ * 
+ * Nodes are stored depth-first (group leader, group managers, local controllers, virtual machines)
+ * in columns: node type, identifier, host name, parent index, status and capacity. The GZIP 
+ * compressed file holds a header (magic, version, time, number of nodes) followed by one column
+ * after the other, statuses are dictionary encoded. Node types are written as fixed codes so that
+ * reordering {@link NodeType} does not change the meaning of existing files.
+ * 
+ * @author Eugen Feller
+ */
+public final class ColumnarSnapshot 
+{
+    /** File magic ("SNZH"). */
+    private static final int MAGIC = 0x534E5A48;
+    
+    /** File format version. */
+    private static final short VERSION = 2;
+    
+    /** Parent index of the root. */
+    public static final int NO_PARENT = -1;
+    
+    /** Upper bound on the number of nodes accepted when reading. */
+    private static final int MAX_NUMBER_OF_NODES = 1 << 22;
+    
+    /** Group leader code. */
+    private static final byte GROUP_LEADER_CODE = 1;
+    
+    /** Group manager code. */
+    private static final byte GROUP_MANAGER_CODE = 2;
+    
+    /** Local controller code. */
+    private static final byte LOCAL_CONTROLLER_CODE = 3;
+    
+    /** Passive local controller code. */
+    private static final byte PASSIVE_LOCAL_CONTROLLER_CODE = 4;
+    
+    /** Virtual machine code. */
+    private static final byte VIRTUAL_MACHINE_CODE = 5;
+    
+    /** Snapshot time (ms since epoch). */
+    private long timestamp_;
+    
+    /** Number of nodes. */
+    private int numberOfNodes_;
+    
+    /** Node type column. */
+    private NodeType[] nodeTypes_;
+    
+    /** Identifier column. */
+    private String[] ids_;
+    
+    /** Host name column. */
+    private String[] hostnames_;
+    
+    /** Parent index column. */
+    private int[] parents_;
+    
+    /** Status column. */
+    private String[] statuses_;
+    
+    /** Capacity column (local controller total, virtual machine requested). */
+    private double[][] capacities_;
+    
+    /**
+     * Constructor.
+     * 
+     * @param numberOfNodes     The number of nodes
+     * @param timestamp         The snapshot time
+     */
+    private ColumnarSnapshot(int numberOfNodes, long timestamp) 
+    {
+        timestamp_ = timestamp;
+        nodeTypes_ = new NodeType[numberOfNodes];
+        ids_ = new String[numberOfNodes];
+        hostnames_ = new String[numberOfNodes];
+        parents_ = new int[numberOfNodes];
+        statuses_ = new String[numberOfNodes];
+        capacities_ = new double[numberOfNodes][];
+    }
+    
+    /**
+     * Creates a snapshot of a hierarchy.
+     * 
+     * @param hierarchy     The hierarchy
+     * @return              The snapshot
+     */
+    public static ColumnarSnapshot fromHierarchy(GroupLeaderRepositoryInformation hierarchy)
+    {
+        Guard.check(hierarchy);
+        List<GroupManagerDescription> groupManagers = hierarchy.getGroupManagerDescriptions();
+        if (groupManagers == null)
+        {
+            groupManagers = new ArrayList<GroupManagerDescription>();
+        }
+        
+        ColumnarSnapshot snapshot = new ColumnarSnapshot(countNodes(groupManagers), System.currentTimeMillis());
+        int groupLeaderIndex = snapshot.addNode(NodeType.GL, "0", null, NO_PARENT, null, null);
+        for (GroupManagerDescription groupManager : groupManagers)
+        {
+            int groupManagerIndex = snapshot.addNode(NodeType.GM, groupManager.getId(), groupManager.getHostname(), 
+                                                     groupLeaderIndex, null, null);
+            Map<String, LocalControllerDescription> localControllers = groupManager.getLocalControllers();
+            if (localControllers == null)
+            {
+                continue;
+            }
+            
+            for (LocalControllerDescription localController : localControllers.values())
+            {
+                LocalControllerStatus status = localController.getStatus();
+                NodeType nodeType = LocalControllerStatus.PASSIVE.equals(status) ? NodeType.LC_PASSIVE : NodeType.LC;
+                int localControllerIndex = snapshot.addNode(nodeType, 
+                                                            localController.getId(), 
+                                                            localController.getHostname(),
+                                                            groupManagerIndex, 
+                                                            status == null ? null : status.toString(), 
+                                                            toArray(localController.getTotalCapacity()));
+                Map<String, VirtualMachineMetaData> virtualMachines = localController.getVirtualMachineMetaData();
+                if (virtualMachines == null)
+                {
+                    continue;
+                }
+                
+                for (Map.Entry<String, VirtualMachineMetaData> entry : virtualMachines.entrySet())
+                {
+                    VirtualMachineMetaData metaData = entry.getValue();
+                    String virtualMachineStatus = null;
+                    double[] capacity = null;
+                    if (metaData != null)
+                    {
+                        virtualMachineStatus = metaData.getStatus() == null ? null : metaData.getStatus().toString();
+                        capacity = toArray(metaData.getRequestedCapacity());
+                    }
+                    
+                    snapshot.addNode(NodeType.VM, entry.getKey(), null, localControllerIndex, 
+                                     virtualMachineStatus, capacity);
+                }
+            }
+        }
+        
+        return snapshot;
+    }
+    
+    /**
+     * Writes the snapshot.
+     * 
+     * The output stream is finished but not closed.
+     * 
+     * @param output        The output stream
+     * @throws IOException  The exception
+     */
+    public void write(OutputStream output) 
+        throws IOException
+    {
+        Guard.check(output);
+        GZIPOutputStream compressedOutput = new GZIPOutputStream(output);
+        DataOutputStream dataOutput = new DataOutputStream(new BufferedOutputStream(compressedOutput));
+        dataOutput.writeInt(MAGIC);
+        dataOutput.writeShort(VERSION);
+        dataOutput.writeLong(timestamp_);
+        dataOutput.writeInt(numberOfNodes_);
+        for (int i = 0; i < numberOfNodes_; i++)
+        {
+            dataOutput.writeByte(encodeNodeType(nodeTypes_[i]));
+        }
+        
+        writeStrings(dataOutput, ids_);
+        writeStrings(dataOutput, hostnames_);
+        for (int i = 0; i < numberOfNodes_; i++)
+        {
+            dataOutput.writeInt(parents_[i]);
+        }
+        
+        writeDictionary(dataOutput, statuses_);
+        for (int i = 0; i < numberOfNodes_; i++)
+        {
+            double[] capacity = capacities_[i];
+            int size = capacity == null ? 0 : capacity.length;
+            dataOutput.writeByte(size);
+            for (int j = 0; j < size; j++)
+            {
+                dataOutput.writeDouble(capacity[j]);
+            }
+        }
+        
+        dataOutput.flush();
+        compressedOutput.finish();
+    }
+    
+    /**
+     * Reads a snapshot.
+     * 
+     * @param input         The input stream
+     * @return              The snapshot
+     * @throws IOException  If the stream is not a snapshot
+     */
+    public static ColumnarSnapshot read(InputStream input) 
+        throws IOException
+    {
+        Guard.check(input);
+        DataInputStream dataInput = new DataInputStream(new BufferedInputStream(new GZIPInputStream(input)));
+        if (dataInput.readInt() != MAGIC)
+        {
+            throw new IOException("Not a hierarchy snapshot");
+        }
+        
+        short version = dataInput.readShort();
+        if (version != VERSION)
+        {
+            throw new IOException(String.format("Unsupported hierarchy snapshot version: %d", version));
+        }
+        
+        long timestamp = dataInput.readLong();
+        int numberOfNodes = dataInput.readInt();
+        if (numberOfNodes < 1 || numberOfNodes > MAX_NUMBER_OF_NODES)
+        {
+            throw new IOException(String.format("Invalid number of nodes in hierarchy snapshot: %d", numberOfNodes));
+        }
+        
+        ColumnarSnapshot snapshot = new ColumnarSnapshot(numberOfNodes, timestamp);
+        snapshot.numberOfNodes_ = numberOfNodes;
+        for (int i = 0; i < numberOfNodes; i++)
+        {
+            snapshot.nodeTypes_[i] = decodeNodeType(dataInput.readByte());
+        }
+        
+        readStrings(dataInput, snapshot.ids_);
+        readStrings(dataInput, snapshot.hostnames_);
+        for (int i = 0; i < numberOfNodes; i++)
+        {
+            int parentIndex = dataInput.readInt();
+            if (parentIndex < NO_PARENT || parentIndex >= i)
+            {
+                throw new IOException(String.format("Invalid parent index of node %d: %d", i, parentIndex));
+            }
+            
+            snapshot.parents_[i] = parentIndex;
+        }
+        
+        readDictionary(dataInput, snapshot.statuses_);
+        for (int i = 0; i < numberOfNodes; i++)
+        {
+            int size = dataInput.readUnsignedByte();
+            if (size == 0)
+            {
+                continue;
+            }
+            
+            double[] capacity = new double[size];
+            for (int j = 0; j < size; j++)
+            {
+                capacity[j] = dataInput.readDouble();
+            }
+            snapshot.capacities_[i] = capacity;
+        }
+        
+        return snapshot;
+    }
+    
+    /**
+     * Returns the snapshot time.
+     * 
+     * @return  The time (ms since epoch)
+     */
+    public long getTimestamp() 
+    {
+        return timestamp_;
+    }
+    
+    /**
+     * Returns the number of nodes.
+     * 
+     * @return  The number of nodes
+     */
+    public int getNumberOfNodes() 
+    {
+        return numberOfNodes_;
+    }
+    
+    /**
+     * Returns the node type.
+     * 
+     * @param index     The node index
+     * @return          The node type
+     */
+    public NodeType getNodeType(int index)
+    {
+        return nodeTypes_[index];
+    }
+    
+    /**
+     * Returns the node identifier.
+     * 
+     * @param index     The node index
+     * @return          The identifier
+     */
+    public String getId(int index)
+    {
+        return ids_[index];
+    }
+    
+    /**
+     * Returns the host name.
+     * 
+     * @param index     The node index
+     * @return          The host name, null if none
+     */
+    public String getHostname(int index)
+    {
+        return hostnames_[index];
+    }
+    
+    /**
+     * Returns the parent index.
+     * 
+     * @param index     The node index
+     * @return          The parent index, {@link #NO_PARENT} for the group leader
+     */
+    public int getParentIndex(int index)
+    {
+        return parents_[index];
+    }
+    
+    /**
+     * Returns the status.
+     * 
+     * @param index     The node index
+     * @return          The status, null if none
+     */
+    public String getStatus(int index)
+    {
+        return statuses_[index];
+    }
+    
+    /**
+     * Returns the capacity.
+     * 
+     * @param index     The node index
+     * @return          The capacity, null if none
+     */
+    public double[] getCapacity(int index)
+    {
+        return capacities_[index];
+    }
+    
+    /**
+     * Counts the nodes of a type.
+     * 
+     * @param nodeType  The node type
+     * @return          The number of nodes
+     */
+    public int count(NodeType nodeType)
+    {
+        Guard.check(nodeType);
+        int count = 0;
+        for (int i = 0; i < numberOfNodes_; i++)
+        {
+            if (nodeTypes_[i] == nodeType)
+            {
+                count++;
+            }
+        }
+        
+        return count;
+    }
+    
+    /**
+     * Appends a node.
+     * 
+     * @param nodeType      The node type
+     * @param id            The identifier
+     * @param hostname      The host name
+     * @param parentIndex   The parent index
+     * @param status        The status
+     * @param capacity      The capacity
+     * @return              The node index
+     */
+    private int addNode(NodeType nodeType, 
+                        String id, 
+                        String hostname, 
+                        int parentIndex, 
+                        String status, 
+                        double[] capacity)
+    {
+        int index = numberOfNodes_++;
+        nodeTypes_[index] = nodeType;
+        ids_[index] = id;
+        hostnames_[index] = hostname;
+        parents_[index] = parentIndex;
+        statuses_[index] = status;
+        capacities_[index] = capacity;
+        return index;
+    }
+    
+    /**
+     * Encodes a node type.
+     * 
+     * @param nodeType  The node type
+     * @return          The code
+     */
+    private static byte encodeNodeType(NodeType nodeType)
+    {
+        switch (nodeType)
+        {
+            case GL :
+                return GROUP_LEADER_CODE;
+            case GM :
+                return GROUP_MANAGER_CODE;
+            case LC :
+                return LOCAL_CONTROLLER_CODE;
+            case LC_PASSIVE :
+                return PASSIVE_LOCAL_CONTROLLER_CODE;
+            case VM :
+                return VIRTUAL_MACHINE_CODE;
+            default :
+                throw new IllegalArgumentException(String.format("Unknown node type: %s", nodeType));
+        }
+    }
+    
+    /**
+     * Decodes a node type.
+     * 
+     * @param code          The code
+     * @return              The node type
+     * @throws IOException  If the code is unknown
+     */
+    private static NodeType decodeNodeType(byte code)
+        throws IOException
+    {
+        switch (code)
+        {
+            case GROUP_LEADER_CODE :
+                return NodeType.GL;
+            case GROUP_MANAGER_CODE :
+                return NodeType.GM;
+            case LOCAL_CONTROLLER_CODE :
+                return NodeType.LC;
+            case PASSIVE_LOCAL_CONTROLLER_CODE :
+                return NodeType.LC_PASSIVE;
+            case VIRTUAL_MACHINE_CODE :
+                return NodeType.VM;
+            default :
+                throw new IOException(String.format("Unknown node type code in hierarchy snapshot: %d", code));
+        }
+    }
+    
+    /**
+     * Counts the nodes of the hierarchy.
+     * 
+     * @param groupManagers     The group managers
+     * @return                  The number of nodes (including the group leader)
+     */
+    private static int countNodes(List<GroupManagerDescription> groupManagers)
+    {
+        int numberOfNodes = 1 + groupManagers.size();
+        for (GroupManagerDescription groupManager : groupManagers)
+        {
+            if (groupManager.getLocalControllers() == null)
+            {
+                continue;
+            }
+            
+            for (LocalControllerDescription localController : groupManager.getLocalControllers().values())
+            {
+                numberOfNodes++;
+                if (localController.getVirtualMachineMetaData() != null)
+                {
+                    numberOfNodes += localController.getVirtualMachineMetaData().size();
+                }
+            }
+        }
+        
+        return numberOfNodes;
+    }
+    
+    /**
+     * Converts a capacity vector.
+     * 
+     * @param capacity  The capacity
+     * @return          The array, null if none
+     */
+    private static double[] toArray(List<Double> capacity)
+    {
+        if (capacity == null || capacity.isEmpty())
+        {
+            return null;
+        }
+        
+        double[] values = new double[Math.min(capacity.size(), Byte.MAX_VALUE)];
+        for (int i = 0; i < values.length; i++)
+        {
+            Double value = capacity.get(i);
+            values[i] = value == null ? 0 : value;
+        }
+        
+        return values;
+    }
+    
+    /**
+     * Writes a string column, null values are written as empty strings.
+     * 
+     * @param output        The output
+     * @param values        The values
+     * @throws IOException  The exception
+     */
+    private void writeStrings(DataOutputStream output, String[] values) 
+        throws IOException
+    {
+        for (int i = 0; i < numberOfNodes_; i++)
+        {
+            output.writeUTF(values[i] == null ? "" : values[i]);
+        }
+    }
+    
+    /**
+     * Reads a string column, empty strings are read as null values.
+     * 
+     * @param input         The input
+     * @param values        The values
+     * @throws IOException  The exception
+     */
+    private static void readStrings(DataInputStream input, String[] values) 
+        throws IOException
+    {
+        for (int i = 0; i < values.length; i++)
+        {
+            String value = input.readUTF();
+            values[i] = value.isEmpty() ? null : value;
+        }
+    }
+    
+    /**
+     * Writes a dictionary encoded string column.
+     * 
+     * @param output        The output
+     * @param values        The values
+     * @throws IOException  The exception
+     */
+    private void writeDictionary(DataOutputStream output, String[] values) 
+        throws IOException
+    {
+        Map<String, Integer> codes = new HashMap<String, Integer>();
+        List<String> dictionary = new ArrayList<String>();
+        for (int i = 0; i < numberOfNodes_; i++)
+        {
+            if (values[i] != null && !codes.containsKey(values[i]))
+            {
+                codes.put(values[i], dictionary.size());
+                dictionary.add(values[i]);
+            }
+        }
+        
+        output.writeInt(dictionary.size());
+        for (String value : dictionary)
+        {
+            output.writeUTF(value);
+        }
+        
+        for (int i = 0; i < numberOfNodes_; i++)
+        {
+            output.writeShort(values[i] == null ? -1 : codes.get(values[i]));
+        }
+    }
+    
+    /**
+     * Reads a dictionary encoded string column.
+     * 
+     * @param input         The input
+     * @param values        The values
+     * @throws IOException  The exception
+     */
+    private static void readDictionary(DataInputStream input, String[] values) 
+        throws IOException
+    {
+        int size = input.readInt();
+        if (size < 0 || size > values.length)
+        {
+            throw new IOException(String.format("Invalid dictionary size in hierarchy snapshot: %d", size));
+        }
+        
+        String[] dictionary = new String[size];
+        for (int i = 0; i < dictionary.length; i++)
+        {
+            dictionary[i] = input.readUTF();
+        }
+        
+        for (int i = 0; i < values.length; i++)
+        {
+            short code = input.readShort();
+            if (code < -1 || code >= dictionary.length)
+            {
+                throw new IOException(String.format("Invalid dictionary code in hierarchy snapshot: %d", code));
+            }
+            
+            values[i] = code < 0 ? null : dictionary[code];
+        }
+    }
+}
@@ -19,17 +19,27 @@
  */
 package org.inria.myriads.snoozeclient.systemtree.util;
 
+import java.io.BufferedOutputStream;
+import java.io.BufferedInputStream;
 import java.io.BufferedWriter;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.PrintWriter;
 
+import javax.xml.stream.XMLStreamException;
+
 import edu.uci.ics.jung.graph.Forest;
 import edu.uci.ics.jung.graph.Graph;
 import edu.uci.ics.jung.io.GraphMLWriter;
 import org.apache.commons.collections15.Transformer;
 import org.apache.commons.collections15.TransformerUtils;
+import org.inria.myriads.snoozeclient.systemtree.snapshot.ColumnarSnapshot;
 import org.inria.myriads.snoozeclient.systemtree.vertex.SnoozeVertex;
+import org.inria.myriads.snoozecommon.communication.groupmanager.repository.GroupLeaderRepositoryInformation;
 import org.inria.myriads.snoozecommon.guard.Guard;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -72,12 +82,104 @@ public final class DumpUtil
         { 
             public String transform(SnoozeVertex vertex) 
             { 
-                return String.valueOf(vertex.getNodeType());
+                return GraphMLStreamWriter.getNodeId(vertex.getNodeType(), vertex.getHostId());
             } 
         };     
         graphWriter.setVertexIDs(vertexId);
         
         PrintWriter printWriter = new PrintWriter(new BufferedWriter(new FileWriter(fileName)));      
-        graphWriter.save(graph, printWriter);
+        try
+        {
+            graphWriter.save(graph, printWriter);
+        }
+        finally
+        {
+            printWriter.close();
+        }
+    }
+    
+    /**
+     * Streams a hierarchy to file in GraphML format.
+     * 
+     * Unlike {@link #writeGraph(Forest, String)} no intermediate graph is built.
+     * 
+     * @param hierarchy             The hierarchy
+     * @param fileName              The file name
+     * @throws IOException          The I/O exception
+     * @throws XMLStreamException   The XML exception
+     */
+    public static void writeHierarchy(GroupLeaderRepositoryInformation hierarchy, String fileName) 
+        throws IOException, XMLStreamException
+    {
+        Guard.check(hierarchy, fileName);
+        log_.debug(String.format("Streaming hierarchy in GraphML format to %s", fileName));
+        
+        OutputStream output = new BufferedOutputStream(new FileOutputStream(fileName));
+        try
+        {
+            GraphMLStreamWriter writer = new GraphMLStreamWriter(output);
+            try
+            {
+                writer.writeHierarchy(hierarchy);
+            }
+            finally
+            {
+                writer.close();
+            }
+        }
+        finally
+        {
+            output.close();
+        }
+    }
+    
+    /**
+     * Writes a hierarchy to file as a compressed columnar snapshot.
+     * 
+     * @param hierarchy     The hierarchy
+     * @param fileName      The file name
+     * @return              The snapshot
+     * @throws IOException  The exception
+     */
+    public static ColumnarSnapshot writeSnapshot(GroupLeaderRepositoryInformation hierarchy, String fileName) 
+        throws IOException
+    {
+        Guard.check(hierarchy, fileName);
+        log_.debug(String.format("Writing hierarchy snapshot to %s", fileName));
+        
+        ColumnarSnapshot snapshot = ColumnarSnapshot.fromHierarchy(hierarchy);
+        OutputStream output = new FileOutputStream(fileName);
+        try
+        {
+            snapshot.write(output);
+        }
+        finally
+        {
+            output.close();
+        }
+        
+        return snapshot;
+    }
+    
+    /**
+     * Reads a compressed columnar snapshot from file.
+     * 
+     * @param fileName      The file name
+     * @return              The snapshot
+     * @throws IOException  The exception
+     */
+    public static ColumnarSnapshot readSnapshot(String fileName) 
+        throws IOException
+    {
+        Guard.check(fileName);
+        InputStream input = new BufferedInputStream(new FileInputStream(fileName));
+        try
+        {
+            return ColumnarSnapshot.read(input);
+        }
+        finally
+        {
+            input.close();
+        }
     }
 }
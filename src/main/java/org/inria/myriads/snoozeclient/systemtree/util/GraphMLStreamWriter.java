@@ -0,0 +1,294 @@
+/**
+ * Copyright (C) 2010-2013 Eugen Feller, INRIA <eugen.feller@inria.fr>
+ *
+ * This file is part of Snooze, a scalable, autonomic, and
+ * energy-aware virtual machine (VM) management framework.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package org.inria.myriads.snoozeclient.systemtree.util;
+
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.inria.myriads.snoozeclient.systemtree.enums.NodeType;
+import org.inria.myriads.snoozecommon.communication.groupmanager.GroupManagerDescription;
+import org.inria.myriads.snoozecommon.communication.groupmanager.repository.GroupLeaderRepositoryInformation;
+import org.inria.myriads.snoozecommon.communication.localcontroller.LocalControllerDescription;
+import org.inria.myriads.snoozecommon.communication.localcontroller.LocalControllerStatus;
+import org.inria.myriads.snoozecommon.communication.virtualcluster.VirtualMachineMetaData;
+import org.inria.myriads.snoozecommon.guard.Guard;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Streaming GraphML writer of the system hierarchy.
+ * 
+ * Nodes are written as the hierarchy is walked, each followed by the edge to its parent,
+ * so no intermediate graph is built. Node identifiers are prefixed by the node type 
+ * (e.g. GM:id) to keep them unique across levels.
+ * 
+ * @author Eugen Feller
+ */
+public final class GraphMLStreamWriter 
+{
+    /** Define the logger. */
+    private static final Logger log_ = LoggerFactory.getLogger(GraphMLStreamWriter.class);
+    
+    /** GraphML namespace. */
+    private static final String GRAPHML_NAMESPACE = "http://graphml.graphdrawing.org/xmlns";
+    
+    /** Node type key. */
+    private static final String TYPE_KEY = "data";
+    
+    /** Host name key. */
+    private static final String HOSTNAME_KEY = "hostname";
+    
+    /** Number of nodes after which the writer is flushed. */
+    private static final int FLUSH_INTERVAL = 1024;
+    
+    /** XML writer. */
+    private XMLStreamWriter writer_;
+    
+    /** Number of written nodes. */
+    private int numberOfNodes_;
+    
+    /**
+     * Constructor.
+     * 
+     * @param output                The output stream (not closed by this writer)
+     * @throws XMLStreamException   The exception
+     */
+    public GraphMLStreamWriter(OutputStream output) 
+        throws XMLStreamException
+    {
+        Guard.check(output);
+        writer_ = XMLOutputFactory.newInstance().createXMLStreamWriter(output, "UTF-8");
+    }
+    
+    /**
+     * Writes the hierarchy as a GraphML document.
+     * 
+     * @param hierarchy             The hierarchy
+     * @throws XMLStreamException   The exception
+     */
+    public void writeHierarchy(GroupLeaderRepositoryInformation hierarchy) 
+        throws XMLStreamException
+    {
+        Guard.check(hierarchy);
+        log_.debug("Streaming the hierarchy in GraphML format");
+        
+        writer_.writeStartDocument("UTF-8", "1.0");
+        writer_.writeStartElement("graphml");
+        writer_.writeDefaultNamespace(GRAPHML_NAMESPACE);
+        writeKey(TYPE_KEY, "type");
+        writeKey(HOSTNAME_KEY, HOSTNAME_KEY);
+        writer_.writeStartElement("graph");
+        writer_.writeAttribute("edgedefault", "directed");
+        
+        String groupLeaderId = getNodeId(NodeType.GL, "0");
+        writeNode(groupLeaderId, NodeType.GL, null);
+        List<GroupManagerDescription> groupManagers = hierarchy.getGroupManagerDescriptions();
+        if (groupManagers != null)
+        {
+            for (GroupManagerDescription groupManager : groupManagers)
+            {
+                writeGroupManager(groupLeaderId, groupManager);
+            }
+        }
+        
+        writer_.writeEndElement();
+        writer_.writeEndElement();
+        writer_.writeEndDocument();
+        writer_.flush();
+        log_.debug(String.format("Wrote %d nodes", numberOfNodes_));
+    }
+    
+    /**
+     * Flushes and closes the writer.
+     * 
+     * @throws XMLStreamException   The exception
+     */
+    public void close() 
+        throws XMLStreamException
+    {
+        writer_.flush();
+        writer_.close();
+    }
+    
+    /**
+     * Returns the number of written nodes.
+     * 
+     * @return  The number of nodes
+     */
+    public int getNumberOfNodes() 
+    {
+        return numberOfNodes_;
+    }
+    
+    /**
+     * Writes a group manager and its local controllers.
+     * 
+     * @param parentId              The parent node identifier
+     * @param groupManager          The group manager
+     * @throws XMLStreamException   The exception
+     */
+    private void writeGroupManager(String parentId, GroupManagerDescription groupManager) 
+        throws XMLStreamException
+    {
+        String groupManagerId = getNodeId(NodeType.GM, groupManager.getId());
+        writeNode(groupManagerId, NodeType.GM, groupManager.getHostname());
+        writeEdge(parentId, groupManagerId);
+        
+        Map<String, LocalControllerDescription> localControllers = groupManager.getLocalControllers();
+        if (localControllers == null)
+        {
+            return;
+        }
+        
+        for (LocalControllerDescription localController : localControllers.values())
+        {
+            writeLocalController(groupManagerId, localController);
+        }
+    }
+    
+    /**
+     * Writes a local controller and its virtual machines.
+     * 
+     * @param parentId              The parent node identifier
+     * @param localController       The local controller
+     * @throws XMLStreamException   The exception
+     */
+    private void writeLocalController(String parentId, LocalControllerDescription localController) 
+        throws XMLStreamException
+    {
+        NodeType nodeType = NodeType.LC;
+        if (LocalControllerStatus.PASSIVE.equals(localController.getStatus()))
+        {
+            nodeType = NodeType.LC_PASSIVE;
+        }
+        
+        String localControllerId = getNodeId(NodeType.LC, localController.getId());
+        writeNode(localControllerId, nodeType, localController.getHostname());
+        writeEdge(parentId, localControllerId);
+        
+        Map<String, VirtualMachineMetaData> virtualMachines = localController.getVirtualMachineMetaData();
+        if (virtualMachines == null)
+        {
+            return;
+        }
+        
+        for (String virtualMachineId : virtualMachines.keySet())
+        {
+            String nodeId = getNodeId(NodeType.VM, virtualMachineId);
+            writeNode(nodeId, NodeType.VM, null);
+            writeEdge(localControllerId, nodeId);
+        }
+    }
+    
+    /**
+     * Writes a key declaration.
+     * 
+     * @param id                    The key identifier
+     * @param name                  The attribute name
+     * @throws XMLStreamException   The exception
+     */
+    private void writeKey(String id, String name) 
+        throws XMLStreamException
+    {
+        writer_.writeEmptyElement("key");
+        writer_.writeAttribute("id", id);
+        writer_.writeAttribute("for", "node");
+        writer_.writeAttribute("attr.name", name);
+        writer_.writeAttribute("attr.type", "string");
+    }
+    
+    /**
+     * Writes a node.
+     * 
+     * @param id                    The node identifier
+     * @param nodeType              The node type
+     * @param hostname              The host name (optional)
+     * @throws XMLStreamException   The exception
+     */
+    private void writeNode(String id, NodeType nodeType, String hostname) 
+        throws XMLStreamException
+    {
+        writer_.writeStartElement("node");
+        writer_.writeAttribute("id", id);
+        writeData(TYPE_KEY, String.valueOf(nodeType));
+        if (hostname != null)
+        {
+            writeData(HOSTNAME_KEY, hostname);
+        }
+        writer_.writeEndElement();
+        
+        numberOfNodes_++;
+        if (numberOfNodes_ % FLUSH_INTERVAL == 0)
+        {
+            writer_.flush();
+        }
+    }
+    
+    /**
+     * Writes a data element.
+     * 
+     * @param key                   The key
+     * @param value                 The value
+     * @throws XMLStreamException   The exception
+     */
+    private void writeData(String key, String value) 
+        throws XMLStreamException
+    {
+        writer_.writeStartElement("data");
+        writer_.writeAttribute("key", key);
+        writer_.writeCharacters(value);
+        writer_.writeEndElement();
+    }
+    
+    /**
+     * Writes an edge.
+     * 
+     * @param source                The source node identifier
+     * @param target                The target node identifier
+     * @throws XMLStreamException   The exception
+     */
+    private void writeEdge(String source, String target) 
+        throws XMLStreamException
+    {
+        writer_.writeEmptyElement("edge");
+        writer_.writeAttribute("source", source);
+        writer_.writeAttribute("target", target);
+    }
+    
+    /**
+     * Returns the node identifier.
+     * 
+     * Passive local controllers share the identifiers of the active ones.
+     * 
+     * @param nodeType  The node type
+     * @param id        The host identifier
+     * @return          The node identifier
+     */
+    static String getNodeId(NodeType nodeType, String id)
+    {
+        NodeType prefix = nodeType == NodeType.LC_PASSIVE ? NodeType.LC : nodeType;
+        return prefix + ":" + id;
+    }
+}
@@ -0,0 +1,114 @@
+/**
+ * Copyright (C) 2010-2013 Eugen Feller, INRIA <eugen.feller@inria.fr>
+ *
+ * This file is part of Snooze, a scalable, autonomic, and
+ * energy-aware virtual machine (VM) management framework.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package org.inria.myriads.snoozeclient.systemtree.watch;
+
+import org.inria.myriads.snoozeclient.systemtree.enums.ChangeType;
+import org.inria.myriads.snoozecommon.guard.Guard;
+
+/**
+ * Change between two hierarchy snapshots.
+ * 
+ * @author Eugen Feller
+ */
+public final class HierarchyChange 
+{
+    /** Placeholder of a missing value. */
+    private static final String NONE = "-";
+    
+    /** Change type. */
+    private ChangeType type_;
+    
+    /** Node identifier. */
+    private String id_;
+    
+    /** Previous value (parent or status). */
+    private String from_;
+    
+    /** New value (parent or status). */
+    private String to_;
+    
+    /**
+     * Constructor.
+     * 
+     * @param type      The change type
+     * @param id        The node identifier
+     * @param from      The previous value (optional)
+     * @param to        The new value (optional)
+     */
+    public HierarchyChange(ChangeType type, String id, String from, String to) 
+    {
+        Guard.check(type, id);
+        type_ = type;
+        id_ = id;
+        from_ = from;
+        to_ = to;
+    }
+
+    /**
+     * Returns the change type.
+     * 
+     * @return  The change type
+     */
+    public ChangeType getType() 
+    {
+        return type_;
+    }
+
+    /**
+     * Returns the node identifier.
+     * 
+     * @return  The node identifier
+     */
+    public String getId() 
+    {
+        return id_;
+    }
+
+    /**
+     * Returns the previous value.
+     * 
+     * @return  The previous value, null if none
+     */
+    public String getFrom() 
+    {
+        return from_;
+    }
+
+    /**
+     * Returns the new value.
+     * 
+     * @return  The new value, null if none
+     */
+    public String getTo() 
+    {
+        return to_;
+    }
+    
+    /**
+     * Returns the change as a tab separated line (type, id, from, to).
+     * 
+     * @return  The line
+     */
+    @Override
+    public String toString()
+    {
+        return type_ + "\t" + id_ + "\t" + (from_ == null ? NONE : from_) + "\t" + (to_ == null ? NONE : to_);
+    }
+}
@@ -0,0 +1,228 @@
+/**
+ * Copyright (C) 2010-2013 Eugen Feller, INRIA <eugen.feller@inria.fr>
+ *
+ * This file is part of Snooze, a scalable, autonomic, and
+ * energy-aware virtual machine (VM) management framework.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package org.inria.myriads.snoozeclient.systemtree.watch;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.inria.myriads.snoozeclient.systemtree.enums.ChangeType;
+import org.inria.myriads.snoozecommon.communication.groupmanager.GroupManagerDescription;
+import org.inria.myriads.snoozecommon.communication.groupmanager.repository.GroupLeaderRepositoryInformation;
+import org.inria.myriads.snoozecommon.communication.localcontroller.LocalControllerDescription;
+import org.inria.myriads.snoozecommon.guard.Guard;
+
+/**
+ * Compact snapshot of the hierarchy structure.
+ * 
+ * Only the parent of every node and the local controller status are kept, which is enough
+ * to compute the changes between two polls without holding the full descriptions.
+ * 
+ * @author Eugen Feller
+ */
+public final class HierarchySnapshot 
+{
+    /** Group manager identifiers. */
+    private Set<String> groupManagers_;
+    
+    /** Group manager by local controller identifier. */
+    private Map<String, String> localControllers_;
+    
+    /** Status by local controller identifier. */
+    private Map<String, String> localControllerStatus_;
+    
+    /** Local controller by virtual machine identifier. */
+    private Map<String, String> virtualMachines_;
+    
+    /**
+     * Constructor (empty snapshot).
+     */
+    public HierarchySnapshot() 
+    {
+        groupManagers_ = new HashSet<String>();
+        localControllers_ = new HashMap<String, String>();
+        localControllerStatus_ = new HashMap<String, String>();
+        virtualMachines_ = new HashMap<String, String>();
+    }
+    
+    /**
+     * Creates a snapshot of a hierarchy.
+     * 
+     * @param hierarchy     The hierarchy
+     * @return              The snapshot
+     */
+    public static HierarchySnapshot fromHierarchy(GroupLeaderRepositoryInformation hierarchy)
+    {
+        Guard.check(hierarchy);
+        HierarchySnapshot snapshot = new HierarchySnapshot();
+        List<GroupManagerDescription> groupManagers = hierarchy.getGroupManagerDescriptions();
+        if (groupManagers == null)
+        {
+            return snapshot;
+        }
+        
+        for (GroupManagerDescription groupManager : groupManagers)
+        {
+            String groupManagerId = groupManager.getId();
+            snapshot.groupManagers_.add(groupManagerId);
+            Map<String, LocalControllerDescription> localControllers = groupManager.getLocalControllers();
+            if (localControllers == null)
+            {
+                continue;
+            }
+            
+            for (LocalControllerDescription localController : localControllers.values())
+            {
+                String localControllerId = localController.getId();
+                snapshot.localControllers_.put(localControllerId, groupManagerId);
+                snapshot.localControllerStatus_.put(localControllerId, String.valueOf(localController.getStatus()));
+                if (localController.getVirtualMachineMetaData() == null)
+                {
+                    continue;
+                }
+                
+                for (String virtualMachineId : localController.getVirtualMachineMetaData().keySet())
+                {
+                    snapshot.virtualMachines_.put(virtualMachineId, localControllerId);
+                }
+            }
+        }
+        
+        return snapshot;
+    }
+    
+    /**
+     * Computes the changes from a previous snapshot to this one.
+     * 
+     * Changes are ordered top-down: group managers, local controllers, virtual machines.
+     * 
+     * @param previous      The previous snapshot
+     * @return              The changes
+     */
+    public List<HierarchyChange> diff(HierarchySnapshot previous)
+    {
+        Guard.check(previous);
+        List<HierarchyChange> changes = new ArrayList<HierarchyChange>();
+        for (String groupManagerId : groupManagers_)
+        {
+            if (!previous.groupManagers_.contains(groupManagerId))
+            {
+                changes.add(new HierarchyChange(ChangeType.GM_ADDED, groupManagerId, null, null));
+            }
+        }
+        
+        for (String groupManagerId : previous.groupManagers_)
+        {
+            if (!groupManagers_.contains(groupManagerId))
+            {
+                changes.add(new HierarchyChange(ChangeType.GM_REMOVED, groupManagerId, null, null));
+            }
+        }
+        
+        diffParents(previous.localControllers_, localControllers_, 
+                    ChangeType.LC_ADDED, ChangeType.LC_REMOVED, ChangeType.LC_MOVED, changes);
+        for (Map.Entry<String, String> entry : localControllerStatus_.entrySet())
+        {
+            String localControllerId = entry.getKey();
+            String previousStatus = previous.localControllerStatus_.get(localControllerId);
+            if (previousStatus != null && !previousStatus.equals(entry.getValue()))
+            {
+                changes.add(new HierarchyChange(ChangeType.LC_STATUS, localControllerId, 
+                                                previousStatus, entry.getValue()));
+            }
+        }
+        
+        diffParents(previous.virtualMachines_, virtualMachines_, 
+                    ChangeType.VM_ADDED, ChangeType.VM_REMOVED, ChangeType.VM_MIGRATED, changes);
+        return changes;
+    }
+    
+    /**
+     * Returns the number of group managers.
+     * 
+     * @return  The number of group managers
+     */
+    public int getNumberOfGroupManagers()
+    {
+        return groupManagers_.size();
+    }
+    
+    /**
+     * Returns the number of local controllers.
+     * 
+     * @return  The number of local controllers
+     */
+    public int getNumberOfLocalControllers()
+    {
+        return localControllers_.size();
+    }
+    
+    /**
+     * Returns the number of virtual machines.
+     * 
+     * @return  The number of virtual machines
+     */
+    public int getNumberOfVirtualMachines()
+    {
+        return virtualMachines_.size();
+    }
+    
+    /**
+     * Computes the changes of a node to parent mapping.
+     * 
+     * @param previous      The previous mapping
+     * @param current       The current mapping
+     * @param added         The type of added nodes
+     * @param removed       The type of removed nodes
+     * @param moved         The type of nodes with a new parent
+     * @param changes       The changes to append to
+     */
+    private static void diffParents(Map<String, String> previous, 
+                                    Map<String, String> current,
+                                    ChangeType added,
+                                    ChangeType removed,
+                                    ChangeType moved,
+                                    List<HierarchyChange> changes)
+    {
+        for (Map.Entry<String, String> entry : current.entrySet())
+        {
+            String id = entry.getKey();
+            String previousParent = previous.get(id);
+            if (previousParent == null)
+            {
+                changes.add(new HierarchyChange(added, id, null, entry.getValue()));
+            } else if (!previousParent.equals(entry.getValue()))
+            {
+                changes.add(new HierarchyChange(moved, id, previousParent, entry.getValue()));
+            }
+        }
+        
+        for (Map.Entry<String, String> entry : previous.entrySet())
+        {
+            if (!current.containsKey(entry.getKey()))
+            {
+                changes.add(new HierarchyChange(removed, entry.getKey(), entry.getValue(), null));
+            }
+        }
+    }
+}
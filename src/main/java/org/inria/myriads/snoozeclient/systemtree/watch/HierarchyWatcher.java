@@ -0,0 +1,169 @@
+/**
+ * Copyright (C) 2010-2013 Eugen Feller, INRIA <eugen.feller@inria.fr>
+ *
+ * This file is part of Snooze, a scalable, autonomic, and
+ * energy-aware virtual machine (VM) management framework.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package org.inria.myriads.snoozeclient.systemtree.watch;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+import org.inria.myriads.snoozeclient.util.BootstrapUtilis;
+import org.inria.myriads.snoozecommon.communication.NetworkAddress;
+import org.inria.myriads.snoozecommon.communication.groupmanager.repository.GroupLeaderRepositoryInformation;
+import org.inria.myriads.snoozecommon.guard.Guard;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Hierarchy watcher.
+ * 
+ * Polls the hierarchy and appends the changes since the previous poll to an event log,
+ * one line per change: time (ms since epoch), type, node identifier, previous and new value
+ * (parent or status, - if none). The first poll of a session is diffed against an empty
+ * snapshot and thus records the whole hierarchy once.
+ * 
+ * @author Eugen Feller
+ */
+public final class HierarchyWatcher 
+{
+    /** Define the logger. */
+    private static final Logger log_ = LoggerFactory.getLogger(HierarchyWatcher.class);
+    
+    /** Bootstrap nodes. */
+    private List<NetworkAddress> bootstrapNodes_;
+    
+    /** Polling interval (ms). */
+    private long pollingInterval_;
+    
+    /** Last snapshot. */
+    private HierarchySnapshot snapshot_;
+    
+    /**
+     * Constructor.
+     * 
+     * @param bootstrapNodes        The bootstrap nodes
+     * @param pollingInterval       The polling interval (ms)
+     */
+    public HierarchyWatcher(List<NetworkAddress> bootstrapNodes, long pollingInterval) 
+    {
+        Guard.check(bootstrapNodes);
+        bootstrapNodes_ = bootstrapNodes;
+        pollingInterval_ = Math.max(1, pollingInterval);
+        snapshot_ = new HierarchySnapshot();
+    }
+    
+    /**
+     * Watches the hierarchy and appends the changes to a file.
+     * 
+     * Returns when the number of polls is reached or the thread is interrupted.
+     * 
+     * @param fileName          The event log file
+     * @param numberOfPolls     The number of polls (0 = unlimited)
+     * @return                  The number of recorded changes
+     * @throws IOException      The exception
+     */
+    public long watch(String fileName, int numberOfPolls) 
+        throws IOException
+    {
+        Guard.check(fileName);
+        log_.info(String.format("Watching the hierarchy every %d ms, changes are appended to %s", 
+                                pollingInterval_, fileName));
+        
+        long numberOfChanges = 0;
+        Writer writer = new BufferedWriter(new FileWriter(fileName, true));
+        try
+        {
+            int poll = 0;
+            while (true)
+            {
+                numberOfChanges += poll(writer);
+                poll++;
+                if (numberOfPolls > 0 && poll >= numberOfPolls)
+                {
+                    break;
+                }
+                
+                try
+                {
+                    Thread.sleep(pollingInterval_);
+                }
+                catch (InterruptedException exception)
+                {
+                    log_.debug("Hierarchy watch interrupted");
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        finally
+        {
+            writer.close();
+        }
+        
+        log_.info(String.format("Recorded %d changes", numberOfChanges));
+        return numberOfChanges;
+    }
+    
+    /**
+     * Polls the hierarchy once and writes the changes.
+     * 
+     * A failed poll is skipped, the next one is diffed against the last successful snapshot.
+     * 
+     * @param writer        The event log writer
+     * @return              The number of changes
+     * @throws IOException  The exception
+     */
+    public int poll(Writer writer) 
+        throws IOException
+    {
+        Guard.check(writer);
+        GroupLeaderRepositoryInformation hierarchy;
+        try
+        {
+            hierarchy = BootstrapUtilis.getCompleteHierarchy(bootstrapNodes_);
+        }
+        catch (Exception exception)
+        {
+            log_.warn(String.format("Unable to get the hierarchy: %s", exception.getMessage()));
+            return 0;
+        }
+        
+        HierarchySnapshot snapshot = HierarchySnapshot.fromHierarchy(hierarchy);
+        List<HierarchyChange> changes = snapshot.diff(snapshot_);
+        String timestamp = String.valueOf(System.currentTimeMillis());
+        for (HierarchyChange change : changes)
+        {
+            writer.write(timestamp);
+            writer.write('\t');
+            writer.write(change.toString());
+            writer.write('\n');
+        }
+        writer.flush();
+        
+        snapshot_ = snapshot;
+        log_.debug(String.format("%d changes (%d GMs, %d LCs, %d VMs)", 
+                                 changes.size(), 
+                                 snapshot.getNumberOfGroupManagers(),
+                                 snapshot.getNumberOfLocalControllers(),
+                                 snapshot.getNumberOfVirtualMachines()));
+        return changes.size();
+    }
+}
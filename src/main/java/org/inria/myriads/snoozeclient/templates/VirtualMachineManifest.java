@@ -0,0 +1,289 @@
+/**
+ * Copyright (C) 2010-2013 Eugen Feller, INRIA <eugen.feller@inria.fr>
+ *
+ * This file is part of Snooze, a scalable, autonomic, and
+ * energy-aware virtual machine (VM) management framework.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package org.inria.myriads.snoozeclient.templates;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.codehaus.jackson.map.ObjectMapper;
+import org.codehaus.jackson.type.TypeReference;
+import org.inria.myriads.snoozeclient.exception.ManifestParserException;
+import org.inria.myriads.snoozecommon.communication.virtualcluster.monitoring.NetworkDemand;
+import org.inria.myriads.snoozecommon.communication.virtualcluster.submission.VirtualMachineTemplate;
+import org.inria.myriads.snoozecommon.guard.Guard;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Virtual machine manifest utilities.
+ * 
+ * A manifest lists virtual machines to add, either as CSV with a header line or as
+ * JSON array of objects. The columns (keys) are name, template, image, vcpus, memory, 
+ * hostId, rx and tx, missing values are taken from the command line.
+ * 
+ * @author Eugen Feller
+ */
+public final class VirtualMachineManifest 
+{
+    /** Define the logger. */
+    private static final Logger log_ = LoggerFactory.getLogger(VirtualMachineManifest.class);
+    
+    /** JSON manifest extension. */
+    private static final String JSON_EXTENSION = ".json";
+    
+    /** CSV separator. */
+    private static final String CSV_SEPARATOR = ",";
+    
+    /** Comment prefix. */
+    private static final String COMMENT_PREFIX = "#";
+    
+    /** Hide constructor. */
+    private VirtualMachineManifest()
+    {
+        throw new UnsupportedOperationException();
+    }
+    
+    /**
+     * Reads the virtual machines of a manifest file.
+     * 
+     * @param fileName                      The manifest file name (.json or CSV)
+     * @param defaults                      The default values
+     * @return                              The virtual machine templates
+     * @throws IOException                  The I/O exception
+     * @throws ManifestParserException      The manifest parser exception
+     */
+    public static List<VirtualMachineTemplate> readManifest(String fileName, VirtualMachineTemplate defaults) 
+        throws IOException, ManifestParserException
+    {
+        Guard.check(fileName, defaults);
+        log_.debug(String.format("Reading the manifest %s", fileName));
+        
+        List<Map<String, String>> entries;
+        if (fileName.toLowerCase().endsWith(JSON_EXTENSION))
+        {
+            entries = readJsonEntries(fileName);
+        } else
+        {
+            entries = readCsvEntries(fileName);
+        }
+        
+        List<VirtualMachineTemplate> templates = new ArrayList<VirtualMachineTemplate>(entries.size());
+        for (int i = 0; i < entries.size(); i++)
+        {
+            templates.add(createTemplate(entries.get(i), defaults, i + 1));
+        }
+        
+        return templates;
+    }
+    
+    /**
+     * Generates virtual machines named after a pattern.
+     * 
+     * @param namePattern                   The name pattern (e.g. web-%03d)
+     * @param numberOfVirtualMachines       The number of virtual machines
+     * @param defaults                      The default values
+     * @return                              The virtual machine templates
+     * @throws ManifestParserException      The manifest parser exception
+     */
+    public static List<VirtualMachineTemplate> generate(String namePattern, 
+                                                        int numberOfVirtualMachines,
+                                                        VirtualMachineTemplate defaults) 
+        throws ManifestParserException
+    {
+        Guard.check(namePattern, defaults);
+        List<VirtualMachineTemplate> templates = new ArrayList<VirtualMachineTemplate>(numberOfVirtualMachines);
+        for (int i = 1; i <= numberOfVirtualMachines; i++)
+        {
+            Map<String, String> entry = new HashMap<String, String>();
+            try
+            {
+                entry.put("name", String.format(namePattern, i));
+            }
+            catch (IllegalArgumentException exception)
+            {
+                throw new ManifestParserException(String.format("Invalid name pattern %s: %s", 
+                                                                namePattern, exception.getMessage()));
+            }
+            
+            templates.add(createTemplate(entry, defaults, i));
+        }
+        
+        return templates;
+    }
+    
+    /**
+     * Reads the entries of a CSV manifest.
+     * 
+     * @param fileName                      The file name
+     * @return                              The entries
+     * @throws IOException                  The I/O exception
+     * @throws ManifestParserException      The manifest parser exception
+     */
+    private static List<Map<String, String>> readCsvEntries(String fileName) 
+        throws IOException, ManifestParserException
+    {
+        List<Map<String, String>> entries = new ArrayList<Map<String, String>>();
+        BufferedReader reader = new BufferedReader(new FileReader(fileName));
+        try
+        {
+            String[] columns = null;
+            int lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null)
+            {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith(COMMENT_PREFIX))
+                {
+                    continue;
+                }
+                
+                String[] values = line.split(CSV_SEPARATOR, -1);
+                if (columns == null)
+                {
+                    columns = values;
+                    continue;
+                }
+                
+                if (values.length != columns.length)
+                {
+                    throw new ManifestParserException(String.format("Line %d: expected %d values but found %d", 
+                                                                    lineNumber, columns.length, values.length));
+                }
+                
+                Map<String, String> entry = new HashMap<String, String>();
+                for (int i = 0; i < columns.length; i++)
+                {
+                    entry.put(columns[i].trim(), values[i].trim());
+                }
+                entries.add(entry);
+            }
+        }
+        finally
+        {
+            reader.close();
+        }
+        
+        return entries;
+    }
+    
+    /**
+     * Reads the entries of a JSON manifest.
+     * 
+     * @param fileName                      The file name
+     * @return                              The entries
+     * @throws IOException                  The I/O exception
+     */
+    private static List<Map<String, String>> readJsonEntries(String fileName) 
+        throws IOException
+    {
+        ObjectMapper mapper = new ObjectMapper();
+        List<Map<String, Object>> objects = 
+            mapper.readValue(new File(fileName), new TypeReference<List<Map<String, Object>>>() { });
+        
+        List<Map<String, String>> entries = new ArrayList<Map<String, String>>(objects.size());
+        for (Map<String, Object> object : objects)
+        {
+            Map<String, String> entry = new HashMap<String, String>();
+            for (Map.Entry<String, Object> value : object.entrySet())
+            {
+                if (value.getValue() != null)
+                {
+                    entry.put(value.getKey(), String.valueOf(value.getValue()));
+                }
+            }
+            entries.add(entry);
+        }
+        
+        return entries;
+    }
+    
+    /**
+     * Creates the template of a manifest entry.
+     * 
+     * @param entry                         The entry
+     * @param defaults                      The default values
+     * @param index                         The entry index (for error reporting)
+     * @return                              The template
+     * @throws ManifestParserException      The manifest parser exception
+     */
+    private static VirtualMachineTemplate createTemplate(Map<String, String> entry, 
+                                                         VirtualMachineTemplate defaults,
+                                                         int index)
+        throws ManifestParserException
+    {
+        VirtualMachineTemplate template = new VirtualMachineTemplate();
+        template.setLibVirtTemplate(getValue(entry, "template", defaults.getLibVirtTemplate()));
+        template.setImageId(getValue(entry, "image", defaults.getImageId()));
+        template.setName(getValue(entry, "name", null));
+        template.setHostId(getValue(entry, "hostId", defaults.getHostId()));
+        if (template.getName() == null && template.getLibVirtTemplate() == null)
+        {
+            throw new ManifestParserException(String.format("Entry %d: a name or template is required", index));
+        }
+        
+        if (template.getLibVirtTemplate() == null && template.getImageId() == null)
+        {
+            throw new ManifestParserException(String.format("Entry %d: a template or image is required", index));
+        }
+        
+        NetworkDemand defaultDemand = defaults.getNetworkCapacityDemand();
+        try
+        {
+            template.setVcpus(Integer.parseInt(getValue(entry, "vcpus", String.valueOf(defaults.getVcpus()))));
+            template.setMemory(Long.parseLong(getValue(entry, "memory", String.valueOf(defaults.getMemory()))));
+            double rx = Double.parseDouble(getValue(entry, "rx", String.valueOf(defaultDemand.getRxBytes())));
+            double tx = Double.parseDouble(getValue(entry, "tx", String.valueOf(defaultDemand.getTxBytes())));
+            template.setNetworkCapacityDemand(new NetworkDemand(rx, tx));
+        }
+        catch (NumberFormatException exception)
+        {
+            throw new ManifestParserException(String.format("Entry %d: invalid number %s", 
+                                                            index, exception.getMessage()));
+        }
+        
+        return template;
+    }
+    
+    /**
+     * Returns a value of an entry.
+     * 
+     * @param entry             The entry
+     * @param key               The key
+     * @param defaultValue      The default value
+     * @return                  The value, the default if missing or empty
+     */
+    private static String getValue(Map<String, String> entry, String key, String defaultValue)
+    {
+        String value = entry.get(key);
+        if (value == null || value.isEmpty())
+        {
+            return defaultValue;
+        }
+        
+        return value;
+    }
+}
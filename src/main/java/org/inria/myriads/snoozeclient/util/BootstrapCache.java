@@ -0,0 +1,336 @@
+/**
+ * Copyright (C) 2010-2013 Eugen Feller, INRIA <eugen.feller@inria.fr>
+ *
+ * This file is part of Snooze, a scalable, autonomic, and
+ * energy-aware virtual machine (VM) management framework.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package org.inria.myriads.snoozeclient.util;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.Properties;
+
+import org.inria.myriads.snoozecommon.communication.NetworkAddress;
+import org.inria.myriads.snoozecommon.guard.Guard;
+import org.inria.myriads.snoozecommon.util.NetworkUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * On-disk cache of the last known active bootstrap node and group leader.
+ * 
+ * Entries older than the time to live are ignored. The cache is loaded on first access
+ * and written back on every update. It also keeps the number of consecutive failed 
+ * probes of each bootstrap node.
+ * 
+ * @author Eugen Feller
+ */
+public final class BootstrapCache 
+{
+    /** Define the logger. */
+    private static final Logger log_ = LoggerFactory.getLogger(BootstrapCache.class);
+    
+    /** Bootstrap entry. */
+    private static final String BOOTSTRAP_ENTRY = "bootstrap";
+    
+    /** Group leader entry. */
+    private static final String GROUP_LEADER_ENTRY = "groupLeader";
+    
+    /** Health entry prefix. */
+    private static final String HEALTH_ENTRY = "health.";
+    
+    /** Cache file name. */
+    private String fileName_;
+    
+    /** Time to live (ms). */
+    private long timeToLive_;
+    
+    /** Cache content. */
+    private Properties properties_;
+    
+    /**
+     * Constructor.
+     * 
+     * @param fileName      The cache file name
+     * @param timeToLive    The time to live (ms)
+     */
+    public BootstrapCache(String fileName, long timeToLive) 
+    {
+        Guard.check(fileName);
+        fileName_ = fileName;
+        timeToLive_ = timeToLive;
+    }
+    
+    /**
+     * Returns the cached bootstrap address.
+     * 
+     * @return  The bootstrap address, null if missing or expired
+     */
+    public synchronized NetworkAddress getBootstrapAddress()
+    {
+        return getAddress(BOOTSTRAP_ENTRY);
+    }
+    
+    /**
+     * Returns the cached group leader address.
+     * 
+     * @return  The group leader address, null if missing or expired
+     */
+    public synchronized NetworkAddress getGroupLeaderAddress()
+    {
+        return getAddress(GROUP_LEADER_ENTRY);
+    }
+    
+    /**
+     * Caches the bootstrap address.
+     * 
+     * @param bootstrapAddress      The bootstrap address
+     */
+    public synchronized void setBootstrapAddress(NetworkAddress bootstrapAddress)
+    {
+        setAddress(BOOTSTRAP_ENTRY, bootstrapAddress);
+    }
+    
+    /**
+     * Caches the group leader address.
+     * 
+     * @param groupLeaderAddress    The group leader address
+     */
+    public synchronized void setGroupLeaderAddress(NetworkAddress groupLeaderAddress)
+    {
+        setAddress(GROUP_LEADER_ENTRY, groupLeaderAddress);
+    }
+    
+    /**
+     * Drops the cached bootstrap and group leader addresses.
+     * 
+     * The health of the bootstrap nodes is kept.
+     */
+    public synchronized void invalidate()
+    {
+        log_.debug("Invalidating the bootstrap cache");
+        Properties properties = getProperties();
+        for (String entry : new String[] {BOOTSTRAP_ENTRY, GROUP_LEADER_ENTRY})
+        {
+            properties.remove(entry + ".address");
+            properties.remove(entry + ".port");
+            properties.remove(entry + ".timeStamp");
+        }
+        
+        store();
+    }
+    
+    /**
+     * Returns the number of consecutive failed probes of a bootstrap node.
+     * 
+     * @param bootstrapAddress      The bootstrap address
+     * @return                      The number of failures
+     */
+    public synchronized int getFailureCount(NetworkAddress bootstrapAddress)
+    {
+        Guard.check(bootstrapAddress);
+        String failures = getProperties().getProperty(getHealthEntry(bootstrapAddress));
+        if (failures == null)
+        {
+            return 0;
+        }
+        
+        try
+        {
+            return Integer.valueOf(failures);
+        }
+        catch (NumberFormatException exception)
+        {
+            return 0;
+        }
+    }
+    
+    /**
+     * Records the probe results of bootstrap nodes.
+     * 
+     * @param results   The probe results (true if active)
+     */
+    public synchronized void recordProbeResults(Map<NetworkAddress, Boolean> results)
+    {
+        Guard.check(results);
+        if (results.isEmpty())
+        {
+            return;
+        }
+        
+        Properties properties = getProperties();
+        for (Map.Entry<NetworkAddress, Boolean> result : results.entrySet())
+        {
+            String entry = getHealthEntry(result.getKey());
+            if (result.getValue())
+            {
+                properties.remove(entry);
+            } else
+            {
+                properties.setProperty(entry, String.valueOf(getFailureCount(result.getKey()) + 1));
+            }
+        }
+        
+        store();
+    }
+    
+    /**
+     * Returns the health entry name of a bootstrap node.
+     * 
+     * @param bootstrapAddress      The bootstrap address
+     * @return                      The entry name
+     */
+    private static String getHealthEntry(NetworkAddress bootstrapAddress)
+    {
+        return HEALTH_ENTRY + bootstrapAddress.getAddress() + ":" + bootstrapAddress.getPort();
+    }
+    
+    /**
+     * Returns a cached address.
+     * 
+     * @param entry     The entry name
+     * @return          The address, null if missing or expired
+     */
+    private NetworkAddress getAddress(String entry)
+    {
+        Properties properties = getProperties();
+        String address = properties.getProperty(entry + ".address");
+        String port = properties.getProperty(entry + ".port");
+        String timeStamp = properties.getProperty(entry + ".timeStamp");
+        if (address == null || port == null || timeStamp == null)
+        {
+            return null;
+        }
+        
+        try
+        {
+            if (System.currentTimeMillis() - Long.valueOf(timeStamp) > timeToLive_)
+            {
+                log_.debug(String.format("Cached %s address expired", entry));
+                return null;
+            }
+            
+            return NetworkUtils.createNetworkAddress(address, Integer.valueOf(port));
+        }
+        catch (NumberFormatException exception)
+        {
+            log_.debug(String.format("Invalid %s entry in bootstrap cache: %s", entry, exception.getMessage()));
+            return null;
+        }
+    }
+    
+    /**
+     * Caches an address.
+     * 
+     * @param entry             The entry name
+     * @param networkAddress    The address
+     */
+    private void setAddress(String entry, NetworkAddress networkAddress)
+    {
+        Guard.check(networkAddress);
+        Properties properties = getProperties();
+        properties.setProperty(entry + ".address", networkAddress.getAddress());
+        properties.setProperty(entry + ".port", String.valueOf(networkAddress.getPort()));
+        properties.setProperty(entry + ".timeStamp", String.valueOf(System.currentTimeMillis()));
+        store();
+    }
+    
+    /**
+     * Returns the cache content, loads it if required.
+     * 
+     * @return  The cache content
+     */
+    private Properties getProperties()
+    {
+        if (properties_ != null)
+        {
+            return properties_;
+        }
+        
+        properties_ = new Properties();
+        File file = new File(fileName_);
+        if (!file.exists())
+        {
+            return properties_;
+        }
+        
+        InputStream input = null;
+        try
+        {
+            input = new FileInputStream(file);
+            properties_.load(input);
+        }
+        catch (IOException exception)
+        {
+            log_.debug(String.format("Unable to load the bootstrap cache: %s", exception.getMessage()));
+        }
+        finally
+        {
+            close(input);
+        }
+        
+        return properties_;
+    }
+    
+    /**
+     * Writes the cache content.
+     */
+    private void store()
+    {
+        OutputStream output = null;
+        try
+        {
+            output = new FileOutputStream(fileName_);
+            properties_.store(output, "Snooze client bootstrap cache");
+        }
+        catch (IOException exception)
+        {
+            log_.debug(String.format("Unable to write the bootstrap cache: %s", exception.getMessage()));
+        }
+        finally
+        {
+            close(output);
+        }
+    }
+    
+    /**
+     * Closes a stream.
+     * 
+     * @param stream    The stream
+     */
+    private static void close(Closeable stream)
+    {
+        if (stream == null)
+        {
+            return;
+        }
+        
+        try
+        {
+            stream.close();
+        }
+        catch (IOException exception)
+        {
+            log_.debug(String.format("Unable to close the stream: %s", exception.getMessage()));
+        }
+    }
+}
@@ -23,14 +23,25 @@ import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.net.Socket;
 import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
+import org.inria.myriads.snoozeclient.communication.CommunicatorCache;
 import org.inria.myriads.snoozeclient.exception.BootstrapUtilityException;
 import org.inria.myriads.snoozecommon.communication.NetworkAddress;
 import org.inria.myriads.snoozecommon.communication.groupmanager.GroupManagerDescription;
 import org.inria.myriads.snoozecommon.communication.groupmanager.repository.GroupLeaderRepositoryInformation;
 import org.inria.myriads.snoozecommon.communication.localcontroller.LocalControllerList;
-import org.inria.myriads.snoozecommon.communication.rest.CommunicatorFactory;
 import org.inria.myriads.snoozecommon.communication.rest.api.BootstrapAPI;
 import org.inria.myriads.snoozecommon.guard.Guard;
 import org.slf4j.Logger;
@@ -46,6 +57,15 @@ public final class BootstrapUtilis
     /** Define the logger. */
     private static final Logger log_ = LoggerFactory.getLogger(BootstrapUtilis.class);
     
+    /** Default connect timeout (ms). */
+    private static final int DEFAULT_CONNECT_TIMEOUT = 1000;
+    
+    /** Bootstrap cache (null if disabled). */
+    private static BootstrapCache cache_;
+    
+    /** Connect timeout (ms). */
+    private static int connectTimeout_ = DEFAULT_CONNECT_TIMEOUT;
+    
     /**
      * Hide the constructor.
      */
@@ -54,6 +74,37 @@ public final class BootstrapUtilis
         throw new UnsupportedOperationException();
     }
     
+    /**
+     * Sets the bootstrap cache.
+     * 
+     * @param cache     The bootstrap cache, null to disable caching
+     */
+    public static void setCache(BootstrapCache cache)
+    {
+        cache_ = cache;
+    }
+    
+    /**
+     * Sets the timeout used to probe the bootstrap nodes.
+     * 
+     * @param connectTimeout    The connect timeout (ms)
+     */
+    public static void setConnectTimeout(int connectTimeout)
+    {
+        connectTimeout_ = connectTimeout > 0 ? connectTimeout : DEFAULT_CONNECT_TIMEOUT;
+    }
+    
+    /**
+     * Invalidates the bootstrap cache (if enabled).
+     */
+    public static void invalidateCache()
+    {
+        if (cache_ != null)
+        {
+            cache_.invalidate();
+        }
+    }
+    
     /**
      * Checks if the remote host is active.
      * 
@@ -73,7 +124,7 @@ public final class BootstrapUtilis
             socket = new Socket();
             socket.setReuseAddress(true);
             SocketAddress socketAddress = new InetSocketAddress(host, Integer.valueOf(port));
-            socket.connect(socketAddress, Integer.valueOf(port));          
+            socket.connect(socketAddress, connectTimeout_);          
             return true;
         } 
         catch (IOException exception) 
@@ -109,19 +160,184 @@ public final class BootstrapUtilis
         Guard.check(bootstrapAddresses);   
         log_.debug("Starting the bootstrap communicator");
         
-        for (int i = 0; i < bootstrapAddresses.size(); i++)
-        {            
-            NetworkAddress bootstrapAddress = bootstrapAddresses.get(i);
-            if (isHostActive(bootstrapAddress))
+        NetworkAddress cachedAddress = getCachedBootstrapAddress(bootstrapAddresses);
+        if (cachedAddress != null)
+        {
+            log_.debug("Using cached bootstrap node");
+            return CommunicatorCache.getBootstrapCommunicator(cachedAddress);
+        }
+        
+        NetworkAddress bootstrapAddress = findActiveBootstrapNode(bootstrapAddresses);
+        if (bootstrapAddress == null)
+        {
+            return null;
+        }
+        
+        log_.debug("Online bootstrap node found");
+        if (cache_ != null)
+        {
+            cache_.setBootstrapAddress(bootstrapAddress);
+        }
+        
+        return CommunicatorCache.getBootstrapCommunicator(bootstrapAddress);
+    }
+    
+    /**
+     * Finds an active bootstrap node.
+     * 
+     * Nodes which failed their last probes are only probed if none of the other nodes is active.
+     * 
+     * @param bootstrapAddresses    The bootstrap addresses
+     * @return                      The active bootstrap address, null if none
+     */
+    private static NetworkAddress findActiveBootstrapNode(List<NetworkAddress> bootstrapAddresses)
+    {
+        List<NetworkAddress> healthyNodes = new ArrayList<NetworkAddress>();
+        List<NetworkAddress> failedNodes = new ArrayList<NetworkAddress>();
+        for (NetworkAddress bootstrapAddress : bootstrapAddresses)
+        {
+            if (cache_ != null && cache_.getFailureCount(bootstrapAddress) > 0)
             {
-                log_.debug("Online bootstrap node found");
-                return CommunicatorFactory.newBootstrapCommunicator(bootstrapAddress);
+                failedNodes.add(bootstrapAddress);
+            } else
+            {
+                healthyNodes.add(bootstrapAddress);
+            }
+        }
+        
+        NetworkAddress bootstrapAddress = probeBootstrapNodes(healthyNodes);
+        if (bootstrapAddress == null && !failedNodes.isEmpty())
+        {
+            log_.debug(String.format("Probing %d previously failed bootstrap nodes", failedNodes.size()));
+            bootstrapAddress = probeBootstrapNodes(failedNodes);
+        }
+        
+        return bootstrapAddress;
+    }
+    
+    /**
+     * Probes the bootstrap nodes in parallel, the first active node wins.
+     * 
+     * @param bootstrapAddresses    The bootstrap addresses
+     * @return                      The first active bootstrap address, null if none
+     */
+    private static NetworkAddress probeBootstrapNodes(List<NetworkAddress> bootstrapAddresses)
+    {
+        if (bootstrapAddresses.isEmpty())
+        {
+            return null;
+        }
+        
+        Map<NetworkAddress, Boolean> results = new HashMap<NetworkAddress, Boolean>();
+        ExecutorService executor = Executors.newFixedThreadPool(bootstrapAddresses.size(), new ThreadFactory()
+        {
+            public Thread newThread(Runnable runnable)
+            {
+                Thread thread = new Thread(runnable, "bootstrap-probe");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        
+        try
+        {
+            CompletionService<Boolean> completionService = new ExecutorCompletionService<Boolean>(executor);
+            Map<Future<Boolean>, NetworkAddress> probes = new HashMap<Future<Boolean>, NetworkAddress>();
+            for (final NetworkAddress bootstrapAddress : bootstrapAddresses)
+            {
+                Future<Boolean> probe = completionService.submit(new Callable<Boolean>()
+                {
+                    public Boolean call()
+                    {
+                        return isHostActive(bootstrapAddress);
+                    }
+                });
+                probes.put(probe, bootstrapAddress);
+            }
+            
+            for (int i = 0; i < bootstrapAddresses.size(); i++)
+            {
+                Future<Boolean> probe = completionService.take();
+                NetworkAddress bootstrapAddress = probes.get(probe);
+                boolean isActive = probe.get();
+                results.put(bootstrapAddress, isActive);
+                if (isActive)
+                {
+                    return bootstrapAddress;
+                }
+            }
+        }
+        catch (InterruptedException exception)
+        {
+            log_.debug("Interrupted while probing the bootstrap nodes");
+            Thread.currentThread().interrupt();
+        }
+        catch (ExecutionException exception)
+        {
+            log_.debug(String.format("Bootstrap probe failed: %s", exception.getMessage()));
+        }
+        finally
+        {
+            executor.shutdownNow();
+            if (cache_ != null)
+            {
+                cache_.recordProbeResults(results);
+            }
+        }
+        
+        return null;
+    }
+    
+    /**
+     * Returns the cached bootstrap address if it is still part of the configuration.
+     * 
+     * @param bootstrapAddresses    The bootstrap addresses
+     * @return                      The cached bootstrap address, null if none
+     */
+    private static NetworkAddress getCachedBootstrapAddress(List<NetworkAddress> bootstrapAddresses)
+    {
+        if (cache_ == null)
+        {
+            return null;
+        }
+        
+        NetworkAddress cachedAddress = cache_.getBootstrapAddress();
+        if (cachedAddress == null)
+        {
+            return null;
+        }
+        
+        for (NetworkAddress bootstrapAddress : bootstrapAddresses)
+        {
+            if (bootstrapAddress.getAddress().equals(cachedAddress.getAddress()) && 
+                bootstrapAddress.getPort() == cachedAddress.getPort())
+            {
+                return cachedAddress;
             }
         }
         
         return null;
     }
     
+    /**
+     * Returns an active bootstrap communicator or fails.
+     * 
+     * @param bootstrapAddresses            The bootstrap addresses
+     * @return                              The bootstrap communicator
+     * @throws BootstrapUtilityException    If no bootstrap node is active
+     */
+    private static BootstrapAPI getBootstrapCommunicator(List<NetworkAddress> bootstrapAddresses)
+        throws BootstrapUtilityException
+    {
+        BootstrapAPI bootstrapCommunicator = getActiveBootstrapCommunicator(bootstrapAddresses);
+        if (bootstrapCommunicator == null)
+        {
+            throw new BootstrapUtilityException("Unable to find any active bootstrap node!");
+        }
+        
+        return bootstrapCommunicator;
+    }
+    
     /**
      * Returns current group leader description.
      * 
@@ -135,20 +351,60 @@ public final class BootstrapUtilis
         Guard.check(bootstrapAddresse);
         log_.debug("Getting current group leader description");
         
-        BootstrapAPI bootstrapCommunicator = getActiveBootstrapCommunicator(bootstrapAddresse);
-        if (bootstrapCommunicator == null)
+        GroupManagerDescription groupLeaderDescription;
+        try
         {
-            throw new BootstrapUtilityException("Unable to find any active bootstrap node!");
+            groupLeaderDescription = getBootstrapCommunicator(bootstrapAddresse).getGroupLeaderDescription();
+        }
+        catch (RuntimeException exception)
+        {
+            if (cache_ == null)
+            {
+                throw exception;
+            }
+            
+            log_.debug(String.format("Cached bootstrap node failed: %s", exception.getMessage()));
+            cache_.invalidate();
+            groupLeaderDescription = getBootstrapCommunicator(bootstrapAddresse).getGroupLeaderDescription();
         }
         
-        GroupManagerDescription groupLeaderDescription = bootstrapCommunicator.getGroupLeaderDescription();        
         if (groupLeaderDescription == null)
         {
             throw new BootstrapUtilityException("Group leader description is not available!");
         }
+        
+        if (cache_ != null)
+        {
+            cache_.setGroupLeaderAddress(groupLeaderDescription.getListenSettings().getControlDataAddress());
+        }
         return groupLeaderDescription;
     }
     
+    /**
+     * Returns the current group leader address.
+     * 
+     * The cached address is used if available.
+     * 
+     * @param bootstrapAddresses        The bootstrap addresses
+     * @return                          The current group leader address
+     * @throws BootstrapUtilityException 
+     */
+    public static NetworkAddress getGroupLeaderAddress(List<NetworkAddress> bootstrapAddresses)
+        throws BootstrapUtilityException
+    {
+        if (cache_ != null)
+        {
+            NetworkAddress cachedAddress = cache_.getGroupLeaderAddress();
+            if (cachedAddress != null)
+            {
+                log_.debug("Using cached group leader address");
+                return cachedAddress;
+            }
+        }
+        
+        return getGroupLeaderDescription(bootstrapAddresses).getListenSettings().getControlDataAddress();
+    }
+    
     /**
      * Returns the complete hierarchy.
      * 
@@ -162,13 +418,23 @@ public final class BootstrapUtilis
         Guard.check(bootstrapAddresse);
         log_.debug("Getting current group leader description");
         
-        BootstrapAPI bootstrapCommunicator = getActiveBootstrapCommunicator(bootstrapAddresse);
-        if (bootstrapCommunicator == null)
+        GroupLeaderRepositoryInformation hierarchy;
+        try
         {
-            throw new BootstrapUtilityException("Unable to find any active bootstrap node!");
+            hierarchy = getBootstrapCommunicator(bootstrapAddresse).getCompleteHierarchy();
+        }
+        catch (RuntimeException exception)
+        {
+            if (cache_ == null)
+            {
+                throw exception;
+            }
+            
+            log_.debug(String.format("Cached bootstrap node failed: %s", exception.getMessage()));
+            cache_.invalidate();
+            hierarchy = getBootstrapCommunicator(bootstrapAddresse).getCompleteHierarchy();
         }
         
-        GroupLeaderRepositoryInformation hierarchy = bootstrapCommunicator.getCompleteHierarchy();        
         if (hierarchy == null)
         {
             throw new BootstrapUtilityException("Group leader description is not available!");
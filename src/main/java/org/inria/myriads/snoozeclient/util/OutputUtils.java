@@ -60,14 +60,36 @@ public final class OutputUtils
         log_.debug("--------------------");
         log_.debug(String.format("Bootstrap nodes: %s", generalSettings.getBootstrapNodes()));   
         log_.debug(String.format("Submission polling interval: %s", generalSettings.getSubmissionPollingInterval()));
+        log_.debug(String.format("Submission initial polling interval: %d ms", 
+                                 generalSettings.getSubmissionInitialPollingInterval()));
+        log_.debug(String.format("Submission timeout: %d s", generalSettings.getSubmissionTimeout()));
         log_.debug(String.format("Number of monitoring entries: %d", generalSettings.getNumberOfMonitoringEntries()));
         log_.debug(String.format("Dump output file: %s", generalSettings.getDumpOutputFile()));
+        log_.debug(String.format("Number of command threads: %d", generalSettings.getNumberOfCommandThreads()));
+        log_.debug(String.format("Bootstrap connect timeout: %d ms", generalSettings.getBootstrapConnectTimeout()));
+        log_.debug(String.format("Bootstrap cache TTL: %d s", generalSettings.getBootstrapCacheTimeToLive()));
+        log_.debug(String.format("Repository backend: %s", generalSettings.getRepositoryBackend()));
+        log_.debug(String.format("Optimistic commands: %s", generalSettings.isOptimisticCommands()));
+        log_.debug(String.format("Location verification TTL: %d s", 
+                                 generalSettings.getLocationVerificationTimeToLive()));
+        log_.debug(String.format("Bulk discovery threshold: %d", generalSettings.getBulkDiscoveryThreshold()));
+        log_.debug(String.format("Resolve locations threshold: %d", generalSettings.getResolveLocationsThreshold()));
+        log_.debug(String.format("HTTP keep alive: %s", generalSettings.isHttpKeepAlive()));
+        log_.debug(String.format("HTTP pool size: %d", generalSettings.getHttpPoolSize()));
+        log_.debug(String.format("Call timeout: %d ms", generalSettings.getCallTimeout()));
+        log_.debug(String.format("Connect timeout: %d ms", generalSettings.getConnectTimeout()));
+        log_.debug(String.format("Call retries: %d", generalSettings.getCallRetries()));
+        log_.debug(String.format("Retry backoff: %d ms", generalSettings.getRetryBackoff()));
+        log_.debug(String.format("Retry budget: %d", generalSettings.getRetryBudget()));
         log_.debug("--------------------");
         log_.debug("Statistics settings:");
         log_.debug("--------------------");
         log_.debug(String.format("Statistics enabled: %s", statisticsSettings.isEnabled()));
         log_.debug(String.format("Output format: %s", statisticsSettings.getOutput().getFormat()));
         log_.debug(String.format("Output file: %s", statisticsSettings.getOutput().getFile()));
+        log_.debug(String.format("History enabled: %s", statisticsSettings.isHistoryEnabled()));
+        log_.debug(String.format("History interval: %d s", statisticsSettings.getHistoryInterval()));
+        log_.debug(String.format("History retention: %d days", statisticsSettings.getHistoryRetention()));
         log_.debug("-------------------");
     }
 }
@@ -73,4 +73,37 @@ public final class StorageUtils
         String fileName = Globals.REPOSITORY_STORAGE_DIRECTORY + Globals.REPOSITORT_FILE_NAME;
         return fileName;
     }
+    
+    /**
+     * Returns the binary database directory name.
+     * 
+     * @return  The binary database directory name
+     */
+    public static String getBinaryDatabaseDirectoryName()
+    {
+        String directoryName = Globals.REPOSITORY_STORAGE_DIRECTORY + Globals.BINARY_REPOSITORY_DIRECTORY_NAME;
+        return directoryName;
+    }
+    
+    /**
+     * Returns the bootstrap cache file name.
+     * 
+     * @return  The bootstrap cache file name
+     */
+    public static String getBootstrapCacheFileName()
+    {
+        String fileName = Globals.REPOSITORY_STORAGE_DIRECTORY + Globals.BOOTSTRAP_CACHE_FILE_NAME;
+        return fileName;
+    }
+    
+    /**
+     * Returns the submission history file name.
+     * 
+     * @return  The submission history file name
+     */
+    public static String getSubmissionHistoryFileName()
+    {
+        String fileName = Globals.REPOSITORY_STORAGE_DIRECTORY + Globals.SUBMISSION_HISTORY_FILE_NAME;
+        return fileName;
+    }
 }
@@ -0,0 +1,245 @@
+/**
+ * Copyright (C) 2010-2013 Eugen Feller, INRIA <eugen.feller@inria.fr>
+ *
+ * This file is part of Snooze, a scalable, autonomic, and
+ * energy-aware virtual machine (VM) management framework.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package org.inria.myriads.snoozeclient.database.api.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.inria.myriads.snoozeclient.database.api.VirtualMachineRecord;
+import org.inria.myriads.snoozecommon.communication.virtualcluster.monitoring.NetworkDemand;
+import org.inria.myriads.snoozecommon.util.NetworkUtils;
+
+/**
+ * Binary repository tests.
+ * 
+ * @author Eugen Feller
+ */
+public class TestClientBinaryRepository extends TestCase 
+{
+    /** Repository directory. */
+    private File directory_;
+    
+    /**
+     * Creates an empty repository directory.
+     * 
+     * @throws Exception    The exception
+     */
+    @Override
+    protected void setUp() 
+        throws Exception
+    {
+        directory_ = File.createTempFile("snooze-repository", "");
+        assertTrue(directory_.delete());
+        assertTrue(directory_.mkdirs());
+    }
+    
+    /**
+     * Removes the repository directory.
+     */
+    @Override
+    protected void tearDown()
+    {
+        delete(directory_);
+    }
+    
+    /**
+     * Tests that records survive a new repository instance.
+     * 
+     * @throws Exception    The exception
+     */
+    public void testRecordRoundTrip() 
+        throws Exception
+    {
+        ClientBinaryRepository repository = new ClientBinaryRepository(directory_.getPath());
+        assertTrue(repository.defineVirtualCluster("cluster"));
+        VirtualMachineRecord record = new VirtualMachineRecord("vm1", "cluster");
+        record.setName("vm1");
+        record.setImageId("debian");
+        record.setVcpus(2);
+        record.setMemory(1024);
+        record.setNetworkCapacity(new NetworkDemand(10, 20));
+        record.setGroupManagerAddress(NetworkUtils.createNetworkAddress("10.0.0.1", 5000));
+        record.setLocalControllerId("lc1");
+        record.setVerificationTime(42);
+        assertTrue(repository.addVirtualMachineRecord(record));
+        assertFalse(repository.addVirtualMachineRecord(record));
+        
+        ClientBinaryRepository reloaded = new ClientBinaryRepository(directory_.getPath());
+        assertEquals(1, reloaded.getVirtualClusterNames().size());
+        List<VirtualMachineRecord> records = reloaded.getVirtualMachineRecords("cluster");
+        assertEquals(1, records.size());
+        VirtualMachineRecord read = records.get(0);
+        assertEquals("vm1", read.getVirtualMachineId());
+        assertEquals("cluster", read.getVirtualClusterName());
+        assertNull(read.getTemplate());
+        assertEquals("vm1", read.getName());
+        assertEquals("debian", read.getImageId());
+        assertEquals(2, read.getVcpus());
+        assertEquals(1024, read.getMemory());
+        assertNull(read.getHostId());
+        assertEquals(10, read.getNetworkCapacity().getRxBytes(), 0);
+        assertEquals(20, read.getNetworkCapacity().getTxBytes(), 0);
+        assertEquals("10.0.0.1", read.getGroupManagerAddress().getAddress());
+        assertEquals(5000, read.getGroupManagerAddress().getPort());
+        assertEquals("lc1", read.getLocalControllerId());
+        assertEquals(42, read.getVerificationTime());
+    }
+    
+    /**
+     * Tests that version 1 records are read and upgraded on the next write.
+     * 
+     * @throws Exception    The exception
+     */
+    public void testVersionOneRecordUpgrade() 
+        throws Exception
+    {
+        ClientBinaryRepository repository = new ClientBinaryRepository(directory_.getPath());
+        assertTrue(repository.defineVirtualCluster("cluster"));
+        assertTrue(repository.addVirtualMachineRecord(new VirtualMachineRecord("vm1", "cluster")));
+        writeVersionOneRecord(new File(new File(directory_, "vms"), "vm1.rec"));
+        
+        repository = new ClientBinaryRepository(directory_.getPath());
+        assertEquals(0, repository.getVirtualMachineVerificationTime("vm1"));
+        VirtualMachineRecord record = repository.getVirtualMachineRecords("cluster").get(0);
+        assertEquals("lc1", record.getLocalControllerId());
+        assertEquals("10.0.0.1", record.getGroupManagerAddress().getAddress());
+        
+        repository.setVirtualMachineVerificationTime("vm1", 42);
+        repository = new ClientBinaryRepository(directory_.getPath());
+        assertEquals(42, repository.getVirtualMachineVerificationTime("vm1"));
+        assertEquals("lc1", repository.getVirtualMachineRecords("cluster").get(0).getLocalControllerId());
+    }
+    
+    /**
+     * Tests that the returned cluster names do not expose the repository state.
+     * 
+     * @throws Exception    The exception
+     */
+    public void testVirtualClusterNamesCopy() 
+        throws Exception
+    {
+        ClientBinaryRepository repository = new ClientBinaryRepository(directory_.getPath());
+        assertTrue(repository.defineVirtualCluster("cluster"));
+        repository.getVirtualClusterNames().add("ghost");
+        assertEquals(1, repository.getVirtualClusterNames().size());
+        assertTrue(repository.defineVirtualCluster("ghost"));
+        assertTrue(repository.undefineVirtualCluster("cluster"));
+        assertEquals("ghost", new ClientBinaryRepository(directory_.getPath()).getVirtualClusterNames().get(0));
+    }
+    
+    /**
+     * Tests that a failed commit restores the files and the cached cluster names.
+     * 
+     * @throws Exception    The exception
+     */
+    public void testFailedCommitRollback() 
+        throws Exception
+    {
+        ClientBinaryRepository repository = new ClientBinaryRepository(directory_.getPath());
+        assertTrue(repository.defineVirtualCluster("cluster"));
+        
+        // A directory in place of the temporary file makes the record write fail
+        assertTrue(new File(new File(directory_, "vms"), "vm1.rec.tmp").mkdirs());
+        
+        repository.beginTransaction();
+        assertTrue(repository.defineVirtualCluster("other"));
+        assertTrue(repository.addVirtualMachineRecord(new VirtualMachineRecord("vm1", "cluster")));
+        try
+        {
+            repository.commitTransaction();
+            fail("Commit should fail");
+        }
+        catch (IOException exception)
+        {
+            // expected
+        }
+        
+        assertEquals(1, repository.getVirtualClusterNames().size());
+        assertTrue(repository.getVirtualMachineRecords("cluster").isEmpty());
+        ClientBinaryRepository reloaded = new ClientBinaryRepository(directory_.getPath());
+        assertEquals(1, reloaded.getVirtualClusterNames().size());
+        assertTrue(reloaded.getVirtualMachineRecords("cluster").isEmpty());
+        assertFalse(new File(new File(directory_, "clusters"), "other.rec").exists());
+    }
+    
+    /**
+     * Writes a version 1 record, without verification time.
+     * 
+     * @param file          The record file
+     * @throws IOException  The I/O exception
+     */
+    private void writeVersionOneRecord(File file) 
+        throws IOException
+    {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(buffer);
+        output.writeInt(1);
+        output.writeUTF("vm1");
+        output.writeUTF("cluster");
+        output.writeBoolean(false);
+        output.writeBoolean(false);
+        output.writeBoolean(false);
+        output.writeInt(0);
+        output.writeLong(0);
+        output.writeBoolean(false);
+        output.writeDouble(0);
+        output.writeDouble(0);
+        output.writeBoolean(true);
+        output.writeUTF("10.0.0.1");
+        output.writeInt(5000);
+        output.writeBoolean(true);
+        output.writeUTF("lc1");
+        output.flush();
+        
+        FileOutputStream stream = new FileOutputStream(file);
+        try
+        {
+            stream.write(buffer.toByteArray());
+        }
+        finally
+        {
+            stream.close();
+        }
+    }
+    
+    /**
+     * Deletes a file or a directory tree.
+     * 
+     * @param file  The file
+     */
+    private static void delete(File file)
+    {
+        File[] children = file.listFiles();
+        if (children != null)
+        {
+            for (File child : children)
+            {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
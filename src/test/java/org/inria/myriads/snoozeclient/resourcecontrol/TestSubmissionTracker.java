@@ -0,0 +1,136 @@
+/**
+ * Copyright (C) 2010-2013 Eugen Feller, INRIA <eugen.feller@inria.fr>
+ *
+ * This file is part of Snooze, a scalable, autonomic, and
+ * energy-aware virtual machine (VM) management framework.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package org.inria.myriads.snoozeclient.resourcecontrol;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import org.inria.myriads.snoozeclient.configurator.general.GeneralSettings;
+import org.inria.myriads.snoozecommon.communication.rest.api.GroupManagerAPI;
+import org.inria.myriads.snoozecommon.communication.virtualcluster.submission.VirtualClusterSubmissionRequest;
+import org.inria.myriads.snoozecommon.communication.virtualcluster.submission.VirtualClusterSubmissionResponse;
+import org.inria.myriads.snoozecommon.communication.virtualcluster.submission.VirtualMachineTemplate;
+
+/**
+ * Submission tracker tests.
+ * 
+ * @author Eugen Feller
+ */
+public class TestSubmissionTracker extends TestCase 
+{
+    /**
+     * Tests that a failed submission and failed polls do not abandon the other tasks.
+     * 
+     * The group leader rejects "rejected" with an exception, fails the first poll of "flaky" 
+     * and every poll of "unreachable".
+     * 
+     * @throws Exception    The exception
+     */
+    public void testFailuresArePerTask() 
+        throws Exception
+    {
+        final Map<VirtualClusterSubmissionRequest, String> taskIdentifiers = 
+            new IdentityHashMap<VirtualClusterSubmissionRequest, String>();
+        final Map<String, Integer> numberOfPolls = new HashMap<String, Integer>();
+        InvocationHandler groupLeader = new InvocationHandler()
+        {
+            public Object invoke(Object proxy, Method method, Object[] arguments)
+            {
+                if (method.getName().equals("startVirtualCluster"))
+                {
+                    String taskIdentifier = taskIdentifiers.get(arguments[0]);
+                    if (taskIdentifier.equals("rejected"))
+                    {
+                        throw new IllegalStateException("Connection refused");
+                    }
+                    
+                    return taskIdentifier;
+                }
+                
+                if (method.getName().equals("getVirtualClusterResponse"))
+                {
+                    String taskIdentifier = (String) arguments[0];
+                    Integer polls = numberOfPolls.get(taskIdentifier);
+                    numberOfPolls.put(taskIdentifier, polls == null ? 1 : polls + 1);
+                    if (taskIdentifier.equals("unreachable") || polls == null)
+                    {
+                        throw new IllegalStateException("Connection reset");
+                    }
+                    
+                    return new VirtualClusterSubmissionResponse();
+                }
+                
+                throw new UnsupportedOperationException(method.getName());
+            }
+        };
+        
+        GeneralSettings generalSettings = new GeneralSettings();
+        generalSettings.setSubmissionInitialPollingInterval(10);
+        generalSettings.setSubmissionPollingInterval(1);
+        generalSettings.setSubmissionTimeout(1);
+        SubmissionTracker tracker = new SubmissionTracker(
+            (GroupManagerAPI) Proxy.newProxyInstance(GroupManagerAPI.class.getClassLoader(), 
+                                                     new Class<?>[] {GroupManagerAPI.class}, 
+                                                     groupLeader),
+            generalSettings);
+        
+        for (String virtualClusterName : new String[] {"flaky", "rejected", "unreachable"})
+        {
+            VirtualClusterSubmissionRequest request = new VirtualClusterSubmissionRequest();
+            request.setVirtualMachineTemplates(new ArrayList<VirtualMachineTemplate>());
+            taskIdentifiers.put(request, virtualClusterName);
+            SubmissionTask task = tracker.submit(virtualClusterName, request);
+            assertEquals(virtualClusterName.equals("rejected"), task == null);
+        }
+        
+        assertEquals(2, tracker.getNumberOfPendingTasks());
+        
+        final List<String> responses = new ArrayList<String>();
+        final List<String> timeouts = new ArrayList<String>();
+        tracker.track(new SubmissionListener()
+        {
+            public void onSubmissionResponse(SubmissionTask task, VirtualClusterSubmissionResponse response)
+            {
+                responses.add(task.getVirtualClusterName());
+            }
+            
+            public void onSubmissionTimeout(SubmissionTask task)
+            {
+                timeouts.add(task.getVirtualClusterName());
+            }
+        });
+        
+        assertEquals(1, responses.size());
+        assertEquals("flaky", responses.get(0));
+        assertEquals(1, timeouts.size());
+        assertEquals("unreachable", timeouts.get(0));
+        assertEquals(2, numberOfPolls.get("flaky").intValue());
+        assertTrue(numberOfPolls.get("unreachable") > 1);
+        assertEquals(0, tracker.getNumberOfPendingTasks());
+    }
+}
@@ -0,0 +1,122 @@
+/**
+ * Copyright (C) 2010-2013 Eugen Feller, INRIA <eugen.feller@inria.fr>
+ *
+ * This file is part of Snooze, a scalable, autonomic, and
+ * energy-aware virtual machine (VM) management framework.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package org.inria.myriads.snoozeclient.shell;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.StringReader;
+import java.util.ArrayList;
+
+import junit.framework.TestCase;
+
+import org.inria.myriads.snoozeclient.configurator.api.ClientConfiguration;
+import org.inria.myriads.snoozeclient.configurator.general.GeneralSettings;
+import org.inria.myriads.snoozeclient.configurator.statistics.StatisticsSettings;
+import org.inria.myriads.snoozeclient.database.api.VirtualMachineRecord;
+import org.inria.myriads.snoozeclient.database.api.impl.ClientBinaryRepository;
+import org.inria.myriads.snoozecommon.communication.NetworkAddress;
+
+/**
+ * Batch executor tests.
+ * 
+ * @author Eugen Feller
+ */
+public class TestBatchExecutor extends TestCase 
+{
+    /** Repository directory. */
+    private File directory_;
+    
+    /** Client configuration without bootstrap nodes. */
+    private ClientConfiguration clientConfiguration_;
+    
+    /**
+     * Creates an empty repository directory and the configuration.
+     * 
+     * @throws Exception    The exception
+     */
+    @Override
+    protected void setUp() 
+        throws Exception
+    {
+        directory_ = File.createTempFile("snooze-repository", "");
+        assertTrue(directory_.delete());
+        assertTrue(directory_.mkdirs());
+        
+        GeneralSettings generalSettings = new GeneralSettings();
+        generalSettings.setBootstrapNodes(new ArrayList<NetworkAddress>());
+        generalSettings.setNumberOfCommandThreads(1);
+        clientConfiguration_ = new ClientConfiguration();
+        clientConfiguration_.setGeneralSettings(generalSettings);
+        clientConfiguration_.setStatisticsSettings(new StatisticsSettings());
+    }
+    
+    /**
+     * Removes the repository directory.
+     */
+    @Override
+    protected void tearDown()
+    {
+        File[] files = directory_.listFiles();
+        if (files != null)
+        {
+            for (File file : files)
+            {
+                file.delete();
+            }
+        }
+        
+        directory_.delete();
+    }
+    
+    /**
+     * Tests that cluster and virtual machine commands failing for their virtual machines are counted.
+     * 
+     * @throws Exception    The exception
+     */
+    public void testFailedVirtualMachineCommands() 
+        throws Exception
+    {
+        ClientBinaryRepository repository = new ClientBinaryRepository(directory_.getPath());
+        assertTrue(repository.defineVirtualCluster("c1"));
+        assertTrue(repository.addVirtualMachineRecord(new VirtualMachineRecord("vm1", "c1")));
+        
+        String batch = "# vm1 was never started and no group leader is reachable\n" +
+                       "suspend -vcn c1\n" +
+                       "suspend -vcn c1 -vmn ghost\n" +
+                       "list\n";
+        BatchExecutor executor = new BatchExecutor(clientConfiguration_, repository, 2);
+        assertEquals(2, executor.run(new BufferedReader(new StringReader(batch))));
+    }
+    
+    /**
+     * Tests that a batch of successful commands has no failures.
+     * 
+     * @throws Exception    The exception
+     */
+    public void testSuccessfulCommands() 
+        throws Exception
+    {
+        ClientBinaryRepository repository = new ClientBinaryRepository(directory_.getPath());
+        String batch = "define -vcn c2\nlist\n";
+        BatchExecutor executor = new BatchExecutor(clientConfiguration_, repository, 2);
+        assertEquals(0, executor.run(new BufferedReader(new StringReader(batch))));
+        assertTrue(repository.getVirtualClusterNames().contains("c2"));
+    }
+}
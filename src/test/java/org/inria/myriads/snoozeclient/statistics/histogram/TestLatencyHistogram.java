@@ -0,0 +1,159 @@
+/**
+ * Copyright (C) 2010-2013 Eugen Feller, INRIA <eugen.feller@inria.fr>
+ *
+ * This file is part of Snooze, a scalable, autonomic, and
+ * energy-aware virtual machine (VM) management framework.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package org.inria.myriads.snoozeclient.statistics.histogram;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+
+import junit.framework.TestCase;
+
+/**
+ * Latency histogram tests.
+ * 
+ * @author Eugen Feller
+ */
+public class TestLatencyHistogram extends TestCase 
+{
+    /**
+     * Tests that values below 128 ms are exact.
+     */
+    public void testExactValues() 
+    {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 100; value++)
+        {
+            histogram.record(value);
+        }
+        
+        assertEquals(100, histogram.getTotalCount());
+        assertEquals(1, histogram.getMinimum());
+        assertEquals(100, histogram.getMaximum());
+        assertEquals(50.5, histogram.getMean(), 1e-9);
+        assertEquals(1, histogram.getValueAtPercentile(0));
+        assertEquals(1, histogram.getValueAtPercentile(1));
+        assertEquals(50, histogram.getValueAtPercentile(50));
+        assertEquals(99, histogram.getValueAtPercentile(99));
+        assertEquals(100, histogram.getValueAtPercentile(100));
+    }
+    
+    /**
+     * Tests that bucketed values keep a relative error below 1/64 across magnitudes.
+     */
+    public void testBucketPrecision() 
+    {
+        long[] values = {127, 128, 129, 255, 256, 1000, 4095, 4096, 65537, 123456789L, 1L << 39};
+        for (long value : values)
+        {
+            LatencyHistogram histogram = new LatencyHistogram();
+            histogram.record(value);
+            histogram.record(1L << 40);
+            
+            long reported = histogram.getValueAtPercentile(50);
+            assertTrue(String.format("%d reported as %d", value, reported), reported >= value);
+            assertTrue(String.format("%d reported as %d", value, reported), reported - value <= value / 64);
+        }
+    }
+    
+    /**
+     * Tests that neighbouring values end up in ordered buckets.
+     */
+    public void testBucketOrdering() 
+    {
+        long previous = 0;
+        for (long value = 0; value < 1 << 20; value += 1 + value / 100)
+        {
+            LatencyHistogram histogram = new LatencyHistogram();
+            histogram.record(value);
+            histogram.record(1L << 40);
+            long reported = histogram.getValueAtPercentile(50);
+            assertTrue(String.format("%d reported as %d after %d", value, reported, previous), reported >= previous);
+            previous = reported;
+        }
+    }
+    
+    /**
+     * Tests that out of range values are clamped.
+     */
+    public void testClamping() 
+    {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(0, histogram.getMinimum());
+        assertEquals((1L << 40) - 1, histogram.getMaximum());
+        assertEquals(0, histogram.getValueAtPercentile(50));
+        assertEquals((1L << 40) - 1, histogram.getValueAtPercentile(100));
+    }
+    
+    /**
+     * Tests merging and the sparse serialization.
+     * 
+     * @throws Exception    The exception
+     */
+    public void testMergeAndRoundTrip() 
+        throws Exception
+    {
+        LatencyHistogram first = new LatencyHistogram();
+        LatencyHistogram second = new LatencyHistogram();
+        for (long value = 0; value < 1000; value++)
+        {
+            (value % 2 == 0 ? first : second).record(value * 10);
+        }
+        first.add(second);
+        first.add(new LatencyHistogram());
+        
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        first.write(new DataOutputStream(buffer));
+        LatencyHistogram read = 
+            LatencyHistogram.read(new DataInputStream(new ByteArrayInputStream(buffer.toByteArray())));
+        
+        assertEquals(1000, read.getTotalCount());
+        assertEquals(0, read.getMinimum());
+        assertEquals(9990, read.getMaximum());
+        assertEquals(4995, read.getMean(), 1e-9);
+        for (double percentile = 0; percentile <= 100; percentile += 12.5)
+        {
+            assertEquals(first.getValueAtPercentile(percentile), read.getValueAtPercentile(percentile));
+        }
+        
+        long median = read.getValueAtPercentile(50);
+        assertTrue(median >= 4990 && median <= 4990 + 4990 / 64);
+    }
+    
+    /**
+     * Tests an empty histogram.
+     * 
+     * @throws Exception    The exception
+     */
+    public void testEmpty() 
+        throws Exception
+    {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        new LatencyHistogram().write(new DataOutputStream(buffer));
+        LatencyHistogram read = 
+            LatencyHistogram.read(new DataInputStream(new ByteArrayInputStream(buffer.toByteArray())));
+        assertEquals(0, read.getTotalCount());
+        assertEquals(0, read.getMinimum());
+        assertEquals(0, read.getValueAtPercentile(99));
+        assertEquals(0, read.getMean(), 0);
+    }
+}
@@ -0,0 +1,194 @@
+/**
+ * Copyright (C) 2010-2013 Eugen Feller, INRIA <eugen.feller@inria.fr>
+ *
+ * This file is part of Snooze, a scalable, autonomic, and
+ * energy-aware virtual machine (VM) management framework.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package org.inria.myriads.snoozeclient.statistics.history;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.RandomAccessFile;
+
+import junit.framework.TestCase;
+
+/**
+ * Submission history tests.
+ * 
+ * @author Eugen Feller
+ */
+public class TestSubmissionHistory extends TestCase 
+{
+    /** Slot length (ms). */
+    private static final long INTERVAL = 1000;
+    
+    /** History file. */
+    private File file_;
+    
+    /**
+     * Creates an empty history file name.
+     * 
+     * @throws Exception    The exception
+     */
+    @Override
+    protected void setUp() 
+        throws Exception
+    {
+        file_ = File.createTempFile("snooze-submission", ".history");
+        assertTrue(file_.delete());
+    }
+    
+    /**
+     * Removes the history file.
+     */
+    @Override
+    protected void tearDown()
+    {
+        file_.delete();
+    }
+    
+    /**
+     * Tests that slots of several runs are merged by queries.
+     * 
+     * @throws Exception    The exception
+     */
+    public void testRoundTrip() 
+        throws Exception
+    {
+        assertEquals(0, new SubmissionHistory(file_.getPath(), INTERVAL).query(0, Long.MAX_VALUE).getNumberOfSlots());
+        
+        SubmissionHistory history = new SubmissionHistory(file_.getPath(), INTERVAL);
+        history.recordSubmission(1000, 50, 4, 1);
+        history.recordSubmission(1500, 120, 2, 0);
+        history.recordFailure(2100, 3);
+        history.flush();
+        
+        SubmissionHistory otherRun = new SubmissionHistory(file_.getPath(), INTERVAL);
+        otherRun.recordSubmission(1999, 90, 1, 0);
+        otherRun.flush();
+        
+        SubmissionStatistics statistics = otherRun.query(0, Long.MAX_VALUE);
+        HistorySlot total = statistics.getTotal();
+        assertEquals(3, statistics.getNumberOfSlots());
+        assertEquals(1000, statistics.getFirstSlotStart());
+        assertEquals(3000, statistics.getLastSlotEnd());
+        assertEquals(4, total.getNumberOfSubmissions());
+        assertEquals(1, total.getNumberOfFailedSubmissions());
+        assertEquals(10, total.getNumberOfVirtualMachines());
+        assertEquals(4, total.getNumberOfFailedVirtualMachines());
+        assertEquals(3, total.getLatencies().getTotalCount());
+        assertEquals(90, total.getLatencies().getValueAtPercentile(50));
+        
+        HistorySlot firstSlot = history.query(1000, 2000).getTotal();
+        assertEquals(3, firstSlot.getNumberOfSubmissions());
+        assertEquals(0, firstSlot.getNumberOfFailedSubmissions());
+        assertEquals(120, firstSlot.getLatencies().getMaximum());
+    }
+    
+    /**
+     * Tests that records appended after an interrupted write are still read.
+     * 
+     * @throws Exception    The exception
+     */
+    public void testDamagedRecordResync() 
+        throws Exception
+    {
+        SubmissionHistory history = new SubmissionHistory(file_.getPath(), INTERVAL);
+        history.recordSubmission(1000, 100, 1, 0);
+        history.flush();
+        long validLength = file_.length();
+        
+        history.recordSubmission(2000, 200, 1, 0);
+        history.flush();
+        truncate(validLength + (file_.length() - validLength) / 2);
+        
+        history.recordSubmission(3000, 300, 1, 0);
+        history.flush();
+        append(new byte[] {1, 2, 3, 4, 5});
+        history.recordSubmission(4000, 400, 1, 0);
+        history.flush();
+        append(new byte[] {0x53, 0x4E});
+        
+        SubmissionStatistics statistics = history.query(0, Long.MAX_VALUE);
+        assertEquals(3, statistics.getNumberOfSlots());
+        assertEquals(3, statistics.getTotal().getNumberOfSubmissions());
+        assertEquals(400, statistics.getTotal().getLatencies().getMaximum());
+        assertEquals(0, history.query(2000, 3000).getNumberOfSlots());
+        
+        assertEquals(3, history.compact(Long.MAX_VALUE / 2));
+        assertEquals(3, history.query(0, Long.MAX_VALUE).getNumberOfSlots());
+    }
+    
+    /**
+     * Tests that compaction drops the slots older than the retention.
+     * 
+     * @throws Exception    The exception
+     */
+    public void testCompaction() 
+        throws Exception
+    {
+        long now = System.currentTimeMillis();
+        SubmissionHistory history = new SubmissionHistory(file_.getPath(), INTERVAL);
+        history.recordSubmission(now - 10 * INTERVAL, 100, 1, 0);
+        history.recordSubmission(now, 200, 1, 0);
+        history.flush();
+        
+        assertEquals(1, history.compact(5 * INTERVAL));
+        SubmissionStatistics statistics = history.query(0, Long.MAX_VALUE);
+        assertEquals(1, statistics.getNumberOfSlots());
+        assertEquals(200, statistics.getTotal().getLatencies().getMaximum());
+    }
+    
+    /**
+     * Truncates the history file.
+     * 
+     * @param length        The new length
+     * @throws Exception    The exception
+     */
+    private void truncate(long length) 
+        throws Exception
+    {
+        RandomAccessFile file = new RandomAccessFile(file_, "rw");
+        try
+        {
+            file.setLength(length);
+        }
+        finally
+        {
+            file.close();
+        }
+    }
+    
+    /**
+     * Appends raw bytes to the history file.
+     * 
+     * @param bytes         The bytes
+     * @throws Exception    The exception
+     */
+    private void append(byte[] bytes) 
+        throws Exception
+    {
+        FileOutputStream output = new FileOutputStream(file_, true);
+        try
+        {
+            output.write(bytes);
+        }
+        finally
+        {
+            output.close();
+        }
+    }
+}
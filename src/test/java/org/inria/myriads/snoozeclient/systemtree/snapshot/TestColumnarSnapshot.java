@@ -0,0 +1,237 @@
+/**
+ * Copyright (C) 2010-2013 Eugen Feller, INRIA <eugen.feller@inria.fr>
+ *
+ * This file is part of Snooze, a scalable, autonomic, and
+ * energy-aware virtual machine (VM) management framework.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License
+ * as published by the Free Software Foundation, either version 2
+ * of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, see <http://www.gnu.org/licenses>.
+ */
+package org.inria.myriads.snoozeclient.systemtree.snapshot;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.zip.GZIPOutputStream;
+
+import junit.framework.TestCase;
+
+import org.inria.myriads.snoozeclient.systemtree.enums.NodeType;
+import org.inria.myriads.snoozecommon.communication.groupmanager.GroupManagerDescription;
+import org.inria.myriads.snoozecommon.communication.groupmanager.repository.GroupLeaderRepositoryInformation;
+import org.inria.myriads.snoozecommon.communication.localcontroller.LocalControllerDescription;
+import org.inria.myriads.snoozecommon.communication.localcontroller.LocalControllerStatus;
+import org.inria.myriads.snoozecommon.communication.virtualcluster.VirtualMachineMetaData;
+import org.inria.myriads.snoozecommon.communication.virtualcluster.status.VirtualMachineStatus;
+
+/**
+ * Columnar snapshot tests.
+ * 
+ * @author Eugen Feller
+ */
+public class TestColumnarSnapshot extends TestCase 
+{
+    /**
+     * Tests that a written snapshot is read back unchanged.
+     * 
+     * @throws Exception    The exception
+     */
+    public void testRoundTrip() 
+        throws Exception
+    {
+        ColumnarSnapshot snapshot = ColumnarSnapshot.fromHierarchy(createHierarchy(2, 2, 3));
+        ColumnarSnapshot copy = ColumnarSnapshot.read(new ByteArrayInputStream(toBytes(snapshot)));
+        
+        assertEquals(snapshot.getTimestamp(), copy.getTimestamp());
+        assertEquals(1 + 2 + 4 + 12, copy.getNumberOfNodes());
+        assertEquals(1, copy.count(NodeType.GL));
+        assertEquals(2, copy.count(NodeType.GM));
+        assertEquals(2, copy.count(NodeType.LC));
+        assertEquals(2, copy.count(NodeType.LC_PASSIVE));
+        assertEquals(12, copy.count(NodeType.VM));
+        for (int i = 0; i < snapshot.getNumberOfNodes(); i++)
+        {
+            assertEquals(snapshot.getNodeType(i), copy.getNodeType(i));
+            assertEquals(snapshot.getId(i), copy.getId(i));
+            assertEquals(snapshot.getHostname(i), copy.getHostname(i));
+            assertEquals(snapshot.getParentIndex(i), copy.getParentIndex(i));
+            assertEquals(snapshot.getStatus(i), copy.getStatus(i));
+            assertTrue(Arrays.equals(snapshot.getCapacity(i), copy.getCapacity(i)));
+        }
+        
+        assertEquals(ColumnarSnapshot.NO_PARENT, copy.getParentIndex(0));
+        assertEquals(NodeType.VM, copy.getNodeType(copy.getNumberOfNodes() - 1));
+    }
+    
+    /**
+     * Tests that a hierarchy of about 21000 nodes stays well below 100 KB.
+     * 
+     * @throws Exception    The exception
+     */
+    public void testSize() 
+        throws Exception
+    {
+        ColumnarSnapshot snapshot = ColumnarSnapshot.fromHierarchy(createHierarchy(20, 50, 20));
+        assertEquals(21021, snapshot.getNumberOfNodes());
+        
+        byte[] bytes = toBytes(snapshot);
+        assertTrue(String.format("Snapshot size: %d bytes", bytes.length), bytes.length < 100 * 1024);
+        assertEquals(21021, ColumnarSnapshot.read(new ByteArrayInputStream(bytes)).getNumberOfNodes());
+    }
+    
+    /**
+     * Tests that negative and oversized node counts are rejected.
+     * 
+     * @throws Exception    The exception
+     */
+    public void testInvalidNumberOfNodes() 
+        throws Exception
+    {
+        assertRejected(-1);
+        assertRejected(0);
+        assertRejected(Integer.MAX_VALUE);
+    }
+    
+    /**
+     * Tests that unknown node type codes are rejected.
+     * 
+     * @throws Exception    The exception
+     */
+    public void testUnknownNodeType() 
+        throws Exception
+    {
+        byte[] bytes = createHeader(1, 0);
+        try
+        {
+            ColumnarSnapshot.read(new ByteArrayInputStream(bytes));
+            fail("Unknown node type accepted");
+        }
+        catch (IOException exception)
+        {
+            assertTrue(exception.getMessage().contains("node type"));
+        }
+    }
+    
+    /**
+     * Asserts that a snapshot with the given number of nodes is rejected.
+     * 
+     * @param numberOfNodes  The number of nodes
+     * @throws Exception     The exception
+     */
+    private static void assertRejected(int numberOfNodes) 
+        throws Exception
+    {
+        try
+        {
+            ColumnarSnapshot.read(new ByteArrayInputStream(createHeader(numberOfNodes, 1)));
+            fail(String.format("Number of nodes accepted: %d", numberOfNodes));
+        }
+        catch (IOException exception)
+        {
+            assertTrue(exception.getMessage().contains("number of nodes"));
+        }
+    }
+    
+    /**
+     * Creates a compressed snapshot header followed by one node type code.
+     * 
+     * @param numberOfNodes  The number of nodes
+     * @param nodeTypeCode   The node type code
+     * @return               The bytes
+     * @throws IOException   The exception
+     */
+    private static byte[] createHeader(int numberOfNodes, int nodeTypeCode) 
+        throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        GZIPOutputStream compressedOutput = new GZIPOutputStream(bytes);
+        DataOutputStream output = new DataOutputStream(compressedOutput);
+        output.writeInt(0x534E5A48);
+        output.writeShort(2);
+        output.writeLong(0);
+        output.writeInt(numberOfNodes);
+        output.writeByte(nodeTypeCode);
+        output.flush();
+        compressedOutput.finish();
+        return bytes.toByteArray();
+    }
+    
+    /**
+     * Writes a snapshot.
+     * 
+     * @param snapshot      The snapshot
+     * @return              The bytes
+     * @throws IOException  The exception
+     */
+    private static byte[] toBytes(ColumnarSnapshot snapshot) 
+        throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        snapshot.write(bytes);
+        return bytes.toByteArray();
+    }
+    
+    /**
+     * Creates a hierarchy, every other local controller is passive.
+     * 
+     * @param numberOfGroupManagers     The number of group managers
+     * @param numberOfLocalControllers  The number of local controllers per group manager
+     * @param numberOfVirtualMachines   The number of virtual machines per local controller
+     * @return                          The hierarchy
+     */
+    private static GroupLeaderRepositoryInformation createHierarchy(int numberOfGroupManagers, 
+                                                                    int numberOfLocalControllers,
+                                                                    int numberOfVirtualMachines)
+    {
+        ArrayList<GroupManagerDescription> groupManagers = new ArrayList<GroupManagerDescription>();
+        for (int i = 0; i < numberOfGroupManagers; i++)
+        {
+            HashMap<String, LocalControllerDescription> localControllers = 
+                new HashMap<String, LocalControllerDescription>();
+            for (int j = 0; j < numberOfLocalControllers; j++)
+            {
+                HashMap<String, VirtualMachineMetaData> virtualMachines = 
+                    new HashMap<String, VirtualMachineMetaData>();
+                for (int k = 0; k < numberOfVirtualMachines; k++)
+                {
+                    VirtualMachineMetaData metaData = new VirtualMachineMetaData();
+                    metaData.setStatus(VirtualMachineStatus.RUNNING);
+                    metaData.setRequestedCapacity(new ArrayList<Double>(Arrays.asList(1.0, 1024.0, 1.0, 1.0)));
+                    virtualMachines.put(String.format("vm-%d-%d-%d", i, j, k), metaData);
+                }
+                
+                LocalControllerDescription localController = new LocalControllerDescription();
+                localController.setId(String.format("lc-%d-%d", i, j));
+                localController.setHostname(String.format("node-%d-%d", i, j));
+                localController.setStatus(j % 2 == 0 ? LocalControllerStatus.ACTIVE : LocalControllerStatus.PASSIVE);
+                localController.setTotalCapacity(new ArrayList<Double>(Arrays.asList(8.0, 16384.0, 1000.0, 1000.0)));
+                localController.setVirtualMachineMetaData(virtualMachines);
+                localControllers.put(localController.getId(), localController);
+            }
+            
+            GroupManagerDescription groupManager = new GroupManagerDescription();
+            groupManager.setId(String.format("gm-%d", i));
+            groupManager.setHostname(String.format("gm-node-%d", i));
+            groupManager.setLocalControllers(localControllers);
+            groupManagers.add(groupManager);
+        }
+        
+        GroupLeaderRepositoryInformation hierarchy = new GroupLeaderRepositoryInformation();
+        hierarchy.setGroupManagerDescriptions(groupManagers);
+        return hierarchy;
+    }
+}